@@ -28,15 +28,14 @@ import de.tudarmstadt.maki.simonstrator.api.component.GlobalComponent;
 
 /**
  * Components have to register at the binder to be accessible from the other
- * side of the API.
+ * side of the API. Components are registered within the
+ * {@link SimulationContext} of the calling thread.
  * 
  * @author Bjoern Richerzhagen
  * 
  */
 public class Binder {
 
-	private static final List<GlobalComponent> components = new LinkedList<GlobalComponent>();
-
 	/**
 	 * Returns the given component (only global components!)
 	 * 
@@ -45,12 +44,11 @@ public class Binder {
 	 */
 	public static <T extends GlobalComponent> T getComponent(
 			Class<T> componentClass) throws ComponentNotAvailableException {
-		for (GlobalComponent component : components) {
-			if (componentClass.isInstance(component)) {
-				return componentClass.cast(component);
-			}
+		T component = getComponentOrNull(componentClass);
+		if (component == null) {
+			throw new ComponentNotAvailableException();
 		}
-		throw new ComponentNotAvailableException();
+		return component;
 	}
 
 	/**
@@ -62,12 +60,7 @@ public class Binder {
 	 */
 	public static <T extends GlobalComponent> T getComponentOrNull(
 			Class<T> componentClass) {
-		for (GlobalComponent component : components) {
-			if (componentClass.isInstance(component)) {
-				return componentClass.cast(component);
-			}
-		}
-		return null;
+		return SimulationContext.current().components.get(componentClass);
 	}
 
 	/**
@@ -78,16 +71,12 @@ public class Binder {
 	 */
 	public static <T extends GlobalComponent> List<T> getComponents(
 			Class<T> componentClass) throws ComponentNotAvailableException {
-		List<T> match = new LinkedList<T>();
-		for (GlobalComponent component : components) {
-			if (componentClass.isInstance(component)) {
-				match.add(componentClass.cast(component));
-			}
-		}
+		List<T> match = SimulationContext.current().components
+				.getAll(componentClass);
 		if (match.isEmpty()) {
 			throw new ComponentNotAvailableException();
 		} else {
-			return match;
+			return new LinkedList<T>(match);
 		}
 	}
 
@@ -98,9 +87,7 @@ public class Binder {
 	 * @param component
 	 */
 	public static <T extends GlobalComponent> void registerComponent(T component) {
-		if (!components.contains(component)) {
-			components.add(component);
-		}
+		SimulationContext.current().components.register(component);
 	}
 
 }
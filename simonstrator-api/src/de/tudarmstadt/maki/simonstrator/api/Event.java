@@ -33,16 +33,16 @@ import de.tudarmstadt.maki.simonstrator.api.component.core.SchedulerComponent;
  */
 public final class Event {
 
-	private static SchedulerComponent scheduler = null;
-
 	private static SchedulerComponent getScheduler() {
-		if (scheduler == null) {
+		SimulationContext context = SimulationContext.current();
+		if (context.scheduler == null) {
 			try {
-				scheduler = Binder.getComponent(SchedulerComponent.class);
+				context.scheduler = Binder
+						.getComponent(SchedulerComponent.class);
 			} catch (ComponentNotAvailableException e) {
 				System.err
 						.println("Simonstrator-API WARNING: Events were scheduled, although the current platform is not providing a SchedulerComponent!");
-				scheduler = new SchedulerComponent() {
+				context.scheduler = new SchedulerComponent() {
 					@Override
 					public void scheduleIn(long time, EventHandler handler,
 							Object content, int type) {
@@ -51,7 +51,7 @@ public final class Event {
 				};
 			}
 		}
-		return scheduler;
+		return context.scheduler;
 	}
 
 	/**
@@ -79,4 +79,20 @@ public final class Event {
 		getScheduler().scheduleIn(delay, handler, content, type);
 	}
 
+	/**
+	 * Allocation-free variant for timers that only carry primitive data.
+	 * 
+	 * @param delay
+	 *            a delay computed using the Time.-units.
+	 * @param handler
+	 * @param type
+	 *            a int-type field for easier filtering of events.
+	 * @param payload
+	 *            passed to the handler as-is
+	 */
+	public static void scheduleWithDelay(long delay,
+			PrimitiveEventHandler handler, int type, long payload) {
+		getScheduler().scheduleIn(delay, handler, type, payload);
+	}
+
 }
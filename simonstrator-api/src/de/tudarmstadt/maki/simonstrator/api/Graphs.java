@@ -21,6 +21,7 @@
 package de.tudarmstadt.maki.simonstrator.api;
 
 import de.tudarmstadt.maki.simonstrator.api.common.graph.BasicGraph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.CompactGraphComponent;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.DirectedEdge;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.EdgeID;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.GenericGraphElementProperties;
@@ -29,35 +30,33 @@ import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.Node;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.UnmodifiableGraph;
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.core.GraphComponent;
 
 /**
  * The convenient access method to all the Graph-Component interfaces. The
  * respective graph component could/should be implemented by the runtime or a
- * "graph-utils"-project.
+ * "graph-utils"-project. For large topologies, the {@link CompactGraphComponent}
+ * provides a more memory-efficient graph realization.
  * 
  * @author Bjoern Richerzhagen
  *
  */
 public final class Graphs {
 
-	/**
-	 * 
-	 */
-	public static GraphComponent bindedGraph = null;
-
 	private static GraphComponent getGraphComponent() {
-		if (bindedGraph == null) {
+		SimulationContext context = SimulationContext.current();
+		if (context.graph == null) {
 			try {
-				bindedGraph = Binder.getComponent(GraphComponent.class);
+				context.graph = Binder.getComponent(GraphComponent.class);
 			} catch (ComponentNotAvailableException e) {
 				System.err
 						.println("Simonstrator-API INFO: The default implementation of the GraphComponent is used.");
-				bindedGraph = new DefaultGraphComponent();
+				context.graph = new DefaultGraphComponent();
 			}
 		}
-		return bindedGraph;
+		return context.graph;
 	}
 
 	/**
@@ -94,6 +93,20 @@ public final class Graphs {
 		return graph;
 	}
 
+	/**
+	 * Returns a read-only view on the given graph, see
+	 * {@link UnmodifiableGraph}.
+	 * 
+	 * @param graph
+	 * @return
+	 */
+	public static Graph unmodifiableGraph(Graph graph) {
+		if (graph instanceof UnmodifiableGraph) {
+			return graph;
+		}
+		return new UnmodifiableGraph(graph);
+	}
+
 	public static IEdge createDirectedWeightedEdge(final INodeID source,
 			final INodeID target, final Double weight) {
 		DirectedEdge edge = new DirectedEdge(source, target);
@@ -51,6 +51,23 @@ public interface Host {
 	public <T extends HostComponent> T getComponent(Class<T> componentClass)
 			throws ComponentNotAvailableException;
 
+	/**
+	 * Same as {@link #getComponent(Class)}, but returns null instead of
+	 * throwing an exception if the component is not available. Use this for
+	 * frequent queries where a missing component is expected.
+	 * 
+	 * @param componentClass
+	 * @return the component or null
+	 */
+	public default <T extends HostComponent> T getComponentOrNull(
+			Class<T> componentClass) {
+		try {
+			return getComponent(componentClass);
+		} catch (ComponentNotAvailableException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Register a host component (i.e., a component that is instantiated per
 	 * host)
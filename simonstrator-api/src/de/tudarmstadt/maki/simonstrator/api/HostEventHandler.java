@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api;
+
+import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
+
+/**
+ * An {@link EventHandler} that acts on behalf of a single {@link Host}, without
+ * being a {@link HostComponent} itself (e.g., the internal handler of an
+ * operation). Platforms that partition the simulation by host use this to
+ * assign the event to the correct partition.
+ */
+public interface HostEventHandler extends EventHandler {
+
+	/**
+	 * The host this handler belongs to, or null if unknown.
+	 * 
+	 * @return
+	 */
+	public Host getHost();
+
+}
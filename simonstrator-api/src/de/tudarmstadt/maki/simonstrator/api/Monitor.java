@@ -21,12 +21,14 @@
 package de.tudarmstadt.maki.simonstrator.api;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent;
@@ -46,20 +48,21 @@ public final class Monitor {
 		INFO, WARN, ERROR, DEBUG
 	}
 
-	private static MonitorComponent monitor = null;
-
-	private static Map<Class<?>, Analyzer> cachedProxies = new LinkedHashMap<>();
-
-	private static Map<Class<?>, Boolean> cachedCheck = new LinkedHashMap<>();
+	/**
+	 * Multiplexers are stateless and shared by all simulations running within
+	 * this JVM.
+	 */
+	private final static Map<Class<?>, AnalyzerMultiplexer<?>> multiplexers = new ConcurrentHashMap<>();
 
-	private static List<Delegator<?>> delegators = new LinkedList<>();
+	private final static Object[] NO_DATA = new Object[0];
 
 	private static MonitorComponent getMonitor() {
-		if (monitor == null) {
+		SimulationContext context = SimulationContext.current();
+		if (context.monitor == null) {
 			try {
-				monitor = Binder.getComponent(MonitorComponent.class);
+				context.monitor = Binder.getComponent(MonitorComponent.class);
 			} catch (ComponentNotAvailableException e) {
-				monitor = new MonitorComponent() {
+				context.monitor = new MonitorComponent() {
 
 					@Override
 					public <A extends Analyzer> void registerAnalyzer(A analyzer) {
@@ -82,7 +85,7 @@ public final class Monitor {
 				};
 			}
 		}
-		return monitor;
+		return context.monitor;
 	}
 
 	/**
@@ -99,53 +102,182 @@ public final class Monitor {
 	 */
 	public static void log(Class<?> subject, Level level, String message,
 			Object... data) {
-		getMonitor().log(subject, level, message, data);
+		MonitorComponent monitor = getMonitor();
+		if (monitor.isLogEnabled(subject, level)) {
+			monitor.log(subject, level, message, data);
+		}
+	}
+
+	/*
+	 * Fixed-arity variants of the method above: the level is checked before
+	 * the varargs array is allocated.
+	 */
+
+	public static void log(Class<?> subject, Level level, String message) {
+		MonitorComponent monitor = getMonitor();
+		if (monitor.isLogEnabled(subject, level)) {
+			monitor.log(subject, level, message, NO_DATA);
+		}
+	}
+
+	public static void log(Class<?> subject, Level level, String message,
+			Object data) {
+		MonitorComponent monitor = getMonitor();
+		if (monitor.isLogEnabled(subject, level)) {
+			monitor.log(subject, level, message, new Object[] { data });
+		}
+	}
+
+	public static void log(Class<?> subject, Level level, String message,
+			Object data1, Object data2) {
+		MonitorComponent monitor = getMonitor();
+		if (monitor.isLogEnabled(subject, level)) {
+			monitor.log(subject, level, message,
+					new Object[] { data1, data2 });
+		}
+	}
+
+	public static void log(Class<?> subject, Level level, String message,
+			Object data1, Object data2, Object data3) {
+		MonitorComponent monitor = getMonitor();
+		if (monitor.isLogEnabled(subject, level)) {
+			monitor.log(subject, level, message,
+					new Object[] { data1, data2, data3 });
+		}
+	}
+
+	/**
+	 * Logging of messages that are expensive to create (e.g., if the arguments
+	 * have to be computed). The supplier is only called if logging is enabled
+	 * for the given subject and level.
+	 * 
+	 * @param subject
+	 * @param level
+	 * @param message
+	 *            supplier of the complete message (no placeholders)
+	 */
+	public static void log(Class<?> subject, Level level,
+			Supplier<String> message) {
+		getMonitor().log(subject, level, message);
+	}
+
+	/**
+	 * Returns true, if messages of the given level are logged for the given
+	 * subject. Can be used to guard the computation of log arguments.
+	 * 
+	 * @param subject
+	 * @param level
+	 * @return
+	 */
+	public static boolean isLogEnabled(Class<?> subject, Level level) {
+		return getMonitor().isLogEnabled(subject, level);
 	}
 
 	/**
 	 * Retrieve an analyzing-Interface (transparent multiplexing is performed,
-	 * if multiple analyzers with the same interface are registered).
+	 * if multiple analyzers with the same interface are registered). The
+	 * returned instance is stable: analyzers that are registered later are
+	 * added to it, so it may be cached by the caller. The
+	 * {@link AnalyzerMultiplexer} registered for the interface is used,
+	 * falling back to a reflective proxy.
 	 * 
 	 * @param analyzerType
 	 * @return
 	 * @throws AnalyzerNotAvailableException
 	 */
-	@SuppressWarnings("unchecked")
 	public static <A extends Analyzer> A get(Class<A> analyzerType)
 			throws AnalyzerNotAvailableException {
-		// Caching
-		if (cachedProxies.containsKey(analyzerType)) {
-			return (A) cachedProxies.get(analyzerType);
+		A proxy = lookup(analyzerType);
+		if (proxy == null) {
+			throw new AnalyzerNotAvailableException();
 		}
-		/*
-		 * Next call is needed to check if analyzers are available (throws
-		 * exception otherwise!)
-		 */
-		getMonitor().getAnalyzers(analyzerType);
-
-		cachedCheck.put(analyzerType, true);
-		// create proxy
-		Class<?>[] proxyInterfaces = new Class[]{analyzerType};
-		Delegator<A> delegator = new Delegator<A>(analyzerType);
-		A proxy = (A) Proxy.newProxyInstance(analyzerType.getClassLoader(),
-				proxyInterfaces, delegator);
-		cachedProxies.put(analyzerType, proxy);
 		return proxy;
 	}
 
 	/**
-	 * Get a proxy to the respective analyzers implementing the given type, or
-	 * null, if no such analyzer is registered.
+	 * Returns the cached proxy for the given type, creates it, or returns null
+	 * if no analyzer implements the type (this result is cached until the
+	 * next analyzer is registered).
 	 * 
 	 * @param analyzerType
 	 * @return
 	 */
-	public static <A extends Analyzer> A getOrNull(Class<A> analyzerType) {
-		try {
-			return get(analyzerType);
-		} catch (AnalyzerNotAvailableException e) {
+	@SuppressWarnings("unchecked")
+	private static <A extends Analyzer> A lookup(Class<A> analyzerType) {
+		SimulationContext context = SimulationContext.current();
+		Analyzer cached = context.cachedProxies.get(analyzerType);
+		if (cached != null) {
+			return (A) cached;
+		}
+		if (context.unavailableAnalyzers.contains(analyzerType)) {
 			return null;
 		}
+		synchronized (context.analyzerTargets) {
+			cached = context.cachedProxies.get(analyzerType);
+			if (cached != null) {
+				return (A) cached;
+			}
+			List<A> targets = (List<A>) context.analyzerTargets
+					.get(analyzerType);
+			if (targets == null) {
+				try {
+					targets = new CopyOnWriteArrayList<>();
+					for (A analyzer : getMonitor().getAnalyzers(analyzerType)) {
+						targets.add(wrap(analyzerType, analyzer,
+								context.analyzerGuard));
+					}
+				} catch (AnalyzerNotAvailableException e) {
+					context.unavailableAnalyzers.add(analyzerType);
+					return null;
+				}
+				context.analyzerTargets.put(analyzerType,
+						(List<Analyzer>) targets);
+			}
+			A proxy;
+			AnalyzerMultiplexer<A> multiplexer = (AnalyzerMultiplexer<A>) multiplexers
+					.get(analyzerType);
+			if (multiplexer != null) {
+				proxy = multiplexer.multiplex(targets);
+			} else {
+				// create proxy
+				Class<?>[] proxyInterfaces = new Class<?>[] { analyzerType };
+				Delegator<A> delegator = new Delegator<A>(analyzerType,
+						targets);
+				proxy = (A) Proxy.newProxyInstance(
+						analyzerType.getClassLoader(), proxyInterfaces,
+						delegator);
+			}
+			context.cachedProxies.put(analyzerType, proxy);
+			return proxy;
+		}
+	}
+
+	/**
+	 * Register a multiplexer that is used instead of a reflective proxy to
+	 * forward calls to the analyzers implementing the given interface. Should
+	 * be done for analyzers that are called frequently (e.g., for each
+	 * message).
+	 * 
+	 * @param analyzerType
+	 * @param multiplexer
+	 */
+	public static <A extends Analyzer> void registerMultiplexer(
+			Class<A> analyzerType, AnalyzerMultiplexer<A> multiplexer) {
+		multiplexers.put(analyzerType, multiplexer);
+		SimulationContext.current().cachedProxies.remove(analyzerType);
+	}
+
+	/**
+	 * Get a proxy to the respective analyzers implementing the given type, or
+	 * null, if no such analyzer is registered. Does not throw (and catch) an
+	 * exception if there is no analyzer, and can thus be used for each
+	 * message.
+	 * 
+	 * @param analyzerType
+	 * @return
+	 */
+	public static <A extends Analyzer> A getOrNull(Class<A> analyzerType) {
+		return lookup(analyzerType);
 	}
 
 	/**
@@ -156,36 +288,101 @@ public final class Monitor {
 	 */
 	public static <A extends Analyzer> boolean hasAnalyzer(
 			Class<A> analyzerType) {
-		if (!cachedCheck.containsKey(analyzerType)) {
-			try {
-				get(analyzerType);
-			} catch (AnalyzerNotAvailableException e) {
-				cachedCheck.put(analyzerType, false);
-			}
-		}
-		assert cachedCheck.containsKey(analyzerType);
-		return cachedCheck.get(analyzerType);
+		return lookup(analyzerType) != null;
 	}
 
 	/**
-	 * Register a new analyzer and invalidate caches.
+	 * Register a new analyzer. It is added to all proxies returned so far for
+	 * the interfaces it implements.
 	 * 
 	 * @param analyzer
 	 */
 	public static <A extends Analyzer> void registerAnalyzer(A analyzer) {
-		cachedCheck.clear();
-		cachedProxies.clear();
+		SimulationContext context = SimulationContext.current();
 		getMonitor().registerAnalyzer(analyzer);
-		for (Delegator<?> delegator : delegators) {
-			delegator.updateAnalyzers();
+		synchronized (context.analyzerTargets) {
+			context.unavailableAnalyzers.clear();
+			for (Map.Entry<Class<?>, List<Analyzer>> entry : context.analyzerTargets
+					.entrySet()) {
+				if (entry.getKey().isInstance(analyzer)) {
+					entry.getValue().add(wrap(entry.getKey(), analyzer,
+							context.analyzerGuard));
+				}
+			}
 		}
 	}
 
 	/**
-	 * Transparent Proxy for calls to the analyzers
+	 * The given guard is run before each call to an analyzer, e.g., to
+	 * serialize calls if the simulation is executed by several threads. This
+	 * affects all proxies, including those that were obtained (and cached)
+	 * earlier. Pass null to invoke analyzers directly again.
+	 * 
+	 * @param guard
+	 */
+	public static void setAnalyzerGuard(Runnable guard) {
+		SimulationContext context = SimulationContext.current();
+		synchronized (context.analyzerTargets) {
+			context.analyzerGuard = guard;
+			for (Map.Entry<Class<?>, List<Analyzer>> entry : context.analyzerTargets
+					.entrySet()) {
+				List<Analyzer> targets = entry.getValue();
+				for (int i = 0; i < targets.size(); i++) {
+					targets.set(i, wrap(entry.getKey(),
+							unwrap(targets.get(i)), guard));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns an instance of the given analyzer interface that runs the guard
+	 * before each call, or the analyzer itself if the guard is null.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <A extends Analyzer> A wrap(Class<?> analyzerType,
+			A analyzer, Runnable guard) {
+		if (guard == null) {
+			return analyzer;
+		}
+		return (A) Proxy.newProxyInstance(analyzerType.getClassLoader(),
+				new Class<?>[] { analyzerType },
+				new GuardedDelegator(analyzer, guard));
+	}
+
+	private static Analyzer unwrap(Analyzer analyzer) {
+		if (Proxy.isProxyClass(analyzer.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(analyzer);
+			if (handler instanceof GuardedDelegator) {
+				return ((GuardedDelegator) handler).analyzer;
+			}
+		}
+		return analyzer;
+	}
+
+	/**
+	 * Creates an instance of the analyzer interface that forwards all calls to
+	 * the given analyzers.
 	 * 
-	 * TODO we should update the List of analyzers if a new analyzer is added
-	 * that matches the requested interface.
+	 * @param <A>
+	 */
+	public interface AnalyzerMultiplexer<A extends Analyzer> {
+
+		/**
+		 * 
+		 * @param analyzers
+		 *            at least one analyzer. The list is updated by the
+		 *            {@link Monitor} if further analyzers are registered, so
+		 *            it has to be iterated on each call instead of being
+		 *            copied. Iteration is thread-safe.
+		 * @return
+		 */
+		public A multiplex(List<A> analyzers);
+
+	}
+
+	/**
+	 * Transparent Proxy for calls to the analyzers
 	 * 
 	 * @author Bjoern Richerzhagen
 	 * 
@@ -197,24 +394,15 @@ public final class Monitor {
 
 		public final Class<A> analyzerClass;
 
-		public Delegator(Class<A> analyzerClass) {
-			this.analyzerClass = analyzerClass;
-			this.analyzers = new LinkedList<>();
-			updateAnalyzers();
-		}
-
 		/**
-		 * Update the proxy if a new analyzer is added.
-		 * 
+		 * @param analyzerClass
 		 * @param analyzers
+		 *            updated by the {@link Monitor} if a new analyzer is
+		 *            added.
 		 */
-		public void updateAnalyzers() {
-			this.analyzers.clear();
-			try {
-				this.analyzers.addAll(getMonitor().getAnalyzers(analyzerClass));
-			} catch (AnalyzerNotAvailableException e) {
-				throw new AssertionError("No analyzer available.");
-			}
+		public Delegator(Class<A> analyzerClass, List<A> analyzers) {
+			this.analyzerClass = analyzerClass;
+			this.analyzers = analyzers;
 		}
 
 		@Override
@@ -228,4 +416,34 @@ public final class Monitor {
 
 	}
 
+	/**
+	 * Runs the guard before passing a call to a single analyzer, see
+	 * {@link Monitor#setAnalyzerGuard(Runnable)}.
+	 */
+	private static class GuardedDelegator implements InvocationHandler {
+
+		private final Analyzer analyzer;
+
+		private final Runnable guard;
+
+		public GuardedDelegator(Analyzer analyzer, Runnable guard) {
+			this.analyzer = analyzer;
+			this.guard = guard;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method m, Object[] args)
+				throws Throwable {
+			if (m.getDeclaringClass() != Object.class) {
+				guard.run();
+			}
+			try {
+				return m.invoke(analyzer, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
 }
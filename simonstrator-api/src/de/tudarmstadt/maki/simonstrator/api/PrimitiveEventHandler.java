@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api;
+
+/**
+ * Event handler for timers that only need an int type and a long payload (a
+ * timestamp, an index, a sequence number, ...). Scheduling via
+ * {@link Event#scheduleWithDelay(long, PrimitiveEventHandler, int, long)}
+ * does not require boxing or a content object, which matters for
+ * high-frequency timers in the MAC and PHY layers.
+ */
+public interface PrimitiveEventHandler {
+
+	/**
+	 * Called once the scheduled event occurs.
+	 * 
+	 * @param type
+	 * @param payload
+	 */
+	public void eventOccurred(int type, long payload);
+
+}
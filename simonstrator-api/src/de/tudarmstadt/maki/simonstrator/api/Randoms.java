@@ -35,20 +35,16 @@ import de.tudarmstadt.maki.simonstrator.api.component.core.RandomGeneratorCompon
  */
 public final class Randoms {
 	
-	/**
-	 * 
-	 */
-	public static RandomGeneratorComponent bindedRandom = null;
-
 	private static RandomGeneratorComponent getRandomGeneratorComponent() {
-		if (bindedRandom == null) {
+		SimulationContext context = SimulationContext.current();
+		if (context.random == null) {
 			try {
-				bindedRandom = Binder
+				context.random = Binder
 						.getComponent(RandomGeneratorComponent.class);
 			} catch (ComponentNotAvailableException e) {
 				System.err
 						.println("Simonstrator-API WARNING: You are using Random, although the platform provides no RandomGeneratorComponent. A simple default implementation is used.");
-				bindedRandom = new RandomGeneratorComponent() {
+				context.random = new RandomGeneratorComponent() {
 					@Override
 					public Random getRandom(Object topic) {
 						return new Random();
@@ -56,7 +52,7 @@ public final class Randoms {
 				};
 			}
 		}
-		return bindedRandom;
+		return context.random;
 	}
 
 	/**
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.component.ComponentRegistry;
+import de.tudarmstadt.maki.simonstrator.api.component.GlobalComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.core.GraphComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.Analyzer;
+import de.tudarmstadt.maki.simonstrator.api.component.core.RandomGeneratorComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.core.SchedulerComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.core.TimeComponent;
+
+/**
+ * Everything that is global within one simulation (or one real deployment):
+ * the {@link GlobalComponent}s registered at the {@link Binder}, the
+ * components cached by {@link Time}, {@link Event}, {@link Randoms},
+ * {@link Monitor} and {@link Graphs}, and the singletons of the platform (see
+ * {@link #getInstance(Class)}).
+ *
+ * Usually, there is only the default context. To run several independent
+ * simulations within one JVM, each of them creates its own context via
+ * {@link #create(String)} and executes within {@link #run(Runnable)}. The
+ * context is bound to the executing thread and inherited by all threads it
+ * creates.
+ */
+public final class SimulationContext {
+
+	private static final SimulationContext defaultContext = new SimulationContext(
+			"default");
+
+	private static final InheritableThreadLocal<SimulationContext> boundContext = new InheritableThreadLocal<SimulationContext>();
+
+	/**
+	 * As long as no additional context was created, the thread-local lookup is
+	 * skipped altogether.
+	 */
+	private static volatile boolean multipleContexts = false;
+
+	private final String name;
+
+	final ComponentRegistry<GlobalComponent> components = new ComponentRegistry<GlobalComponent>();
+
+	private final Map<Class<?>, Object> instances = new ConcurrentHashMap<Class<?>, Object>();
+
+	private final List<Runnable> finishHooks = new CopyOnWriteArrayList<Runnable>();
+
+	/*
+	 * Caches of the static API facades
+	 */
+
+	TimeComponent time = null;
+
+	SchedulerComponent scheduler = null;
+
+	RandomGeneratorComponent random = null;
+
+	MonitorComponent monitor = null;
+
+	GraphComponent graph = null;
+
+	final Map<Class<?>, Analyzer> cachedProxies = new ConcurrentHashMap<>();
+
+	final Set<Class<?>> unavailableAnalyzers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Analyzers behind the cached proxies of the {@link Monitor}, guarded by
+	 * the map itself.
+	 */
+	final Map<Class<?>, List<Analyzer>> analyzerTargets = new LinkedHashMap<>();
+
+	/**
+	 * Set via {@link Monitor#setAnalyzerGuard(Runnable)}, guarded by
+	 * analyzerTargets.
+	 */
+	Runnable analyzerGuard = null;
+
+	private SimulationContext(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Creates a new, empty context.
+	 *
+	 * @param name
+	 *            used for logging purposes only
+	 * @return
+	 */
+	public static SimulationContext create(String name) {
+		multipleContexts = true;
+		return new SimulationContext(name);
+	}
+
+	/**
+	 * The context of the calling thread, or the default context if the thread
+	 * is not bound to any context.
+	 *
+	 * @return
+	 */
+	public static SimulationContext current() {
+		if (!multipleContexts) {
+			return defaultContext;
+		}
+		SimulationContext context = boundContext.get();
+		return context != null ? context : defaultContext;
+	}
+
+	/**
+	 * The default context, used by all threads that are not bound to a
+	 * context.
+	 *
+	 * @return
+	 */
+	public static SimulationContext getDefault() {
+		return defaultContext;
+	}
+
+	/**
+	 * Executes the given task within this context, i.e., all API calls of the
+	 * task (and of all threads created by the task) are resolved using the
+	 * components of this context. The previous context of the calling thread
+	 * is restored afterwards.
+	 *
+	 * @param task
+	 */
+	public void run(Runnable task) {
+		SimulationContext previous = boundContext.get();
+		boundContext.set(this);
+		try {
+			task.run();
+		} finally {
+			if (previous == null) {
+				boundContext.remove();
+			} else {
+				boundContext.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Returns the singleton of the given type within this context, or null if
+	 * it was not yet created.
+	 *
+	 * @param type
+	 * @return
+	 */
+	public <T> T getInstance(Class<T> type) {
+		return type.cast(instances.get(type));
+	}
+
+	/**
+	 * Sets the singleton of the given type within this context. Platforms call
+	 * this from the constructor of their singletons, before any other
+	 * component is initialized.
+	 *
+	 * @param type
+	 * @param instance
+	 */
+	public <T> void setInstance(Class<T> type, T instance) {
+		instances.put(type, instance);
+	}
+
+	/**
+	 * Registers a hook that is run as soon as the simulation within this
+	 * context has finished. Components are not shut down at the end of a
+	 * simulation, so this is the place to flush and close output files.
+	 *
+	 * @param hook
+	 */
+	public void addFinishHook(Runnable hook) {
+		finishHooks.add(hook);
+	}
+
+	/**
+	 * Runs and removes all hooks registered via {@link #addFinishHook}, in
+	 * registration order. Called by the runtime at the end of the simulation.
+	 * A failing hook does not prevent the remaining ones from running.
+	 */
+	public void runFinishHooks() {
+		for (Runnable hook : finishHooks) {
+			finishHooks.remove(hook);
+			try {
+				hook.run();
+			} catch (RuntimeException e) {
+				Monitor.log(SimulationContext.class, Level.ERROR,
+						"Finish hook %s failed: %s", hook, e);
+			}
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return "SimulationContext " + name;
+	}
+
+}
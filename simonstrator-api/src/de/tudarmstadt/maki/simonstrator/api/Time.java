@@ -60,19 +60,15 @@ public final class Time {
 
 	public static final double NANOSECOND = 0.001d;
 
-	/**
-	 * 
-	 */
-	public static TimeComponent bindedTime = null;
-
 	private static TimeComponent getTimeComponent() {
-		if (bindedTime == null) {
+		SimulationContext context = SimulationContext.current();
+		if (context.time == null) {
 			try {
-				bindedTime = Binder.getComponent(TimeComponent.class);
+				context.time = Binder.getComponent(TimeComponent.class);
 			} catch (ComponentNotAvailableException e) {
 				System.err
 						.println("Simonstrator-API WARNING: you are using Time, but no TimeComponent is provided. Relative time calculations will NOT work as expected!");
-				bindedTime = new TimeComponent() {
+				context.time = new TimeComponent() {
 					@Override
 					public long getCurrentTime() {
 						return System.currentTimeMillis();
@@ -80,7 +76,7 @@ public final class Time {
 				};
 			}
 		}
-		return bindedTime;
+		return context.time;
 	}
 
 	/**
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -34,7 +35,6 @@ import java.util.Map;
 import java.util.Set;
 
 import de.tudarmstadt.maki.simonstrator.api.Graphs;
-import de.tudarmstadt.maki.simonstrator.api.common.datastructures.Pair;
 
 /**
  * A basic class realizing the Graph-Interface
@@ -52,8 +52,6 @@ public class BasicGraph implements Graph {
 
 	private final Set<IEdge> edges = new LinkedHashSet<>();
 
-	private final Set<Pair<INodeID>> edgesAsNodeIdPairs = new LinkedHashSet<>();
-
 	// The list of all edges. For performance reasons. Edge IDs are always unique within one graph.
 	private final Map<EdgeID, IEdge> edgesById = new LinkedHashMap<>();
 
@@ -63,6 +61,11 @@ public class BasicGraph implements Graph {
 	// Assigns to each node the set of incoming edges of this node
 	private final Map<INodeID, Set<IEdge>> incomingAdjacencyList = new LinkedHashMap<>();
 
+	// Assigns to each node the outgoing edges of this node, grouped by target
+	// node (more than one edge per target in case of multi-edges). Allows for
+	// lookups of edges by node pair without scanning the outgoing edges.
+	private final Map<INodeID, Map<INodeID, List<IEdge>>> outgoingEdgesByTarget = new HashMap<>();
+
 	// Assigns to each node the set of successors of this node
 	// The successors of a node n1 are all nodes n2 that can be reached via an
 	// outgoing edge of n1
@@ -185,7 +188,7 @@ public class BasicGraph implements Graph {
 
 	@Override
 	public boolean containsEdge(INodeID from, INodeID to) {
-		return this.edgesAsNodeIdPairs.contains(createNodeIdPair(from, to));
+		return this.getEdgesByNodeIds(from, to) != null;
 	}
 
 	@Override
@@ -224,8 +227,8 @@ public class BasicGraph implements Graph {
 		if (!this.edgesById.containsKey(edge.getId())) {
 			this.edges.add(edge);
 			this.edgesById.put(edge.getId(), edge);
-			this.edgesAsNodeIdPairs.add(createNodeIdPair(edge));
 			this.outgoingAdjacencyList.get(fromId).add(edge);
+			this.outgoingEdgesByTarget.get(fromId).computeIfAbsent(toId, target -> new ArrayList<>(1)).add(edge);
 			this.incomingAdjacencyList.get(toId).add(edge);
 			this.successorNodes.get(fromId).add(toId);
 			this.predecessorNodes.get(toId).add(fromId);
@@ -243,6 +246,7 @@ public class BasicGraph implements Graph {
 			this.nodesById.put(node.getId(), node);
 			this.incomingAdjacencyList.put(node.getId(), new LinkedHashSet<>());
 			this.outgoingAdjacencyList.put(node.getId(), new LinkedHashSet<>());
+			this.outgoingEdgesByTarget.put(node.getId(), new HashMap<>());
 			this.successorNodes.put(node.getId(), new LinkedHashSet<>());
 			this.predecessorNodes.put(node.getId(), new LinkedHashSet<>());
 			return true;
@@ -317,10 +321,16 @@ public class BasicGraph implements Graph {
 
 		this.incomingAdjacencyList.get(edge.toId()).remove(edge);
 		this.outgoingAdjacencyList.get(edge.fromId()).remove(edge);
-		this.successorNodes.get(edge.fromId()).remove(edge.toId());
-		this.predecessorNodes.get(edge.toId()).remove(edge.fromId());
+		final Map<INodeID, List<IEdge>> edgesByTarget = this.outgoingEdgesByTarget.get(edge.fromId());
+		final List<IEdge> parallelEdges = edgesByTarget.get(edge.toId());
+		parallelEdges.remove(edge);
+		if (parallelEdges.isEmpty()) {
+			// Only the last of several parallel edges disconnects the nodes
+			edgesByTarget.remove(edge.toId());
+			this.successorNodes.get(edge.fromId()).remove(edge.toId());
+			this.predecessorNodes.get(edge.toId()).remove(edge.fromId());
+		}
 		this.edges.remove(edge);
-		this.edgesAsNodeIdPairs.remove(createNodeIdPair(edge));
 		this.edgesById.remove(edge.getId());
 		for (final IEdge inverseEdge : new ArrayList<>(this.getInverseEdges(edge)))
 			this.destroyInverseEdges(edge, inverseEdge);
@@ -397,16 +407,8 @@ public class BasicGraph implements Graph {
 		if (!this.containsNode(to))
 			return null;
 
-		if (!this.containsEdge(from, to))
-			return null;
-
-		final Set<IEdge> outgoingEdgesOfFrom = this.outgoingAdjacencyList.get(from);
-		for (final IEdge outgoingEdgeOfFrom : outgoingEdgesOfFrom) {
-			if (outgoingEdgeOfFrom.toId().equals(to)) {
-				return outgoingEdgeOfFrom;
-			}
-		}
-		return null;
+		final List<IEdge> parallelEdges = this.getEdgesByNodeIds(from, to);
+		return parallelEdges == null ? null : parallelEdges.get(0);
 	}
 
 	@Override
@@ -420,19 +422,22 @@ public class BasicGraph implements Graph {
 		if (!this.containsNode(to))
 			throw new IllegalArgumentException(String.format("Unknown 'to' ID: %s", to.toString()));
 
-		if (!this.containsEdge(from, to))
-			return resultSet;
-
-		final Set<IEdge> outgoingEdgesOfFrom = this.outgoingAdjacencyList.get(from);
-		for (final IEdge outgoingEdgeOfFrom : outgoingEdgesOfFrom) {
-			if (outgoingEdgeOfFrom.toId().equals(to)) {
-				resultSet.add(outgoingEdgeOfFrom);
-			}
-		}
+		final List<IEdge> parallelEdges = this.getEdgesByNodeIds(from, to);
+		if (parallelEdges != null)
+			resultSet.addAll(parallelEdges);
 
 		return resultSet;
 	}
 
+	/**
+	 * Returns the (non-empty) list of edges from 'from' to 'to' in insertion
+	 * order, or null if there is no such edge. Does not allocate.
+	 */
+	private List<IEdge> getEdgesByNodeIds(final INodeID from, final INodeID to) {
+		final Map<INodeID, List<IEdge>> edgesByTarget = this.outgoingEdgesByTarget.get(from);
+		return edgesByTarget == null ? null : edgesByTarget.get(to);
+	}
+
 	@Override
 	public IEdge getEdge(EdgeID edgeID) {
 		return this.edgesById.get(edgeID);
@@ -533,7 +538,7 @@ public class BasicGraph implements Graph {
 		this.nodes.clear();
 		this.nodesById.clear();
 		this.edges.clear();
-		this.edgesAsNodeIdPairs.clear();
+		this.outgoingEdgesByTarget.clear();
 		this.edgesById.clear();
 		this.incomingAdjacencyList.clear();
 		this.outgoingAdjacencyList.clear();
@@ -869,19 +874,4 @@ public class BasicGraph implements Graph {
 		return resultList;
 	}
 
-	/**
-	 * Creates a {@link Pair} that contains the source and target IDs of the
-	 * given edge
-	 */
-	private Pair<INodeID> createNodeIdPair(final IEdge edge) {
-		return createNodeIdPair(edge.fromId(), edge.toId());
-	}
-
-	/**
-	 * Creates a {@link Pair} that contains the given IDs in order
-	 */
-	private Pair<INodeID> createNodeIdPair(final INodeID from, INodeID to) {
-		return new Pair<INodeID>(from, to);
-	}
-
 }
@@ -0,0 +1,1772 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.component.sis.type.SiSType;
+
+/**
+ * Memory-efficient realization of the {@link Graph} interface for large,
+ * dense topologies. Node and edge IDs are mapped to dense int slots, adjacency
+ * is kept in growable int arrays per node and all numeric, boolean and enum
+ * properties (e.g., weights, distances, edge states or remaining energy) are
+ * stored in primitive columns instead of one map per element.
+ *
+ * Differences to the {@link BasicGraph}: the graph owns its elements. Nodes
+ * and edges that are added are copied into the graph, {@link #getNode(INodeID)}
+ * and friends return views on the graph's storage. Properties set on the
+ * original objects after they were added are thus not visible in the graph,
+ * and a {@link #clone()} does not share elements with the original graph. Once
+ * an element is removed from the graph, its view keeps a private copy of its
+ * properties. Slots of removed elements are re-used, so the iteration order
+ * only equals the insertion order as long as no elements were removed.
+ * Parallel edges between the same pair of nodes and inverse edges keep their
+ * insertion order, as in the {@link BasicGraph}. Inverse edges are symmetric:
+ * {@link #destroyInverseEdges(IEdge, IEdge)} removes the relation in both
+ * directions and {@link #getInverseEdge(IEdge)} returns null for edges that
+ * are not contained in the graph.
+ *
+ * Use {@link CompactGraphComponent} to create all graphs via
+ * {@link Graphs#createGraph()} with this implementation.
+ */
+public class CompactGraph implements Graph {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final int INITIAL_DEGREE_CAPACITY = 4;
+
+	private final ElementIndex<INodeID> nodeIndex = new ElementIndex<>();
+
+	private final ElementIndex<EdgeID> edgeIndex = new ElementIndex<>();
+
+	/*
+	 * Node storage, indexed by node slot. A null view marks a free slot.
+	 */
+
+	private CompactNode[] nodeViews = new CompactNode[INITIAL_CAPACITY];
+
+	private int[][] outgoing = new int[INITIAL_CAPACITY][];
+
+	private int[] outDegree = new int[INITIAL_CAPACITY];
+
+	private int[][] incoming = new int[INITIAL_CAPACITY][];
+
+	private int[] inDegree = new int[INITIAL_CAPACITY];
+
+	private int nodeSlots = 0;
+
+	private int[] freeNodeSlots = new int[INITIAL_CAPACITY];
+
+	private int freeNodeSlotCount = 0;
+
+	/*
+	 * Edge storage, indexed by edge slot. A null view marks a free slot.
+	 */
+
+	private CompactEdge[] edgeViews = new CompactEdge[INITIAL_CAPACITY];
+
+	private int[] edgeSource = new int[INITIAL_CAPACITY];
+
+	private int[] edgeTarget = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Slots of the inverse edges (only allocated for edges that have inverse
+	 * edges)
+	 */
+	private int[][] inverseEdges = new int[INITIAL_CAPACITY][];
+
+	private int[] inverseEdgeCount = new int[INITIAL_CAPACITY];
+
+	private int edgeSlots = 0;
+
+	private int[] freeEdgeSlots = new int[INITIAL_CAPACITY];
+
+	private int freeEdgeSlotCount = 0;
+
+	private final PropertyTable nodeProperties = new PropertyTable();
+
+	private final PropertyTable edgeProperties = new PropertyTable();
+
+	/**
+	 * Incremented on every structural change, used to detect concurrent
+	 * modifications in the set views.
+	 */
+	private int modCount = 0;
+
+	/*
+	 * Scratch space for neighborhood searches.
+	 */
+
+	private int[] visitedMark = new int[0];
+
+	private int visitMarker = 0;
+
+	/**
+	 * Creates an empty graph. Components should create new graphs by using the
+	 * {@link Graphs} class in the API
+	 */
+	public CompactGraph() {
+		// nothing to do
+	}
+
+	/**
+	 * Creates a graph from the given nodes and edges.
+	 *
+	 * @param nodes
+	 * @param edges
+	 */
+	public CompactGraph(Iterable<? extends INode> nodes,
+			Iterable<? extends IEdge> edges) {
+		this();
+		addNodes(nodes);
+		addEdges(edges);
+	}
+
+	/*
+	 * Slot management
+	 */
+
+	private int allocateNodeSlot() {
+		if (freeNodeSlotCount > 0) {
+			return freeNodeSlots[--freeNodeSlotCount];
+		}
+		if (nodeSlots == nodeViews.length) {
+			int capacity = nodeSlots * 2;
+			nodeViews = Arrays.copyOf(nodeViews, capacity);
+			outgoing = Arrays.copyOf(outgoing, capacity);
+			outDegree = Arrays.copyOf(outDegree, capacity);
+			incoming = Arrays.copyOf(incoming, capacity);
+			inDegree = Arrays.copyOf(inDegree, capacity);
+		}
+		return nodeSlots++;
+	}
+
+	private void releaseNodeSlot(int slot) {
+		nodeViews[slot] = null;
+		outgoing[slot] = null;
+		incoming[slot] = null;
+		outDegree[slot] = 0;
+		inDegree[slot] = 0;
+		nodeProperties.clear(slot);
+		if (freeNodeSlotCount == freeNodeSlots.length) {
+			freeNodeSlots = Arrays.copyOf(freeNodeSlots,
+					freeNodeSlotCount * 2);
+		}
+		freeNodeSlots[freeNodeSlotCount++] = slot;
+	}
+
+	private int allocateEdgeSlot() {
+		if (freeEdgeSlotCount > 0) {
+			return freeEdgeSlots[--freeEdgeSlotCount];
+		}
+		if (edgeSlots == edgeViews.length) {
+			int capacity = edgeSlots * 2;
+			edgeViews = Arrays.copyOf(edgeViews, capacity);
+			edgeSource = Arrays.copyOf(edgeSource, capacity);
+			edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+			inverseEdges = Arrays.copyOf(inverseEdges, capacity);
+			inverseEdgeCount = Arrays.copyOf(inverseEdgeCount, capacity);
+		}
+		return edgeSlots++;
+	}
+
+	private void releaseEdgeSlot(int slot) {
+		edgeViews[slot] = null;
+		inverseEdges[slot] = null;
+		inverseEdgeCount[slot] = 0;
+		edgeProperties.clear(slot);
+		if (freeEdgeSlotCount == freeEdgeSlots.length) {
+			freeEdgeSlots = Arrays.copyOf(freeEdgeSlots,
+					freeEdgeSlotCount * 2);
+		}
+		freeEdgeSlots[freeEdgeSlotCount++] = slot;
+	}
+
+	/**
+	 * Appends value to the growable array at lists[slot], returns the new
+	 * size.
+	 */
+	private static int append(int[][] lists, int[] sizes, int slot,
+			int value) {
+		int[] list = lists[slot];
+		int size = sizes[slot];
+		if (list == null) {
+			list = new int[INITIAL_DEGREE_CAPACITY];
+			lists[slot] = list;
+		} else if (size == list.length) {
+			list = Arrays.copyOf(list, size * 2);
+			lists[slot] = list;
+		}
+		list[size] = value;
+		sizes[slot] = size + 1;
+		return size + 1;
+	}
+
+	/**
+	 * Removes the first occurrence of value from the growable array at
+	 * lists[slot], keeping the order of the remaining entries.
+	 */
+	private static boolean removeValue(int[][] lists, int[] sizes, int slot,
+			int value) {
+		int[] list = lists[slot];
+		int size = sizes[slot];
+		for (int i = 0; i < size; i++) {
+			if (list[i] == value) {
+				System.arraycopy(list, i + 1, list, i, size - i - 1);
+				sizes[slot] = size - 1;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int nodeSlot(INodeID nodeId) {
+		return nodeIndex.get(nodeId);
+	}
+
+	private int ensureThatNodeIsInGraph(INodeID nodeId) {
+		int slot = nodeIndex.get(nodeId);
+		if (slot == -1) {
+			throw new IllegalStateException(String.format(
+					"Node %s is not contained in the graph %s", nodeId, this));
+		}
+		return slot;
+	}
+
+	/**
+	 * Slot of the given edge if the edge (i.e., an edge with the same ID and
+	 * endpoints) is contained in this graph, -1 otherwise.
+	 */
+	private int edgeSlot(IEdge edge) {
+		int slot = edgeIndex.get(edge.getId());
+		if (slot == -1) {
+			return -1;
+		}
+		if (!nodeViews[edgeSource[slot]].id.equals(edge.fromId())
+				|| !nodeViews[edgeTarget[slot]].id.equals(edge.toId())) {
+			return -1;
+		}
+		return slot;
+	}
+
+	/*
+	 * Element creation
+	 */
+
+	@Override
+	@Deprecated
+	public INode createNode(INodeID id) {
+		INode node = getNode(id);
+		return node == null ? new Node(id) : node;
+	}
+
+	@Override
+	@Deprecated
+	public IEdge createEdge(INodeID from, INodeID to) {
+		IEdge edge = getEdge(from, to);
+		return (edge == null ? new DirectedEdge(from, to) : edge);
+	}
+
+	@Override
+	@Deprecated
+	public IEdge createEdge(INodeID from, INodeID to, double weight) {
+		IEdge edge = createEdge(from, to);
+		edge.setProperty(GenericGraphElementProperties.WEIGHT, weight);
+		return edge;
+	}
+
+	@Override
+	public IEdge createAndAddEdge(INodeID from, INodeID to) {
+		return createAndAddEdge(from, to, false);
+	}
+
+	@Override
+	public IEdge createAndAddEdge(INodeID from, INodeID to,
+			boolean allowMultiEdges) {
+		IEdge edge = getEdge(from, to);
+		if (edge != null) {
+			return edge;
+		}
+		int slot = insertEdge(EdgeID.get(from, to),
+				ensureThatNodeIsInGraph(from), ensureThatNodeIsInGraph(to));
+		return edgeViews[slot];
+	}
+
+	@Override
+	public INode createAndAddNode(INodeID nodeId) {
+		int slot = nodeSlot(nodeId);
+		if (slot == -1) {
+			slot = insertNode(nodeId);
+		}
+		return nodeViews[slot];
+	}
+
+	@Override
+	public List<INode> createAndAddNodes(Iterable<INodeID> nodeIds) {
+		final List<INode> createdNodes = new ArrayList<>();
+		for (final INodeID nodeId : nodeIds) {
+			createdNodes.add(createAndAddNode(nodeId));
+		}
+		return createdNodes;
+	}
+
+	/*
+	 * Adding elements
+	 */
+
+	@Override
+	@Deprecated
+	public boolean addElement(IElement element) {
+		if (element instanceof INode) {
+			return addNode((INode) element);
+		} else if (element instanceof IEdge) {
+			return addEdge((IEdge) element);
+		} else {
+			throw new AssertionError("Unknown graph element type.");
+		}
+	}
+
+	@Override
+	@Deprecated
+	public boolean add(IElement element) {
+		return addElement(element);
+	}
+
+	@Override
+	@Deprecated
+	public void addElements(Iterable<? extends IElement> elements) {
+		for (final IElement element : elements) {
+			if (element instanceof INode)
+				addNode((INode) element);
+		}
+		for (final IElement element : elements) {
+			if (element instanceof IEdge)
+				addEdge((IEdge) element);
+		}
+	}
+
+	/**
+	 * Adds a copy of the given node. The properties of the node are copied
+	 * into the graph, later changes on the given object are not visible in the
+	 * graph. Use {@link #getNode(INodeID)} to access the graph's node.
+	 */
+	@Override
+	public boolean addNode(INode node) {
+		if (nodeSlot(node.getId()) != -1) {
+			return false;
+		}
+		int slot = insertNode(node.getId());
+		nodeProperties.setAll(slot, node.getProperties());
+		return true;
+	}
+
+	@Override
+	public void addNodes(Iterable<? extends INode> nodes) {
+		for (INode node : nodes) {
+			addNode(node);
+		}
+	}
+
+	/**
+	 * Adds a copy of the given edge. The properties of the edge are copied
+	 * into the graph, later changes on the given object are not visible in the
+	 * graph. Use {@link #getEdge(EdgeID)} to access the graph's edge.
+	 */
+	@Override
+	public boolean addEdge(IEdge edge) {
+		int target = ensureThatNodeIsInGraph(edge.toId());
+		int source = ensureThatNodeIsInGraph(edge.fromId());
+		if (edgeIndex.get(edge.getId()) != -1) {
+			return false;
+		}
+		int slot = insertEdge(edge.getId(), source, target);
+		edgeProperties.setAll(slot, edge.getProperties());
+		return true;
+	}
+
+	@Override
+	public void addEdges(Iterable<? extends IEdge> edges) {
+		for (IEdge edge : edges) {
+			addEdge(edge);
+		}
+	}
+
+	private int insertNode(INodeID nodeId) {
+		int slot = allocateNodeSlot();
+		nodeViews[slot] = new CompactNode(nodeId, slot);
+		nodeIndex.put(nodeId, slot);
+		nodeProperties.ensureCapacity(nodeViews.length);
+		modCount++;
+		return slot;
+	}
+
+	private int insertEdge(EdgeID edgeId, int source, int target) {
+		int slot = allocateEdgeSlot();
+		edgeViews[slot] = new CompactEdge(edgeId, slot);
+		edgeSource[slot] = source;
+		edgeTarget[slot] = target;
+		edgeIndex.put(edgeId, slot);
+		append(outgoing, outDegree, source, slot);
+		append(incoming, inDegree, target, slot);
+		edgeProperties.ensureCapacity(edgeViews.length);
+		modCount++;
+		return slot;
+	}
+
+	/*
+	 * Removing elements
+	 */
+
+	@Override
+	@Deprecated
+	public boolean removeElement(IElement element) {
+		if (element instanceof INode) {
+			return removeNode(((INode) element).getId());
+		} else if (element instanceof IEdge) {
+			return removeEdge((IEdge) element);
+		} else {
+			throw new AssertionError("Unknown graph element type.");
+		}
+	}
+
+	@Override
+	@Deprecated
+	public boolean remove(IElement element) {
+		return removeElement(element);
+	}
+
+	@Override
+	public boolean removeNode(INodeID nodeId) {
+		int slot = nodeSlot(nodeId);
+		if (slot == -1) {
+			return false;
+		}
+		while (outDegree[slot] > 0) {
+			deleteEdge(outgoing[slot][outDegree[slot] - 1]);
+		}
+		while (inDegree[slot] > 0) {
+			deleteEdge(incoming[slot][inDegree[slot] - 1]);
+		}
+		nodeViews[slot].detach();
+		nodeIndex.remove(nodeId);
+		releaseNodeSlot(slot);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean removeEdge(IEdge edge) {
+		int slot = edgeSlot(edge);
+		if (slot == -1) {
+			return false;
+		}
+		deleteEdge(slot);
+		return true;
+	}
+
+	private void deleteEdge(int slot) {
+		removeValue(outgoing, outDegree, edgeSource[slot], slot);
+		removeValue(incoming, inDegree, edgeTarget[slot], slot);
+		for (int i = inverseEdgeCount[slot] - 1; i >= 0; i--) {
+			removeValue(inverseEdges, inverseEdgeCount, inverseEdges[slot][i],
+					slot);
+		}
+		CompactEdge view = edgeViews[slot];
+		view.detach();
+		edgeIndex.remove(view.id);
+		releaseEdgeSlot(slot);
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		for (int slot = 0; slot < nodeSlots; slot++) {
+			if (nodeViews[slot] != null) {
+				nodeViews[slot].detach();
+			}
+		}
+		for (int slot = 0; slot < edgeSlots; slot++) {
+			if (edgeViews[slot] != null) {
+				edgeViews[slot].detach();
+			}
+		}
+		nodeIndex.clear();
+		edgeIndex.clear();
+		Arrays.fill(nodeViews, null);
+		Arrays.fill(outgoing, null);
+		Arrays.fill(incoming, null);
+		Arrays.fill(outDegree, 0);
+		Arrays.fill(inDegree, 0);
+		Arrays.fill(edgeViews, null);
+		Arrays.fill(inverseEdges, null);
+		Arrays.fill(inverseEdgeCount, 0);
+		nodeSlots = 0;
+		edgeSlots = 0;
+		freeNodeSlotCount = 0;
+		freeEdgeSlotCount = 0;
+		nodeProperties.clearAll();
+		edgeProperties.clearAll();
+		modCount++;
+	}
+
+	/*
+	 * Queries
+	 */
+
+	@Override
+	@Deprecated
+	public boolean contains(IElement element) {
+		if (element instanceof INode)
+			return containsNode((INode) element);
+		else if (element instanceof IEdge)
+			return containsEdge((IEdge) element);
+		else
+			throw new IllegalArgumentException(
+					"Unsupported kind of element: " + element);
+	}
+
+	@Override
+	public boolean containsNode(INodeID nodeId) {
+		return nodeSlot(nodeId) != -1;
+	}
+
+	@Override
+	public boolean containsNode(INode node) {
+		return containsNode(node.getId());
+	}
+
+	@Override
+	public boolean containsEdge(IEdge edge) {
+		return edgeSlot(edge) != -1;
+	}
+
+	@Override
+	public boolean containsEdge(INodeID from, INodeID to) {
+		return findEdgeSlot(from, to) != -1;
+	}
+
+	/**
+	 * Slot of the first edge from -> to, -1 if there is no such edge.
+	 */
+	private int findEdgeSlot(INodeID from, INodeID to) {
+		int source = nodeSlot(from);
+		if (source == -1) {
+			return -1;
+		}
+		int target = nodeSlot(to);
+		if (target == -1) {
+			return -1;
+		}
+		// Scan the shorter adjacency list
+		if (outDegree[source] <= inDegree[target]) {
+			int[] out = outgoing[source];
+			for (int i = 0; i < outDegree[source]; i++) {
+				if (edgeTarget[out[i]] == target) {
+					return out[i];
+				}
+			}
+		} else {
+			int[] in = incoming[target];
+			for (int i = 0; i < inDegree[target]; i++) {
+				if (edgeSource[in[i]] == source) {
+					return in[i];
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public INode getNode(INodeID nodeId) {
+		int slot = nodeSlot(nodeId);
+		return slot == -1 ? null : nodeViews[slot];
+	}
+
+	@Override
+	public IEdge getEdge(INodeID from, INodeID to) {
+		int slot = findEdgeSlot(from, to);
+		return slot == -1 ? null : edgeViews[slot];
+	}
+
+	@Override
+	public Collection<IEdge> getEdges(INodeID from, INodeID to) {
+		int source = nodeSlot(from);
+		if (source == -1)
+			throw new IllegalArgumentException(
+					String.format("Unknown 'from' ID: %s", from.toString()));
+		int target = nodeSlot(to);
+		if (target == -1)
+			throw new IllegalArgumentException(
+					String.format("Unknown 'to' ID: %s", to.toString()));
+		final List<IEdge> result = new ArrayList<>();
+		int[] out = outgoing[source];
+		for (int i = 0; i < outDegree[source]; i++) {
+			if (edgeTarget[out[i]] == target) {
+				result.add(edgeViews[out[i]]);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public IEdge getEdge(EdgeID edgeID) {
+		int slot = edgeIndex.get(edgeID);
+		return slot == -1 ? null : edgeViews[slot];
+	}
+
+	@Override
+	public Set<IEdge> getEdges() {
+		return new ElementSet<IEdge>() {
+			@Override
+			protected IEdge elementAt(int slot) {
+				return edgeViews[slot];
+			}
+
+			@Override
+			protected int slots() {
+				return edgeSlots;
+			}
+
+			@Override
+			public int size() {
+				return edgeIndex.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof IEdge && containsEdge((IEdge) o);
+			}
+		};
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return edgeIndex.size();
+	}
+
+	@Override
+	public Set<EdgeID> getEdgeIds() {
+		return new ElementSet<EdgeID>() {
+			@Override
+			protected EdgeID elementAt(int slot) {
+				return edgeViews[slot] == null ? null : edgeViews[slot].id;
+			}
+
+			@Override
+			protected int slots() {
+				return edgeSlots;
+			}
+
+			@Override
+			public int size() {
+				return edgeIndex.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof EdgeID && edgeIndex.get(o) != -1;
+			}
+		};
+	}
+
+	@Override
+	public Set<INode> getNodes() {
+		return new ElementSet<INode>() {
+			@Override
+			protected INode elementAt(int slot) {
+				return nodeViews[slot];
+			}
+
+			@Override
+			protected int slots() {
+				return nodeSlots;
+			}
+
+			@Override
+			public int size() {
+				return nodeIndex.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof INode && containsNode((INode) o);
+			}
+		};
+	}
+
+	@Override
+	public Iterable<INodeID> getNodeIds() {
+		return new ElementSet<INodeID>() {
+			@Override
+			protected INodeID elementAt(int slot) {
+				return nodeViews[slot] == null ? null : nodeViews[slot].id;
+			}
+
+			@Override
+			protected int slots() {
+				return nodeSlots;
+			}
+
+			@Override
+			public int size() {
+				return nodeIndex.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof INodeID && nodeIndex.get(o) != -1;
+			}
+		};
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodeIndex.size();
+	}
+
+	@Override
+	public Set<IEdge> getOutgoingEdges(final INodeID node) {
+		final int slot = ensureThatNodeIsInGraph(node);
+		return new AdjacencySet(slot, true);
+	}
+
+	@Override
+	@Deprecated
+	public Set<IEdge> getOutgoingEdges(INode node) {
+		return getOutgoingEdges(node.getId());
+	}
+
+	@Override
+	public int getOutdegree(INodeID node) {
+		return outDegree[ensureThatNodeIsInGraph(node)];
+	}
+
+	@Override
+	public Set<IEdge> getIncomingEdges(INodeID node) {
+		final int slot = ensureThatNodeIsInGraph(node);
+		return new AdjacencySet(slot, false);
+	}
+
+	@Override
+	@Deprecated
+	public Set<IEdge> getIncomingEdges(INode node) {
+		return getIncomingEdges(node.getId());
+	}
+
+	@Override
+	public int getIndegree(INodeID node) {
+		return inDegree[ensureThatNodeIsInGraph(node)];
+	}
+
+	@Override
+	public int getDegree(INodeID nodeID) {
+		int slot = ensureThatNodeIsInGraph(nodeID);
+		return inDegree[slot] + outDegree[slot];
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INodeID node,
+			boolean directedNeighborhood) {
+		int slot = ensureThatNodeIsInGraph(node);
+		Set<INodeID> neighbors = new LinkedHashSet<>();
+		int[] out = outgoing[slot];
+		for (int i = 0; i < outDegree[slot]; i++) {
+			neighbors.add(nodeViews[edgeTarget[out[i]]].id);
+		}
+		if (!directedNeighborhood) {
+			int[] in = incoming[slot];
+			for (int i = 0; i < inDegree[slot]; i++) {
+				neighbors.add(nodeViews[edgeSource[in[i]]].id);
+			}
+		}
+		return neighbors;
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node,
+			boolean directedNeighborhood) {
+		return getNeighbors(node.getId(), directedNeighborhood);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INodeID node) {
+		return getNeighbors(node, true);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node) {
+		return getNeighbors(node.getId());
+	}
+
+	/**
+	 * Returns the nodes contained in the k-hop neighborhood of the specified
+	 * node, including the node itself (breadth-first search on the slot
+	 * arrays).
+	 */
+	@Override
+	public Set<INodeID> getNeighbors(INodeID center, int k,
+			boolean directedNeighborhood) {
+		if (k < 0)
+			throw new IllegalArgumentException(
+					"k must be >=0, but was " + k);
+		Set<INodeID> result = new HashSet<INodeID>();
+		if (k == 0) {
+			return result;
+		}
+		int start = ensureThatNodeIsInGraph(center);
+		int marker = nextVisitMarker();
+		int[] frontier = new int[] { start };
+		int frontierSize = 1;
+		visitedMark[start] = marker;
+		result.add(center);
+		for (int hop = 0; hop < k && frontierSize > 0; hop++) {
+			int[] next = new int[INITIAL_CAPACITY];
+			int nextSize = 0;
+			for (int f = 0; f < frontierSize; f++) {
+				int slot = frontier[f];
+				int[] out = outgoing[slot];
+				for (int i = 0; i < outDegree[slot]; i++) {
+					int neighbor = edgeTarget[out[i]];
+					if (visitedMark[neighbor] != marker) {
+						visitedMark[neighbor] = marker;
+						result.add(nodeViews[neighbor].id);
+						if (nextSize == next.length) {
+							next = Arrays.copyOf(next, nextSize * 2);
+						}
+						next[nextSize++] = neighbor;
+					}
+				}
+				if (!directedNeighborhood) {
+					int[] in = incoming[slot];
+					for (int i = 0; i < inDegree[slot]; i++) {
+						int neighbor = edgeSource[in[i]];
+						if (visitedMark[neighbor] != marker) {
+							visitedMark[neighbor] = marker;
+							result.add(nodeViews[neighbor].id);
+							if (nextSize == next.length) {
+								next = Arrays.copyOf(next, nextSize * 2);
+							}
+							next[nextSize++] = neighbor;
+						}
+					}
+				}
+			}
+			frontier = next;
+			frontierSize = nextSize;
+		}
+		return result;
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node, int k,
+			boolean directedNeighborhood) {
+		return getNeighbors(node.getId(), k, directedNeighborhood);
+	}
+
+	private int nextVisitMarker() {
+		if (visitedMark.length < nodeSlots) {
+			visitedMark = new int[nodeViews.length];
+			visitMarker = 0;
+		}
+		visitMarker++;
+		if (visitMarker == Integer.MAX_VALUE) {
+			Arrays.fill(visitedMark, 0);
+			visitMarker = 1;
+		}
+		return visitMarker;
+	}
+
+	@Override
+	public Set<INodeID> getPredecessorNodes(INodeID nodeID) {
+		int slot = ensureThatNodeIsInGraph(nodeID);
+		Set<INodeID> predecessors = new LinkedHashSet<>();
+		int[] in = incoming[slot];
+		for (int i = 0; i < inDegree[slot]; i++) {
+			predecessors.add(nodeViews[edgeSource[in[i]]].id);
+		}
+		return Collections.unmodifiableSet(predecessors);
+	}
+
+	@Override
+	public Collection<IEdge> getEdges(Collection<INodeID> nodes) {
+		final List<IEdge> result = new ArrayList<>();
+		final Set<INodeID> nodeSet = new LinkedHashSet<>(nodes);
+		int marker = nextVisitMarker();
+		for (INodeID id : nodeSet) {
+			int slot = nodeSlot(id);
+			if (slot == -1) {
+				return new ArrayList<>();
+			}
+			visitedMark[slot] = marker;
+		}
+		for (INodeID id : nodeSet) {
+			int slot = nodeSlot(id);
+			int[] out = outgoing[slot];
+			for (int i = 0; i < outDegree[slot]; i++) {
+				if (visitedMark[edgeTarget[out[i]]] == marker) {
+					result.add(edgeViews[out[i]]);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Iterable<INodeID> getIsolatedNodes() {
+		final List<INodeID> isolatedNodes = new ArrayList<>();
+		for (int slot = 0; slot < nodeSlots; slot++) {
+			if (nodeViews[slot] != null && outDegree[slot] == 0
+					&& inDegree[slot] == 0) {
+				isolatedNodes.add(nodeViews[slot].id);
+			}
+		}
+		return isolatedNodes;
+	}
+
+	@Override
+	public Iterable<INodeID> getRootNodes() {
+		final List<INodeID> rootNodes = new ArrayList<>();
+		for (int slot = 0; slot < nodeSlots; slot++) {
+			if (nodeViews[slot] != null && inDegree[slot] == 0) {
+				rootNodes.add(nodeViews[slot].id);
+			}
+		}
+		return rootNodes;
+	}
+
+	@Override
+	public Iterable<INodeID> getLeafNodes() {
+		final List<INodeID> leafNodes = new ArrayList<>();
+		for (int slot = 0; slot < nodeSlots; slot++) {
+			if (nodeViews[slot] != null && outDegree[slot] == 0) {
+				leafNodes.add(nodeViews[slot].id);
+			}
+		}
+		return leafNodes;
+	}
+
+	/*
+	 * Inverse edges
+	 */
+
+	@Override
+	public IEdge getInverseEdge(EdgeID edgeId) {
+		final IEdge edge = getEdge(edgeId);
+		if (edge == null)
+			throw new IllegalArgumentException("Cannot retrieve inverse edge of "
+					+ edgeId + " because " + edgeId
+					+ " is not contained in this graph");
+		return getInverseEdge(edge);
+	}
+
+	@Override
+	public IEdge getInverseEdge(IEdge edge) {
+		int slot = edgeSlot(edge);
+		if (slot == -1 || inverseEdgeCount[slot] == 0) {
+			return null;
+		}
+		return edgeViews[inverseEdges[slot][0]];
+	}
+
+	@Override
+	public Collection<IEdge> getInverseEdges(IEdge edge) {
+		int slot = edgeSlot(edge);
+		if (slot == -1) {
+			return Collections.emptyList();
+		}
+		List<IEdge> inverse = new ArrayList<>(inverseEdgeCount[slot]);
+		for (int i = 0; i < inverseEdgeCount[slot]; i++) {
+			inverse.add(edgeViews[inverseEdges[slot][i]]);
+		}
+		return Collections.unmodifiableList(inverse);
+	}
+
+	@Override
+	public void makeInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		int forward = edgeSlot(forwardEdge);
+		int backward = edgeSlot(backwardEdge);
+		if (forward == -1 || backward == -1) {
+			throw new IllegalArgumentException(
+					"Both edges need to be contained in this graph.");
+		}
+		if (!isInverse(forward, backward)) {
+			append(inverseEdges, inverseEdgeCount, forward, backward);
+			append(inverseEdges, inverseEdgeCount, backward, forward);
+		}
+	}
+
+	@Override
+	public boolean areInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		int forward = edgeSlot(forwardEdge);
+		int backward = edgeSlot(backwardEdge);
+		return forward != -1 && backward != -1 && isInverse(forward, backward);
+	}
+
+	private boolean isInverse(int forward, int backward) {
+		int[] inverse = inverseEdges[forward];
+		for (int i = 0; i < inverseEdgeCount[forward]; i++) {
+			if (inverse[i] == backward) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void destroyInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		int forward = edgeSlot(forwardEdge);
+		int backward = edgeSlot(backwardEdge);
+		if (forward != -1 && backward != -1) {
+			removeValue(inverseEdges, inverseEdgeCount, forward, backward);
+			removeValue(inverseEdges, inverseEdgeCount, backward, forward);
+		}
+	}
+
+	/*
+	 * Views and copies
+	 */
+
+	@Override
+	public CompactGraph getLocalView(INodeID node, int k) {
+		return getLocalView(node, k, false);
+	}
+
+	@Override
+	public CompactGraph getLocalView(INodeID center, int k, boolean clone) {
+		CompactGraph g = clone ? this.clone() : this;
+		Set<INodeID> kHopNodes = getNeighbors(center, k, false);
+		List<INodeID> nodesToBeRemoved = new ArrayList<>();
+		for (INodeID nodeId : getNodeIds()) {
+			if (!kHopNodes.contains(nodeId)) {
+				nodesToBeRemoved.add(nodeId);
+			}
+		}
+		for (INodeID nodeId : nodesToBeRemoved) {
+			g.removeNode(nodeId);
+		}
+		return g;
+	}
+
+	/**
+	 * Creates a copy of this graph. As the graph owns its elements, the
+	 * elements of the copy are independent of the elements of this graph.
+	 * Unlike {@link BasicGraph#clone()}, inverse edges are copied as well (in
+	 * the same order).
+	 */
+	@Override
+	public CompactGraph clone() {
+		CompactGraph g = new CompactGraph();
+		g.addNodes(getNodes());
+		g.addEdges(getEdges());
+		int[] slotInClone = new int[edgeSlots];
+		for (int slot = 0; slot < edgeSlots; slot++) {
+			slotInClone[slot] = edgeViews[slot] == null ? -1
+					: g.edgeIndex.get(edgeViews[slot].id);
+		}
+		for (int slot = 0; slot < edgeSlots; slot++) {
+			for (int i = 0; i < inverseEdgeCount[slot]; i++) {
+				append(g.inverseEdges, g.inverseEdgeCount, slotInClone[slot],
+						slotInClone[inverseEdges[slot][i]]);
+			}
+		}
+		return g;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Graph [V= ");
+		sb.append(getNodes());
+		sb.append(", E= ");
+		sb.append(getEdges());
+		sb.append("]");
+		return sb.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + getEdgeIds().hashCode();
+		result = prime * result + ((Set<INodeID>) getNodeIds()).hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CompactGraph other = (CompactGraph) obj;
+		if (getNodeCount() != other.getNodeCount()
+				|| getEdgeCount() != other.getEdgeCount()) {
+			return false;
+		}
+		for (INodeID nodeId : getNodeIds()) {
+			if (!other.containsNode(nodeId)) {
+				return false;
+			}
+		}
+		for (IEdge edge : getEdges()) {
+			if (!other.containsEdge(edge)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Read-only set over the occupied slots of a slot array.
+	 */
+	private abstract class ElementSet<E> extends AbstractSet<E> {
+
+		/**
+		 * Element at the given slot, null if the slot is free.
+		 */
+		protected abstract E elementAt(int slot);
+
+		protected abstract int slots();
+
+		@Override
+		public Iterator<E> iterator() {
+			return new Iterator<E>() {
+
+				private final int expectedModCount = modCount;
+
+				private int slot = advance(0);
+
+				private int advance(int from) {
+					int limit = slots();
+					while (from < limit && elementAt(from) == null) {
+						from++;
+					}
+					return from;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return slot < slots();
+				}
+
+				@Override
+				public E next() {
+					if (modCount != expectedModCount) {
+						throw new ConcurrentModificationException();
+					}
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					E element = elementAt(slot);
+					slot = advance(slot + 1);
+					return element;
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Read-only set of the incoming or outgoing edges of one node.
+	 */
+	private final class AdjacencySet extends AbstractSet<IEdge> {
+
+		private final int slot;
+
+		private final boolean outgoingEdges;
+
+		public AdjacencySet(int slot, boolean outgoingEdges) {
+			this.slot = slot;
+			this.outgoingEdges = outgoingEdges;
+		}
+
+		@Override
+		public Iterator<IEdge> iterator() {
+			return new Iterator<IEdge>() {
+
+				private final int expectedModCount = modCount;
+
+				private int position = 0;
+
+				@Override
+				public boolean hasNext() {
+					return position < size();
+				}
+
+				@Override
+				public IEdge next() {
+					if (modCount != expectedModCount) {
+						throw new ConcurrentModificationException();
+					}
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					int[] edges = outgoingEdges ? outgoing[slot]
+							: incoming[slot];
+					return edgeViews[edges[position++]];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return outgoingEdges ? outDegree[slot] : inDegree[slot];
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof IEdge)) {
+				return false;
+			}
+			int edge = edgeSlot((IEdge) o);
+			return edge != -1 && (outgoingEdges ? edgeSource[edge] == slot
+					: edgeTarget[edge] == slot);
+		}
+
+	}
+
+	/**
+	 * A node of this graph. Properties are stored in the graph as long as the
+	 * node is part of the graph.
+	 */
+	private final class CompactNode implements INode {
+
+		private final INodeID id;
+
+		/**
+		 * -1 once the node was removed from the graph
+		 */
+		private int slot;
+
+		private Map<SiSType<?>, Object> detachedProperties = null;
+
+		public CompactNode(INodeID id, int slot) {
+			this.id = id;
+			this.slot = slot;
+		}
+
+		void detach() {
+			detachedProperties = new LinkedHashMap<>(
+					nodeProperties.getAll(slot));
+			slot = -1;
+		}
+
+		@Override
+		public INodeID getId() {
+			return id;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T getProperty(SiSType<T> property) {
+			if (slot == -1) {
+				return (T) detachedProperties.get(property);
+			}
+			return nodeProperties.get(slot, property);
+		}
+
+		@Override
+		public <T> INode setProperty(SiSType<T> property, T value) {
+			if (slot == -1) {
+				if (value == null) {
+					detachedProperties.remove(property);
+				} else {
+					detachedProperties.put(property, value);
+				}
+			} else {
+				nodeProperties.set(slot, property, value);
+			}
+			return this;
+		}
+
+		@Override
+		public Map<SiSType<?>, Object> getProperties() {
+			if (slot == -1) {
+				return Collections.unmodifiableMap(detachedProperties);
+			}
+			return Collections.unmodifiableMap(nodeProperties.getAll(slot));
+		}
+
+		@Override
+		public void addPropertiesFrom(IElement other) {
+			for (Entry<SiSType<?>, Object> entry : other.getProperties()
+					.entrySet()) {
+				setUnchecked(this, entry.getKey(), entry.getValue());
+			}
+		}
+
+		@Override
+		public void clearProperties() {
+			if (slot == -1) {
+				detachedProperties.clear();
+			} else {
+				nodeProperties.clear(slot);
+			}
+		}
+
+		@Override
+		public String toString() {
+			Map<SiSType<?>, Object> properties = getProperties();
+			return "Node [" + (id != null ? "id=" + id : "")
+					+ (!properties.isEmpty() ? ", properties=" + properties
+							: "")
+					+ "]";
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 + id.hashCode();
+		}
+
+		/**
+		 * Nodes are equal if their IDs are equal
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			return id.equals(((CompactNode) obj).id);
+		}
+
+	}
+
+	/**
+	 * An edge of this graph. Endpoints and properties are stored in the graph
+	 * as long as the edge is part of the graph.
+	 */
+	private final class CompactEdge implements IEdge {
+
+		private final EdgeID id;
+
+		private int slot;
+
+		private INodeID detachedFrom;
+
+		private INodeID detachedTo;
+
+		private Map<SiSType<?>, Object> detachedProperties = null;
+
+		public CompactEdge(EdgeID id, int slot) {
+			this.id = id;
+			this.slot = slot;
+		}
+
+		void detach() {
+			detachedFrom = fromId();
+			detachedTo = toId();
+			detachedProperties = new LinkedHashMap<>(
+					edgeProperties.getAll(slot));
+			slot = -1;
+		}
+
+		@Override
+		public INodeID fromId() {
+			return slot == -1 ? detachedFrom
+					: nodeViews[edgeSource[slot]].id;
+		}
+
+		@Override
+		public INodeID toId() {
+			return slot == -1 ? detachedTo : nodeViews[edgeTarget[slot]].id;
+		}
+
+		@Override
+		public EdgeID getId() {
+			return id;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T getProperty(SiSType<T> property) {
+			if (slot == -1) {
+				return (T) detachedProperties.get(property);
+			}
+			return edgeProperties.get(slot, property);
+		}
+
+		@Override
+		public <T> IEdge setProperty(SiSType<T> property, T value) {
+			if (slot == -1) {
+				if (value == null) {
+					detachedProperties.remove(property);
+				} else {
+					detachedProperties.put(property, value);
+				}
+			} else {
+				edgeProperties.set(slot, property, value);
+			}
+			return this;
+		}
+
+		@Override
+		public Map<SiSType<?>, Object> getProperties() {
+			if (slot == -1) {
+				return Collections.unmodifiableMap(detachedProperties);
+			}
+			return Collections.unmodifiableMap(edgeProperties.getAll(slot));
+		}
+
+		@Override
+		public void addPropertiesFrom(IElement other) {
+			for (Entry<SiSType<?>, Object> entry : other.getProperties()
+					.entrySet()) {
+				setUnchecked(this, entry.getKey(), entry.getValue());
+			}
+		}
+
+		@Override
+		public void clearProperties() {
+			if (slot == -1) {
+				detachedProperties.clear();
+			} else {
+				edgeProperties.clear(slot);
+			}
+		}
+
+		@Override
+		public String toString() {
+			Map<SiSType<?>, Object> properties = getProperties();
+			return "DirectedEdge [" + id + ", src: " + fromId() + ", trg:"
+					+ toId()
+					+ (!properties.isEmpty() ? ", properties=" + properties
+							: "")
+					+ "]";
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + toId().hashCode();
+			result = prime * result + fromId().hashCode();
+			result = prime * result + id.hashCode();
+			return result;
+		}
+
+		/**
+		 * Edges are equal if their IDs and endpoints are equal
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			CompactEdge other = (CompactEdge) obj;
+			return id.equals(other.id) && fromId().equals(other.fromId())
+					&& toId().equals(other.toId());
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void setUnchecked(IElement element, SiSType<T> property,
+			Object value) {
+		element.setProperty(property, (T) value);
+	}
+
+	/**
+	 * Properties of all nodes (or all edges) of the graph, indexed by slot.
+	 * Numeric, boolean and enum properties are stored in one primitive column
+	 * per property, all other properties in a map per slot that is only
+	 * allocated if needed.
+	 */
+	static final class PropertyTable {
+
+		private final Map<SiSType<?>, Column> columns = new LinkedHashMap<>();
+
+		private Map<SiSType<?>, Object>[] objects = newObjectArray(
+				INITIAL_CAPACITY);
+
+		private int capacity = INITIAL_CAPACITY;
+
+		/*
+		 * Most accesses hit the same property repeatedly.
+		 */
+
+		private SiSType<?> lastProperty = null;
+
+		private Column lastColumn = null;
+
+		@SuppressWarnings("unchecked")
+		private static Map<SiSType<?>, Object>[] newObjectArray(int size) {
+			return (Map<SiSType<?>, Object>[]) new Map<?, ?>[size];
+		}
+
+		void ensureCapacity(int slots) {
+			if (slots <= capacity) {
+				return;
+			}
+			capacity = Math.max(slots, capacity * 2);
+			objects = Arrays.copyOf(objects, capacity);
+			for (Column column : columns.values()) {
+				column.ensureCapacity(capacity);
+			}
+		}
+
+		/**
+		 * Column for the given property, null if the property is not stored in
+		 * a column. If create is set, missing columns for primitive properties
+		 * are created.
+		 */
+		private Column column(SiSType<?> property, boolean create) {
+			if (property == lastProperty) {
+				return lastColumn;
+			}
+			Column column = columns.get(property);
+			if (column == null && create) {
+				Kind kind = Kind.of(property.getType());
+				if (kind != null) {
+					column = new Column(kind, property.getType(), capacity);
+					columns.put(property, column);
+				}
+			}
+			if (column != null || create) {
+				lastProperty = property;
+				lastColumn = column;
+			}
+			return column;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T get(int slot, SiSType<T> property) {
+			Column column = column(property, false);
+			if (column != null && column.isSet(slot)) {
+				return (T) column.get(slot);
+			}
+			Map<SiSType<?>, Object> map = objects[slot];
+			return map == null ? null : (T) map.get(property);
+		}
+
+		<T> void set(int slot, SiSType<T> property, T value) {
+			Column column = column(property, true);
+			if (value != null && column != null && column.accepts(value)) {
+				column.set(slot, value);
+				removeObject(slot, property);
+				return;
+			}
+			if (column != null) {
+				column.unset(slot);
+			}
+			if (value == null) {
+				removeObject(slot, property);
+			} else {
+				Map<SiSType<?>, Object> map = objects[slot];
+				if (map == null) {
+					map = new LinkedHashMap<>(4);
+					objects[slot] = map;
+				}
+				map.put(property, value);
+			}
+		}
+
+		void setAll(int slot, Map<SiSType<?>, Object> properties) {
+			for (Entry<SiSType<?>, Object> entry : properties.entrySet()) {
+				setObject(slot, entry.getKey(), entry.getValue());
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> void setObject(int slot, SiSType<T> property,
+				Object value) {
+			set(slot, property, (T) value);
+		}
+
+		private void removeObject(int slot, SiSType<?> property) {
+			Map<SiSType<?>, Object> map = objects[slot];
+			if (map != null) {
+				map.remove(property);
+				if (map.isEmpty()) {
+					objects[slot] = null;
+				}
+			}
+		}
+
+		/**
+		 * All properties of the given slot (a new map)
+		 */
+		Map<SiSType<?>, Object> getAll(int slot) {
+			Map<SiSType<?>, Object> all = new LinkedHashMap<>();
+			for (Entry<SiSType<?>, Column> entry : columns.entrySet()) {
+				if (entry.getValue().isSet(slot)) {
+					all.put(entry.getKey(), entry.getValue().get(slot));
+				}
+			}
+			if (objects[slot] != null) {
+				all.putAll(objects[slot]);
+			}
+			return all;
+		}
+
+		void clear(int slot) {
+			for (Column column : columns.values()) {
+				column.unset(slot);
+			}
+			objects[slot] = null;
+		}
+
+		void clearAll() {
+			columns.clear();
+			Arrays.fill(objects, null);
+			lastProperty = null;
+			lastColumn = null;
+		}
+
+	}
+
+	/**
+	 * Value types that can be stored in a primitive column.
+	 */
+	enum Kind {
+		DOUBLE, FLOAT, INTEGER, SHORT, BYTE, BOOLEAN, ENUM;
+
+		static Kind of(Class<?> type) {
+			if (type == Double.class) {
+				return DOUBLE;
+			} else if (type == Float.class) {
+				return FLOAT;
+			} else if (type == Integer.class) {
+				return INTEGER;
+			} else if (type == Short.class) {
+				return SHORT;
+			} else if (type == Byte.class) {
+				return BYTE;
+			} else if (type == Boolean.class) {
+				return BOOLEAN;
+			} else if (type != null && type.isEnum()) {
+				return ENUM;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A primitive column of one property. Values are stored as doubles, which
+	 * is lossless for all supported {@link Kind}s. Slots without a value are
+	 * marked in a bit set.
+	 */
+	static final class Column {
+
+		private final Kind kind;
+
+		private final Class<?> type;
+
+		private final Object[] enumConstants;
+
+		private double[] values;
+
+		private long[] present;
+
+		Column(Kind kind, Class<?> type, int capacity) {
+			this.kind = kind;
+			this.type = type;
+			this.enumConstants = kind == Kind.ENUM ? type.getEnumConstants()
+					: null;
+			this.values = new double[capacity];
+			this.present = new long[(capacity + 63) >>> 6];
+		}
+
+		void ensureCapacity(int capacity) {
+			if (values.length < capacity) {
+				values = Arrays.copyOf(values, capacity);
+				present = Arrays.copyOf(present, (capacity + 63) >>> 6);
+			}
+		}
+
+		boolean isSet(int slot) {
+			return (present[slot >>> 6] & (1L << slot)) != 0;
+		}
+
+		void unset(int slot) {
+			present[slot >>> 6] &= ~(1L << slot);
+		}
+
+		/**
+		 * Values of an unexpected type (e.g., an Integer for a property that
+		 * was first used with Double values) are not stored in the column.
+		 */
+		boolean accepts(Object value) {
+			return value.getClass() == type
+					|| (kind == Kind.ENUM && type.isInstance(value));
+		}
+
+		void set(int slot, Object value) {
+			double encoded;
+			switch (kind) {
+			case BOOLEAN:
+				encoded = ((Boolean) value) ? 1 : 0;
+				break;
+			case ENUM:
+				encoded = ((Enum<?>) value).ordinal();
+				break;
+			default:
+				encoded = ((Number) value).doubleValue();
+				break;
+			}
+			values[slot] = encoded;
+			present[slot >>> 6] |= 1L << slot;
+		}
+
+		Object get(int slot) {
+			double value = values[slot];
+			switch (kind) {
+			case DOUBLE:
+				return value;
+			case FLOAT:
+				return (float) value;
+			case INTEGER:
+				return (int) value;
+			case SHORT:
+				return (short) value;
+			case BYTE:
+				return (byte) value;
+			case BOOLEAN:
+				return value != 0;
+			case ENUM:
+				return enumConstants[(int) value];
+			default:
+				throw new AssertionError("Unknown kind " + kind);
+			}
+		}
+
+	}
+
+}
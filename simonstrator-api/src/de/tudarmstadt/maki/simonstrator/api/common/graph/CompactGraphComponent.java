@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.component.core.GraphComponent;
+
+/**
+ * {@link GraphComponent} creating {@link CompactGraph}s. To use it for all
+ * graphs created via {@link Graphs#createGraph()}, add
+ *
+ * <pre>
+ * &lt;GraphComponent class="de.tudarmstadt.maki.simonstrator.api.common.graph.CompactGraphComponent" /&gt;
+ * </pre>
+ *
+ * to the configuration of the simulation.
+ */
+public class CompactGraphComponent implements GraphComponent {
+
+	@Override
+	public Graph createGraph() {
+		return new CompactGraph();
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.Arrays;
+
+/**
+ * Maps {@link GraphElementID}s to dense int indices without boxing (open
+ * addressing with linear probing). Used by the {@link CompactGraph}.
+ */
+final class ElementIndex<K extends GraphElementID> {
+
+	private static final Object REMOVED = new Object();
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Object[] keys = new Object[INITIAL_CAPACITY];
+
+	private int[] values = new int[INITIAL_CAPACITY];
+
+	private int size = 0;
+
+	/**
+	 * Number of occupied slots, including removed markers.
+	 */
+	private int used = 0;
+
+	/**
+	 * Returns the index of the given key, -1 if the key is unknown.
+	 *
+	 * @param key
+	 * @return
+	 */
+	public int get(Object key) {
+		int mask = keys.length - 1;
+		int pos = hash(key) & mask;
+		Object current;
+		while ((current = keys[pos]) != null) {
+			if (current != REMOVED && current.equals(key)) {
+				return values[pos];
+			}
+			pos = (pos + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Sets the index of the given key
+	 *
+	 * @param key
+	 * @param value
+	 *            has to be >= 0
+	 */
+	public void put(K key, int value) {
+		assert value >= 0;
+		if ((used + 1) * 4 > keys.length * 3) {
+			rehash(size * 4 > keys.length ? keys.length * 2 : keys.length);
+		}
+		int mask = keys.length - 1;
+		int pos = hash(key) & mask;
+		int firstRemoved = -1;
+		Object current;
+		while ((current = keys[pos]) != null) {
+			if (current == REMOVED) {
+				if (firstRemoved == -1) {
+					firstRemoved = pos;
+				}
+			} else if (current.equals(key)) {
+				values[pos] = value;
+				return;
+			}
+			pos = (pos + 1) & mask;
+		}
+		if (firstRemoved != -1) {
+			pos = firstRemoved;
+		} else {
+			used++;
+		}
+		keys[pos] = key;
+		values[pos] = value;
+		size++;
+	}
+
+	/**
+	 * Removes the key and returns its index, or -1 if the key is unknown.
+	 *
+	 * @param key
+	 * @return
+	 */
+	public int remove(Object key) {
+		int mask = keys.length - 1;
+		int pos = hash(key) & mask;
+		Object current;
+		while ((current = keys[pos]) != null) {
+			if (current != REMOVED && current.equals(key)) {
+				keys[pos] = REMOVED;
+				size--;
+				return values[pos];
+			}
+			pos = (pos + 1) & mask;
+		}
+		return -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, null);
+		size = 0;
+		used = 0;
+	}
+
+	private void rehash(int capacity) {
+		Object[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new Object[capacity];
+		values = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object key = oldKeys[i];
+			if (key != null && key != REMOVED) {
+				int pos = hash(key) & mask;
+				while (keys[pos] != null) {
+					pos = (pos + 1) & mask;
+				}
+				keys[pos] = key;
+				values[pos] = oldValues[i];
+			}
+		}
+		used = size;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
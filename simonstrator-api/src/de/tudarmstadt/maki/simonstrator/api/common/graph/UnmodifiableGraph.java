@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+
+/**
+ * Read-only view on a {@link Graph}, created via
+ * {@link Graphs#unmodifiableGraph(Graph)}. All operations that modify the
+ * structure of the graph (including {@link #getLocalView(INodeID, int)})
+ * throw an {@link UnsupportedOperationException}, changes of the underlying
+ * graph are visible. Properties of the contained elements may still be
+ * modified. {@link #clone()} returns a modifiable copy.
+ */
+public final class UnmodifiableGraph implements Graph {
+
+	private final Graph graph;
+
+	public UnmodifiableGraph(Graph graph) {
+		if (graph == null)
+			throw new NullPointerException("graph is null");
+		this.graph = graph;
+	}
+
+	@Override
+	@Deprecated
+	public INode createNode(INodeID id) {
+		return graph.createNode(id);
+	}
+
+	@Override
+	@Deprecated
+	public IEdge createEdge(INodeID from, INodeID to) {
+		return graph.createEdge(from, to);
+	}
+
+	@Override
+	@Deprecated
+	public IEdge createEdge(INodeID from, INodeID to, double weight) {
+		return graph.createEdge(from, to, weight);
+	}
+
+	@Override
+	public IEdge createAndAddEdge(INodeID from, INodeID to) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public IEdge createAndAddEdge(INodeID from, INodeID to,
+			boolean allowMultiEdges) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addElement(IElement element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	@Deprecated
+	public boolean add(IElement element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addElements(Iterable<? extends IElement> elements) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addEdge(IEdge edge) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addEdges(Iterable<? extends IEdge> edges) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addNode(INode node) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void addNodes(Iterable<? extends INode> nodes) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public INode createAndAddNode(INodeID nodeId) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<INode> createAndAddNodes(Iterable<INodeID> nodeIds) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeElement(IElement element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	@Deprecated
+	public boolean remove(IElement element) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeNode(INodeID node) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeEdge(IEdge edgeID) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean contains(IElement element) {
+		return graph.contains(element);
+	}
+
+	@Override
+	public boolean containsNode(INodeID nodeId) {
+		return graph.containsNode(nodeId);
+	}
+
+	@Override
+	public boolean containsNode(INode node) {
+		return graph.containsNode(node);
+	}
+
+	@Override
+	public boolean containsEdge(IEdge edge) {
+		return graph.containsEdge(edge);
+	}
+
+	@Override
+	public boolean containsEdge(INodeID from, INodeID to) {
+		return graph.containsEdge(from, to);
+	}
+
+	@Override
+	public Set<? extends IEdge> getEdges() {
+		return Collections.unmodifiableSet(graph.getEdges());
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return graph.getEdgeCount();
+	}
+
+	@Override
+	public INode getNode(INodeID nodeId) {
+		return graph.getNode(nodeId);
+	}
+
+	@Override
+	public IEdge getEdge(INodeID from, INodeID to) {
+		return graph.getEdge(from, to);
+	}
+
+	@Override
+	public Collection<IEdge> getEdges(INodeID from, INodeID to) {
+		return Collections.unmodifiableCollection(graph.getEdges(from, to));
+	}
+
+	@Override
+	public IEdge getEdge(EdgeID edgeID) {
+		return graph.getEdge(edgeID);
+	}
+
+	@Override
+	public IEdge getInverseEdge(EdgeID edgeId) {
+		return graph.getInverseEdge(edgeId);
+	}
+
+	@Override
+	public IEdge getInverseEdge(IEdge edge) {
+		return graph.getInverseEdge(edge);
+	}
+
+	@Override
+	public Collection<IEdge> getInverseEdges(IEdge edge) {
+		return Collections.unmodifiableCollection(graph.getInverseEdges(edge));
+	}
+
+	@Override
+	public void makeInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Set<? extends INode> getNodes() {
+		return Collections.unmodifiableSet(graph.getNodes());
+	}
+
+	@Override
+	public int getNodeCount() {
+		return graph.getNodeCount();
+	}
+
+	@Override
+	public Graph getLocalView(INodeID node, int k) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Graph getLocalView(INodeID node, int k, boolean clone) {
+		if (!clone)
+			throw new UnsupportedOperationException();
+		return graph.getLocalView(node, k, true);
+	}
+
+	@Override
+	public Set<IEdge> getOutgoingEdges(INodeID node) {
+		return Collections.unmodifiableSet(graph.getOutgoingEdges(node));
+	}
+
+	@Override
+	@Deprecated
+	public Set<IEdge> getOutgoingEdges(INode node) {
+		return getOutgoingEdges(node.getId());
+	}
+
+	@Override
+	public int getOutdegree(INodeID node) {
+		return graph.getOutdegree(node);
+	}
+
+	@Override
+	public Set<IEdge> getIncomingEdges(INodeID node) {
+		return Collections.unmodifiableSet(graph.getIncomingEdges(node));
+	}
+
+	@Override
+	@Deprecated
+	public Set<IEdge> getIncomingEdges(INode node) {
+		return getIncomingEdges(node.getId());
+	}
+
+	@Override
+	public int getIndegree(INodeID node) {
+		return graph.getIndegree(node);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INodeID node, int k,
+			boolean directedNeighborhood) {
+		return graph.getNeighbors(node, k, directedNeighborhood);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node, int k,
+			boolean directedNeighborhood) {
+		return graph.getNeighbors(node, k, directedNeighborhood);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INodeID node,
+			boolean directedNeighborhood) {
+		return Collections.unmodifiableSet(
+				graph.getNeighbors(node, directedNeighborhood));
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node, boolean directedNeighborhood) {
+		return getNeighbors(node.getId(), directedNeighborhood);
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INodeID node) {
+		return Collections.unmodifiableSet(graph.getNeighbors(node));
+	}
+
+	@Override
+	public Set<INodeID> getNeighbors(INode node) {
+		return getNeighbors(node.getId());
+	}
+
+	@Override
+	public Graph clone() {
+		return graph.clone();
+	}
+
+	@Override
+	public Iterable<INodeID> getIsolatedNodes() {
+		return graph.getIsolatedNodes();
+	}
+
+	@Override
+	public Iterable<INodeID> getLeafNodes() {
+		return graph.getLeafNodes();
+	}
+
+	@Override
+	public Iterable<INodeID> getRootNodes() {
+		return graph.getRootNodes();
+	}
+
+	@Override
+	public Iterable<INodeID> getNodeIds() {
+		final Iterable<INodeID> nodeIds = graph.getNodeIds();
+		if (nodeIds instanceof Set) {
+			return Collections.unmodifiableSet((Set<INodeID>) nodeIds);
+		}
+		return nodeIds;
+	}
+
+	@Override
+	public Set<EdgeID> getEdgeIds() {
+		return Collections.unmodifiableSet(graph.getEdgeIds());
+	}
+
+	@Override
+	public int getDegree(INodeID nodeID) {
+		return graph.getDegree(nodeID);
+	}
+
+	@Override
+	public Set<INodeID> getPredecessorNodes(INodeID nodeID) {
+		return Collections.unmodifiableSet(graph.getPredecessorNodes(nodeID));
+	}
+
+	@Override
+	public Collection<IEdge> getEdges(Collection<INodeID> nodes) {
+		return graph.getEdges(nodes);
+	}
+
+	@Override
+	public boolean areInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		return graph.areInverseEdges(forwardEdge, backwardEdge);
+	}
+
+	@Override
+	public void destroyInverseEdges(IEdge forwardEdge, IEdge backwardEdge) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public String toString() {
+		return graph.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return graph.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof UnmodifiableGraph) {
+			return graph.equals(((UnmodifiableGraph) obj).graph);
+		}
+		return graph.equals(obj);
+	}
+
+}
@@ -22,6 +22,7 @@ package de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import de.tudarmstadt.maki.simonstrator.api.common.Timestamp;
@@ -36,4 +37,8 @@ public class CompositeGraphDelta extends GraphDelta_ImplBase {
 		this.containedDeltas = new ArrayList<>(containedDeltas);
 	}
 
+	public List<IGraphDelta> getContainedDeltas() {
+		return Collections.unmodifiableList(containedDeltas);
+	}
+
 }
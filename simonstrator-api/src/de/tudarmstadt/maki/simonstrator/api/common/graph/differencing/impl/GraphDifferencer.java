@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ * 
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.Time;
+import de.tudarmstadt.maki.simonstrator.api.common.Timestamp;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IElement;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDifferencer;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.ITimestampProvider;
+import de.tudarmstadt.maki.simonstrator.api.component.sis.type.SiSType;
+
+/**
+ * Calculates the elementary deltas that transform one graph into another.
+ *
+ * The contained deltas of the resulting {@link CompositeGraphDelta} are
+ * ordered such that they may be applied one after the other: node additions,
+ * edge removals, node removals, edge additions, node property changes and,
+ * finally, edge property changes. Addition and property deltas refer to the
+ * elements of the second graph, removal deltas to the elements of the first
+ * graph.
+ *
+ * Property changes can only be detected if the two graphs do not share their
+ * element objects (see {@link #createSnapshot(Graph)}).
+ */
+public class GraphDifferencer implements IGraphDifferencer {
+
+	private ITimestampProvider timestampProvider = () -> new Timestamp(Time.getCurrentTime());
+
+	@Override
+	public CompositeGraphDelta calculateDelta(final Graph firstGraph, final Graph secondGraph) {
+		final Timestamp timestamp = this.timestampProvider.getTimestamp();
+
+		final List<IGraphDelta> nodeAdditions = new ArrayList<>();
+		final List<IGraphDelta> nodeRemovals = new ArrayList<>();
+		final List<IGraphDelta> edgeAdditions = new ArrayList<>();
+		final List<IGraphDelta> edgeRemovals = new ArrayList<>();
+		final List<IGraphDelta> nodePropertyChanges = new ArrayList<>();
+		final List<IGraphDelta> edgePropertyChanges = new ArrayList<>();
+
+		for (final INode node : secondGraph.getNodes()) {
+			final INode oldNode = firstGraph.getNode(node.getId());
+			if (oldNode == null) {
+				nodeAdditions.add(new NodeAdditionDelta(node, timestamp));
+			} else {
+				for (final SiSType<?> property : getChangedProperties(oldNode, node)) {
+					nodePropertyChanges.add(createNodePropertyDelta(property, oldNode, node, timestamp));
+				}
+			}
+		}
+
+		for (final INode oldNode : firstGraph.getNodes()) {
+			if (!secondGraph.containsNode(oldNode.getId())) {
+				nodeRemovals.add(new NodeRemovalDelta(oldNode, timestamp));
+			}
+		}
+
+		for (final IEdge edge : secondGraph.getEdges()) {
+			final IEdge oldEdge = firstGraph.getEdge(edge.getId());
+			if (oldEdge == null) {
+				edgeAdditions.add(new EdgeAdditionDelta(edge, timestamp));
+			} else {
+				for (final SiSType<?> property : getChangedProperties(oldEdge, edge)) {
+					edgePropertyChanges.add(createEdgePropertyDelta(property, oldEdge, edge, timestamp));
+				}
+			}
+		}
+
+		for (final IEdge oldEdge : firstGraph.getEdges()) {
+			if (secondGraph.getEdge(oldEdge.getId()) == null) {
+				edgeRemovals.add(new EdgeRemovalDelta(oldEdge, timestamp));
+			}
+		}
+
+		final List<IGraphDelta> deltas = new ArrayList<>(nodeAdditions.size() + edgeRemovals.size()
+				+ nodeRemovals.size() + edgeAdditions.size() + nodePropertyChanges.size() + edgePropertyChanges.size());
+		deltas.addAll(nodeAdditions);
+		deltas.addAll(edgeRemovals);
+		deltas.addAll(nodeRemovals);
+		deltas.addAll(edgeAdditions);
+		deltas.addAll(nodePropertyChanges);
+		deltas.addAll(edgePropertyChanges);
+		return new CompositeGraphDelta(deltas, timestamp);
+	}
+
+	@Override
+	public void setTimestampProvider(final ITimestampProvider timestampProvider) {
+		this.timestampProvider = timestampProvider;
+	}
+
+	/**
+	 * Creates a copy of the given graph whose nodes and edges are new objects
+	 * that carry the same IDs and a copy of the property maps of the original
+	 * elements. The property values themselves are shared.
+	 *
+	 * @param graph
+	 *            the graph to copy
+	 * @return the copy
+	 */
+	public static Graph createSnapshot(final Graph graph) {
+		final Graph snapshot = Graphs.createGraph();
+		for (final INode node : graph.getNodes()) {
+			final INode copy = Graphs.createNode(node.getId());
+			copy.addPropertiesFrom(node);
+			snapshot.addNode(copy);
+		}
+		for (final IEdge edge : graph.getEdges()) {
+			final IEdge copy = Graphs.createDirectedEdge(edge.getId(), edge.fromId(), edge.toId());
+			copy.addPropertiesFrom(edge);
+			snapshot.addEdge(copy);
+		}
+		return snapshot;
+	}
+
+	private static List<SiSType<?>> getChangedProperties(final IElement oldElement, final IElement newElement) {
+		final Map<SiSType<?>, Object> oldProperties = oldElement.getProperties();
+		final Map<SiSType<?>, Object> newProperties = newElement.getProperties();
+		final List<SiSType<?>> changedProperties = new ArrayList<>();
+		for (final Map.Entry<SiSType<?>, Object> entry : newProperties.entrySet()) {
+			if (!Objects.equals(entry.getValue(), oldProperties.get(entry.getKey()))) {
+				changedProperties.add(entry.getKey());
+			}
+		}
+		for (final SiSType<?> property : oldProperties.keySet()) {
+			if (!newProperties.containsKey(property)) {
+				changedProperties.add(property);
+			}
+		}
+		return changedProperties;
+	}
+
+	private static <T> NodePropertyDelta<T> createNodePropertyDelta(final SiSType<T> property, final INode oldNode,
+			final INode node, final Timestamp timestamp) {
+		return new NodePropertyDelta<>(property, oldNode.getProperty(property), node, timestamp);
+	}
+
+	private static <T> EdgePropertyDelta<T> createEdgePropertyDelta(final SiSType<T> property, final IEdge oldEdge,
+			final IEdge edge, final Timestamp timestamp) {
+		return new EdgePropertyDelta<>(property, oldEdge.getProperty(property), edge, timestamp);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ * 
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Components in registration order, with a per-type index for lookups.
+ * Lookups scan the components only once per requested type (including misses)
+ * until the next registration or removal. Thread-safe: lookups may run
+ * concurrently to each other and to modifications, which replace the index
+ * instead of clearing it.
+ * 
+ * @param <C>
+ *            type of the registered components
+ */
+public class ComponentRegistry<C> {
+
+	private final List<C> components = new CopyOnWriteArrayList<C>();
+
+	/*
+	 * All components implementing the requested type, in registration order.
+	 * Replaced after each modification of the components, so a lookup that
+	 * races with a modification can only store its result in a discarded map.
+	 */
+	private volatile Map<Class<?>, List<?>> index = new ConcurrentHashMap<Class<?>, List<?>>();
+
+	/**
+	 * Registers the component
+	 * 
+	 * @param component
+	 * @return false, if the component was already registered
+	 */
+	public synchronized boolean register(C component) {
+		if (components.contains(component)) {
+			return false;
+		}
+		components.add(component);
+		index = new ConcurrentHashMap<Class<?>, List<?>>();
+		return true;
+	}
+
+	/**
+	 * Removes the component
+	 * 
+	 * @param component
+	 * @return true, if the component was registered
+	 */
+	public synchronized boolean remove(C component) {
+		if (components.remove(component)) {
+			index = new ConcurrentHashMap<Class<?>, List<?>>();
+			return true;
+		}
+		return false;
+	}
+
+	public boolean contains(C component) {
+		return components.contains(component);
+	}
+
+	/**
+	 * The first registered component implementing the given type
+	 * 
+	 * @param componentClass
+	 * @return the component or null, if none is registered
+	 */
+	public <T> T get(Class<T> componentClass) {
+		List<T> matches = getAll(componentClass);
+		return matches.isEmpty() ? null : matches.get(0);
+	}
+
+	/**
+	 * All registered components implementing the given type
+	 * 
+	 * @param componentClass
+	 * @return unmodifiable list, empty if no component is registered
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getAll(Class<T> componentClass) {
+		Map<Class<?>, List<?>> index = this.index;
+		List<T> matches = (List<T>) index.get(componentClass);
+		if (matches == null) {
+			matches = new ArrayList<T>(1);
+			for (C component : components) {
+				if (componentClass.isInstance(component)) {
+					matches.add(componentClass.cast(component));
+				}
+			}
+			matches = matches.isEmpty() ? Collections.<T> emptyList()
+					: Collections.unmodifiableList(matches);
+			index.put(componentClass, matches);
+		}
+		return matches;
+	}
+
+	/**
+	 * All components in registration order
+	 * 
+	 * @return unmodifiable list
+	 */
+	public List<C> getComponents() {
+		return Collections.unmodifiableList(components);
+	}
+
+}
@@ -22,6 +22,7 @@ package de.tudarmstadt.maki.simonstrator.api.component.core;
 
 import java.io.Writer;
 import java.util.List;
+import java.util.function.Supplier;
 
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
@@ -53,6 +54,35 @@ public interface MonitorComponent extends GlobalComponent {
 	public void log(Class<?> subject, Level level, String message,
 			Object... data);
 
+	/**
+	 * Logging of a message that is only created if logging is enabled for the
+	 * given subject and level.
+	 * 
+	 * @param subject
+	 * @param level
+	 * @param message
+	 *            supplier of the complete message (no placeholders)
+	 */
+	public default void log(Class<?> subject, Level level,
+			Supplier<String> message) {
+		if (isLogEnabled(subject, level)) {
+			log(subject, level, "%s", message.get());
+		}
+	}
+
+	/**
+	 * Returns true, if messages of the given level are logged for the given
+	 * subject. Should be cheap, as it is checked before any argument of a log
+	 * call is captured.
+	 * 
+	 * @param subject
+	 * @param level
+	 * @return
+	 */
+	public default boolean isLogEnabled(Class<?> subject, Level level) {
+		return true;
+	}
+
 	/**
 	 * Retrieve all Analyzers implementing the respective interface.
 	 * 
@@ -22,6 +22,7 @@ package de.tudarmstadt.maki.simonstrator.api.component.core;
 
 import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
+import de.tudarmstadt.maki.simonstrator.api.PrimitiveEventHandler;
 import de.tudarmstadt.maki.simonstrator.api.component.GlobalComponent;
 
 /**
@@ -42,4 +43,26 @@ public interface SchedulerComponent extends GlobalComponent {
 	public void scheduleIn(long time, EventHandler handler, Object content,
 			int type);
 
+	/**
+	 * Schedules an event for a {@link PrimitiveEventHandler}. Platforms that
+	 * are able to do so should override this method to avoid any allocation,
+	 * the default implementation wraps the handler into an
+	 * {@link EventHandler}.
+	 * 
+	 * @param time
+	 * @param handler
+	 * @param type
+	 * @param payload
+	 */
+	public default void scheduleIn(long time,
+			final PrimitiveEventHandler handler, int type,
+			final long payload) {
+		scheduleIn(time, new EventHandler() {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				handler.eventOccurred(type, payload);
+			}
+		}, null, type);
+	}
+
 }
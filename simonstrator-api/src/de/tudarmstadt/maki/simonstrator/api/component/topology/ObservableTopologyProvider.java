@@ -29,4 +29,18 @@ package de.tudarmstadt.maki.simonstrator.api.component.topology;
 public interface ObservableTopologyProvider extends TopologyProvider {
 
 	void addTopologyObserver(TopologyObserver observer);
+
+	/**
+	 * Whether the {@link TopologyObserver}s are notified about every change of
+	 * the node and the neighbors of this provider in the given topology. Only
+	 * then, observers may rely on the notifications instead of querying the
+	 * provider again (e.g., to cache the topology).
+	 * 
+	 * @param topologyIdentifier
+	 * @return false, unless the provider explicitly guarantees complete
+	 *         notifications
+	 */
+	default boolean isReportingAllChanges(TopologyID topologyIdentifier) {
+		return false;
+	}
 }
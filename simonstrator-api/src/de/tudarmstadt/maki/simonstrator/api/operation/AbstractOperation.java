@@ -21,7 +21,8 @@
 package de.tudarmstadt.maki.simonstrator.api.operation;
 
 import de.tudarmstadt.maki.simonstrator.api.Event;
-import de.tudarmstadt.maki.simonstrator.api.EventHandler;
+import de.tudarmstadt.maki.simonstrator.api.Host;
+import de.tudarmstadt.maki.simonstrator.api.HostEventHandler;
 import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
 
 /**
@@ -211,7 +212,7 @@ public abstract class AbstractOperation<T extends HostComponent, R> implements
 	 * @author Bjoern Richerzhagen
 	 * 
 	 */
-	private class OperationEventHandler implements EventHandler {
+	private class OperationEventHandler implements HostEventHandler {
 
 		public final int TIMEOUT = 1;
 
@@ -229,6 +230,11 @@ public abstract class AbstractOperation<T extends HostComponent, R> implements
 			}
 		}
 
+		@Override
+		public Host getHost() {
+			return owner == null ? null : owner.getHost();
+		}
+
 		@Override
 		public String toString() {
 			return AbstractOperation.this.getClass().getSimpleName();
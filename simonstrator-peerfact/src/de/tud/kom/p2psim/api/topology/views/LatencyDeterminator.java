@@ -60,4 +60,16 @@ public interface LatencyDeterminator {
 	public long getLatency(TopologyView view, MacAddress source,
 			MacAddress destination, Link link);
 
+	/**
+	 * A lower bound for all latencies returned by
+	 * {@link #getLatency(TopologyView, MacAddress, MacAddress, Link)}. It is
+	 * used as lookahead by the parallel scheduler, 0 (the default) disables
+	 * parallel execution.
+	 * 
+	 * @return
+	 */
+	public default long getMinimumLatency() {
+		return 0;
+	}
+
 }
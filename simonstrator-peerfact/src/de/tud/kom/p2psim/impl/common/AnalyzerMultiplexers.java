@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.common;
+
+import java.io.Writer;
+import java.util.List;
+
+import de.tud.kom.p2psim.api.analyzer.EnergyAnalyzer;
+import de.tud.kom.p2psim.api.analyzer.LinklayerAnalyzer;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
+import de.tud.kom.p2psim.api.analyzer.TransportAnalyzer;
+import de.tud.kom.p2psim.api.common.SimHost;
+import de.tud.kom.p2psim.api.energy.EnergyComponent;
+import de.tud.kom.p2psim.api.energy.EnergyState;
+import de.tud.kom.p2psim.api.linklayer.LinkLayerMessage;
+import de.tud.kom.p2psim.api.network.NetMessage;
+import de.tud.kom.p2psim.api.transport.TransMessage;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
+import de.tudarmstadt.maki.simonstrator.api.Monitor.AnalyzerMultiplexer;
+import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.Analyzer;
+
+/**
+ * Direct (non-reflective) multiplexers for the analyzer interfaces that are
+ * called for every message, see
+ * {@link Monitor#registerMultiplexer(Class, AnalyzerMultiplexer)}.
+ */
+public final class AnalyzerMultiplexers {
+
+	private AnalyzerMultiplexers() {
+		// utility class
+	}
+
+	/**
+	 * Registers the multiplexers of this class at the {@link Monitor}.
+	 */
+	public static void register() {
+		Monitor.registerMultiplexer(LinklayerAnalyzer.class,
+				LinklayerMultiplexer::new);
+		Monitor.registerMultiplexer(NetlayerAnalyzer.class,
+				NetlayerMultiplexer::new);
+		Monitor.registerMultiplexer(TransportAnalyzer.class,
+				TransportMultiplexer::new);
+		Monitor.registerMultiplexer(EnergyAnalyzer.class,
+				EnergyMultiplexer::new);
+	}
+
+	/**
+	 * Forwards the calls of the {@link Analyzer} interface
+	 */
+	private static abstract class AbstractMultiplexer<A extends Analyzer>
+			implements Analyzer {
+
+		/**
+		 * Live list maintained by the {@link Monitor}
+		 */
+		protected final List<A> analyzers;
+
+		protected AbstractMultiplexer(List<A> analyzers) {
+			this.analyzers = analyzers;
+		}
+
+		@Override
+		public void start() {
+			for (A analyzer : analyzers) {
+				analyzer.start();
+			}
+		}
+
+		@Override
+		public void stop(Writer out) {
+			for (A analyzer : analyzers) {
+				analyzer.stop(out);
+			}
+		}
+
+	}
+
+	private static final class LinklayerMultiplexer extends
+			AbstractMultiplexer<LinklayerAnalyzer> implements LinklayerAnalyzer {
+
+		public LinklayerMultiplexer(List<LinklayerAnalyzer> analyzers) {
+			super(analyzers);
+		}
+
+		@Override
+		public void linkMsgEvent(LinkLayerMessage msg, SimHost host,
+				Reason reason) {
+			for (LinklayerAnalyzer analyzer : analyzers) {
+				analyzer.linkMsgEvent(msg, host, reason);
+			}
+		}
+
+	}
+
+	private static final class NetlayerMultiplexer extends
+			AbstractMultiplexer<NetlayerAnalyzer> implements NetlayerAnalyzer {
+
+		public NetlayerMultiplexer(List<NetlayerAnalyzer> analyzers) {
+			super(analyzers);
+		}
+
+		@Override
+		public void netMsgEvent(NetMessage msg, SimHost host, Reason reason) {
+			for (NetlayerAnalyzer analyzer : analyzers) {
+				analyzer.netMsgEvent(msg, host, reason);
+			}
+		}
+
+	}
+
+	private static final class TransportMultiplexer extends
+			AbstractMultiplexer<TransportAnalyzer> implements TransportAnalyzer {
+
+		public TransportMultiplexer(List<TransportAnalyzer> analyzers) {
+			super(analyzers);
+		}
+
+		@Override
+		public void transMsgEvent(TransMessage msg, SimHost host,
+				Reason reason) {
+			for (TransportAnalyzer analyzer : analyzers) {
+				analyzer.transMsgEvent(msg, host, reason);
+			}
+		}
+
+	}
+
+	private static final class EnergyMultiplexer extends
+			AbstractMultiplexer<EnergyAnalyzer> implements EnergyAnalyzer {
+
+		public EnergyMultiplexer(List<EnergyAnalyzer> analyzers) {
+			super(analyzers);
+		}
+
+		@Override
+		public void consumeEnergy(SimHost host, double energy,
+				EnergyComponent consumer, EnergyState energyState) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.consumeEnergy(host, energy, consumer, energyState);
+			}
+		}
+
+		@Override
+		public void batteryIsEmpty(SimHost host) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.batteryIsEmpty(host);
+			}
+		}
+
+		@Override
+		public void highPowerMode(SimHost host, long time,
+				double consumedEnergy, EnergyComponent component) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.highPowerMode(host, time, consumedEnergy, component);
+			}
+		}
+
+		@Override
+		public void lowPowerMode(SimHost host, long time,
+				double consumedEnergy, EnergyComponent component) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.lowPowerMode(host, time, consumedEnergy, component);
+			}
+		}
+
+		@Override
+		public void tailMode(SimHost host, long time, double consumedEnergy,
+				EnergyComponent component) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.tailMode(host, time, consumedEnergy, component);
+			}
+		}
+
+		@Override
+		public void offMode(SimHost host, long time, double consumedEnergy,
+				EnergyComponent component) {
+			for (EnergyAnalyzer analyzer : analyzers) {
+				analyzer.offMode(host, time, consumedEnergy, component);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+
+/**
+ * Writes log messages in batches on a separate thread, so that simulation
+ * threads never block on the I/O of the log appenders. Messages are formatted
+ * by the calling thread (arguments might change afterwards) and written in the
+ * order they were enqueued. Remaining messages are written on
+ * {@link #flush()} and on JVM shutdown.
+ */
+final class AsyncLogSink implements Runnable {
+
+	private static final int BATCH_SIZE = 256;
+
+	private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+	private static AsyncLogSink instance = null;
+
+	private final BlockingQueue<LogRecord> queue = new LinkedBlockingQueue<LogRecord>();
+
+	private AsyncLogSink() {
+		// use getInstance
+	}
+
+	/**
+	 * The sink is shared by all simulations running within this JVM (as are
+	 * the loggers)
+	 * 
+	 * @return
+	 */
+	public static synchronized AsyncLogSink getInstance() {
+		if (instance == null) {
+			instance = new AsyncLogSink();
+			Thread worker = new Thread(instance, "AsyncLogSink");
+			worker.setDaemon(true);
+			worker.start();
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					instance.flush();
+				}
+			});
+		}
+		return instance;
+	}
+
+	/**
+	 * Enqueues the message, never blocks.
+	 * 
+	 * @param logger
+	 * @param level
+	 * @param message
+	 */
+	public void log(Logger logger, Level level, String message) {
+		queue.offer(new LogRecord(logger, level, message, null));
+	}
+
+	/**
+	 * Blocks until all messages that were enqueued before have been written
+	 * (or a timeout occurred).
+	 */
+	public void flush() {
+		CountDownLatch written = new CountDownLatch(1);
+		queue.offer(new LogRecord(null, null, null, written));
+		try {
+			written.await(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void run() {
+		List<LogRecord> batch = new ArrayList<LogRecord>(BATCH_SIZE);
+		while (true) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, BATCH_SIZE - 1);
+			for (LogRecord record : batch) {
+				if (record.flushed != null) {
+					record.flushed.countDown();
+					continue;
+				}
+				try {
+					record.logger.log(record.level, record.message);
+				} catch (RuntimeException e) {
+					/*
+					 * A failing appender must not stop the worker, otherwise
+					 * all following messages are lost and flush blocks until
+					 * the timeout.
+					 */
+					LogLog.error("AsyncLogSink: failed to write log message",
+							e);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private static final class LogRecord {
+
+		private final Logger logger;
+
+		private final Level level;
+
+		private final String message;
+
+		private final CountDownLatch flushed;
+
+		public LogRecord(Logger logger, Level level, String message,
+				CountDownLatch flushed) {
+			this.logger = logger;
+			this.level = level;
+			this.message = message;
+			this.flushed = flushed;
+		}
+
+	}
+
+}
@@ -34,6 +34,7 @@ import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
+import de.tudarmstadt.maki.simonstrator.api.component.ComponentRegistry;
 import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.transport.TransportComponent;
 
@@ -45,7 +46,7 @@ public class DefaultHost implements SimHost {
 	/*
 	 * "New Host"
 	 */
-	private final List<HostComponent> components = new LinkedList<HostComponent>();
+	private final ComponentRegistry<HostComponent> components = new ComponentRegistry<HostComponent>();
 
 	private final long uniqueHostId;
 
@@ -61,35 +62,33 @@ public class DefaultHost implements SimHost {
 	@Override
 	public <T extends HostComponent> T getComponent(Class<T> componentClass)
 			throws ComponentNotAvailableException {
-		for (HostComponent component : components) {
-			if (componentClass.isInstance(component)) {
-				return componentClass.cast(component);
-			}
+		T component = components.get(componentClass);
+		if (component == null) {
+			throw new ComponentNotAvailableException();
 		}
-		throw new ComponentNotAvailableException();
+		return component;
+	}
+
+	@Override
+	public <T extends HostComponent> T getComponentOrNull(
+			Class<T> componentClass) {
+		return components.get(componentClass);
 	}
 
 	@Override
 	public <T extends HostComponent> List<T> getComponents(
 			Class<T> componentClass) throws ComponentNotAvailableException {
-		List<T> match = new LinkedList<T>();
-		for (HostComponent component : components) {
-			if (componentClass.isInstance(component)) {
-				match.add(componentClass.cast(component));
-			}
-		}
+		List<T> match = components.getAll(componentClass);
 		if (match.isEmpty()) {
 			throw new ComponentNotAvailableException();
 		} else {
-			return match;
+			return new LinkedList<T>(match);
 		}
 	}
 
 	@Override
 	public <T extends HostComponent> void registerComponent(T component) {
-		if (!components.contains(component)) {
-			components.add(component);
-		} else {
+		if (!components.register(component)) {
 			throw new UnsupportedOperationException("The component "
 					+ component.toString() + " is already registered!");
 		}
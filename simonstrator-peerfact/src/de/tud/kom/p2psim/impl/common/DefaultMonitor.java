@@ -24,10 +24,11 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.apache.log4j.Logger;
 
@@ -38,6 +39,7 @@ import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.SimulationContext;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent;
 
@@ -51,21 +53,41 @@ import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent;
 public class DefaultMonitor implements MonitorComponent, EventHandler,
 		SimulatorObserver {
 
-	private final static List<Analyzer> analyzers = new LinkedList<Analyzer>();
+	private final List<Analyzer> analyzers = new LinkedList<Analyzer>();
 
-	private final static Map<Class<?>, Logger> loggers = new LinkedHashMap<Class<?>, Logger>();
+	/**
+	 * Loggers (and their cached levels) are shared by all simulations running
+	 * within this JVM.
+	 */
+	private final static Map<Class<?>, CachedLogger> loggers = new ConcurrentHashMap<Class<?>, CachedLogger>();
 
-	private static DefaultMonitor singletonInstance = null;
+	/**
+	 * If true, messages are written by the {@link AsyncLogSink}
+	 */
+	private static volatile boolean asyncLogging = false;
+
+	static {
+		AnalyzerMultiplexers.register();
+	}
 
 	private DefaultMonitor() {
 		this.isMonitoring = false;
 	}
 
+	/**
+	 * Returns the monitor of the {@link SimulationContext} of the calling
+	 * thread.
+	 * 
+	 * @return
+	 */
 	public static DefaultMonitor getInstance() {
-		if (singletonInstance == null) {
-			singletonInstance = new DefaultMonitor();
+		SimulationContext context = SimulationContext.current();
+		DefaultMonitor monitor = context.getInstance(DefaultMonitor.class);
+		if (monitor == null) {
+			monitor = new DefaultMonitor();
+			context.setInstance(DefaultMonitor.class, monitor);
 		}
-		return singletonInstance;
+		return monitor;
 	}
 
 	@Override
@@ -90,31 +112,66 @@ public class DefaultMonitor implements MonitorComponent, EventHandler,
 
 	@Override
 	public void log(Class<?> subject, Level level, String msg, Object... data) {
-		Logger log = loggers.get(subject);
+		CachedLogger log = getLogger(subject);
+		if (log.isEnabled(level)) {
+			write(log, level, String.format(msg, data));
+		}
+	}
+
+	@Override
+	public void log(Class<?> subject, Level level, Supplier<String> message) {
+		CachedLogger log = getLogger(subject);
+		if (log.isEnabled(level)) {
+			write(log, level, message.get());
+		}
+	}
+
+	@Override
+	public boolean isLogEnabled(Class<?> subject, Level level) {
+		return getLogger(subject).isEnabled(level);
+	}
+
+	private static void write(CachedLogger log, Level level, String message) {
+		org.apache.log4j.Level log4jLevel = CachedLogger.toLog4jLevel(level);
+		if (asyncLogging) {
+			AsyncLogSink.getInstance().log(log.logger, log4jLevel, message);
+		} else {
+			log.logger.log(log4jLevel, message);
+		}
+	}
+
+	private static CachedLogger getLogger(Class<?> subject) {
+		CachedLogger log = loggers.get(subject);
 		if (log == null) {
-			log = Logger.getLogger(subject);
+			log = new CachedLogger(Logger.getLogger(subject));
 			loggers.put(subject, log);
 		}
-		switch (level) {
-		case DEBUG:
-			if (log.isDebugEnabled()) {
-				log.debug(String.format(msg, data));
-			}
-			break;
-		case ERROR:
-			log.error(String.format(msg, data));
-			break;
-		case WARN:
-			log.warn(String.format(msg, data));
-			break;
-		case INFO:
-			if (log.isInfoEnabled()) {
-				log.info(String.format(msg, data));
-			}
-			break;
+		return log;
+	}
+
+	/**
+	 * The INFO and DEBUG levels are cached per subject. Has to be called if
+	 * the log4j configuration is changed during a simulation.
+	 */
+	public static void refreshLogLevels() {
+		for (CachedLogger log : loggers.values()) {
+			log.refresh();
 		}
 	}
 
+	/**
+	 * Write log messages asynchronously and in batches on a separate thread
+	 * (all simulations within this JVM are affected).
+	 * 
+	 * @param asyncLogging
+	 */
+	public void setAsyncLogging(boolean asyncLogging) {
+		if (DefaultMonitor.asyncLogging && !asyncLogging) {
+			AsyncLogSink.getInstance().flush();
+		}
+		DefaultMonitor.asyncLogging = asyncLogging;
+	}
+
 	/**
 	 * Called by the Configurator
 	 * 
@@ -193,6 +250,9 @@ public class DefaultMonitor implements MonitorComponent, EventHandler,
 	@Override
 	public void simulationFinished() {
 		close();
+		if (asyncLogging) {
+			AsyncLogSink.getInstance().flush();
+		}
 	}
 
 	public void setExperimentDescription(String description) {
@@ -241,4 +301,53 @@ public class DefaultMonitor implements MonitorComponent, EventHandler,
 		INIT, START_SET, STOP_SET, READY;
 	}
 
+	/**
+	 * A logger together with the levels that are enabled for it
+	 */
+	private static final class CachedLogger {
+
+		private final Logger logger;
+
+		private final boolean[] enabled = new boolean[Level.values().length];
+
+		public CachedLogger(Logger logger) {
+			this.logger = logger;
+			refresh();
+		}
+
+		public boolean isEnabled(Level level) {
+			return enabled[level.ordinal()];
+		}
+
+		public void refresh() {
+			for (Level level : Level.values()) {
+				enabled[level.ordinal()] = logger
+						.isEnabledFor(toLog4jLevel(level));
+			}
+			/*
+			 * Warnings and errors are always passed to log4j (which still
+			 * applies its own level check), so that they do not depend on an
+			 * outdated cache.
+			 */
+			enabled[Level.WARN.ordinal()] = true;
+			enabled[Level.ERROR.ordinal()] = true;
+		}
+
+		public static org.apache.log4j.Level toLog4jLevel(Level level) {
+			switch (level) {
+			case DEBUG:
+				return org.apache.log4j.Level.DEBUG;
+			case ERROR:
+				return org.apache.log4j.Level.ERROR;
+			case WARN:
+				return org.apache.log4j.Level.WARN;
+			case INFO:
+				return org.apache.log4j.Level.INFO;
+			default:
+				throw new AssertionError("Unknown level " + level);
+			}
+		}
+
+	}
+
 }
@@ -37,7 +37,6 @@ import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.sensor.battery.BatterySensor;
 import de.tudarmstadt.maki.simonstrator.api.component.sis.SiSComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.sis.SiSDataCallback;
@@ -206,23 +205,18 @@ public class ModularEnergyModel
 			double consumedEnergy = oldState.getEnergyConsumption()
 					* (timeSpentInOldState / (double) Time.SECOND);
 			bat.consumeEnergy(consumedEnergy);
-			try {
-				EnergyAnalyzer analyzer = Monitor.get(EnergyAnalyzer.class);
-				if (analyzer != null)
-					analyzer.consumeEnergy(getHost(), consumedEnergy,
-							component, oldState);
-			} catch (AnalyzerNotAvailableException e1) {
-				//
+			EnergyAnalyzer analyzer = Monitor.getOrNull(EnergyAnalyzer.class);
+			if (analyzer != null) {
+				analyzer.consumeEnergy(getHost(), consumedEnergy, component,
+						oldState);
 			}
 
 			if (bat.isEmpty()) {
 				/*
 				 * Battery is now empty. Go offline.
 				 */
-				try {
-					Monitor.get(EnergyAnalyzer.class).batteryIsEmpty(getHost());
-				} catch (AnalyzerNotAvailableException e) {
-					//
+				if (analyzer != null) {
+					analyzer.batteryIsEmpty(getHost());
 				}
 				for (SimNetInterface net : getHost().getNetworkComponent()
 						.getSimNetworkInterfaces()) {
@@ -40,13 +40,13 @@ import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.scenario.ConfigurationException;
 import de.tud.kom.p2psim.impl.network.IPv4NetID;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring.ProgressValue;
 import de.tud.kom.p2psim.impl.util.toolkits.NumberFormatToolkit;
 import de.tudarmstadt.maki.simonstrator.api.Message;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetInterface;
 
@@ -248,6 +248,7 @@ public class ModularLinkLayer implements LinkLayer, LinkMessageListener {
 			LinkLayerMessage lMsg = new DefaultLinkLayerMessage(data,
 					activeMac.getMacAddress(), destination);
 
+			Simulator.getScheduler().awaitSequentialOrder();
 			if (destination.isBroadcast()) {
 				_linkBroadcastSent++;
 			} else {
@@ -268,6 +269,7 @@ public class ModularLinkLayer implements LinkLayer, LinkMessageListener {
 		 * a pure MAC-Message is dispatched through this function! Here we might
 		 * add Analyzers ;)
 		 */
+		Simulator.getScheduler().awaitSequentialOrder();
 		if (linkMsgEvent.isBroadcast()) {
 			_linkBroadcastRcvd++;
 		} else {
@@ -373,21 +375,12 @@ public class ModularLinkLayer implements LinkLayer, LinkMessageListener {
 		macStateListeners.remove(listener);
 	}
 	
-	private static boolean _linkAnalyzerInitialized = false;
-	private static LinklayerAnalyzer _linkAnalyzer = null;
-	
 	protected static void _linkMsgEvent(LinkLayerMessage msg, SimHost host,
 			Reason reason) {
-		if (!_linkAnalyzerInitialized) {
-			try {
-				_linkAnalyzer = Monitor.get(LinklayerAnalyzer.class);
-			} catch (AnalyzerNotAvailableException e) {
-				_linkAnalyzer = null;
-			}
-			_linkAnalyzerInitialized = true;
-		}
-		if (_linkAnalyzerInitialized && _linkAnalyzer != null) {
-			_linkAnalyzer.linkMsgEvent(msg, host, reason);
+		LinklayerAnalyzer linkAnalyzer = Monitor
+				.getOrNull(LinklayerAnalyzer.class);
+		if (linkAnalyzer != null) {
+			linkAnalyzer.linkMsgEvent(msg, host, reason);
 		}
 	}
 }
@@ -21,8 +21,10 @@
 package de.tud.kom.p2psim.impl.linklayer.mac;
 
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import de.tud.kom.p2psim.api.analyzer.LinklayerAnalyzer;
@@ -45,6 +47,7 @@ import de.tud.kom.p2psim.api.scenario.ConfigurationException;
 import de.tud.kom.p2psim.api.topology.views.TopologyView;
 import de.tud.kom.p2psim.impl.linklayer.ModularLinkLayer;
 import de.tud.kom.p2psim.impl.network.BandwidthEstimator;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring.ProgressValue;
 import de.tudarmstadt.maki.simonstrator.api.Event;
@@ -52,7 +55,6 @@ import de.tudarmstadt.maki.simonstrator.api.Message;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Randoms;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
 /**
@@ -159,6 +161,21 @@ public abstract class AbstractMacLayer implements MacLayer {
 	
 	private final Random random = Randoms.getRandom(AbstractMacLayer.class);
 
+	/**
+	 * Default for {@link #setBroadcastDeliveryResolution(long)}. Far below the
+	 * upload time of a message, but large enough to group the receivers of
+	 * distance-dependent latencies, which differ by a few microseconds.
+	 */
+	public static final long DEFAULT_BROADCAST_DELIVERY_RESOLUTION = 10 * Time.MICROSECOND;
+
+	/**
+	 * Receivers of a broadcast whose delays fall into the same bucket of this
+	 * width are served by a single {@link BroadcastDelivery} event. If 0, only
+	 * receivers with identical delays are grouped, if negative, one event is
+	 * scheduled per receiver.
+	 */
+	private long broadcastDeliveryResolution = DEFAULT_BROADCAST_DELIVERY_RESOLUTION;
+
 	/*
 	 * Analyzing
 	 */
@@ -380,6 +397,7 @@ public abstract class AbstractMacLayer implements MacLayer {
 	 * @param msg
 	 */
 	protected void messageDropped(DropReason reason, Message msg) {
+		Simulator.getScheduler().awaitSequentialOrder();
 		ModularLinkLayer._linkDropped++;
 		_dropReasonAnalyzer[phy.ordinal()].increment(reason);
 		// System.out.println(Simulator.getFormattedTime(Simulator
@@ -451,6 +469,25 @@ public abstract class AbstractMacLayer implements MacLayer {
 		// not used in this MAC
 	}
 
+	/**
+	 * Receivers of a broadcast are grouped into time buckets of the given
+	 * width, each bucket is delivered with a single event after the largest
+	 * delay of its receivers. Hence, a receiver gets a broadcast less than
+	 * resolution later than with separate events (default:
+	 * {@link #DEFAULT_BROADCAST_DELIVERY_RESOLUTION}). If 0, only receivers
+	 * with identical delays are grouped, which does not change the timing or
+	 * order of deliveries. A negative value schedules one event per receiver.
+	 * 
+	 * @param broadcastDeliveryResolution
+	 */
+	public void setBroadcastDeliveryResolution(long broadcastDeliveryResolution) {
+		this.broadcastDeliveryResolution = broadcastDeliveryResolution;
+	}
+
+	public long getBroadcastDeliveryResolution() {
+		return broadcastDeliveryResolution;
+	}
+
 	/**
 	 * Use this method to dispatch a broadcast message in your MAC-Layer. It
 	 * will take care of energy consumption and scheduling.
@@ -471,6 +508,11 @@ public abstract class AbstractMacLayer implements MacLayer {
 		Message msg = eventInfo.getMessage();
 		long timeToSend = -1;
 
+		Map<Long, BroadcastDelivery> deliveries = null;
+		if (broadcastDeliveryResolution >= 0 && txNeighbors.size() > 1) {
+			deliveries = new LinkedHashMap<Long, BroadcastDelivery>();
+		}
+
 		for (MacAddress receiver : txNeighbors) {
 			Link l = getTopologyView()
 					.getLinkBetween(getMacAddress(), receiver);
@@ -482,7 +524,7 @@ public abstract class AbstractMacLayer implements MacLayer {
 			 * Broadcasts do not depend on an ACK or CTS by a receiver, so we do
 			 * not care about the link back to the sender.
 			 */
-			long thisTimeToSend = tryToSend(eventInfo, l, null);
+			long thisTimeToSend = tryToSend(eventInfo, l, null, deliveries);
 
 			if (timeToSend == -1) {
 				timeToSend = thisTimeToSend;
@@ -493,6 +535,12 @@ public abstract class AbstractMacLayer implements MacLayer {
 			}
 		}
 
+		if (deliveries != null) {
+			for (BroadcastDelivery delivery : deliveries.values()) {
+				delivery.schedule();
+			}
+		}
+
 		if (timeToSend == -1) {
 			/*
 			 * We have no neighbors, but we still sent the message - get the
@@ -529,9 +577,9 @@ public abstract class AbstractMacLayer implements MacLayer {
 			if (enableErrorControl) {
 				Link reverseLink = getTopologyView().getLinkBetween(
 						eventInfo.getReceiver(), getMacAddress());
-				timeToSend = tryToSend(eventInfo, l, reverseLink);
+				timeToSend = tryToSend(eventInfo, l, reverseLink, null);
 			} else {
-				timeToSend = tryToSend(eventInfo, l, null);
+				timeToSend = tryToSend(eventInfo, l, null, null);
 			}
 			assert timeToSend > 0;
 			getEnergyComponent().send(timeToSend, msg, false);
@@ -606,6 +654,9 @@ public abstract class AbstractMacLayer implements MacLayer {
 	 * @param backlink
 	 *            the Link from receiver to source. This may be null, if you do
 	 *            not want to take link asymmetries into account.
+	 * @param deliveries
+	 *            the {@link BroadcastDelivery}s of a broadcast by their time
+	 *            bucket. If null, the receive-event is scheduled directly.
 	 * @return the time it took to send the message (time the radio had to stay
 	 *         active), which is for example used to account for energy
 	 *         consumption. This is NOT the same as the time we waited before
@@ -613,7 +664,7 @@ public abstract class AbstractMacLayer implements MacLayer {
 	 *         is not included.
 	 */
 	private final long tryToSend(MacEventInformation eventInfo, Link l,
-			Link backlink) {
+			Link backlink, Map<Long, BroadcastDelivery> deliveries) {
 
 		/*
 		 * Time the MACs need to operate in HighPower (are active)
@@ -741,7 +792,12 @@ public abstract class AbstractMacLayer implements MacLayer {
 		 * Schedule MAC-Events even for dropped Messages in order to get the
 		 * callback as soon as the current MAC is able to send again.
 		 */
-		scheduleReceive(macReceiver, eventInfo, delay, dropped);
+		if (deliveries == null) {
+			scheduleReceive(macReceiver, eventInfo, delay, dropped);
+		} else {
+			BroadcastDelivery.add(deliveries, broadcastDeliveryResolution,
+					eventInfo, macReceiver, delay, dropped);
+		}
 		currentBandwidth.outgoingTransmission(eventInfo.getMessage().getSize());
 
 		/*
@@ -828,6 +884,18 @@ public abstract class AbstractMacLayer implements MacLayer {
 		handleEvent(data, type);
 	}
 
+	/**
+	 * Whether this MAC can be used while the scheduler runs in parallel mode,
+	 * i.e., it does not modify the state of other hosts directly. This is not
+	 * the case with an energy model, as the sender accounts the energy
+	 * consumed by the receivers.
+	 * 
+	 * @return
+	 */
+	public boolean isParallelExecutionSupported() {
+		return energyComponent instanceof EnergyComponentStub;
+	}
+
 	@Override
 	public boolean isOnline() {
 		return isOnline;
@@ -835,6 +903,8 @@ public abstract class AbstractMacLayer implements MacLayer {
 
 	@Override
 	public void goOffline() {
+		// the state is read by other hosts
+		Simulator.getScheduler().awaitSequentialOrder();
 		energyComponent.turnOff();
 		isOnline = false;
 		/*
@@ -855,6 +925,7 @@ public abstract class AbstractMacLayer implements MacLayer {
 		/*
 		 * Only go online if the battery still permits it
 		 */
+		Simulator.getScheduler().awaitSequentialOrder();
 		if (energyComponent.turnOn()) {
 			isOnline = true;
 		}
@@ -1073,22 +1144,12 @@ public abstract class AbstractMacLayer implements MacLayer {
 
 	}
 
-	private static boolean _linkAnalyzerInitialized = false;
-
-	private static LinklayerAnalyzer _linkAnalyzer = null;
-
 	protected static void _linkMsgEvent(LinkLayerMessage msg, SimHost host,
 			Reason reason) {
-		if (!_linkAnalyzerInitialized) {
-			try {
-				_linkAnalyzer = Monitor.get(LinklayerAnalyzer.class);
-			} catch (AnalyzerNotAvailableException e) {
-				_linkAnalyzer = null;
-			}
-			_linkAnalyzerInitialized = true;
-		}
-		if (_linkAnalyzerInitialized && _linkAnalyzer != null) {
-			_linkAnalyzer.linkMsgEvent(msg, host, reason);
+		LinklayerAnalyzer linkAnalyzer = Monitor
+				.getOrNull(LinklayerAnalyzer.class);
+		if (linkAnalyzer != null) {
+			linkAnalyzer.linkMsgEvent(msg, host, reason);
 		}
 	}
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.linklayer.mac;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import de.tud.kom.p2psim.api.linklayer.mac.MacEventInformation;
+import de.tud.kom.p2psim.api.linklayer.mac.MacLayer;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
+import de.tudarmstadt.maki.simonstrator.api.Event;
+import de.tudarmstadt.maki.simonstrator.api.EventHandler;
+
+/**
+ * Delivers a broadcast to a group of receivers with a single event instead of
+ * one receive-event per receiver. Receivers are grouped by their delay (see
+ * {@link AbstractMacLayer#setBroadcastDeliveryResolution(long)}), the event
+ * fires after the largest delay within the group. When the event fires, the
+ * receive- or drop-events are passed to the receiving MACs in the order the
+ * receivers were added, which is the order in which the separate events would
+ * have been executed.
+ */
+final class BroadcastDelivery implements EventHandler {
+
+	private final MacEventInformation eventInfo;
+
+	private final List<MacLayer> receivers = new ArrayList<MacLayer>();
+
+	private final BitSet dropped = new BitSet();
+
+	private long delay = 0;
+
+	public BroadcastDelivery(MacEventInformation eventInfo) {
+		this.eventInfo = eventInfo;
+	}
+
+	/**
+	 * Adds a receiver to the delivery of the bucket its delay falls into,
+	 * creating the delivery if necessary
+	 * 
+	 * @param deliveries
+	 *            the deliveries of a broadcast by their bucket
+	 * @param resolution
+	 *            width of a bucket, 0 to only group identical delays
+	 * @param eventInfo
+	 * @param receiver
+	 * @param delay
+	 *            time it takes the message to reach the receiver
+	 * @param isDropped
+	 *            if true, the receiver gets a MESSAGE_DROPPED event
+	 */
+	public static void add(Map<Long, BroadcastDelivery> deliveries,
+			long resolution, MacEventInformation eventInfo, MacLayer receiver,
+			long delay, boolean isDropped) {
+		long bucket = resolution == 0 ? delay : (delay + resolution - 1)
+				/ resolution;
+		BroadcastDelivery delivery = deliveries.get(bucket);
+		if (delivery == null) {
+			delivery = new BroadcastDelivery(eventInfo);
+			deliveries.put(bucket, delivery);
+		}
+		delivery.add(receiver, delay, isDropped);
+	}
+
+	/**
+	 * Adds a receiver to this delivery
+	 * 
+	 * @param receiver
+	 * @param delay
+	 *            time it takes the message to reach the receiver
+	 * @param isDropped
+	 *            if true, the receiver gets a MESSAGE_DROPPED event
+	 */
+	public void add(MacLayer receiver, long delay, boolean isDropped) {
+		assert delay > 0 : "Delay is equal to or less than 0!";
+		if (isDropped) {
+			dropped.set(receivers.size());
+		}
+		receivers.add(receiver);
+		this.delay = Math.max(this.delay, delay);
+	}
+
+	/**
+	 * Schedules the delivery. A single receiver gets its event directly. In
+	 * parallel mode, each receiver gets its own event at the same time, as an
+	 * event may only affect its own host. These events are consecutive in the
+	 * event order and therefore executed like a single delivery.
+	 */
+	public void schedule() {
+		if (receivers.size() == 1 || Simulator.getScheduler().isParallel()) {
+			for (int i = 0; i < receivers.size(); i++) {
+				Event.scheduleWithDelay(delay, receivers.get(i), eventInfo,
+						getType(i));
+			}
+		} else if (!receivers.isEmpty()) {
+			Event.scheduleWithDelay(delay, this, null, 0);
+		}
+	}
+
+	public int getReceiverCount() {
+		return receivers.size();
+	}
+
+	/**
+	 * The delay after which this delivery fires, i.e., the largest delay of
+	 * its receivers
+	 */
+	public long getDelay() {
+		return delay;
+	}
+
+	@Override
+	public void eventOccurred(Object content, int type) {
+		for (int i = 0; i < receivers.size(); i++) {
+			receivers.get(i).eventOccurred(eventInfo, getType(i));
+		}
+	}
+
+	private int getType(int index) {
+		return dropped.get(index) ? AbstractMacLayer.MESSAGE_DROPPED
+				: AbstractMacLayer.MESSAGE_RECEIVED;
+	}
+
+}
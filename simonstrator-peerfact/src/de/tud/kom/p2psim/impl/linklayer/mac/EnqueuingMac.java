@@ -29,6 +29,7 @@ import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.scenario.ConfigurationException;
 import de.tud.kom.p2psim.impl.linklayer.DefaultLinkMessageEvent;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 
@@ -131,6 +132,8 @@ public class EnqueuingMac extends AbstractMacLayer {
 						eventInfo.getReceiver());
 				if (simulateReceiverQueue
 						&& receiverMac instanceof EnqueuingMac) {
+					// the receiver queue is shared by all senders
+					Simulator.getScheduler().awaitSequentialOrder();
 					rcvTimeDelay = ((EnqueuingMac) receiverMac)
 							.getNextRcvDelay();
 					((EnqueuingMac) receiverMac).incNextRcvTime(timeToSend);
@@ -25,6 +25,7 @@ import de.tud.kom.p2psim.api.linklayer.mac.MacAddress;
 import de.tud.kom.p2psim.api.linklayer.mac.MacLayer;
 import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
+import de.tud.kom.p2psim.impl.linklayer.mac.AbstractMacLayer;
 import de.tud.kom.p2psim.impl.linklayer.mac.EnqueuingMac;
 import de.tud.kom.p2psim.impl.linklayer.mac.SimpleMacLayer;
 import de.tudarmstadt.maki.simonstrator.api.Time;
@@ -55,6 +56,7 @@ public class SimpleMac extends AbstractMacConfig {
 
 	private long maxTimeInQueue = 3 * Time.SECOND;
 
+	private long broadcastDeliveryResolution = AbstractMacLayer.DEFAULT_BROADCAST_DELIVERY_RESOLUTION;
 
 	/**
 	 * String for warnings and errors
@@ -74,13 +76,16 @@ public class SimpleMac extends AbstractMacConfig {
 		 */
 		BandwidthImpl maxBandwidth = getBandwidth().clone();
 
+		AbstractMacLayer mac;
 		if (enableTrafficQueue) {
-			return new EnqueuingMac(host, address, getPhy(), maxQueueLength,
+			mac = new EnqueuingMac(host, address, getPhy(), maxQueueLength,
 					maxTimeInQueue, maxRetransmissions, maxBandwidth);
 		} else {
-			return new SimpleMacLayer(host, address, getPhy(),
+			mac = new SimpleMacLayer(host, address, getPhy(),
 					maxRetransmissions, maxBandwidth);
 		}
+		mac.setBroadcastDeliveryResolution(broadcastDeliveryResolution);
+		return mac;
 	}
 
 	@Override
@@ -165,4 +170,17 @@ public class SimpleMac extends AbstractMacConfig {
 		this.enableTrafficQueue = true;
 	}
 
+	/**
+	 * Receivers of a broadcast whose delays fall into the same bucket of this
+	 * width are served by a single event (default:
+	 * {@link AbstractMacLayer#DEFAULT_BROADCAST_DELIVERY_RESOLUTION}). 0 groups
+	 * only receivers with identical delays, a negative value disables
+	 * grouping.
+	 * 
+	 * @param broadcastDeliveryResolution
+	 */
+	public void setBroadcastDeliveryResolution(long broadcastDeliveryResolution) {
+		this.broadcastDeliveryResolution = broadcastDeliveryResolution;
+	}
+
 }
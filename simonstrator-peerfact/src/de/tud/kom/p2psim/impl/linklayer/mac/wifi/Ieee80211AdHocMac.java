@@ -51,14 +51,14 @@ import de.tud.kom.p2psim.impl.topology.PositionVector;
 import de.tud.kom.p2psim.impl.topology.views.wifi.WifiTopologyView;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring.ProgressValue;
+import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.Message;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.PrimitiveEventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Randoms;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.sensor.location.Location;
-import de.tudarmstadt.maki.simonstrator.api.operation.AbstractOperation;
 
 /**
  * This class implements the IEEE 802.11 MAC for the adHoc case. This is only a
@@ -84,12 +84,13 @@ import de.tudarmstadt.maki.simonstrator.api.operation.AbstractOperation;
  * manipulated from this class during the sending and receiving of messages. The
  * DCF-Manager has the task to handle the state of the MAC and to calculate the
  * BackOffTimerEnd-Time.<br>
- * The BackOffTimer can be extended through other events. So we have a the
- * {@link GetSendSlotOperation} to get a send slot. The send slot will be ready,
- * if the BackOffTimer is 0. But through the extension of the BackOffTimer, is
- * the endTime not really fix. So it is possible that the
- * {@link GetSendSlotOperation} must be called multiple times. This can be a big
- * drawback, because it produce a many events, which are doing nothing.
+ * The BackOffTimer can be extended through other events. So we schedule a
+ * primitive timer ({@link #eventOccurred(int, long)} with the type
+ * TIMER_GET_SEND_SLOT and the expected end of the backoff as payload) to get
+ * a send slot. The send slot will be ready, if the BackOffTimer is 0. But
+ * through the extension of the BackOffTimer, is the endTime not really fix. So
+ * it is possible that the timer must be scheduled multiple times. As the timer
+ * is a pooled primitive event, these retries do not allocate any objects.
  * <p>
  * <p>
  * This class inherit from {@link AbstractMacLayer}, but use few methods from
@@ -103,7 +104,8 @@ import de.tudarmstadt.maki.simonstrator.api.operation.AbstractOperation;
  * @author Christoph Muenker
  * @version 1.0, 28.02.2013
  */
-public class Ieee80211AdHocMac extends AbstractMacLayer {
+public class Ieee80211AdHocMac extends AbstractMacLayer implements
+		PrimitiveEventHandler {
 
 	/*
 	 * For Analyzing
@@ -223,14 +225,21 @@ public class Ieee80211AdHocMac extends AbstractMacLayer {
 	private QueueEntry toSend = null;
 
 	/**
-	 * The actually operation, which tries to get a send slot. It is the timer
-	 * for the BackoffTimer, but because the backOffTimer can be extended, the
-	 * end time is not fix! So this Operation tries to get a slot to send.
+	 * The message for which the timer that tries to get a send slot is
+	 * running. It is the timer for the BackoffTimer, but because the
+	 * backOffTimer can be extended, the end time is not fix! So this timer
+	 * tries to get a slot to send.
 	 * <p>
-	 * If no operation is running, this field should be <code>null</code>. So we
-	 * know, that a new operation can be started.
+	 * If no timer is running, this field should be <code>null</code>. So we
+	 * know, that a new timer can be started.
 	 */
-	protected GetSendSlotOperation op = null;
+	protected MacEventInformation sendSlotEventInfo = null;
+
+	/**
+	 * Type of the (primitive) timer event that tries to get a send slot. The
+	 * payload of the event is the expected end of the backoff.
+	 */
+	private static final int TIMER_GET_SEND_SLOT = 1;
 	
 	/**
 	 * Creates the Ieee802.11 AdHoc MAC. Sets the given values. The class is not
@@ -275,6 +284,14 @@ public class Ieee80211AdHocMac extends AbstractMacLayer {
 		// is the size of the netlayer acceptable?
 	}
 
+	/**
+	 * The sender updates the {@link WifiState} of the receivers directly.
+	 */
+	@Override
+	public boolean isParallelExecutionSupported() {
+		return false;
+	}
+
 	@Override
 	protected void handleNewQueueEntry() {
 		if (this.toSend == null) {
@@ -358,14 +375,35 @@ public class Ieee80211AdHocMac extends AbstractMacLayer {
 		dcfManager.resetBackoffTimer();
 		dcfManager.startBackoffTimer();
 		long tryTime = dcfManager.getBackoffTimeEnd();
-		if (op == null) {
-			op = new GetSendSlotOperation(this, eventInfo);
-			op.scheduleWithDelay(tryTime - Time.getCurrentTime());
+		if (sendSlotEventInfo == null) {
+			scheduleGetSendSlot(eventInfo, tryTime);
 		} else {
-			// easy policy to check an failure. If two or more operation
-			// running, then is op not null!
+			// easy policy to check an failure. If two or more timers
+			// running, then is sendSlotEventInfo not null!
 			throw new AssertionError(
-					"Two or more GetSendSlotOperation are running! This should be not happen, because a station cannot send two or more Frames on the same time!");
+					"Two or more GetSendSlot timers are running! This should be not happen, because a station cannot send two or more Frames on the same time!");
+		}
+	}
+
+	/**
+	 * Schedules the (allocation-free) timer that tries to get a send slot at
+	 * the given point in time.
+	 * 
+	 * @param eventInfo
+	 * @param tryTime
+	 */
+	private void scheduleGetSendSlot(MacEventInformation eventInfo,
+			long tryTime) {
+		sendSlotEventInfo = eventInfo;
+		Event.scheduleWithDelay(tryTime - Time.getCurrentTime(), this,
+				TIMER_GET_SEND_SLOT, tryTime);
+	}
+
+	@Override
+	public void eventOccurred(int type, long payload) {
+		if (type == TIMER_GET_SEND_SLOT) {
+			assert payload == Time.getCurrentTime();
+			getSendSlot();
 		}
 	}
 
@@ -1103,97 +1141,65 @@ public class Ieee80211AdHocMac extends AbstractMacLayer {
 	}
 
 	/**
-	 * This Operation tries to get a Send Slot. It is started, after the
-	 * BackoffTimer is started. If the event for the execution is fired, then
-	 * will be checked if the BackOffTimer is 0. If it 0, then will be started
-	 * the transfer of the message. If it is not 0, then will be created a new
-	 * SendSlotOperation and new scheduled to the time of BackOffTimerEnd.
-	 * 
-	 * @author Christoph Muenker
-	 * @version 1.0, 28.02.2013
+	 * Tries to get a Send Slot. It is called, after the BackoffTimer is
+	 * started. If the timer fires, then will be checked if the BackOffTimer is
+	 * 0. If it 0, then will be started the transfer of the message. If it is
+	 * not 0, then the timer is re-scheduled to the time of BackOffTimerEnd.
 	 */
-	private class GetSendSlotOperation extends
-			AbstractOperation<Ieee80211AdHocMac, Void> {
-		private MacEventInformation eventInfo;
-
-		protected GetSendSlotOperation(Ieee80211AdHocMac mac,
-				MacEventInformation eventInfo) {
-			super(mac);
-			this.eventInfo = eventInfo;
+	private void getSendSlot() {
+		MacEventInformation eventInfo = sendSlotEventInfo;
+		sendSlotEventInfo = null;
+		if (!isOnline()) {
+			Monitor.log(
+					Ieee80211AdHocMac.class,
+					Level.WARN,
+					Time.getFormattedTime()
+							+ " node "
+							+ eventInfo.getSender()
+							+ " wanted to get a slot to send but was already offline.");
+			return;
 		}
-
-		@Override
-		protected void execute() {
-
-			getComponent().op = null;
-			if (!getComponent().isOnline()) {
-				Monitor.log(
-						Ieee80211AdHocMac.class,
-						Level.WARN,
-						Time.getFormattedTime()
-								+ " node "
-								+ eventInfo.getSender()
-								+ " wanted to get a slot to send but was already offline.");
-				return;
-			}
-			boolean ignoreWifiState = getComponent().getDcfManager()
-					.isIgnoreWifiState();
-
-			long backOffTimeEnd = getComponent().getDcfManager()
-					.getBackoffTimeEnd();
-			long current = Time.getCurrentTime();
-
-			if (backOffTimeEnd == current) {
-
-				// Theory: MAC must be in an Idle State, if the backOffTimeEnd
-				// == current!
-				// The flag ignoreWifiState is useful to create collisions,
-				// because the backOffTime is 0 for multiple MACs, but the
-				// wifiState was changed from an other MAC.
-				if (ignoreWifiState
-						|| getComponent().getWifiState() == WifiState.IDLE) {
-					WifiMacEventInformation wifiEventInfo = (WifiMacEventInformation) eventInfo;
-					if (eventInfo.isBroadcast()) {
-						getComponent().mySendBroadcast(wifiEventInfo);
+		boolean ignoreWifiState = getDcfManager().isIgnoreWifiState();
+
+		long backOffTimeEnd = getDcfManager().getBackoffTimeEnd();
+		long current = Time.getCurrentTime();
+
+		if (backOffTimeEnd == current) {
+
+			// Theory: MAC must be in an Idle State, if the backOffTimeEnd
+			// == current!
+			// The flag ignoreWifiState is useful to create collisions,
+			// because the backOffTime is 0 for multiple MACs, but the
+			// wifiState was changed from an other MAC.
+			if (ignoreWifiState || getWifiState() == WifiState.IDLE) {
+				WifiMacEventInformation wifiEventInfo = (WifiMacEventInformation) eventInfo;
+				if (eventInfo.isBroadcast()) {
+					mySendBroadcast(wifiEventInfo);
+				} else {
+					if ((eventInfo.getMessage().getSize() + FCS) < rtsCtsThreshold) {
+						mySendUnicastWithoutRtsCts(wifiEventInfo);
 					} else {
-						if ((eventInfo.getMessage().getSize() + getComponent().FCS) < getComponent().rtsCtsThreshold) {
-							getComponent().mySendUnicastWithoutRtsCts(
-									wifiEventInfo);
-						} else {
-							getComponent().mySendUnicast(wifiEventInfo);
-						}
+						mySendUnicast(wifiEventInfo);
 					}
-				} else {
-					/*
-					 * FIXME is this a valid state?
-					 */
-					getComponent().sendMessage();
-					throw new AssertionError(
-							"Why is the Mac not in an Idle State? "
-									+ getComponent().getWifiState()
-									+ "   "
-									+ (getComponent().getDcfManager()
-											.getTimeToIdleState()));
 				}
-
 			} else {
-				if (backOffTimeEnd < current) {
-					throw new AssertionError(
-							"How can the backOffTimeEnd be smaller than the current time? ");
-				} else {
-					op = new GetSendSlotOperation(getComponent(), eventInfo);
-					op.scheduleWithDelay(backOffTimeEnd
-							- Time.getCurrentTime());
-				}
+				/*
+				 * FIXME is this a valid state?
+				 */
+				sendMessage();
+				throw new AssertionError("Why is the Mac not in an Idle State? "
+						+ getWifiState() + "   "
+						+ (getDcfManager().getTimeToIdleState()));
 			}
-			this.operationFinished(true);
-		}
 
-		@Override
-		public Void getResult() {
-			return null;
+		} else {
+			if (backOffTimeEnd < current) {
+				throw new AssertionError(
+						"How can the backOffTimeEnd be smaller than the current time? ");
+			} else {
+				scheduleGetSendSlot(eventInfo, backOffTimeEnd);
+			}
 		}
-
 	}
 
 	/**
@@ -1262,22 +1268,12 @@ public class Ieee80211AdHocMac extends AbstractMacLayer {
 				+ " " + units[digitGroups];
 	}
 
-	private static boolean _linkAnalyzerInitialized = false;
-
-	private static LinklayerAnalyzer _linkAnalyzer = null;
-
 	protected static void _linkMsgEvent(LinkLayerMessage msg, SimHost host,
 			Reason reason) {
-		if (!_linkAnalyzerInitialized) {
-			try {
-				_linkAnalyzer = Monitor.get(LinklayerAnalyzer.class);
-			} catch (AnalyzerNotAvailableException e) {
-				_linkAnalyzer = null;
-			}
-			_linkAnalyzerInitialized = true;
-		}
-		if (_linkAnalyzerInitialized && _linkAnalyzer != null) {
-			_linkAnalyzer.linkMsgEvent(msg, host, reason);
+		LinklayerAnalyzer linkAnalyzer = Monitor
+				.getOrNull(LinklayerAnalyzer.class);
+		if (linkAnalyzer != null) {
+			linkAnalyzer.linkMsgEvent(msg, host, reason);
 		}
 	}
 }
@@ -78,10 +78,6 @@ public abstract class AbstractNetLayer implements SimNetworkComponent,
 
 	private final SimHost host;
 
-	protected boolean hasAnalyzer = false;
-
-	protected NetlayerAnalyzer netAnalyzerProxy;
-
 	/**
 	 * Abstract constructor called by a subclass of this instance
 	 * 
@@ -106,16 +102,7 @@ public abstract class AbstractNetLayer implements SimNetworkComponent,
 
 	@Override
 	public void initialize() {
-		/*
-		 * Bind the analyzer-Proxy
-		 */
-		try {
-			netAnalyzerProxy = Monitor.get(NetlayerAnalyzer.class);
-			hasAnalyzer = true;
-		} catch (AnalyzerNotAvailableException e) {
-			// no analyzer, no problem
-		}
-
+		// nothing to do
 	}
 
 	@Override
@@ -139,15 +126,17 @@ public abstract class AbstractNetLayer implements SimNetworkComponent,
 			// log.info(Simulator.getSimulatedRealtime() + " Receiving " +
 			// message);
 
-			if (hasAnalyzer) {
-				netAnalyzerProxy
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer
 						.netMsgEvent(message, getHost(),
 					Reason.RECEIVE);
 			}
 			NetMsgEvent event = new NetMsgEvent(message, this);
 			if (msgListeners == null || msgListeners.isEmpty()) {
-				if (hasAnalyzer) {
-					netAnalyzerProxy.netMsgEvent(message, getHost(),
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(message, getHost(),
 						Reason.DROP);
 				}
 				Monitor.log(AbstractNetLayer.class, Level.WARN,
@@ -160,8 +149,10 @@ public abstract class AbstractNetLayer implements SimNetworkComponent,
 				}
 			}
 		} else {
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(message, getHost(), Reason.DROP);
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(message, getHost(), Reason.DROP);
 			}
 		}
 	}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.network;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import de.tud.kom.p2psim.impl.network.gnp.BinaryGnpFile;
+import de.tud.kom.p2psim.impl.network.gnp.GnpNetLayerFactory;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB;
+
+/**
+ * Compiles the XML databases of the network models into their binary,
+ * memory-mapped formats:
+ * <ul>
+ * <li>GNP host files (root element "gnp") of the {@link GnpNetLayerFactory}
+ * into a {@link BinaryGnpFile}</li>
+ * <li>measurement databases of the modular network layer into the binary
+ * format of the {@link NetMeasurementDB}</li>
+ * </ul>
+ * The XML files stay the source format, the binary files have to be
+ * recreated when the XML files change. Both loaders detect the binary format
+ * by its header, so the binary file can directly replace the XML file in the
+ * simulation configuration.
+ *
+ * Usage: BinaryDatabaseConverter &lt;input.xml&gt; &lt;output&gt;
+ */
+public class BinaryDatabaseConverter {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err
+					.println("Usage: BinaryDatabaseConverter <input.xml> <output>");
+			System.exit(1);
+		}
+		File input = new File(args[0]);
+		File output = new File(args[1]);
+
+		long start = System.currentTimeMillis();
+		if ("gnp".equals(getRootElement(input))) {
+			BinaryGnpFile.convertFromXML(input, output);
+			long converted = System.currentTimeMillis();
+
+			BinaryGnpFile binaryFile = BinaryGnpFile.open(output);
+			binaryFile.getPingErLookup();
+			binaryFile.getCountryLookup();
+			System.out.println("Converted " + binaryFile.getHostCount()
+					+ " hosts and " + binaryFile.getGroupIds().size()
+					+ " groups in " + (converted - start) + " ms, "
+					+ output.length() / 1024 + " kB, loading took "
+					+ (System.currentTimeMillis() - converted) + " ms");
+		} else {
+			NetMeasurementDB db = new NetMeasurementDB();
+			db.setFile(args[0]);
+			long loaded = System.currentTimeMillis();
+			db.writeToBinaryFile(output);
+
+			long converted = System.currentTimeMillis();
+			NetMeasurementDB binaryDb = new NetMeasurementDB();
+			binaryDb.setFile(args[1]);
+			System.out.println(binaryDb.getStats());
+			System.out.println("Loading the XML database took "
+					+ (loaded - start) + " ms, the binary database ("
+					+ output.length() / 1024 + " kB) "
+					+ (System.currentTimeMillis() - converted) + " ms");
+		}
+	}
+
+	/**
+	 * Returns the name of the root element, or null if the file does not
+	 * exist (e.g., zipped measurement databases).
+	 */
+	private static String getRootElement(File file) throws Exception {
+		if (!file.isFile()) {
+			return null;
+		}
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			XMLStreamReader reader = XMLInputFactory.newInstance()
+					.createXMLStreamReader(in);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						return reader.getLocalName();
+					}
+				}
+				return null;
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+}
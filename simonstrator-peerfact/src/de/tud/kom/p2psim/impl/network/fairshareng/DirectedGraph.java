@@ -1,5 +1,6 @@
 package de.tud.kom.p2psim.impl.network.fairshareng;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -219,7 +220,7 @@ public class DirectedGraph {
 	 */
 	private List<FairshareFlow> getUploadingFlowsFromInAscOrder(FairshareNode node) {
 
-		final LinkedList<FairshareFlow> flows = new LinkedList<FairshareFlow>(this.getUploadingFlowsFrom(node));
+		final List<FairshareFlow> flows = new ArrayList<FairshareFlow>(this.getUploadingFlowsFrom(node));
 		Collections.sort(flows);
 
 		return flows;
@@ -246,7 +247,7 @@ public class DirectedGraph {
 	 */
 	private List<FairshareFlow> getDownloadingFlowsInAscOrder(FairshareNode node) {
 
-		final LinkedList<FairshareFlow> flows = new LinkedList<FairshareFlow>(this.getDownloadingFlowsTo(node));
+		final List<FairshareFlow> flows = new ArrayList<FairshareFlow>(this.getDownloadingFlowsTo(node));
 		Collections.sort(flows);
 
 		return flows;
@@ -667,8 +668,8 @@ public class DirectedGraph {
 
 		//log.debug(".... remotelyBottleneckedTurnIntoLocallyBottlenecked on " + node + "/" + flow);
 
-		/* Get remotely bottlenecked flows in ascending bandwidth order. */
-		final LinkedList<FairshareFlow> remotelyBottleNeckedFlows = new LinkedList<FairshareFlow>();
+		/* Get remotely bottlenecked flows in ascending bandwidth order (indexed access below). */
+		final List<FairshareFlow> remotelyBottleNeckedFlows = new ArrayList<FairshareFlow>();
 
 		final List<FairshareFlow> flowList = (uploading) ? this.getUploadingFlowsFromInAscOrder(node) : this.getDownloadingFlowsInAscOrder(node);
 		for (final FairshareFlow curFlow : flowList) {
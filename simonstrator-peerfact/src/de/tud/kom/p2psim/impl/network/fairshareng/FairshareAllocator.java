@@ -0,0 +1,655 @@
+package de.tud.kom.p2psim.impl.network.fairshareng;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The Class FairshareAllocator.
+ *
+ * Max-min fair allocation of the flows of an (affected) subgraph, computing
+ * exactly the same rates as {@link DirectedGraph#allocateBandwidthOnFullGraph_Alg01()}
+ * without copying or modifying the graph.
+ *
+ * Each node provides two resources (upload and download capacity). Nodes and
+ * flows are mapped to primitive indices, the flows of each resource are kept
+ * in an adjacency array. The fair shares c_i / |F_i| of all resources with
+ * free capacity are kept in a heap. In each step, all resources with the
+ * minimal fair share are saturated: their flows get the fair share as rate,
+ * and the fair shares of the resources at the other end of these flows are
+ * updated in the heap.
+ *
+ * Subgraphs that are not connected do not influence each other. If a
+ * parallelism larger than one is configured, the connected components of
+ * large subgraphs are solved by a thread pool. The rates are assigned to the
+ * flows afterwards on the calling thread.
+ *
+ * Unlike Alg01, flows whose source and destination have no free capacity left
+ * keep a rate of zero (Alg01 does not terminate in this case).
+ */
+public class FairshareAllocator {
+
+	/** Constants. */
+	private final static int UPLOAD = 0;
+	private final static int DOWNLOAD = 1;
+
+	/** Subgraphs with less flows are always solved on the calling thread. */
+	public final static int DEFAULT_MIN_FLOWS_FOR_PARALLEL_SOLVING = 2048;
+
+	/** Number of threads used to solve connected components. */
+	private final int parallelism;
+
+	/** Subgraphs with less flows are always solved on the calling thread. */
+	private final int minFlowsForParallelSolving;
+
+	/** The executor, created on first use. */
+	private ExecutorService executor = null;
+
+	/** One solver per thread. */
+	private final Solver[] solvers;
+
+	/** Local index of each node (by {@link FairshareNode#getIndex()}), -1 if not part of the subgraph. */
+	private int[] localIndexOfNode = new int[0];
+
+	/** The nodes of the subgraph by local index. */
+	private FairshareNode[] nodes = new FairshareNode[16];
+
+	/** The flows of the subgraph. */
+	private FairshareFlow[] flows = new FairshareFlow[16];
+
+	/** Source (upload) and destination (download) resource of each flow. */
+	private int[] flowSrc = new int[16];
+	private int[] flowDst = new int[16];
+
+	/** The computed rates. */
+	private long[] rates = new long[16];
+
+	/** True, if the rate of the flow is fixed. */
+	private boolean[] fixed = new boolean[16];
+
+	/** Free capacity of each resource. */
+	private long[] capacity = new long[32];
+
+	/** Number of flows of each resource that are not fixed yet. */
+	private int[] unfixedFlows = new int[32];
+
+	/** Flows of resource r: adjacency[adjacencyStart[r]] to adjacency[adjacencyStart[r + 1] - 1]. */
+	private int[] adjacencyStart = new int[33];
+	private int[] adjacency = new int[32];
+
+	/** Union-find structure for the connected components. */
+	private int[] component = new int[32];
+
+	/**
+	 * Instantiates a new allocator that solves on the calling thread.
+	 */
+	public FairshareAllocator() {
+		this(1);
+	}
+
+	/**
+	 * Instantiates a new allocator.
+	 *
+	 * @param parallelism number of threads used to solve disjoint subgraphs
+	 */
+	public FairshareAllocator(int parallelism) {
+		this(parallelism, DEFAULT_MIN_FLOWS_FOR_PARALLEL_SOLVING);
+	}
+
+	/**
+	 * Instantiates a new allocator.
+	 *
+	 * @param parallelism number of threads used to solve disjoint subgraphs
+	 * @param minFlowsForParallelSolving subgraphs with less flows are solved on the calling thread
+	 */
+	FairshareAllocator(int parallelism, int minFlowsForParallelSolving) {
+
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism has to be at least 1");
+		}
+
+		this.parallelism = parallelism;
+		this.minFlowsForParallelSolving = minFlowsForParallelSolving;
+		this.solvers = new Solver[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			this.solvers[i] = new Solver();
+		}
+
+	}
+
+	/**
+	 * Gets the parallelism.
+	 *
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Allocates max-min fair rates to the given flows. Bandwidth used by other
+	 * flows of the nodes is not available to the given flows.
+	 *
+	 * @param flowsToAllocate the flows of the affected subgraph
+	 * @throws Exception thrown if rates can't be set
+	 */
+	public void allocate(Collection<FairshareFlow> flowsToAllocate) throws Exception {
+
+		final int flowCount = flowsToAllocate.size();
+		if (flowCount == 0) {
+			return;
+		}
+
+		this.ensureFlowCapacity(flowCount);
+
+		/* Reset all flows in subgraph, frees their bandwidth at the nodes. */
+		int f = 0;
+		for (final FairshareFlow flow : flowsToAllocate) {
+			flow.setRate(0);
+			this.flows[f++] = flow;
+		}
+
+		try {
+
+			final int nodeCount = this.indexNodes(flowCount);
+			final int resourceCount = 2 * nodeCount;
+			this.buildResources(flowCount, nodeCount);
+
+			if (this.parallelism > 1 && flowCount >= this.minFlowsForParallelSolving) {
+				this.solveComponents(resourceCount, flowCount);
+			} else {
+				final Solver solver = this.solvers[0];
+				solver.resources.clear();
+				for (int r = 0; r < resourceCount; r++) {
+					solver.resources.add(r);
+				}
+				solver.solve(resourceCount);
+			}
+
+			/* Assign the rates. */
+			for (f = 0; f < flowCount; f++) {
+				if (this.rates[f] > 0) {
+					this.flows[f].setRate(this.rates[f]);
+				}
+			}
+
+		} finally {
+
+			/* Release flows and nodes, the local indices are reused by the next call. */
+			Arrays.fill(this.flows, 0, flowCount, null);
+			for (int n = 0; n < this.nodes.length && this.nodes[n] != null; n++) {
+				this.localIndexOfNode[this.nodes[n].getIndex()] = -1;
+				this.nodes[n] = null;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Assigns local indices to the source and destination nodes of the flows.
+	 *
+	 * @param flowCount the flow count
+	 * @return the number of nodes
+	 */
+	private int indexNodes(int flowCount) {
+
+		int nodeCount = 0;
+		for (int f = 0; f < flowCount; f++) {
+			final FairshareFlow flow = this.flows[f];
+			final int src = this.getLocalIndex(flow.getSrc(), nodeCount);
+			if (src == nodeCount) {
+				nodeCount++;
+			}
+			final int dst = this.getLocalIndex(flow.getDst(), nodeCount);
+			if (dst == nodeCount) {
+				nodeCount++;
+			}
+			this.flowSrc[f] = 2 * src + UPLOAD;
+			this.flowDst[f] = 2 * dst + DOWNLOAD;
+			this.rates[f] = 0;
+			this.fixed[f] = false;
+		}
+		return nodeCount;
+
+	}
+
+	/**
+	 * Gets the local index of the node, assigns the next index if the node is not indexed yet.
+	 *
+	 * @param node the node
+	 * @param nextIndex the next free local index
+	 * @return the local index
+	 */
+	private int getLocalIndex(FairshareNode node, int nextIndex) {
+
+		final int index = node.getIndex();
+		if (index < 0) {
+			throw new IllegalStateException(node + " is not registered at the subnet.");
+		}
+
+		if (index >= this.localIndexOfNode.length) {
+			final int oldLength = this.localIndexOfNode.length;
+			this.localIndexOfNode = Arrays.copyOf(this.localIndexOfNode, Math.max(2 * oldLength, index + 1));
+			Arrays.fill(this.localIndexOfNode, oldLength, this.localIndexOfNode.length, -1);
+		}
+
+		final int localIndex = this.localIndexOfNode[index];
+		if (localIndex >= 0) {
+			return localIndex;
+		}
+
+		if (nextIndex == this.nodes.length) {
+			this.nodes = Arrays.copyOf(this.nodes, 2 * nextIndex);
+		}
+		this.nodes[nextIndex] = node;
+		this.localIndexOfNode[index] = nextIndex;
+		return nextIndex;
+
+	}
+
+	/**
+	 * Reads the free capacity of all resources and builds the adjacency arrays.
+	 *
+	 * @param flowCount the flow count
+	 * @param nodeCount the node count
+	 */
+	private void buildResources(int flowCount, int nodeCount) {
+
+		final int resourceCount = 2 * nodeCount;
+		if (resourceCount > this.capacity.length) {
+			final int length = Math.max(2 * this.capacity.length, resourceCount);
+			this.capacity = new long[length];
+			this.unfixedFlows = new int[length];
+			this.adjacencyStart = new int[length + 1];
+			this.component = new int[length];
+		}
+		if (2 * flowCount > this.adjacency.length) {
+			this.adjacency = new int[Math.max(2 * this.adjacency.length, 2 * flowCount)];
+		}
+
+		for (int n = 0; n < nodeCount; n++) {
+			this.capacity[2 * n + UPLOAD] = this.nodes[n].getCurrentBandwidth().getUpBW();
+			this.capacity[2 * n + DOWNLOAD] = this.nodes[n].getCurrentBandwidth().getDownBW();
+		}
+
+		Arrays.fill(this.unfixedFlows, 0, resourceCount, 0);
+		for (int f = 0; f < flowCount; f++) {
+			this.unfixedFlows[this.flowSrc[f]]++;
+			this.unfixedFlows[this.flowDst[f]]++;
+		}
+
+		/* Prefix sums, then fill from the back to keep the flow order. */
+		this.adjacencyStart[0] = 0;
+		for (int r = 0; r < resourceCount; r++) {
+			this.adjacencyStart[r + 1] = this.adjacencyStart[r] + this.unfixedFlows[r];
+		}
+		for (int f = flowCount - 1; f >= 0; f--) {
+			this.adjacency[--this.adjacencyStart[this.flowSrc[f] + 1]] = f;
+			this.adjacency[--this.adjacencyStart[this.flowDst[f] + 1]] = f;
+		}
+		/* adjacencyStart[r + 1] now points to the start of r, move it to the end again. */
+		for (int r = 0; r < resourceCount; r++) {
+			this.adjacencyStart[r + 1] += this.unfixedFlows[r];
+		}
+
+	}
+
+	/**
+	 * Splits the subgraph into connected components and solves them in parallel.
+	 *
+	 * @param resourceCount the resource count
+	 * @param flowCount the flow count
+	 * @throws Exception the exception
+	 */
+	private void solveComponents(int resourceCount, int flowCount) throws Exception {
+
+		for (int r = 0; r < resourceCount; r++) {
+			this.component[r] = r;
+		}
+		for (int f = 0; f < flowCount; f++) {
+			final int a = this.findComponent(this.flowSrc[f]);
+			final int b = this.findComponent(this.flowDst[f]);
+			if (a != b) {
+				this.component[Math.max(a, b)] = Math.min(a, b);
+			}
+		}
+
+		/* Assign whole components to the solver with the least flows. */
+		final long[] load = new long[this.parallelism];
+		final int[] solverOfComponent = new int[resourceCount];
+		Arrays.fill(solverOfComponent, -1);
+		for (final Solver solver : this.solvers) {
+			solver.resources.clear();
+		}
+		for (int r = 0; r < resourceCount; r++) {
+			final int root = this.findComponent(r);
+			if (solverOfComponent[root] < 0) {
+				int leastLoaded = 0;
+				for (int s = 1; s < this.parallelism; s++) {
+					if (load[s] < load[leastLoaded]) {
+						leastLoaded = s;
+					}
+				}
+				solverOfComponent[root] = leastLoaded;
+			}
+			final int s = solverOfComponent[root];
+			this.solvers[s].resources.add(r);
+			load[s] += this.unfixedFlows[r];
+		}
+
+		if (this.executor == null) {
+			this.executor = Executors.newFixedThreadPool(this.parallelism, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r, "FairshareAllocator");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		final List<Future<Void>> results = new ArrayList<Future<Void>>(this.parallelism);
+		for (final Solver solver : this.solvers) {
+			if (!solver.resources.isEmpty()) {
+				results.add(this.executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						solver.solve(resourceCount);
+						return null;
+					}
+				}));
+			}
+		}
+
+		try {
+			for (final Future<Void> result : results) {
+				result.get();
+			}
+		} catch (final ExecutionException e) {
+			throw new Exception("Solving a component failed.", e.getCause());
+		}
+
+	}
+
+	/**
+	 * Finds the root of the component of the resource (with path halving).
+	 *
+	 * @param resource the resource
+	 * @return the root
+	 */
+	private int findComponent(int resource) {
+
+		int r = resource;
+		while (this.component[r] != r) {
+			this.component[r] = this.component[this.component[r]];
+			r = this.component[r];
+		}
+		return r;
+
+	}
+
+	/**
+	 * Ensures that the flow arrays can hold the given number of flows.
+	 *
+	 * @param flowCount the flow count
+	 */
+	private void ensureFlowCapacity(int flowCount) {
+
+		if (flowCount > this.flows.length) {
+			final int length = Math.max(2 * this.flows.length, flowCount);
+			this.flows = new FairshareFlow[length];
+			this.flowSrc = new int[length];
+			this.flowDst = new int[length];
+			this.rates = new long[length];
+			this.fixed = new boolean[length];
+		}
+
+	}
+
+	/**
+	 * Progressive filling on a set of resources. Solvers of different threads
+	 * work on disjoint components and therefore on disjoint array entries.
+	 */
+	private final class Solver {
+
+		/** The resources to solve. */
+		private final IntList resources = new IntList();
+
+		/** Resources saturated in the current step. */
+		private final IntList saturated = new IntList();
+
+		/** Fair shares of the resources with free capacity and unfixed flows. */
+		private final FairShareHeap heap = new FairShareHeap();
+
+		/**
+		 * Solve.
+		 *
+		 * @param resourceCount the total number of resources
+		 */
+		public void solve(int resourceCount) {
+
+			final long[] capacity = FairshareAllocator.this.capacity;
+			final int[] unfixedFlows = FairshareAllocator.this.unfixedFlows;
+			final int[] adjacencyStart = FairshareAllocator.this.adjacencyStart;
+			final int[] adjacency = FairshareAllocator.this.adjacency;
+			final int[] flowSrc = FairshareAllocator.this.flowSrc;
+			final int[] flowDst = FairshareAllocator.this.flowDst;
+			final long[] rates = FairshareAllocator.this.rates;
+			final boolean[] fixed = FairshareAllocator.this.fixed;
+
+			this.heap.reset(resourceCount);
+			for (int i = 0; i < this.resources.size(); i++) {
+				final int r = this.resources.get(i);
+				if (capacity[r] > 0 && unfixedFlows[r] > 0) {
+					this.heap.insert(r, capacity[r] / unfixedFlows[r]);
+				}
+			}
+
+			while (!this.heap.isEmpty()) {
+
+				/* All resources with the minimal fair share (satUp and satDown of Alg01). */
+				final long fairshareRate = this.heap.peekKey();
+				this.saturated.clear();
+				while (!this.heap.isEmpty() && this.heap.peekKey() == fairshareRate) {
+					this.saturated.add(this.heap.poll());
+				}
+
+				for (int i = 0; i < this.saturated.size(); i++) {
+					final int r = this.saturated.get(i);
+					for (int a = adjacencyStart[r]; a < adjacencyStart[r + 1]; a++) {
+						final int f = adjacency[a];
+						if (fixed[f]) {
+							continue;
+						}
+						fixed[f] = true;
+						rates[f] = fairshareRate;
+
+						final int other = (flowSrc[f] == r) ? flowDst[f] : flowSrc[f];
+						capacity[r] -= fairshareRate;
+						unfixedFlows[r]--;
+						capacity[other] -= fairshareRate;
+						unfixedFlows[other]--;
+
+						if (this.heap.contains(other)) {
+							if (capacity[other] > 0 && unfixedFlows[other] > 0) {
+								this.heap.update(other, capacity[other] / unfixedFlows[other]);
+							} else {
+								this.heap.remove(other);
+							}
+						}
+					}
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Binary min-heap of resource indices with long keys, supports updating
+	 * and removing contained resources.
+	 */
+	private static final class FairShareHeap {
+
+		private int[] heap = new int[32];
+
+		/** Position of each resource in the heap, -1 if not contained. */
+		private int[] position = new int[0];
+
+		private long[] keys = new long[0];
+
+		private int size = 0;
+
+		public void reset(int resourceCount) {
+			if (resourceCount > this.position.length) {
+				final int length = Math.max(2 * this.position.length, resourceCount);
+				this.heap = new int[length];
+				this.position = new int[length];
+				this.keys = new long[length];
+				Arrays.fill(this.position, -1);
+			}
+			for (int i = 0; i < this.size; i++) {
+				this.position[this.heap[i]] = -1;
+			}
+			this.size = 0;
+		}
+
+		public boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		public boolean contains(int resource) {
+			return this.position[resource] >= 0;
+		}
+
+		public long peekKey() {
+			return this.keys[this.heap[0]];
+		}
+
+		public void insert(int resource, long key) {
+			final int pos = this.size++;
+			this.heap[pos] = resource;
+			this.position[resource] = pos;
+			this.keys[resource] = key;
+			this.siftUp(pos);
+		}
+
+		public void update(int resource, long key) {
+			final long oldKey = this.keys[resource];
+			this.keys[resource] = key;
+			if (key < oldKey) {
+				this.siftUp(this.position[resource]);
+			} else if (key > oldKey) {
+				this.siftDown(this.position[resource]);
+			}
+		}
+
+		public int poll() {
+			final int min = this.heap[0];
+			this.removeAt(0);
+			return min;
+		}
+
+		public void remove(int resource) {
+			this.removeAt(this.position[resource]);
+		}
+
+		private void removeAt(int pos) {
+			final int resource = this.heap[pos];
+			this.position[resource] = -1;
+			this.size--;
+			if (pos < this.size) {
+				final int last = this.heap[this.size];
+				this.heap[pos] = last;
+				this.position[last] = pos;
+				this.siftDown(pos);
+				this.siftUp(this.position[last]);
+			}
+		}
+
+		private void siftUp(int pos) {
+			final int resource = this.heap[pos];
+			final long key = this.keys[resource];
+			while (pos > 0) {
+				final int parentPos = (pos - 1) >>> 1;
+				final int parent = this.heap[parentPos];
+				if (this.keys[parent] <= key) {
+					break;
+				}
+				this.heap[pos] = parent;
+				this.position[parent] = pos;
+				pos = parentPos;
+			}
+			this.heap[pos] = resource;
+			this.position[resource] = pos;
+		}
+
+		private void siftDown(int pos) {
+			final int resource = this.heap[pos];
+			final long key = this.keys[resource];
+			final int half = this.size >>> 1;
+			while (pos < half) {
+				int childPos = 2 * pos + 1;
+				int child = this.heap[childPos];
+				final int rightPos = childPos + 1;
+				if (rightPos < this.size && this.keys[this.heap[rightPos]] < this.keys[child]) {
+					childPos = rightPos;
+					child = this.heap[childPos];
+				}
+				if (key <= this.keys[child]) {
+					break;
+				}
+				this.heap[pos] = child;
+				this.position[child] = pos;
+				pos = childPos;
+			}
+			this.heap[pos] = resource;
+			this.position[resource] = pos;
+		}
+
+	}
+
+	/**
+	 * Growable list of primitive ints.
+	 */
+	private static final class IntList {
+
+		private int[] values = new int[16];
+
+		private int size = 0;
+
+		public void add(int value) {
+			if (this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, 2 * this.size);
+			}
+			this.values[this.size++] = value;
+		}
+
+		public int get(int index) {
+			return this.values[index];
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		public boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		public void clear() {
+			this.size = 0;
+		}
+
+	}
+
+}
@@ -150,6 +150,27 @@ public class FairshareNetLayerFactory extends AbstractNetLayerFactory {
 		subnet.useSubgraphDiscovery(use);
 	}
 
+	/**
+	 * Sets the use of the incremental allocator (default: true).
+	 * 
+	 * @param use
+	 *            the new use incremental allocator
+	 */
+	public void setUseIncrementalAllocator(boolean use) {
+		subnet.useIncrementalAllocator(use);
+	}
+
+	/**
+	 * Sets the number of threads of the incremental allocator (default: 1).
+	 * Only used for large affected subgraphs with disjoint parts.
+	 * 
+	 * @param parallelism
+	 *            the new allocator parallelism
+	 */
+	public void setAllocatorParallelism(int parallelism) {
+		subnet.setAllocatorParallelism(parallelism);
+	}
+
 	/**
 	 * Sets the use region groups.
 	 * 
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.network.FlowBasedNetlayer;
@@ -42,6 +43,9 @@ public class FairshareNode extends AbstractNetLayer implements
 	/** The hash code. */
 	private final int hashCode;
 
+	/** Index of the node within its subnet, -1 if not registered yet. */
+	private int index = -1;
+
 	/**
 	 * Instantiates a new node.
 	 * @param netID
@@ -136,8 +140,10 @@ public class FairshareNode extends AbstractNetLayer implements
 			final TransProtocol tpMsg = ((AbstractTransMessage) msg).getProtocol();
 			if (tpMsg.equals(TransProtocol.UDP)) {
 
-				if (hasAnalyzer) {
-					netAnalyzerProxy
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer
 							.netMsgEvent(netMsg, getHost(), Reason.SEND);
 				}
 				this.subnet.sendUDP(netMsg);
@@ -151,8 +157,10 @@ public class FairshareNode extends AbstractNetLayer implements
 					this.hostQueues.put(receiver, queuedMessages);
 				}
 
-				if (hasAnalyzer) {
-					netAnalyzerProxy
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer
 							.netMsgEvent(netMsg, getHost(), Reason.SEND);
 				}
 				if (queuedMessages.isEmpty()) {
@@ -240,6 +248,25 @@ public class FairshareNode extends AbstractNetLayer implements
 	public NetMessage removeMessageFromQueue(FairshareNode receiver) {
 		return this.hostQueues.get(receiver).remove(0);
 	}
+
+	/**
+	 * Gets the index of the node within its subnet, used by the
+	 * {@link FairshareAllocator}.
+	 *
+	 * @return the index, -1 if not registered yet
+	 */
+	int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Sets the index of the node within its subnet.
+	 *
+	 * @param index the index
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -44,7 +44,6 @@ import de.tudarmstadt.maki.simonstrator.api.EventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
 public class FairshareSubnet extends AbstractSubnet implements EventHandler,
@@ -68,6 +67,9 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 	// Enable subgraph Live monitor
 	private boolean useLiveMonitor = false;
 
+	// Incremental allocator, null if Alg01 of the DirectedGraph is used.
+	private FairshareAllocator allocator = new FairshareAllocator();
+
 	// Net latency model, default GNP. User can overwrite to SimpleLatencyModel
 	private LatencyStrategy strategyLatency;
 	
@@ -78,13 +80,6 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 
 	private final static int EVENT_STATUS = 2;
 
-	private NetlayerAnalyzer netAnalyzerProxy = null;
-
-	private boolean analyzerInit = false;
-
-	private boolean hasAnalyzer = false;
-
-
 	/**
 	 * Instantiates a new fairshare subnet.
 	 */
@@ -103,19 +98,6 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 		
 	}
 
-	private boolean hasAnalyzer() {
-		if (!analyzerInit) {
-			try {
-				analyzerInit = true;
-				netAnalyzerProxy = Monitor.get(NetlayerAnalyzer.class);
-				hasAnalyzer = true;
-			} catch (AnalyzerNotAvailableException e) {
-				//
-			}
-		}
-		return hasAnalyzer;
-	}
-
 	/* (non-Javadoc)
 	 * @see de.tud.kom.p2psim.impl.network.AbstractSubnet#registerNetLayer(de.tud.kom.p2psim.api.network.NetLayer)
 	 */
@@ -139,6 +121,9 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 
 		net.goOnline();
 
+		if (((FairshareNode) net).getIndex() < 0) {
+			((FairshareNode) net).setIndex(this.nodes.size());
+		}
 		this.nodes.put(net.getNetID(), (FairshareNode) net);
 		this.fullGraph.addNode((FairshareNode) net);
 
@@ -193,8 +178,10 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 			final int assignedMsgId = determineTransMsgNumber(netMsg);
 			//log.debug("During Drop: Assigning MsgId " + assignedMsgId + " to dropped message");
 			((AbstractTransMessage) netMsg.getPayload()).setCommId(assignedMsgId);
-			if (hasAnalyzer()) {
-				netAnalyzerProxy.netMsgEvent(netMsg, sender.getHost(),
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(netMsg, sender.getHost(),
 						Reason.DROP);
 			}
 			//log.debug("Packet loss occured while transfer \"" + netMsg + "\" (packetLossProb: " + packetLossProb + ")");
@@ -245,7 +232,7 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 
 
 			// Calculate new rates _only_ on subgraph. Fullgraph will automatically be updated as same objects used.
-			affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+			allocateBandwidth(affectedGraph);
 
 		} else {
 
@@ -253,11 +240,7 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 			this.fullGraph.addFlow(triggeringFlow);
 
 			// Fake affectedGraph -> everything is affected.
-			// 	Need for cloing as flows will get deleted in graph.
-			final DirectedGraph affectedGraph = new DirectedGraph(this.fullGraph);
-
-			// Calculate new rates _only_ on subgraph. Fullgraph will automatically be updated as same objects used.
-			affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+			allocateBandwidthOnFullGraph();
 
 		}
 
@@ -427,16 +410,11 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 							FairshareLiveMonitoring.addNewValue(ratio);
 						}
 
-						fullyAffectedGraph.allocateBandwidthOnFullGraph_Alg01();
+						allocateBandwidth(fullyAffectedGraph);
 
 					} else {
 
-						final DirectedGraph affectedGraph = new DirectedGraph(
-								this.fullGraph);
-
-						// Calculate new rates _only_ on subgraph. Fullgraph
-						// will automatically be updated as same objects used.
-						affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+						allocateBandwidthOnFullGraph();
 
 					}
 
@@ -451,6 +429,41 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 		}
 	}
 
+	/**
+	 * Calculates new rates _only_ on the given subgraph. Fullgraph will
+	 * automatically be updated as same objects used.
+	 *
+	 * @param affectedGraph the affected graph
+	 * @throws Exception thrown if rates can't be set
+	 */
+	private void allocateBandwidth(DirectedGraph affectedGraph) throws Exception {
+
+		if (this.allocator != null) {
+			this.allocator.allocate(affectedGraph.getAllFlows());
+		} else {
+			affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+		}
+
+	}
+
+	/**
+	 * Calculates new rates on the full graph.
+	 *
+	 * @throws Exception thrown if rates can't be set
+	 */
+	private void allocateBandwidthOnFullGraph() throws Exception {
+
+		if (this.allocator != null) {
+			/* The allocator does not modify the graph. */
+			this.allocator.allocate(this.fullGraph.getAllFlows());
+		} else {
+			/* Need for cloning as flows will get deleted in graph. */
+			final DirectedGraph affectedGraph = new DirectedGraph(this.fullGraph);
+			affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+		}
+
+	}
+
 	/**
 	 * Gets the net layer of given NetID
 	 *
@@ -509,14 +522,11 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 
 			if( this.useSubgraphDiscovery ) {
 
-				fullyAffectedGraph.allocateBandwidthOnFullGraph_Alg01();
+				allocateBandwidth(fullyAffectedGraph);
 
 			} else {
 
-				final DirectedGraph affectedGraph = new DirectedGraph(this.fullGraph);
-
-				// Calculate new rates _only_ on subgraph. Fullgraph will automatically be updated as same objects used.
-				affectedGraph.allocateBandwidthOnFullGraph_Alg01();
+				allocateBandwidthOnFullGraph();
 
 			}
 
@@ -556,6 +566,32 @@ public class FairshareSubnet extends AbstractSubnet implements EventHandler,
 		this.useSubgraphDiscovery = useSubgraphDiscovery;
 	}
 
+	/**
+	 * Use the incremental {@link FairshareAllocator} instead of Alg01 of the
+	 * {@link DirectedGraph}. Both calculate the same rates.
+	 *
+	 * @param useIncrementalAllocator the use incremental allocator
+	 */
+	public void useIncrementalAllocator(boolean useIncrementalAllocator) {
+		if (!useIncrementalAllocator) {
+			this.allocator = null;
+		} else if (this.allocator == null) {
+			this.allocator = new FairshareAllocator();
+		}
+	}
+
+	/**
+	 * Sets the number of threads used by the incremental allocator to solve
+	 * disjoint parts of large affected subgraphs.
+	 *
+	 * @param parallelism the parallelism
+	 */
+	public void setAllocatorParallelism(int parallelism) {
+		if (this.allocator != null && this.allocator.getParallelism() != parallelism) {
+			this.allocator = new FairshareAllocator(parallelism);
+		}
+	}
+
 	/**
 	 * Use live monitor.
 	 *
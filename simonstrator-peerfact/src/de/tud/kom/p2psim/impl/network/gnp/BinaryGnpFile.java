@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.network.gnp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.dom4j.Attribute;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+import org.dom4j.tree.DefaultElement;
+
+import de.tud.kom.p2psim.impl.network.gnp.topology.CountryLookup;
+import de.tud.kom.p2psim.impl.network.gnp.topology.GnpPosition;
+import de.tud.kom.p2psim.impl.network.gnp.topology.PingErLookup;
+
+/**
+ * Binary, memory-mapped version of the GNP host file read by
+ * {@link GnpNetLayerFactory#setGnpFile(String)}. The XML file stays the source
+ * format, the binary file is created by {@link #convertFromXML(File, File)}.
+ *
+ * Hosts are stored in flat arrays sorted by IP (IPs, GNP coordinates,
+ * latitude/longitude and indices into a string table for the geographic
+ * names), so nothing has to be parsed when loading and a host is only
+ * materialized when it is assigned to a node. Several simulation processes
+ * reading the same file share the page cache. Groups keep the order of the
+ * XML file, the PingEr and country lookup tables are stored as generic
+ * element/attribute tables and loaded with their XML import methods.
+ *
+ * <pre>
+ * file    := MAGIC VERSION hostCount:int coordinateCount:int stringCount:int
+ *            ips:long[hostCount] coordinateStart:int[hostCount+1]
+ *            coordinates:double[coordinateCount] latLon:double[2*hostCount]
+ *            geoNames:int[5*hostCount] strings:str[stringCount]
+ *            groupCount:int (id:int size:int ips:long[size])*
+ *            tableCount:int (name:int childCount:int (name:int attrCount:int (name:int value:int)*)*)*
+ * str     := length:int UTF-8 bytes
+ * </pre>
+ *
+ * All names are indices into the string table (-1 for null).
+ */
+public class BinaryGnpFile {
+
+	static final int MAGIC = 0x474E5042; // "GNPB"
+
+	static final int VERSION = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String[] GEO_ATTRIBUTES = { "continentalArea",
+			"countryCode", "region", "city", "isp" };
+
+	private final ByteBuffer buf;
+
+	private final int hostCount;
+
+	private final int ipsPos;
+
+	private final int coordinateStartPos;
+
+	private final int coordinatesPos;
+
+	private final int latLonPos;
+
+	private final int geoNamesPos;
+
+	private final String[] strings;
+
+	/*
+	 * Position of the size of each group
+	 */
+	private final Map<String, Integer> groups = new LinkedHashMap<String, Integer>();
+
+	private final Map<String, Integer> tables = new LinkedHashMap<String, Integer>();
+
+	private BinaryGnpFile(ByteBuffer buf) throws IOException {
+		this.buf = buf;
+		if (buf.getInt() != MAGIC) {
+			throw new IOException("Not a binary GNP file.");
+		}
+		int version = buf.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version " + version
+					+ " of the binary GNP file.");
+		}
+		hostCount = buf.getInt();
+		int coordinateCount = buf.getInt();
+		strings = new String[buf.getInt()];
+
+		ipsPos = buf.position();
+		coordinateStartPos = ipsPos + 8 * hostCount;
+		coordinatesPos = coordinateStartPos + 4 * (hostCount + 1);
+		latLonPos = coordinatesPos + 8 * coordinateCount;
+		geoNamesPos = latLonPos + 16 * hostCount;
+
+		buf.position(geoNamesPos + 20 * hostCount);
+		for (int i = 0; i < strings.length; i++) {
+			byte[] bytes = new byte[buf.getInt()];
+			buf.get(bytes);
+			strings[i] = new String(bytes, UTF8);
+		}
+
+		int groupCount = buf.getInt();
+		for (int i = 0; i < groupCount; i++) {
+			String id = getString(buf.getInt());
+			groups.put(id, buf.position());
+			buf.position(buf.position() + 4 + 8 * buf.getInt());
+		}
+
+		int tableCount = buf.getInt();
+		for (int i = 0; i < tableCount; i++) {
+			tables.put(getString(buf.getInt()), buf.position());
+			int childCount = buf.getInt();
+			for (int c = 0; c < childCount; c++) {
+				buf.getInt();
+				buf.position(buf.position() + 4 + 8 * buf.getInt());
+			}
+		}
+	}
+
+	/**
+	 * Memory-maps the given binary GNP file.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static BinaryGnpFile open(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large to be mapped.");
+			}
+			// the mapping stays valid after closing the channel
+			return new BinaryGnpFile(channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size()));
+		}
+	}
+
+	/**
+	 * Returns true, if the given file starts with the magic number of the
+	 * binary format.
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static boolean isBinaryFile(File file) {
+		if (!file.isFile() || file.length() < 8) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	public int getHostCount() {
+		return hostCount;
+	}
+
+	/**
+	 * Returns the index of the host with the given IP, or -1 if the file does
+	 * not contain it.
+	 *
+	 * @param ip
+	 * @return
+	 */
+	public int indexOf(long ip) {
+		int low = 0;
+		int high = hostCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midIp = getIp(mid);
+			if (midIp < ip) {
+				low = mid + 1;
+			} else if (midIp > ip) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	public long getIp(int index) {
+		return buf.getLong(ipsPos + 8 * index);
+	}
+
+	public GnpPosition getGnpPosition(int index) {
+		int start = buf.getInt(coordinateStartPos + 4 * index);
+		int end = buf.getInt(coordinateStartPos + 4 * (index + 1));
+		double[] coordinates = new double[end - start];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = buf.getDouble(coordinatesPos + 8 * (start + i));
+		}
+		return new GnpPosition(coordinates);
+	}
+
+	public GeoLocation getGeoLocation(int index) {
+		String[] names = new String[GEO_ATTRIBUTES.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = getString(buf.getInt(geoNamesPos + 4
+					* (GEO_ATTRIBUTES.length * index + i)));
+		}
+		double latitude = buf.getDouble(latLonPos + 16 * index);
+		double longitude = buf.getDouble(latLonPos + 16 * index + 8);
+		return new GeoLocation(names[0], names[1], names[2], names[3],
+				names[4], latitude, longitude);
+	}
+
+	public Set<String> getGroupIds() {
+		return Collections.unmodifiableSet(groups.keySet());
+	}
+
+	/**
+	 * Returns the IPs of the given group in the order of the XML file, or null
+	 * if the group does not exist.
+	 *
+	 * @param id
+	 * @return
+	 */
+	public long[] getGroup(String id) {
+		Integer pos = groups.get(id);
+		if (pos == null) {
+			return null;
+		}
+		long[] ips = new long[buf.getInt(pos)];
+		for (int i = 0; i < ips.length; i++) {
+			ips[i] = buf.getLong(pos + 4 + 8 * i);
+		}
+		return ips;
+	}
+
+	/**
+	 * Returns the PingEr lookup table, or null if the source file did not
+	 * contain one.
+	 *
+	 * @return
+	 */
+	public PingErLookup getPingErLookup() {
+		Element element = getTable("PingErLookup");
+		if (element == null) {
+			return null;
+		}
+		PingErLookup pingErLookup = new PingErLookup();
+		pingErLookup.loadFromXML(element);
+		return pingErLookup;
+	}
+
+	/**
+	 * Returns the country lookup table, or null if the source file did not
+	 * contain one.
+	 *
+	 * @return
+	 */
+	public CountryLookup getCountryLookup() {
+		Element element = getTable("CountryLookup");
+		if (element == null) {
+			return null;
+		}
+		CountryLookup countryLookup = new CountryLookup();
+		countryLookup.importFromXML(element);
+		return countryLookup;
+	}
+
+	/**
+	 * Rebuilds the XML element of the given lookup table.
+	 */
+	private Element getTable(String name) {
+		Integer pos = tables.get(name);
+		if (pos == null) {
+			return null;
+		}
+		Element table = new DefaultElement(name);
+		int childCount = buf.getInt(pos);
+		pos += 4;
+		for (int c = 0; c < childCount; c++) {
+			Element child = new DefaultElement(getString(buf.getInt(pos)));
+			int attributeCount = buf.getInt(pos + 4);
+			pos += 8;
+			for (int a = 0; a < attributeCount; a++) {
+				child.addAttribute(getString(buf.getInt(pos)),
+						getString(buf.getInt(pos + 4)));
+				pos += 8;
+			}
+			table.add(child);
+		}
+		return table;
+	}
+
+	private String getString(int index) {
+		return index < 0 ? null : strings[index];
+	}
+
+	/**
+	 * Compiles the given GNP host file into the binary format.
+	 *
+	 * @param xmlFile
+	 * @param binaryFile
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public static void convertFromXML(File xmlFile, File binaryFile)
+			throws DocumentException, IOException {
+		SAXReader reader = new SAXReader(false);
+		Document configuration = reader.read(xmlFile);
+		Element root = configuration.getRootElement();
+		if (!root.getName().equals("gnp")) {
+			throw new IllegalArgumentException(xmlFile + " is not a GNP file.");
+		}
+
+		StringTable strings = new StringTable();
+		// sorted by IP, later definitions replace earlier ones
+		TreeMap<Long, Element> hosts = new TreeMap<Long, Element>();
+		Map<String, List<Long>> namedGroups = new LinkedHashMap<String, List<Long>>();
+		List<Element> lookupTables = new ArrayList<Element>();
+
+		for (Object obj : root.elements()) {
+			Element elem = (Element) obj;
+			if (elem.getName().equals("GroupLookup")) {
+				for (Iterator<Element> iter = elem.elementIterator("Group"); iter
+						.hasNext();) {
+					Element variable = iter.next();
+					String id = variable.attributeValue("id");
+					List<Long> group = new ArrayList<Long>();
+					for (Iterator<Element> ipIter = variable
+							.elementIterator("IPs"); ipIter.hasNext();) {
+						String[] ips = ipIter.next().attributeValue("value")
+								.split(",");
+						for (int c = 0; c < ips.length; c++)
+							group.add(Long.parseLong(ips[c]));
+					}
+					if (namedGroups.containsKey(id)) {
+						throw new IllegalStateException(
+								"Multiple Group Definition in " + xmlFile
+										+ " ( Group: " + id + " )");
+					}
+					namedGroups.put(id, group);
+					strings.indexOf(id);
+				}
+			} else if (elem.getName().equals("Hosts")) {
+				for (Iterator<Element> iter = elem.elementIterator("Host"); iter
+						.hasNext();) {
+					Element variable = iter.next();
+					hosts.put(Long.parseLong(variable.attributeValue("ip")),
+							variable);
+				}
+			} else if (elem.getName().equals("PingErLookup")
+					|| elem.getName().equals("CountryLookup")) {
+				lookupTables.add(elem);
+			}
+		}
+
+		int[] coordinateStart = new int[hosts.size() + 1];
+		List<double[]> coordinates = new ArrayList<double[]>(hosts.size());
+		int[] geoNames = new int[GEO_ATTRIBUTES.length * hosts.size()];
+		int index = 0;
+		for (Element host : hosts.values()) {
+			String[] coordinatesS = host.attributeValue("coordinates").split(
+					",");
+			double[] coordinatesD = new double[coordinatesS.length];
+			for (int c = 0; c < coordinatesD.length; c++)
+				coordinatesD[c] = Double.parseDouble(coordinatesS[c]);
+			coordinates.add(coordinatesD);
+			coordinateStart[index + 1] = coordinateStart[index]
+					+ coordinatesD.length;
+			for (int i = 0; i < GEO_ATTRIBUTES.length; i++) {
+				geoNames[GEO_ATTRIBUTES.length * index + i] = strings
+						.indexOf(host.attributeValue(GEO_ATTRIBUTES[i]));
+			}
+			index++;
+		}
+		for (Element table : lookupTables) {
+			strings.indexOf(table.getName());
+			for (Iterator<Element> iter = table.elementIterator(); iter
+					.hasNext();) {
+				Element child = iter.next();
+				strings.indexOf(child.getName());
+				for (Iterator<Attribute> attrIter = child.attributeIterator(); attrIter
+						.hasNext();) {
+					Attribute attribute = attrIter.next();
+					strings.indexOf(attribute.getName());
+					strings.indexOf(attribute.getValue());
+				}
+			}
+		}
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(binaryFile),
+						1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(hosts.size());
+			out.writeInt(coordinateStart[hosts.size()]);
+			out.writeInt(strings.size());
+
+			for (Long ip : hosts.keySet()) {
+				out.writeLong(ip);
+			}
+			for (int start : coordinateStart) {
+				out.writeInt(start);
+			}
+			for (double[] hostCoordinates : coordinates) {
+				for (double coordinate : hostCoordinates) {
+					out.writeDouble(coordinate);
+				}
+			}
+			for (Element host : hosts.values()) {
+				out.writeDouble(Double.parseDouble(host
+						.attributeValue("latitude")));
+				out.writeDouble(Double.parseDouble(host
+						.attributeValue("longitude")));
+			}
+			for (int name : geoNames) {
+				out.writeInt(name);
+			}
+			for (String str : strings.getStrings()) {
+				byte[] bytes = str.getBytes(UTF8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			out.writeInt(namedGroups.size());
+			for (Map.Entry<String, List<Long>> group : namedGroups.entrySet()) {
+				out.writeInt(strings.indexOf(group.getKey()));
+				out.writeInt(group.getValue().size());
+				for (Long ip : group.getValue()) {
+					out.writeLong(ip);
+				}
+			}
+
+			out.writeInt(lookupTables.size());
+			for (Element table : lookupTables) {
+				out.writeInt(strings.indexOf(table.getName()));
+				out.writeInt(table.elements().size());
+				for (Iterator<Element> iter = table.elementIterator(); iter
+						.hasNext();) {
+					Element child = iter.next();
+					out.writeInt(strings.indexOf(child.getName()));
+					out.writeInt(child.attributeCount());
+					for (Iterator<Attribute> attrIter = child
+							.attributeIterator(); attrIter.hasNext();) {
+						Attribute attribute = attrIter.next();
+						out.writeInt(strings.indexOf(attribute.getName()));
+						out.writeInt(strings.indexOf(attribute.getValue()));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assigns consecutive indices to distinct strings.
+	 */
+	private static class StringTable {
+
+		private final Map<String, Integer> indices = new LinkedHashMap<String, Integer>();
+
+		public int indexOf(String str) {
+			if (str == null) {
+				return -1;
+			}
+			Integer index = indices.get(str);
+			if (index == null) {
+				index = indices.size();
+				indices.put(str, index);
+			}
+			return index;
+		}
+
+		public int size() {
+			return indices.size();
+		}
+
+		public Set<String> getStrings() {
+			return indices.keySet();
+		}
+
+	}
+
+}
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.network.NetMessage;
@@ -38,6 +39,7 @@ import de.tud.kom.p2psim.impl.transport.AbstractTransMessage;
 import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Message;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
@@ -167,8 +169,10 @@ public class GnpNetLayer extends AbstractNetLayer implements EventHandler {
 			if (this.isSupported(usedTransProtocol)) {
 				NetMessage netMsg = new IPv4Message(msg, receiver,
 						this.getLocalInetAddress());
-				if (hasAnalyzer) {
-					netAnalyzerProxy
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer
 							.netMsgEvent(netMsg, getHost(), Reason.SEND);
 				}
 				this.subnet.send(netMsg);
@@ -180,10 +184,12 @@ public class GnpNetLayer extends AbstractNetLayer implements EventHandler {
 			int assignedMsgId = subnet.determineTransMsgNumber(msg);
 			((AbstractTransMessage) msg).setCommId(assignedMsgId);
 
-			if (hasAnalyzer) {
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
 				NetMessage netMsg = new IPv4Message(msg, receiver,
 						this.getLocalInetAddress());
-				netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.DROP);
+				netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.DROP);
 			}
 		}
 
@@ -22,6 +22,7 @@
 package de.tud.kom.p2psim.impl.network.gnp;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -54,6 +55,12 @@ public class GnpNetLayerFactory extends AbstractNetLayerFactory {
 
 	private CountryLookup countryLookup;
 
+	/*
+	 * Set if the hosts are read from a binary GNP file. Hosts and groups are
+	 * added to hostPool and namedGroups on first use.
+	 */
+	private BinaryGnpFile binaryFile = null;
+
 	public GnpNetLayerFactory() {
 		super();
 		subnet = new GnpSubnet();
@@ -73,6 +80,16 @@ public class GnpNetLayerFactory extends AbstractNetLayerFactory {
 	 * @return
 	 */
 	public GnpNetLayer newNetLayer(SimHost host, String id) {
+		if (binaryFile != null && !this.namedGroups.containsKey(id)) {
+			long[] ips = binaryFile.getGroup(id);
+			if (ips != null) {
+				ArrayList<IPv4NetID> group = new ArrayList<IPv4NetID>(
+						ips.length);
+				for (long ip : ips)
+					group.add(new IPv4NetID(ip));
+				namedGroups.put(id, group);
+			}
+		}
 		if (this.namedGroups.containsKey(id)
 				&& !this.namedGroups.get(id).isEmpty()) {
 			int size = namedGroups.get(id).size();
@@ -90,6 +107,14 @@ public class GnpNetLayerFactory extends AbstractNetLayerFactory {
 	// general method for allocation of bandwidth capacities, which depends on
 	// the provided class by the setBandwidthDetermination-method
 	private GnpNetLayer newNetLayer(SimHost host, IPv4NetID netID) {
+		if (binaryFile != null && !this.hostPool.containsKey(netID)) {
+			int index = binaryFile.indexOf(netID.getID());
+			if (index >= 0) {
+				hostPool.put(netID, new GnpHostInfo(
+						binaryFile.getGeoLocation(index),
+						binaryFile.getGnpPosition(index)));
+			}
+		}
 		GnpPosition gnpPos = this.hostPool.get(netID).getGnpPosition();
 		GeoLocation geoLoc = this.hostPool.get(netID).getGeoLoc();
 		BandwidthImpl bw = getBandwidth(netID);
@@ -100,11 +125,30 @@ public class GnpNetLayerFactory extends AbstractNetLayerFactory {
 		return nw;
 	}
 
+	/**
+	 * Reads the hosts, groups and lookup tables. The file may either be a GNP
+	 * XML file or a binary GNP file created by the BinaryDatabaseConverter,
+	 * which is memory-mapped and loads much faster.
+	 * 
+	 * @param gnpFileName
+	 */
 	public void setGnpFile(String gnpFileName) {
 		
 		File gnpFile = new File(gnpFileName);
 		hostPool = new HashMap<IPv4NetID, GnpHostInfo>();
 		namedGroups = new HashMap<String, ArrayList<IPv4NetID>>();
+		binaryFile = null;
+
+		if (BinaryGnpFile.isBinaryFile(gnpFile)) {
+			try {
+				binaryFile = BinaryGnpFile.open(gnpFile);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not read " + gnpFileName, e);
+			}
+			pingErLookup = binaryFile.getPingErLookup();
+			countryLookup = binaryFile.getCountryLookup();
+			return;
+		}
 		
 		SAXReader reader = new SAXReader(false);
 
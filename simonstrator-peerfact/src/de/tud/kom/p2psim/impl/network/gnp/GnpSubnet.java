@@ -45,7 +45,6 @@ import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
 import de.tudarmstadt.maki.simonstrator.api.Randoms;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
 /**
@@ -164,11 +163,10 @@ public class GnpSubnet extends AbstractSubnet implements EventHandler {
 				int assignedMsgId = determineTransMsgNumber(msg);
 				((AbstractTransMessage) msg.getPayload())
 						.setCommId(assignedMsgId);
-				try {
-					Monitor.get(NetlayerAnalyzer.class).netMsgEvent(msg,
-							sender.getHost(), Reason.DROP);
-				} catch (AnalyzerNotAvailableException e) {
-					//
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(msg, sender.getHost(), Reason.DROP);
 				}
 				return;
 			}
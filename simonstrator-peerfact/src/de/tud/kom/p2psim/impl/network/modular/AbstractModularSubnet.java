@@ -33,7 +33,6 @@ import de.tud.kom.p2psim.impl.transport.AbstractTransMessage;
 import de.tud.kom.p2psim.impl.util.BackToXMLWritable;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
 /**
@@ -104,11 +103,10 @@ public abstract class AbstractModularSubnet extends AbstractSubnet implements
 			//log.debug("Dropping message " + msg
 			//		+ ", because of the packet loss strategy that is used.");
 			NetLayerLiveMonitoring.getSubnetMsgDrop().droppedMessage();
-			try {
-				Monitor.get(NetlayerAnalyzer.class).netMsgEvent(msg,
-						nlSender.getHost(), Reason.DROP);
-			} catch (AnalyzerNotAvailableException e) {
-				// nothing to do
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(msg, nlSender.getHost(), Reason.DROP);
 			}
 			return true;
 		} else {
@@ -23,6 +23,7 @@ package de.tud.kom.p2psim.impl.network.modular;
 import java.util.Collection;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.network.NetMessage;
@@ -178,8 +179,10 @@ public class ModularNetLayer extends AbstractNetLayer {
 		//log.debug("Dropping message " + msg + ", because sender " + this
 		//		+ " is offline.");
 		NetLayerLiveMonitoring.getOfflineMsgDrop().droppedMessage();
-		if (hasAnalyzer) {
-			netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.DROP);
+		NetlayerAnalyzer netAnalyzer = Monitor
+				.getOrNull(NetlayerAnalyzer.class);
+		if (netAnalyzer != null) {
+			netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.DROP);
 		}
 	}
 
@@ -237,8 +240,10 @@ public class ModularNetLayer extends AbstractNetLayer {
 		@Override
 		public void sendSubnet(NetMessage netMsg) {
 			NetLayerLiveMonitoring.getTrafCtrlMsgDrop().noDropMessage();
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.SEND);
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.SEND);
 			}
 			ModularNetLayer.this.getSubnet().send(netMsg);
 		}
@@ -249,8 +254,10 @@ public class ModularNetLayer extends AbstractNetLayer {
 			//		+ ModularNetLayer.this
 			//		+ ") traffic control mechanism has decided it.");
 			NetLayerLiveMonitoring.droppedMessageTrafCtrl(netMsg);
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.DROP);
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.DROP);
 			}
 		}
 
@@ -313,16 +320,18 @@ public class ModularNetLayer extends AbstractNetLayer {
 				NetLayerLiveMonitoring.getOfflineMsgDrop().noDropMessage();
 				NetLayerLiveMonitoring.getRoutingMsgDrop().noDropMessage();
 				NetID myID = getNetID();
-				if (hasAnalyzer) {
-					netAnalyzerProxy.netMsgEvent(message, getHost(),
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(message, getHost(),
 							Reason.RECEIVE);
 				}
 				NetMsgEvent event = new NetMsgEvent(message,
 						ModularNetLayer.this);
 				Collection<NetMessageListener> msgListeners = getNetMsgListeners();
 				if (msgListeners == null || msgListeners.isEmpty()) {
-					if (hasAnalyzer) {
-						netAnalyzerProxy.netMsgEvent(message, getHost(),
+					if (netAnalyzer != null) {
+						netAnalyzer.netMsgEvent(message, getHost(),
 								Reason.RECEIVE);
 					}
 					Monitor.log(ModularNetLayer.class, Level.WARN,
@@ -338,8 +347,10 @@ public class ModularNetLayer extends AbstractNetLayer {
 				//log.debug("Dropping message " + message + ", because receiver "
 				//		+ this + " is offline.");
 				NetLayerLiveMonitoring.getOfflineMsgDrop().droppedMessage();
-				if (hasAnalyzer) {
-					netAnalyzerProxy.netMsgEvent(message, getHost(),
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(message, getHost(),
 							Reason.DROP);
 				}
 			}
@@ -351,8 +362,10 @@ public class ModularNetLayer extends AbstractNetLayer {
 			//log.debug("Dropping message " + netMsg
 			//		+ ", because the receiver's (" + ModularNetLayer.this
 			//		+ ") traffic control mechanism has decided it.");
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.DROP);
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.DROP);
 			}
 		}
 
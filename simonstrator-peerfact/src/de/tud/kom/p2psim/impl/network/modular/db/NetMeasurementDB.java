@@ -41,6 +41,7 @@ import de.tud.kom.p2psim.impl.network.modular.common.PingErToolkit;
 import de.tud.kom.p2psim.impl.util.BackToXMLWritable;
 import de.tud.kom.p2psim.impl.util.SymmetricRelation;
 import de.tud.kom.p2psim.impl.util.Tuple;
+import de.tud.kom.p2psim.impl.util.db.relational.BinaryRelationalDBFile;
 import de.tud.kom.p2psim.impl.util.db.relational.DBInstantiationException;
 import de.tud.kom.p2psim.impl.util.db.relational.RelationalDB;
 import umontreal.iro.lecuyer.probdist.LognormalDist;
@@ -563,14 +564,23 @@ public class NetMeasurementDB extends RelationalDB implements BackToXMLWritable
 	
 	/**
 	 * To be called by the PeerfactSim.KOM configurator when giving the File parameter.
+	 * The file may either be an XML database or a binary database created by the
+	 * BinaryDatabaseConverter, which is memory-mapped and loads much faster.
 	 * @param filename
 	 * @throws ParserConfigurationException 
 	 * @throws IOException 
 	 * @throws SAXException 
+	 * @throws DBInstantiationException 
 	 */
-	public void setFile(String filename) throws SAXException, IOException, ParserConfigurationException {
+	public void setFile(String filename) throws SAXException, IOException, ParserConfigurationException, DBInstantiationException {
 		loadedFromFile = true;
 
+		if (BinaryRelationalDBFile.isBinaryFile(new File(filename))) {
+			this.readFromBinaryFile(new File(filename));
+			this.filename = filename;
+			return;
+		}
+
         InputStream input = null;
 
         if (!new File(filename).exists()) {
@@ -27,6 +27,7 @@ import java.net.ConnectException;
 import java.net.Socket;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.network.NetMessage;
@@ -90,8 +91,10 @@ public class RealNetworkingNetLayer extends AbstractNetLayer {
 							+ transLayerMsgProto.toString());
 			
 			if (transLayerMsgProto.equals(TransProtocol.UDP)) {
-				if (hasAnalyzer) {
-					netAnalyzerProxy.netMsgEvent(netLayerMsg, getHost(),
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(netLayerMsg, getHost(),
 							Reason.SEND);
 				}
 				this.netLayerManager.sendUDPPacket(receiverId, realDestination, realNetworkMessage);
@@ -46,6 +46,7 @@ import de.tud.kom.p2psim.api.network.routing.RoutingListener;
 import de.tud.kom.p2psim.api.network.routing.RoutingMessage;
 import de.tud.kom.p2psim.impl.network.DefaultNetMessageEvent;
 import de.tud.kom.p2psim.impl.network.IPv4NetID;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tud.kom.p2psim.impl.util.livemon.AvgAccumulatorDouble;
 import de.tudarmstadt.maki.simonstrator.api.Message;
@@ -232,10 +233,6 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 
 		private final List<ConnectivityListener> connListeners = new LinkedList<ConnectivityListener>();
 
-		private NetlayerAnalyzer netAnalyzerProxy;
-
-		private boolean hasAnalyzer = false;
-
 		public NetInterfaceImpl(NetInterfaceName name, NetID localNetId,
 				PhyType phy, RoutingAlgorithm routing,
 				boolean enableFragmenting, long fragmentSize) {
@@ -267,13 +264,6 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 			if (!startOffline) {
 				goOnline();
 			}
-
-			try {
-				netAnalyzerProxy = Monitor.get(NetlayerAnalyzer.class);
-				hasAnalyzer = true;
-			} catch (AnalyzerNotAvailableException e) {
-				// No analyzer, no problem.
-			}
 		}
 		
 		@Override
@@ -316,8 +306,10 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 						RoutedNetMessage complete = new RoutedNetMessage(msg,
 								receiver, getNetID(), protocol);
 
-						if (hasAnalyzer) {
-							netAnalyzerProxy.netMsgEvent(complete, getHost(),
+						NetlayerAnalyzer netAnalyzer = Monitor
+								.getOrNull(NetlayerAnalyzer.class);
+						if (netAnalyzer != null) {
+							netAnalyzer.netMsgEvent(complete, getHost(),
 									Reason.SEND);
 						}
 
@@ -328,6 +320,7 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 					}
 					routing.route(nMsg);
 				}
+				Simulator.getScheduler().awaitSequentialOrder();
 				_avgFragments.newVal(numberOfFragments);
 			} else {
 				NetMessage nMsg = new RoutedNetMessage(msg, receiver,
@@ -335,8 +328,10 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 				/*
 				 * Notify NetLayer Monitor
 				 */
-				if (hasAnalyzer) {
-					netAnalyzerProxy.netMsgEvent(nMsg, getHost(),
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer.netMsgEvent(nMsg, getHost(),
 							Reason.SEND);
 				}
 
@@ -366,6 +361,7 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 
 			if (!rMsg.getReceiver().equals(IPv4NetID.LOCAL_BROADCAST)) {
 				// analyze average hop count
+				Simulator.getScheduler().awaitSequentialOrder();
 				_avgHops.newVal(rMsg.getRoutedNetMessageHopCount());
 			}
 
@@ -398,8 +394,10 @@ public class RoutedNetLayer implements SimNetworkComponent, NetworkComponent,
 					completeMessage.getSender(), localNetId,
 					completeMessage.getPayload());
 
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(completeMessage, getHost(),
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(completeMessage, getHost(),
 						Reason.RECEIVE);
 			}
 
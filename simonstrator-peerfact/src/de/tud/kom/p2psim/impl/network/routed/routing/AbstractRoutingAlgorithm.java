@@ -34,7 +34,6 @@ import de.tud.kom.p2psim.impl.network.routed.RoutedNetMessage;
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetInterface;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetworkComponent.NetInterfaceName;
@@ -59,10 +58,6 @@ public abstract class AbstractRoutingAlgorithm implements RoutingAlgorithm {
 
 	private NetInterface netInterface;
 
-	private boolean hasAnalyzer = false;
-
-	private NetlayerAnalyzer netAnalyzerProxy;
-
 	public static enum DropReason {
 		NO_PATH_FOUND, PATH_BROKEN, PATH_OUTDATED, ADRESS_RESOLUTION_FAILED
 	}
@@ -105,14 +100,6 @@ public abstract class AbstractRoutingAlgorithm implements RoutingAlgorithm {
 		netInterface = net;
 		netInterface.addConnectivityListener(this);
 		initialize();
-
-		// binding the analyzer
-		try {
-			netAnalyzerProxy = Monitor.get(NetlayerAnalyzer.class);
-			hasAnalyzer = true;
-		} catch (AnalyzerNotAvailableException e) {
-			// no analyzer, no problem
-		}
 	}
 
 	/**
@@ -144,10 +131,12 @@ public abstract class AbstractRoutingAlgorithm implements RoutingAlgorithm {
 	 * @param msg
 	 */
 	protected void messageDropped(DropReason reason, NetMessage msg) {
-		if (hasAnalyzer) {
+		NetlayerAnalyzer netAnalyzer = Monitor
+				.getOrNull(NetlayerAnalyzer.class);
+		if (netAnalyzer != null) {
 			Monitor.log(AbstractRoutingAlgorithm.class, Level.INFO,
 					"Dropped because of %s - msg: %s", reason, msg);
-			netAnalyzerProxy.netMsgEvent(msg, host, Reason.DROP);
+			netAnalyzer.netMsgEvent(msg, host, Reason.DROP);
 		}
 	}
 
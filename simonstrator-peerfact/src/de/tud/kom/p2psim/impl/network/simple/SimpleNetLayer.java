@@ -18,11 +18,10 @@
  *
  */
 
-
-
 package de.tud.kom.p2psim.impl.network.simple;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.NetlayerAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.BandwidthImpl;
 import de.tud.kom.p2psim.api.network.NetMessage;
@@ -67,8 +66,10 @@ public class SimpleNetLayer extends AbstractNetLayer {
 				NetMessage netMsg = new SimpleNetMessage(msg, receiver,
 						getLocalInetAddress(),
 						netProtocol);
-				if (hasAnalyzer) {
-					netAnalyzerProxy
+				NetlayerAnalyzer netAnalyzer = Monitor
+						.getOrNull(NetlayerAnalyzer.class);
+				if (netAnalyzer != null) {
+					netAnalyzer
 							.netMsgEvent(netMsg, getHost(), Reason.SEND);
 				}
 				subNet.send(netMsg);
@@ -86,8 +87,10 @@ public class SimpleNetLayer extends AbstractNetLayer {
 			NetMessage netMsg = new SimpleNetMessage(msg, receiver,
 					getLocalInetAddress(),
 					netProtocol);
-			if (hasAnalyzer) {
-				netAnalyzerProxy.netMsgEvent(netMsg, getHost(), Reason.DROP);
+			NetlayerAnalyzer netAnalyzer = Monitor
+					.getOrNull(NetlayerAnalyzer.class);
+			if (netAnalyzer != null) {
+				netAnalyzer.netMsgEvent(netMsg, getHost(), Reason.DROP);
 			}
 		}
 
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+import de.tudarmstadt.maki.simonstrator.api.Time;
+
+/**
+ * Calendar queue (R. Brown, 1988) as pending-event set for the
+ * {@link Scheduler}. Events are hashed into buckets ("days") of a fixed width
+ * according to their simulation time, each bucket is a sorted, intrusive list
+ * linked via {@link SchedulerEvent#next}. Insert and poll are amortized O(1) as
+ * long as the bucket width matches the typical event spacing, which is why the
+ * calendar is resized (and the width re-estimated) whenever the number of
+ * events grows or shrinks by a factor of two.
+ *
+ * Within one bucket, events are ordered by simulation time and
+ * {@link SchedulerEvent#globalOrderIdx}, which keeps FIFO ordering for equal
+ * timestamps identical to the {@link HeapEventQueue}.
+ */
+class CalendarEventQueue implements SchedulerEventQueue {
+
+	private static final int MIN_BUCKETS = 16;
+
+	/**
+	 * Initial guess for the bucket width, re-estimated on the first resize.
+	 */
+	private static final long INITIAL_BUCKET_WIDTH = Time.MILLISECOND;
+
+	/**
+	 * Number of events that are sampled to estimate a new bucket width.
+	 */
+	private static final int WIDTH_SAMPLES = 32;
+
+	private SchedulerEvent[] buckets;
+
+	/**
+	 * Width of a bucket in simulation time units.
+	 */
+	private long width;
+
+	private int size;
+
+	private int growThreshold;
+
+	private int shrinkThreshold;
+
+	/**
+	 * Bucket that is currently scanned by {@link #locateNext()}
+	 */
+	private int currentBucket;
+
+	/**
+	 * Exclusive upper time bound of the current bucket within the current
+	 * "year" of the calendar.
+	 */
+	private long currentBucketTop;
+
+	/**
+	 * Bucket containing the next event (as determined by {@link #peek()}), or
+	 * -1 if unknown.
+	 */
+	private int nextBucket = -1;
+
+	private boolean resizeEnabled = true;
+
+	public CalendarEventQueue() {
+		init(MIN_BUCKETS, INITIAL_BUCKET_WIDTH, 0);
+	}
+
+	private void init(int numBuckets, long bucketWidth, long startTime) {
+		buckets = new SchedulerEvent[numBuckets];
+		width = bucketWidth;
+		size = 0;
+		growThreshold = 2 * numBuckets;
+		shrinkThreshold = numBuckets <= MIN_BUCKETS ? -1 : numBuckets / 2 - 2;
+		setPosition(startTime);
+	}
+
+	private void setPosition(long time) {
+		long day = time / width;
+		currentBucket = (int) (day % buckets.length);
+		currentBucketTop = (day + 1) * width;
+		nextBucket = -1;
+	}
+
+	@Override
+	public void add(SchedulerEvent event) {
+		insert(event);
+		size++;
+		if (event.simTime < currentBucketTop - width) {
+			/*
+			 * Event lies before the bucket we are currently looking at (might
+			 * happen after a peek() or for events scheduled at the current
+			 * time), move back.
+			 */
+			setPosition(event.simTime);
+		} else if (nextBucket != -1) {
+			SchedulerEvent next = buckets[nextBucket];
+			if (event.simTime < next.simTime) {
+				nextBucket = -1;
+			}
+		}
+		if (resizeEnabled && size > growThreshold) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	private void insert(SchedulerEvent event) {
+		int idx = (int) ((event.simTime / width) % buckets.length);
+		SchedulerEvent current = buckets[idx];
+		if (current == null || isBefore(event, current)) {
+			event.next = current;
+			buckets[idx] = event;
+			return;
+		}
+		SchedulerEvent previous = current;
+		current = current.next;
+		while (current != null && !isBefore(event, current)) {
+			previous = current;
+			current = current.next;
+		}
+		event.next = current;
+		previous.next = event;
+	}
+
+	private static boolean isBefore(SchedulerEvent e1, SchedulerEvent e2) {
+		return e1.simTime < e2.simTime || (e1.simTime == e2.simTime
+				&& e1.globalOrderIdx < e2.globalOrderIdx);
+	}
+
+	@Override
+	public SchedulerEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return buckets[locateNext()];
+	}
+
+	@Override
+	public SchedulerEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		int idx = locateNext();
+		SchedulerEvent event = buckets[idx];
+		buckets[idx] = event.next;
+		event.next = null;
+		size--;
+		nextBucket = -1;
+		if (resizeEnabled && size < shrinkThreshold) {
+			resize(buckets.length / 2);
+		}
+		return event;
+	}
+
+	/**
+	 * Returns the index of the bucket that contains the next event. The queue
+	 * must not be empty.
+	 *
+	 * @return
+	 */
+	private int locateNext() {
+		if (nextBucket != -1) {
+			return nextBucket;
+		}
+		for (int i = 0; i < buckets.length; i++) {
+			SchedulerEvent head = buckets[currentBucket];
+			if (head != null && head.simTime < currentBucketTop) {
+				nextBucket = currentBucket;
+				return nextBucket;
+			}
+			currentBucket++;
+			if (currentBucket == buckets.length) {
+				currentBucket = 0;
+			}
+			currentBucketTop += width;
+		}
+		/*
+		 * Sparse calendar: no event within one full year, search the minimum
+		 * directly and jump there.
+		 */
+		SchedulerEvent min = null;
+		for (SchedulerEvent head : buckets) {
+			if (head != null && (min == null || isBefore(head, min))) {
+				min = head;
+			}
+		}
+		setPosition(min.simTime);
+		nextBucket = currentBucket;
+		return nextBucket;
+	}
+
+	/**
+	 * Re-distributes all events into a calendar with the given number of
+	 * buckets and a freshly estimated bucket width. O(n), but only triggered
+	 * after the size changed by a factor of two.
+	 *
+	 * @param numBuckets
+	 */
+	private void resize(int numBuckets) {
+		if (numBuckets < MIN_BUCKETS) {
+			numBuckets = MIN_BUCKETS;
+		}
+		long newWidth = estimateWidth();
+		SchedulerEvent[] oldBuckets = buckets;
+		int oldSize = size;
+		long startTime = peek().simTime;
+		init(numBuckets, newWidth, startTime);
+		for (SchedulerEvent head : oldBuckets) {
+			SchedulerEvent current = head;
+			while (current != null) {
+				SchedulerEvent next = current.next;
+				insert(current);
+				current = next;
+			}
+		}
+		size = oldSize;
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average spacing of the
+	 * next few events, ignoring outliers that are more than twice the initial
+	 * average apart.
+	 *
+	 * @return
+	 */
+	private long estimateWidth() {
+		int samples = Math.min(size, WIDTH_SAMPLES);
+		if (samples < 2) {
+			return width;
+		}
+		resizeEnabled = false;
+		SchedulerEvent[] sampled = new SchedulerEvent[samples];
+		for (int i = 0; i < samples; i++) {
+			sampled[i] = poll();
+		}
+		for (int i = samples - 1; i >= 0; i--) {
+			add(sampled[i]);
+		}
+		resizeEnabled = true;
+
+		long totalSeparation = sampled[samples - 1].simTime
+				- sampled[0].simTime;
+		double averageSeparation = (double) totalSeparation / (samples - 1);
+		long cleanedSeparation = 0;
+		int cleanedCount = 0;
+		for (int i = 1; i < samples; i++) {
+			long separation = sampled[i].simTime - sampled[i - 1].simTime;
+			if (separation <= 2 * averageSeparation) {
+				cleanedSeparation += separation;
+				cleanedCount++;
+			}
+		}
+		if (cleanedCount == 0 || cleanedSeparation == 0) {
+			return width;
+		}
+		return Math.max(1, 3 * cleanedSeparation / cleanedCount);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		init(MIN_BUCKETS, INITIAL_BUCKET_WIDTH, 0);
+	}
+
+}
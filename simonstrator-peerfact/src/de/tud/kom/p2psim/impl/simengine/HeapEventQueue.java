@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.PriorityQueue;
+
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+
+/**
+ * The original event queue of the {@link Scheduler}, a binary heap with
+ * O(log n) insert and poll. Kept as the reference implementation.
+ */
+class HeapEventQueue implements SchedulerEventQueue {
+
+	private static final int INITIAL_QUEUE_CAPACITY = 5000;
+
+	private final PriorityQueue<SchedulerEvent> queue = new PriorityQueue<SchedulerEvent>(
+			INITIAL_QUEUE_CAPACITY);
+
+	@Override
+	public void add(SchedulerEvent event) {
+		queue.add(event);
+	}
+
+	@Override
+	public SchedulerEvent peek() {
+		return queue.peek();
+	}
+
+	@Override
+	public SchedulerEvent poll() {
+		return queue.poll();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		queue.clear();
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+import de.tudarmstadt.maki.simonstrator.api.Host;
+
+/**
+ * A logical process (LP) of the {@link ParallelEventExecutor}: the events of a
+ * fixed set of hosts, executed by one thread within a safe window.
+ *
+ * Events created during a window only get a provisional order index, which
+ * is only valid for comparisons with events of the same parent (see
+ * {@link ParallelEventExecutor#compareInWindow(SchedulerEvent, SchedulerEvent)}
+ * ). All created events are logged together with the event that created them,
+ * which allows the executor to assign the final index in the order of a
+ * sequential run once the window is finished.
+ *
+ * Events keep their timestamp. An event may create events within the window
+ * only for hosts of the same LP, as the other LPs may already have executed
+ * later events.
+ */
+class LogicalProcess implements Callable<Void> {
+
+	final int id;
+
+	private final ParallelEventExecutor executor;
+
+	/**
+	 * Pending events of this LP within the current window.
+	 */
+	private final PriorityQueue<SchedulerEvent> queue = new PriorityQueue<SchedulerEvent>(
+			11, ParallelEventExecutor.WINDOW_ORDER);
+
+	/**
+	 * Events processed in the current window, in processing order.
+	 */
+	final List<SchedulerEvent> processed = new ArrayList<SchedulerEvent>();
+
+	/**
+	 * Events created in the current window, in creation order.
+	 */
+	final List<SchedulerEvent> created = new ArrayList<SchedulerEvent>();
+
+	/**
+	 * For each created event: the index of its parent in {@link #processed}
+	 */
+	int[] createdParent = new int[64];
+
+	/**
+	 * Created events that belong to another LP (or no LP at all).
+	 */
+	final List<SchedulerEvent> remote = new ArrayList<SchedulerEvent>();
+
+	/**
+	 * The event that is currently executed, or the next event of this LP
+	 * within the window. Null, once the LP finished the window. Events of other
+	 * LPs that are earlier in the sequential order may access shared state
+	 * (see {@link Scheduler#awaitSequentialOrder()}).
+	 */
+	volatile SchedulerEvent frontier;
+
+	/**
+	 * Set once the current event passed
+	 * {@link Scheduler#awaitSequentialOrder()}.
+	 */
+	boolean inSequentialOrder;
+
+	SchedulerEvent currentEvent;
+
+	long currentTime;
+
+	/**
+	 * Host of the event that is currently executed.
+	 */
+	Host currentHost;
+
+	private long windowEnd;
+
+	private long windowEndOrderIdx;
+
+	private long nextProvisionalOrderIdx;
+
+	public LogicalProcess(int id, ParallelEventExecutor executor) {
+		this.id = id;
+		this.executor = executor;
+	}
+
+	ParallelEventExecutor getExecutor() {
+		return executor;
+	}
+
+	void add(SchedulerEvent event) {
+		queue.add(event);
+	}
+
+	boolean hasEvents() {
+		return !queue.isEmpty();
+	}
+
+	/**
+	 * Prepares the next window. Events with a time before windowEnd (or at
+	 * windowEnd and an order index smaller than windowEndOrderIdx) are
+	 * processed.
+	 */
+	void startWindow(long windowEnd, long windowEndOrderIdx,
+			long firstProvisionalOrderIdx) {
+		this.windowEnd = windowEnd;
+		this.windowEndOrderIdx = windowEndOrderIdx;
+		this.nextProvisionalOrderIdx = firstProvisionalOrderIdx;
+		this.frontier = peekInWindow();
+	}
+
+	/**
+	 * Events created within the window have an order index larger than
+	 * windowEndOrderIdx.
+	 */
+	boolean isInWindow(SchedulerEvent event) {
+		return event.simTime < windowEnd
+				|| (event.simTime == windowEnd && event.parent == null
+						&& event.globalOrderIdx < windowEndOrderIdx);
+	}
+
+	private SchedulerEvent peekInWindow() {
+		SchedulerEvent next = queue.peek();
+		return next != null && isInWindow(next) ? next : null;
+	}
+
+	@Override
+	public Void call() {
+		ParallelEventExecutor.activeProcess.set(this);
+		try {
+			while (frontier != null) {
+				processNext();
+			}
+		} finally {
+			frontier = null;
+			ParallelEventExecutor.activeProcess.remove();
+		}
+		return null;
+	}
+
+	/**
+	 * Executes the event at the {@link #frontier}. The calling thread has to
+	 * be registered as {@link ParallelEventExecutor#activeProcess} of this LP.
+	 */
+	void processNext() {
+		SchedulerEvent event = queue.poll();
+		assert event == frontier;
+		currentEvent = event;
+		currentTime = event.simTime;
+		currentHost = event.host;
+		inSequentialOrder = false;
+		processed.add(event);
+		try {
+			event.dispatch();
+			executor.getScheduler().onEventProcessedInWindow(event);
+		} finally {
+			currentEvent = null;
+			currentHost = null;
+		}
+		frontier = peekInWindow();
+	}
+
+	/**
+	 * Called for events that are scheduled while this LP is executing.
+	 *
+	 * @param event
+	 * @param host
+	 *            the host of the event
+	 * @param target
+	 *            the LP of the host, null if it does not belong to any LP
+	 */
+	void schedule(SchedulerEvent event, Host host, LogicalProcess target) {
+		event.globalOrderIdx = nextProvisionalOrderIdx++;
+		event.host = host;
+		event.parent = currentEvent;
+		if (created.size() == createdParent.length) {
+			createdParent = Arrays.copyOf(createdParent,
+					createdParent.length * 2);
+		}
+		createdParent[created.size()] = processed.size() - 1;
+		created.add(event);
+		if (!isInWindow(event)) {
+			remote.add(event);
+		} else if (target == this) {
+			queue.add(event);
+		} else {
+			throw new IllegalStateException(String.format(
+					"Event for %s at %d was scheduled by an event of %s at %d, which is less than the lookahead of the parallel execution.",
+					host, event.simTime, currentHost, currentTime));
+		}
+	}
+
+	/**
+	 * Moves all remaining events of this LP into the given list and resets the
+	 * window state.
+	 */
+	void finishWindow(List<SchedulerEvent> pending) {
+		pending.addAll(queue);
+		pending.addAll(remote);
+		queue.clear();
+		remote.clear();
+		processed.clear();
+		created.clear();
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.Random;
+
+/**
+ * Random generator handed out by the {@link Simulator} in parallel mode.
+ * Numbers are only drawn after {@link Scheduler#awaitSequentialOrder()}, so
+ * the events of all logical processes get the same numbers as in a
+ * sequential run with the same seed.
+ */
+class OrderedRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Scheduler scheduler;
+
+	public OrderedRandom(Scheduler scheduler, long seed) {
+		super(seed);
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	protected int next(int bits) {
+		scheduler.awaitSequentialOrder();
+		return super.next(bits);
+	}
+
+	@Override
+	public double nextGaussian() {
+		scheduler.awaitSequentialOrder();
+		return super.nextGaussian();
+	}
+
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.tud.kom.p2psim.api.common.SimHost;
+import de.tud.kom.p2psim.api.linklayer.mac.MacLayer;
+import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
+import de.tud.kom.p2psim.api.topology.Topology;
+import de.tud.kom.p2psim.api.topology.views.TopologyView;
+import de.tud.kom.p2psim.impl.linklayer.mac.AbstractMacLayer;
+import de.tud.kom.p2psim.impl.network.routed.RoutedNetLayer;
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+import de.tud.kom.p2psim.impl.topology.views.AbstractTopologyView;
+import de.tud.kom.p2psim.impl.util.oracle.GlobalOracle;
+import de.tudarmstadt.maki.simonstrator.api.Binder;
+import de.tudarmstadt.maki.simonstrator.api.Host;
+import de.tudarmstadt.maki.simonstrator.api.HostEventHandler;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
+import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
+import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
+
+/**
+ * Conservative parallel execution of the {@link Scheduler}'s events
+ * (synchronous windows, similar to YAWNS). Hosts are partitioned into
+ * {@link LogicalProcess}es by their position (vertical strips of the world
+ * with an equal number of hosts). Starting at the next event, all events
+ * within the lookahead (the minimum link latency of all topology views) are
+ * executed by their LPs in parallel, as no host can schedule an event for
+ * another host earlier than that. Events that do not belong to any host
+ * (analyzers, global operations, the end of the simulation) are executed
+ * sequentially and end a window.
+ *
+ * Results are identical to the sequential execution with the same seed:
+ * events are executed at their timestamps, and at the end of each window,
+ * events created within the window get their final
+ * {@link SchedulerEvent#globalOrderIdx} in the order in which a sequential run
+ * would have created them. State beyond the host of an event (the random
+ * generators of the {@link Simulator}, analyzers, topology views, global
+ * statistics) is only accessed after
+ * {@link Scheduler#awaitSequentialOrder()}, i.e., in the order of a
+ * sequential run. An event that schedules an event for a host of another LP
+ * within the window violates the lookahead, the simulation is aborted with an
+ * {@link IllegalStateException} in this case.
+ *
+ * Components that modify the state of other hosts directly are not
+ * supported: 802.11 MACs and views (the sender updates the receivers' medium
+ * state without any latency, see
+ * {@link AbstractTopologyView#isParallelExecutionSupported()} and
+ * {@link AbstractMacLayer#isParallelExecutionSupported()}), MACs with an
+ * energy model (the sender accounts the receivers' energy) and non-routed
+ * network layers (global subnet). If such a component is configured, the
+ * simulation is executed sequentially. This mode is experimental.
+ */
+class ParallelEventExecutor {
+
+	/**
+	 * Windows with less events are executed on the simulation thread, as the
+	 * synchronization overhead would dominate.
+	 */
+	private static final int MIN_EVENTS_FOR_PARALLEL_WINDOW = 64;
+
+	static final ThreadLocal<LogicalProcess> activeProcess = new ThreadLocal<LogicalProcess>();
+
+	/**
+	 * Order of a sequential run for events within a window, see
+	 * {@link #compareInWindow(SchedulerEvent, SchedulerEvent)}.
+	 */
+	static final Comparator<SchedulerEvent> WINDOW_ORDER = new Comparator<SchedulerEvent>() {
+		@Override
+		public int compare(SchedulerEvent o1, SchedulerEvent o2) {
+			return compareInWindow(o1, o2);
+		}
+	};
+
+	private final Scheduler scheduler;
+
+	private final int numProcesses;
+
+	private LogicalProcess[] processes;
+
+	private final Map<Host, LogicalProcess> processByHost = new IdentityHashMap<Host, LogicalProcess>();
+
+	private long lookahead;
+
+	private ExecutorService executor;
+
+	private boolean windowActive = false;
+
+	/**
+	 * LPs with events in the current window.
+	 */
+	private LogicalProcess[] active = new LogicalProcess[0];
+
+	private long parallelWindows = 0;
+
+	private long sequentialEvents = 0;
+
+	public ParallelEventExecutor(Scheduler scheduler, int numProcesses) {
+		this.scheduler = scheduler;
+		this.numProcesses = numProcesses;
+	}
+
+	/**
+	 * Partitions the hosts and determines the lookahead. Returns false, if
+	 * parallel execution is not possible (no positive lookahead or components
+	 * that do not support parallel execution).
+	 *
+	 * @return
+	 */
+	boolean initialize() {
+		Topology topology;
+		try {
+			topology = Binder.getComponent(Topology.class);
+		} catch (ComponentNotAvailableException e) {
+			topology = null;
+		}
+		long minLatency = topology == null ? 0 : determineLookahead(topology);
+		if (minLatency <= 0) {
+			Monitor.log(ParallelEventExecutor.class, Level.WARN,
+					"No positive minimum link latency available, parallel execution is disabled.");
+			return false;
+		}
+		Object unsupported = findUnsupportedComponent(topology);
+		if (unsupported != null) {
+			Monitor.log(ParallelEventExecutor.class, Level.WARN,
+					"%s does not support parallel execution, parallel execution is disabled.",
+					unsupported.getClass().getSimpleName());
+			return false;
+		}
+		List<SimHost> hosts = new ArrayList<SimHost>(GlobalOracle.getHosts());
+		Collections.sort(hosts, new Comparator<SimHost>() {
+			@Override
+			public int compare(SimHost o1, SimHost o2) {
+				int cmp = Double.compare(getX(o1), getX(o2));
+				return cmp != 0 ? cmp
+						: Long.compare(o1.getHostId(), o2.getHostId());
+			}
+		});
+		return initialize(hosts, minLatency);
+	}
+
+	/**
+	 * Assigns the hosts to LPs: each LP gets a contiguous part of the list
+	 * with the same number of hosts.
+	 *
+	 * @param hosts
+	 * @param lookahead
+	 * @return
+	 */
+	boolean initialize(List<? extends Host> hosts, long lookahead) {
+		this.lookahead = lookahead;
+		int count = Math.max(1, Math.min(numProcesses, hosts.size()));
+		processes = new LogicalProcess[count];
+		for (int i = 0; i < count; i++) {
+			processes[i] = new LogicalProcess(i, this);
+		}
+		for (int i = 0; i < hosts.size(); i++) {
+			processByHost.put(hosts.get(i),
+					processes[(int) ((long) i * count / hosts.size())]);
+		}
+		// all LPs of a window have to run at once, they wait for each other
+		executor = Executors.newFixedThreadPool(count,
+				new ThreadFactory() {
+					private int counter = 0;
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r,
+								"LogicalProcess-" + counter++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		Monitor.log(ParallelEventExecutor.class, Level.INFO,
+				"Parallel execution with %d logical processes and a lookahead of %d",
+				processes.length, lookahead);
+		return true;
+	}
+
+	/**
+	 * Minimum link latency of all topology views.
+	 *
+	 * @return
+	 */
+	private long determineLookahead(Topology topology) {
+		long minLatency = Long.MAX_VALUE;
+		for (PhyType phy : PhyType.values()) {
+			TopologyView view = topology.getTopologyView(phy);
+			if (view == null) {
+				continue;
+			}
+			if (!(view instanceof AbstractTopologyView)) {
+				return 0;
+			}
+			minLatency = Math.min(minLatency,
+					((AbstractTopologyView<?>) view).getMinimumLinkLatency());
+		}
+		return minLatency == Long.MAX_VALUE ? 0 : minLatency;
+	}
+
+	/**
+	 * The first component that relies on state shared across hosts, or null.
+	 *
+	 * @param topology
+	 * @return
+	 */
+	private Object findUnsupportedComponent(Topology topology) {
+		for (PhyType phy : PhyType.values()) {
+			AbstractTopologyView<?> view = (AbstractTopologyView<?>) topology
+					.getTopologyView(phy);
+			if (view == null) {
+				continue;
+			}
+			if (!view.isParallelExecutionSupported()) {
+				return view;
+			}
+			for (MacLayer mac : view.getAllMacs()) {
+				if (mac instanceof AbstractMacLayer
+						&& !((AbstractMacLayer) mac)
+								.isParallelExecutionSupported()) {
+					return mac;
+				}
+			}
+		}
+		for (SimHost host : GlobalOracle.getHosts()) {
+			if (host.getNetworkComponent() != null
+					&& !(host.getNetworkComponent() instanceof RoutedNetLayer)) {
+				return host.getNetworkComponent();
+			}
+		}
+		return null;
+	}
+
+	private static double getX(SimHost host) {
+		if (host.getTopologyComponent() == null) {
+			return 0;
+		}
+		return host.getTopologyComponent().getRealPosition().getX();
+	}
+
+	/**
+	 * The LP an event belongs to, or null.
+	 *
+	 * @param event
+	 * @return
+	 */
+	private LogicalProcess getProcess(SchedulerEvent event) {
+		if (event.host == null) {
+			event.host = getHost(event.handler != null ? event.handler
+					: event.primitiveHandler);
+		}
+		return event.host == null ? null : processByHost.get(event.host);
+	}
+
+	private static Host getHost(Object handler) {
+		if (handler instanceof HostComponent) {
+			return ((HostComponent) handler).getHost();
+		} else if (handler instanceof HostEventHandler) {
+			return ((HostEventHandler) handler).getHost();
+		}
+		return null;
+	}
+
+	/**
+	 * Order of two events within a window in a sequential run. Events that
+	 * were created before the window compare by their final order index and
+	 * precede all events created within the window. Events created within
+	 * the window are ordered by their parents, and by their provisional order
+	 * index if they have the same parent.
+	 *
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	static int compareInWindow(SchedulerEvent a, SchedulerEvent b) {
+		while (a != b) {
+			if (a.simTime != b.simTime) {
+				return a.simTime < b.simTime ? -1 : 1;
+			}
+			if (a.parent == b.parent) {
+				return Long.compare(a.globalOrderIdx, b.globalOrderIdx);
+			}
+			if (a.parent == null) {
+				return -1;
+			}
+			if (b.parent == null) {
+				return 1;
+			}
+			a = a.parent;
+			b = b.parent;
+		}
+		return 0;
+	}
+
+	Scheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * True, while LPs are executing a window and while the window is merged.
+	 *
+	 * @return
+	 */
+	boolean isWindowActive() {
+		return windowActive;
+	}
+
+	/**
+	 * Called by the {@link Scheduler} for events that are scheduled while a
+	 * window is active. Returns false if the calling thread does not execute
+	 * an LP.
+	 *
+	 * @param event
+	 * @return
+	 */
+	boolean schedule(SchedulerEvent event) {
+		LogicalProcess current = activeProcess.get();
+		if (current == null) {
+			return false;
+		}
+		Host host = getHost(
+				event.handler != null ? event.handler : event.primitiveHandler);
+		if (host == null) {
+			// e.g., operations without a host act on behalf of the current one
+			host = current.currentHost;
+		}
+		current.schedule(event, host, processByHost.get(host));
+		return true;
+	}
+
+	/**
+	 * See {@link Scheduler#awaitSequentialOrder()}: waits until the
+	 * {@link LogicalProcess#frontier} of all other LPs of the window is
+	 * later than the current event. As LPs only create later events for
+	 * themselves, the frontiers do not move backwards.
+	 */
+	static void awaitSequentialOrder() {
+		LogicalProcess current = activeProcess.get();
+		if (current == null || current.inSequentialOrder
+				|| current.currentEvent == null) {
+			return;
+		}
+		SchedulerEvent event = current.currentEvent;
+		for (LogicalProcess other : current.getExecutor().active) {
+			if (other == current) {
+				continue;
+			}
+			SchedulerEvent frontier;
+			while ((frontier = other.frontier) != null
+					&& compareInWindow(frontier, event) < 0) {
+				Thread.yield();
+			}
+		}
+		current.inSequentialOrder = true;
+	}
+
+	/**
+	 * Host of the event executed by the calling thread, or null if the thread
+	 * does not execute an LP.
+	 *
+	 * @return
+	 */
+	static Host getActiveHost() {
+		LogicalProcess current = activeProcess.get();
+		return current == null ? null : current.currentHost;
+	}
+
+	/**
+	 * Current time of the LP executed by the calling thread, or -1.
+	 *
+	 * @return
+	 */
+	long getCurrentTime() {
+		LogicalProcess current = activeProcess.get();
+		return current == null ? -1 : current.currentTime;
+	}
+
+	/**
+	 * Main loop, replaces the sequential loop of the {@link Scheduler}.
+	 */
+	void run() {
+		Monitor.setAnalyzerGuard(new Runnable() {
+			@Override
+			public void run() {
+				awaitSequentialOrder();
+			}
+		});
+		try {
+			while (!scheduler.isEmpty()) {
+				SchedulerEvent first = scheduler.peekEvent();
+				if (getProcess(first) == null) {
+					sequentialEvents++;
+					if (!scheduler.dispatchNextEvent()) {
+						break;
+					}
+					continue;
+				}
+				runWindow(first.simTime + lookahead);
+			}
+		} finally {
+			Monitor.setAnalyzerGuard(null);
+			executor.shutdownNow();
+			Monitor.log(ParallelEventExecutor.class, Level.INFO,
+					"Parallel execution: %d windows executed in parallel, %d events executed sequentially",
+					parallelWindows, sequentialEvents);
+		}
+	}
+
+	private void runWindow(long windowEnd) {
+		long windowEndOrderIdx = Long.MIN_VALUE;
+		int numEvents = 0;
+		SchedulerEvent next;
+		while ((next = scheduler.peekEvent()) != null
+				&& next.simTime < windowEnd) {
+			LogicalProcess process = getProcess(next);
+			if (process == null) {
+				// global events end the window
+				windowEnd = next.simTime;
+				windowEndOrderIdx = next.globalOrderIdx;
+				break;
+			}
+			scheduler.pollEvent();
+			process.add(next);
+			numEvents++;
+		}
+
+		List<LogicalProcess> activeList = new ArrayList<LogicalProcess>();
+		long firstProvisionalOrderIdx = scheduler.globalOrderCounter + 1;
+		for (LogicalProcess process : processes) {
+			if (process.hasEvents()) {
+				process.startWindow(windowEnd, windowEndOrderIdx,
+						firstProvisionalOrderIdx);
+				activeList.add(process);
+			}
+		}
+		active = activeList.toArray(new LogicalProcess[activeList.size()]);
+
+		windowActive = true;
+		try {
+			if (active.length > 1
+					&& numEvents >= MIN_EVENTS_FOR_PARALLEL_WINDOW) {
+				parallelWindows++;
+				List<Future<Void>> results = executor.invokeAll(activeList);
+				for (Future<Void> result : results) {
+					result.get();
+				}
+			} else {
+				runSequentially();
+			}
+			mergeWindow();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			windowActive = false;
+		}
+	}
+
+	/**
+	 * Executes the window on the simulation thread, always continuing with
+	 * the LP that has the earliest event.
+	 */
+	private void runSequentially() {
+		try {
+			while (true) {
+				LogicalProcess earliest = null;
+				for (LogicalProcess process : active) {
+					SchedulerEvent frontier = process.frontier;
+					if (frontier != null && (earliest == null || compareInWindow(
+							frontier, earliest.frontier) < 0)) {
+						earliest = process;
+					}
+				}
+				if (earliest == null) {
+					break;
+				}
+				activeProcess.set(earliest);
+				earliest.processNext();
+			}
+		} finally {
+			activeProcess.remove();
+		}
+	}
+
+	/**
+	 * Replays the window in the order of a sequential run to assign the final
+	 * order index to all created events and updates the scheduler's counters.
+	 * Afterwards, all pending events are returned to the scheduler's queue.
+	 */
+	private void mergeWindow() {
+		int[] processedPos = new int[active.length];
+		int[] createdPos = new int[active.length];
+		int numProcessed = 0;
+		SchedulerEvent last = null;
+		while (true) {
+			int best = -1;
+			SchedulerEvent bestEvent = null;
+			for (int i = 0; i < active.length; i++) {
+				LogicalProcess process = active[i];
+				if (processedPos[i] < process.processed.size()) {
+					SchedulerEvent candidate = process.processed
+							.get(processedPos[i]);
+					if (bestEvent == null
+							|| compareInWindow(candidate, bestEvent) < 0) {
+						best = i;
+						bestEvent = candidate;
+					}
+				}
+			}
+			if (best == -1) {
+				break;
+			}
+			LogicalProcess process = active[best];
+			int parent = processedPos[best];
+			while (createdPos[best] < process.created.size()
+					&& process.createdParent[createdPos[best]] == parent) {
+				process.created.get(createdPos[best]).globalOrderIdx = ++scheduler.globalOrderCounter;
+				createdPos[best]++;
+			}
+			processedPos[best]++;
+			numProcessed++;
+			last = bestEvent;
+		}
+
+		List<SchedulerEvent> pending = new ArrayList<SchedulerEvent>();
+		for (LogicalProcess process : active) {
+			for (SchedulerEvent event : process.created) {
+				event.parent = null;
+			}
+			process.finishWindow(pending);
+		}
+		active = new LogicalProcess[0];
+		if (last != null) {
+			scheduler.onWindowFinished(numProcessed, last.simTime);
+		}
+		for (SchedulerEvent event : pending) {
+			scheduler.enqueue(event);
+		}
+	}
+
+}
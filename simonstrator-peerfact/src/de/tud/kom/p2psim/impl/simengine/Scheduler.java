@@ -23,13 +23,14 @@ package de.tud.kom.p2psim.impl.simengine;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
+import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.PrimitiveEventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.core.SchedulerComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.core.TimeComponent;
@@ -57,23 +58,33 @@ public class Scheduler implements EventHandler,
 
 	private long statusInterval = SCHEDULER_WAKEUP_INTERVAL_IN_VIRTUALTIME;
 
-	private static final int INITIAL_QUEUE_CAPACITY = 5000;
-
 	private long processedEventCounter;
 
+	/**
+	 * Source of {@link SchedulerEvent#globalOrderIdx}, kept per scheduler as
+	 * several simulations may run concurrently within one JVM.
+	 */
+	long globalOrderCounter = 0;
+
 	private long endTime;
 
 	private long currentTime;
 
 	private long newRoundsCurrentTime;
 
-	private final PriorityQueue<SchedulerEvent> eventQueue;
+	private SchedulerEventQueue eventQueue;
+
+	/**
+	 * Guards the eventQueue if events are scheduled from outside the
+	 * simulation thread (real time and time skew mode).
+	 */
+	private final Object eventQueueLock = new Object();
 
 	private final ConcurrentLinkedQueue<SchedulerEvent> outOfOrderQueue;
 
 	private final boolean statusEvent;
 
-	private boolean processEvents = true;
+	private volatile boolean processEvents = true;
 
 	private boolean realTime = false;
 
@@ -85,6 +96,43 @@ public class Scheduler implements EventHandler,
 
 	private long debugTransLayerMessageCounter = 0;
 
+	/**
+	 * Maximum number of dispatched events kept for re-use.
+	 */
+	private static final int MAX_EVENT_POOL_SIZE = 100000;
+
+	private boolean recycleEvents = false;
+
+	/**
+	 * Free list of dispatched events, linked via {@link SchedulerEvent#next}
+	 */
+	private SchedulerEvent eventPool = null;
+
+	private int eventPoolSize = 0;
+
+	private long allocatedEventCounter = 0;
+
+	private long recycledEventCounter = 0;
+
+	/**
+	 * Number of logical processes for parallel execution, 0 for the plain
+	 * sequential execution.
+	 */
+	private int parallelism = 0;
+
+	/**
+	 * Hosts and lookahead for the {@link ParallelEventExecutor}, only set by
+	 * tests. Otherwise, both are determined from the topology.
+	 */
+	private List<? extends Host> partitionedHosts = null;
+
+	private long partitionLookahead = 0;
+
+	/**
+	 * Only set while the simulation runs in parallel mode.
+	 */
+	private ParallelEventExecutor parallelExecutor = null;
+
 	protected static final int TYPE_NONE = 0;
 
 	protected static final int TYPE_STATUS = 1;
@@ -94,15 +142,29 @@ public class Scheduler implements EventHandler,
 	protected static final int TYPE_END = 3;
 
 	/**
-	 * Constructs a new scheduler instance using a calendar queue. If desired,
-	 * status events about the progress of the simulation will be plotted.
+	 * Constructs a new scheduler instance using a binary heap as event queue.
+	 * If desired, status events about the progress of the simulation will be
+	 * plotted.
 	 * 
 	 * @param statusEvent
 	 *            the flag which speficies if status events will be plotted
 	 */
 	public Scheduler(boolean statusEvent) {
-		this.eventQueue = new PriorityQueue<SchedulerEvent>(
-				INITIAL_QUEUE_CAPACITY, new EventComparator());
+		this(statusEvent, SchedulerEventQueue.Type.HEAP);
+	}
+
+	/**
+	 * Constructs a new scheduler instance using the given event queue
+	 * implementation. If desired, status events about the progress of the
+	 * simulation will be plotted.
+	 * 
+	 * @param statusEvent
+	 *            the flag which speficies if status events will be plotted
+	 * @param queueType
+	 *            implementation of the pending-event set
+	 */
+	Scheduler(boolean statusEvent, SchedulerEventQueue.Type queueType) {
+		this.eventQueue = queueType.create();
 		this.outOfOrderQueue = new ConcurrentLinkedQueue<SchedulerEvent>();
 		this.endTime = -1;
 		this.processedEventCounter = 0;
@@ -129,24 +191,188 @@ public class Scheduler implements EventHandler,
 	public void scheduleIn(long time, EventHandler handler, Object content,
 			int type) {
 		assert time >= 0 : "event " + content + " has time " + time;
-		SchedulerEvent event = new SchedulerEvent(content, getCurrentTime()
-				+ time, handler, type);
-		synchronized (this.eventQueue) {
-			this.eventQueue.add(event);
-			assert (this.eventQueue.peek().getSimulationTime() >= getCurrentTime());
+		if (parallelExecutor != null && parallelExecutor.isWindowActive()) {
+			scheduleInWindow(new SchedulerEvent(content, getCurrentTime()
+					+ time, handler, type, TYPE_NONE, 0));
+			return;
+		}
+		SchedulerEvent event = obtainEvent(content, getCurrentTime() + time,
+				handler, type, TYPE_NONE);
+		enqueue(event);
+	}
+
+	/**
+	 * Schedules an event for a {@link PrimitiveEventHandler}. Together with
+	 * {@link #setRecycleEvents(boolean)}, this does not allocate any objects.
+	 */
+	@Override
+	public void scheduleIn(long time, PrimitiveEventHandler handler, int type,
+			long payload) {
+		assert time >= 0 : "event " + type + " has time " + time;
+		if (parallelExecutor != null && parallelExecutor.isWindowActive()) {
+			SchedulerEvent event = new SchedulerEvent(null, getCurrentTime()
+					+ time, null, type, TYPE_NONE, 0);
+			event.primitiveHandler = handler;
+			event.payload = payload;
+			scheduleInWindow(event);
+			return;
+		}
+		SchedulerEvent event = obtainEvent(null, getCurrentTime() + time,
+				null, type, TYPE_NONE);
+		event.primitiveHandler = handler;
+		event.payload = payload;
+		enqueue(event);
+	}
+
+	/**
+	 * Events scheduled while the {@link ParallelEventExecutor} runs a window
+	 * are handled by the logical process of the calling thread. Neither the
+	 * pool nor the global order counter may be used here.
+	 */
+	private void scheduleInWindow(SchedulerEvent event) {
+		if (!parallelExecutor.schedule(event)) {
+			throw new IllegalStateException(
+					"Events must not be scheduled by other threads while the simulation is executed in parallel.");
 		}
 	}
 
 	protected void scheduleOwnIn(long time, Object content, int type) {
 		assert time >= 0 : "event " + content + " has time " + time;
-		SchedulerEvent event = new SchedulerEvent(content, getCurrentTime()
-				+ time, this, type, type);
-		synchronized (this.eventQueue) {
+		SchedulerEvent event = obtainEvent(content, getCurrentTime() + time,
+				this, type, type);
+		enqueue(event);
+	}
+
+	/**
+	 * Returns a pooled event (if recycling is enabled and the pool is not
+	 * empty) or a new one.
+	 */
+	private SchedulerEvent obtainEvent(Object content, long simTime,
+			EventHandler handler, int type, int schedulerType) {
+		if (eventPool == null || isConcurrentAccess()) {
+			allocatedEventCounter++;
+			return new SchedulerEvent(content, simTime, handler, type,
+					schedulerType, ++globalOrderCounter);
+		}
+		SchedulerEvent event = eventPool;
+		eventPool = event.next;
+		eventPoolSize--;
+		recycledEventCounter++;
+		event.next = null;
+		event.init(content, simTime, handler, type, schedulerType,
+				++globalOrderCounter);
+		return event;
+	}
+
+	/**
+	 * Returns a dispatched event to the pool. Must only be called once the
+	 * event is no longer referenced (i.e., after listeners were notified).
+	 */
+	private void recycleEvent(SchedulerEvent event) {
+		if (!recycleEvents || eventPoolSize >= MAX_EVENT_POOL_SIZE
+				|| isConcurrentAccess()) {
+			return;
+		}
+		event.clear();
+		event.next = eventPool;
+		eventPool = event;
+		eventPoolSize++;
+	}
+
+	/**
+	 * If set to true, dispatched {@link SchedulerEvent}s are re-used for new
+	 * events instead of allocating new instances. Recycling is only active in
+	 * plain discrete-event mode (no real time or time skew). Do not enable
+	 * this if a {@link SimulationEventListener} keeps references to events.
+	 * 
+	 * @param recycleEvents
+	 */
+	void setRecycleEvents(boolean recycleEvents) {
+		this.recycleEvents = recycleEvents;
+		if (!recycleEvents) {
+			eventPool = null;
+			eventPoolSize = 0;
+		}
+	}
+
+	/**
+	 * Number of {@link SchedulerEvent} instances that had to be allocated.
+	 * 
+	 * @return
+	 */
+	public long getAllocatedEventCounter() {
+		return allocatedEventCounter;
+	}
+
+	/**
+	 * Number of events that were served from the pool instead of allocating
+	 * a new instance.
+	 * 
+	 * @return
+	 */
+	public long getRecycledEventCounter() {
+		return recycledEventCounter;
+	}
+
+	void enqueue(SchedulerEvent event) {
+		if (isConcurrentAccess()) {
+			synchronized (eventQueueLock) {
+				this.eventQueue.add(event);
+				assert (this.eventQueue.peek().getSimulationTime() >= getCurrentTime());
+			}
+		} else {
 			this.eventQueue.add(event);
 			assert (this.eventQueue.peek().getSimulationTime() >= getCurrentTime());
 		}
 	}
 
+	SchedulerEvent peekEvent() {
+		if (isConcurrentAccess()) {
+			synchronized (eventQueueLock) {
+				return this.eventQueue.peek();
+			}
+		}
+		return this.eventQueue.peek();
+	}
+
+	SchedulerEvent pollEvent() {
+		if (isConcurrentAccess()) {
+			synchronized (eventQueueLock) {
+				return this.eventQueue.poll();
+			}
+		}
+		return this.eventQueue.poll();
+	}
+
+	/**
+	 * Only in real time or time skew mode, events may be scheduled from other
+	 * threads than the simulation thread (e.g., by the visualization or real
+	 * network sockets). In the plain discrete-event case, we do not need any
+	 * locking.
+	 * 
+	 * @return
+	 */
+	private boolean isConcurrentAccess() {
+		return realTime || timeSkew > 0;
+	}
+
+	/**
+	 * Replaces the event queue implementation. Events that are already
+	 * scheduled are transferred to the new queue.
+	 * 
+	 * @param queueType
+	 */
+	void setEventQueue(SchedulerEventQueue.Type queueType) {
+		SchedulerEventQueue newQueue = queueType.create();
+		synchronized (eventQueueLock) {
+			SchedulerEvent event;
+			while ((event = eventQueue.poll()) != null) {
+				newQueue.add(event);
+			}
+			this.eventQueue = newQueue;
+		}
+	}
+
 	public void reset() {
 		eventQueue.clear();
 		outOfOrderQueue.clear();
@@ -191,9 +417,34 @@ public class Scheduler implements EventHandler,
 			scheduleOwnIn(statusInterval, null, TYPE_STATUS);
 		}
 
-		while (!this.eventQueue.isEmpty()) {
-			if (!processNextEvent()) {
-				break;
+		if (recycleEvents) {
+			LiveMonitoring.addProgressValue(new EventAllocationProgress());
+		}
+
+		if (parallelism > 0 && !isConcurrentAccess()) {
+			Monitor.log(Scheduler.class, Level.WARN,
+					"Parallel execution is experimental. Components must call awaitSequentialOrder() before accessing state beyond their host.");
+			ParallelEventExecutor executor = new ParallelEventExecutor(this,
+					parallelism);
+			boolean initialized = partitionedHosts != null
+					? executor.initialize(partitionedHosts, partitionLookahead)
+					: executor.initialize();
+			if (initialized) {
+				parallelExecutor = executor;
+			}
+		}
+
+		if (parallelExecutor != null) {
+			try {
+				parallelExecutor.run();
+			} finally {
+				parallelExecutor = null;
+			}
+		} else {
+			while (!this.eventQueue.isEmpty()) {
+				if (!processNextEvent()) {
+					break;
+				}
 			}
 		}
 		Monitor.log(Scheduler.class, Level.INFO,
@@ -201,7 +452,10 @@ public class Scheduler implements EventHandler,
 						+ " - End of simulation.\n Scheduler processed in total "
 						+ this.processedEventCounter + " events with "
 						+ this.eventQueue.size()
-						+ " unprocessed events still in queue");
+						+ " unprocessed events still in queue. "
+						+ this.allocatedEventCounter
+						+ " events were allocated, "
+						+ this.recycledEventCounter + " were recycled.");
 	}
 
 	/**
@@ -226,7 +480,20 @@ public class Scheduler implements EventHandler,
 	 * 
 	 * @return whether an event was processed
 	 */
-	synchronized private boolean processNextEvent() {
+	private boolean processNextEvent() {
+		if (!processEvents || isConcurrentAccess()) {
+			return processNextEventSynchronized();
+		}
+		return dispatchNextEvent();
+	}
+
+	/**
+	 * Slow path of {@link #processNextEvent()} for paused, real time or time
+	 * skewed simulations.
+	 * 
+	 * @return whether an event was processed
+	 */
+	synchronized private boolean processNextEventSynchronized() {
 
 		if (!processEvents) {
 			try {
@@ -246,10 +513,7 @@ public class Scheduler implements EventHandler,
 			while (unhandledRegularEventsInPast) {
 				unhandledRegularEventsInPast = false;
 
-				final SchedulerEvent nextEvent;
-				synchronized (this.eventQueue) {
-					nextEvent = this.eventQueue.peek();
-				}
+				final SchedulerEvent nextEvent = peekEvent();
 
 				assert (nextEvent.getSimulationTime() >= currentTime) : "Next event: "
 						+ nextEvent.getSimulationTime()
@@ -260,24 +524,19 @@ public class Scheduler implements EventHandler,
 
 					/* Ok process right now. Too late anyway. */
 
-					final SchedulerEvent realEvent;
-					synchronized (this.eventQueue) {
-						realEvent = this.eventQueue.remove();
-					}
+					final SchedulerEvent realEvent = pollEvent();
 
 					processedEventCounter++;
 					currentTime = realEvent.getSimulationTime();
-					EventHandler handler = realEvent.handler;
-					handler.eventOccurred(realEvent.data, realEvent.type);
+					realEvent.dispatch();
 					notifyListeners(realEvent, realEvent.handler);
 
 					if (realEvent.schedulerType == TYPE_END)
 						return false;
+					recycleEvent(realEvent);
 					
-					synchronized (this.eventQueue) {
-						if (this.eventQueue.peek().getSimulationTime() < newRoundsCurrentTime) {
-							unhandledRegularEventsInPast = true;
-						}
+					if (peekEvent().getSimulationTime() < newRoundsCurrentTime) {
+						unhandledRegularEventsInPast = true;
 					}
 
 				}
@@ -298,16 +557,12 @@ public class Scheduler implements EventHandler,
 				assert (realEvent.simTime == Long.MIN_VALUE);
 				realEvent.simTime = currentTime;
 
-				EventHandler handler = realEvent.handler;
-				handler.eventOccurred(realEvent.data, realEvent.type);
+				realEvent.dispatch();
 				notifyListeners(realEvent, realEvent.handler);
 			}
 
 			/* Third: All done, go to sleep and set newCurrentTime. */
-			final SchedulerEvent peekedEvent;
-			synchronized (this.eventQueue) {
-				peekedEvent = this.eventQueue.peek();
-			}
+			final SchedulerEvent peekedEvent = peekEvent();
 
 			assert (peekedEvent.getSimulationTime() >= currentTime) : "Next event: "
 					+ peekedEvent.getSimulationTime()
@@ -371,12 +626,21 @@ public class Scheduler implements EventHandler,
 			}
 		}
 
+		return dispatchNextEvent();
+	}
+
+	/**
+	 * Removes the next event from the queue and dispatches it to its handler.
+	 * 
+	 * @return whether the simulation continues
+	 */
+	boolean dispatchNextEvent() {
 		/*
 		 * Actually remove Event from queue now. Might have changed as we were
 		 * sleeping above.
 		 */
 		processedEventCounter++;
-		final SchedulerEvent realEvent = this.eventQueue.remove();
+		final SchedulerEvent realEvent = pollEvent();
 
 		assert (realEvent.getSimulationTime() >= currentTime) : "Next event: "
 				+ realEvent.getSimulationTime() + ", but current "
@@ -391,8 +655,7 @@ public class Scheduler implements EventHandler,
 			Long timeToWait = realEvent.getSimulationTime() - currentTime;
 			if (timeToWait > 0) {
 				Monitor.log(Scheduler.class, Level.DEBUG,
-						"Scheduler sleeping: " + timeToWait / 1000
-								+ " milliseconds");
+						"Scheduler sleeping: %s milliseconds", timeToWait / 1000);
 				try {
 					Thread.sleep((long) ((timeToWait / 1000) / timeSkew));
 
@@ -403,8 +666,7 @@ public class Scheduler implements EventHandler,
 		}
 
 		currentTime = realEvent.getSimulationTime();
-		EventHandler handler = realEvent.handler;
-		handler.eventOccurred(realEvent.data, realEvent.type);
+		realEvent.dispatch();
 		notifyListeners(realEvent, realEvent.handler);
 
 		if (realEvent.schedulerType == TYPE_END) {
@@ -413,6 +675,7 @@ public class Scheduler implements EventHandler,
 			return false;
 		}
 		else{
+			recycleEvent(realEvent);
 			return true;
 		}
 	}
@@ -450,9 +713,98 @@ public class Scheduler implements EventHandler,
 	 * @return current scheduler time
 	 */
 	public long getCurrentTime() {
+		if (parallelExecutor != null && parallelExecutor.isWindowActive()) {
+			long lpTime = parallelExecutor.getCurrentTime();
+			if (lpTime != -1) {
+				return lpTime;
+			}
+		}
 		return currentTime;
 	}
 
+	/**
+	 * Called by the {@link ParallelEventExecutor} for each event processed
+	 * within a window, on the thread of its logical process. Listeners are
+	 * notified in the order of a sequential run.
+	 * 
+	 * @param event
+	 */
+	void onEventProcessedInWindow(SchedulerEvent event) {
+		if (!listeners.isEmpty()) {
+			awaitSequentialOrder();
+			notifyListeners(event, event.handler);
+		}
+	}
+
+	/**
+	 * Called by the {@link ParallelEventExecutor} once all logical processes
+	 * finished a window.
+	 * 
+	 * @param processedEvents
+	 * @param lastEventTime
+	 */
+	void onWindowFinished(int processedEvents, long lastEventTime) {
+		processedEventCounter += processedEvents;
+		currentTime = lastEventTime;
+	}
+
+	/**
+	 * Has to be called before an event accesses state beyond its own host,
+	 * e.g., the state of another host, a global statistic or a shared random
+	 * generator. In parallel mode, this blocks until all events that precede
+	 * the current event in a sequential run are processed. Until the current
+	 * event is finished, no other event can pass this method, shared state is
+	 * thus accessed in the same order as in a sequential run. Otherwise, this
+	 * returns immediately.
+	 */
+	public void awaitSequentialOrder() {
+		if (parallelExecutor != null) {
+			ParallelEventExecutor.awaitSequentialOrder();
+		}
+	}
+
+	/**
+	 * True, while the simulation is executed in parallel by the
+	 * {@link ParallelEventExecutor}.
+	 * 
+	 * @return
+	 */
+	public boolean isParallel() {
+		return parallelExecutor != null;
+	}
+
+	/**
+	 * Number of logical processes. If larger than zero, the simulation is
+	 * executed by the {@link ParallelEventExecutor}, with the same results as
+	 * the sequential execution.
+	 * 
+	 * @param parallelism
+	 */
+	void setParallelism(int parallelism) {
+		if (parallelism < 0) {
+			throw new IllegalArgumentException(
+					"Parallelism must not be negative");
+		}
+		this.parallelism = parallelism;
+	}
+
+	int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Partitions the given hosts (in this order) instead of the hosts of the
+	 * GlobalOracle, with a fixed lookahead. Used by tests that do not
+	 * set up a topology.
+	 * 
+	 * @param hosts
+	 * @param lookahead
+	 */
+	void setPartitioning(List<? extends Host> hosts, long lookahead) {
+		this.partitionedHosts = hosts;
+		this.partitionLookahead = lookahead;
+	}
+
 	/**
 	 * Returns the end time of the scheduler
 	 * 
@@ -485,33 +837,83 @@ public class Scheduler implements EventHandler,
 	protected static final class SchedulerEvent implements
 			Comparable<SchedulerEvent> {
 
-		protected final int schedulerType;
+		protected int schedulerType;
+
+		protected int type;
+
+		protected EventHandler handler;
 
-		protected final int type;
+		protected Object data;
 
-		protected final EventHandler handler;
+		protected PrimitiveEventHandler primitiveHandler;
 
-		protected final Object data;
+		protected long payload;
+
+		/**
+		 * Host of this event in parallel mode, null if it is determined by
+		 * the handler.
+		 */
+		protected Host host;
+
+		/**
+		 * The event that created this event within the current window of the
+		 * {@link ParallelEventExecutor}, null otherwise.
+		 */
+		protected SchedulerEvent parent;
 
 		protected long simTime;
 		
 		protected long globalOrderIdx;
-		
-		protected static long globalOrderCounter = 0;
 
+		/**
+		 * Intrusive link used by list-based event queues such as the
+		 * {@link CalendarEventQueue}.
+		 */
+		protected SchedulerEvent next;
+
+		/**
+		 * Creates an event with the given order index, usually obtained from
+		 * {@link Scheduler#globalOrderCounter}.
+		 */
 		protected SchedulerEvent(Object data, long simTime,
-				EventHandler handler, int type) {
-			this(data, simTime, handler, type, Scheduler.TYPE_NONE);
+				EventHandler handler, int type, int schedulerType,
+				long globalOrderIdx) {
+			init(data, simTime, handler, type, schedulerType, globalOrderIdx);
 		}
 
-		protected SchedulerEvent(Object data, long simTime,
-				EventHandler handler, int type, int schedulerType) {
+		private void init(Object data, long simTime, EventHandler handler,
+				int type, int schedulerType, long globalOrderIdx) {
 			this.schedulerType = schedulerType;
 			this.data = data;
 			this.handler = handler;
 			this.simTime = simTime;
 			this.type = type;
-			this.globalOrderIdx = ++globalOrderCounter;
+			this.host = null;
+			this.parent = null;
+			this.globalOrderIdx = globalOrderIdx;
+		}
+
+		/**
+		 * Drops all references before the event is returned to the pool.
+		 */
+		private void clear() {
+			this.data = null;
+			this.handler = null;
+			this.primitiveHandler = null;
+			this.payload = 0;
+			this.host = null;
+			this.parent = null;
+		}
+
+		/**
+		 * Passes the event to its handler.
+		 */
+		protected void dispatch() {
+			if (primitiveHandler != null) {
+				primitiveHandler.eventOccurred(type, payload);
+			} else {
+				handler.eventOccurred(data, type);
+			}
 		}
 
 		public long getSimulationTime() {
@@ -591,6 +993,38 @@ public class Scheduler implements EventHandler,
 		notifyAll();
 	}
 
+	/**
+	 * Shows how many {@link SchedulerEvent}s had to be allocated per
+	 * simulated second, and how many were served from the pool.
+	 */
+	private class EventAllocationProgress implements
+			LiveMonitoring.ProgressValue {
+
+		private long lastAllocated = 0;
+
+		private long lastTime = 0;
+
+		@Override
+		public String getName() {
+			return "Scheduler Events (allocated/recycled)";
+		}
+
+		@Override
+		public String getValue() {
+			long allocated = allocatedEventCounter;
+			long time = currentTime;
+			double rate = 0;
+			if (time > lastTime) {
+				rate = (allocated - lastAllocated)
+						/ ((double) (time - lastTime) / Time.SECOND);
+			}
+			lastAllocated = allocated;
+			lastTime = time;
+			return String.format("%d/%d (%.1f allocations per sim. second)",
+					allocated, recycledEventCounter, rate);
+		}
+	}
+
 	/**
 	 * The comparator
 	 * 
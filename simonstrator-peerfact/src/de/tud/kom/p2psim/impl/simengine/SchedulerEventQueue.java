@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.simengine;
+
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+
+/**
+ * Pending-event set used by the {@link Scheduler}. Implementations have to
+ * return events ordered by their simulation time and, for equal times, by
+ * their {@link SchedulerEvent#globalOrderIdx} (FIFO). Implementations are not
+ * thread-safe, the {@link Scheduler} takes care of locking if the simulation
+ * is accessed from more than one thread.
+ */
+interface SchedulerEventQueue {
+
+	/**
+	 * Adds the given event to the queue.
+	 *
+	 * @param event
+	 */
+	public void add(SchedulerEvent event);
+
+	/**
+	 * The next event without removing it, or null if the queue is empty.
+	 *
+	 * @return
+	 */
+	public SchedulerEvent peek();
+
+	/**
+	 * Removes and returns the next event, or null if the queue is empty.
+	 *
+	 * @return
+	 */
+	public SchedulerEvent poll();
+
+	public int size();
+
+	public boolean isEmpty();
+
+	public void clear();
+
+	/**
+	 * Available implementations, selected via
+	 * {@link Simulator#setEventQueue(String)}.
+	 */
+	public enum Type {
+
+		/**
+		 * Binary heap ({@link java.util.PriorityQueue}), the reference
+		 * implementation.
+		 */
+		HEAP,
+
+		/**
+		 * Calendar queue with amortized O(1) insert and poll.
+		 */
+		CALENDAR;
+
+		public SchedulerEventQueue create() {
+			switch (this) {
+			case CALENDAR:
+				return new CalendarEventQueue();
+			default:
+				return new HeapEventQueue();
+			}
+		}
+
+		public static String printTypes() {
+			StringBuilder sb = new StringBuilder();
+			for (Type type : values()) {
+				if (sb.length() > 0) {
+					sb.append(", ");
+				}
+				sb.append(type.name());
+			}
+			return sb.toString();
+		}
+	}
+
+}
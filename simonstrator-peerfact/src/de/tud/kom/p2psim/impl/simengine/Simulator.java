@@ -51,6 +51,7 @@ import de.tud.kom.p2psim.impl.util.oracle.GlobalOracle;
 import de.tudarmstadt.maki.simonstrator.api.Binder;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.SimulationContext;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.GlobalComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.core.RandomGeneratorComponent;
@@ -102,40 +103,41 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	private Scenario scenario;
 
 	/**
-	 * Singleton instance of default simulator.
+	 * The context this simulator belongs to.
 	 */
-	private static Simulator singleton;
+	private final SimulationContext context;
 
 	/**
 	 * Configurator instance is used to initialize the scenario.
 	 */
-	private static Configurator defaultConfigurator;
+	private Configurator defaultConfigurator;
 
 	private boolean running;
 
-	private static long seed;
+	private long seed;
 
-	private static Scheduler scheduler;
+	private final Scheduler scheduler;
 
-	private static RandomGenerator randomGen = new JDKRandomGenerator();
+	private final RandomGenerator randomGen = new JDKRandomGenerator();
 
-	private static boolean finishedWithoutError = false;
+	private boolean finishedWithoutError = false;
 
 	private final List<SimulatorObserver> observers = new LinkedList<SimulatorObserver>();
 
-	private static Map<Object, Random> randomGenerators = new LinkedHashMap<Object, Random>();
+	private final Map<Object, Random> randomGenerators = new LinkedHashMap<Object, Random>();
 
 	private long startTime;
 
 	private Date realWorldStartTime = null;
 
 	/**
-	 * This class is singleton, so use getInstance() method to obtain a
-	 * reference to it.
+	 * This class is a singleton within its {@link SimulationContext}, so use
+	 * getInstance() method to obtain a reference to it.
 	 *
 	 */
-	private Simulator() {
-		singleton = this;
+	private Simulator(SimulationContext context) {
+		this.context = context;
+		context.setInstance(Simulator.class, this);
 		scheduler = new Scheduler(true);
 		Binder.registerComponent(scheduler);
 		Binder.registerComponent(this);
@@ -146,14 +148,27 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	}
 
 	/**
-	 * Returns the single instance of the SimulationFramework
+	 * Returns the single instance of the SimulationFramework within the
+	 * {@link SimulationContext} of the calling thread
 	 *
 	 * @return the SimulationFramework
 	 */
 	public static Simulator getInstance() {
-		if (singleton == null)
-			singleton = new Simulator();
-		return singleton;
+		SimulationContext context = SimulationContext.current();
+		Simulator simulator = context.getInstance(Simulator.class);
+		if (simulator == null) {
+			simulator = new Simulator(context);
+		}
+		return simulator;
+	}
+
+	/**
+	 * The context this simulator belongs to.
+	 *
+	 * @return
+	 */
+	public SimulationContext getContext() {
+		return context;
 	}
 
 	public void reset() {
@@ -187,7 +202,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	 * @return
 	 */
 	public static Scheduler getScheduler() {
-		return scheduler;
+		return getInstance().scheduler;
 	}
 
 	public static DefaultMonitor getMonitor() {
@@ -270,6 +285,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 				"Realtime Duration of experiment (m:s) " + minutes + ":"
 						+ secs);
 
+		context.runFinishHooks();
 		for (final SimulatorObserver so : observers) {
 			so.simulationFinished();
 		}
@@ -332,7 +348,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	 *
 	 */
 	public static long getSeed() {
-		return seed;
+		return getInstance().seed;
 	}
 
 	/**
@@ -390,6 +406,8 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	 */
 	@Override
 	public Random getRandom(final Object source) {
+		// in parallel mode, the generators are shared by all logical processes
+		scheduler.awaitSequentialOrder();
 		if (randomGenerators.containsKey(source)) {
 			return randomGenerators.get(source);
 		} else {
@@ -397,7 +415,9 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 			Monitor.log(Simulator.class, Level.INFO,
 					"Created a new Random Source for %s with seed %d", source,
 					thisSeed);
-			final Random randomGenerator = new Random(thisSeed);
+			final Random randomGenerator = scheduler.getParallelism() > 0
+					? new OrderedRandom(scheduler, thisSeed)
+					: new Random(thisSeed);
 			randomGenerators.put(source, randomGenerator);
 			return randomGenerator;
 		}
@@ -418,7 +438,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	 * @return
 	 */
 	public static long getStartTime() {
-		return singleton.startTime;
+		return getInstance().startTime;
 	}
 
 	/**
@@ -427,7 +447,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	 * @return
 	 */
 	public static long getEndTime() {
-		return scheduler.getEndTime();
+		return getInstance().scheduler.getEndTime();
 	}
 
 	/**
@@ -444,7 +464,7 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 	}
 
 	static boolean isFinishedWithoutError() {
-		return finishedWithoutError;
+		return getInstance().finishedWithoutError;
 	}
 
 	/**
@@ -512,8 +532,62 @@ public class Simulator implements RandomGeneratorComponent, GlobalComponent {
 		scheduler.setSimulationSpeedLocked(locked);
 	}
 
+	/**
+	 * Selects the implementation of the scheduler's pending-event set. HEAP
+	 * (default) is the reference implementation, CALENDAR provides amortized
+	 * O(1) insert and poll for simulations with many pending events.
+	 *
+	 * @param eventQueue
+	 */
+	public void setEventQueue(final String eventQueue) {
+		checkRunning();
+		final SchedulerEventQueue.Type type;
+		try {
+			type = SchedulerEventQueue.Type.valueOf(eventQueue.toUpperCase());
+		} catch (final IllegalArgumentException e) {
+			throw new ConfigurationException("The event queue " + eventQueue
+					+ " is unknown. Please select one of "
+					+ SchedulerEventQueue.Type.printTypes());
+		}
+		scheduler.setEventQueue(type);
+	}
+
+	/**
+	 * If set to true, the scheduler re-uses dispatched events instead of
+	 * allocating new ones. Allocation counters are logged at the end of the
+	 * simulation and shown in the live monitoring.
+	 *
+	 * @param recycleEvents
+	 */
+	public void setRecycleEvents(final boolean recycleEvents) {
+		checkRunning();
+		scheduler.setRecycleEvents(recycleEvents);
+	}
+
+	/**
+	 * Number of logical processes (and threads) used to execute the
+	 * simulation in parallel (experimental). Hosts are partitioned by their
+	 * position, the minimum link latency of the topology views serves as
+	 * lookahead. Results are identical to the default of 0, the plain
+	 * sequential execution. Scenarios with components that modify the state
+	 * of other hosts directly (e.g., 802.11 MACs or energy models) are
+	 * executed sequentially, see {@link ParallelEventExecutor}. Has to be
+	 * configured before any random generator is created.
+	 *
+	 * @param parallelism
+	 */
+	public void setParallelism(final int parallelism) {
+		checkRunning();
+		if (parallelism > 0 && !randomGenerators.isEmpty()) {
+			Monitor.log(Simulator.class, Level.WARN,
+					"Random generators created before parallelism was configured are not accessed in sequential order: %s",
+					randomGenerators.keySet());
+		}
+		scheduler.setParallelism(parallelism);
+	}
+
 	public static Configurator getConfigurator() {
-		return defaultConfigurator;
+		return getInstance().defaultConfigurator;
 	}
 
 	/**
@@ -20,7 +20,15 @@
 
 package de.tud.kom.p2psim.impl.topology;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import de.tud.kom.p2psim.api.common.SimHost;
@@ -29,13 +37,26 @@ import de.tud.kom.p2psim.api.linklayer.mac.MacLayer;
 import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
 import de.tud.kom.p2psim.api.topology.Topology;
 import de.tud.kom.p2psim.api.topology.views.TopologyView;
+import de.tud.kom.p2psim.impl.util.structures.SpatialGrid;
 import de.tudarmstadt.maki.simonstrator.api.Binder;
 import de.tudarmstadt.maki.simonstrator.api.Graphs;
 import de.tudarmstadt.maki.simonstrator.api.Host;
+import de.tudarmstadt.maki.simonstrator.api.Time;
+import de.tudarmstadt.maki.simonstrator.api.common.Timestamp;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.GenericGraphElementProperties;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.CompositeGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgePropertyDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeRemovalDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.GraphDifferencer;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodePropertyDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeRemovalDelta;
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetInterface;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetworkComponent.NetInterfaceName;
@@ -49,6 +70,12 @@ import de.tudarmstadt.maki.simonstrator.api.component.transport.ConnectivityList
  * This is calculated based on global knowledge. It only registers as
  * {@link LocationListener}, if a range is specified by the Provider.
  *
+ * Distance-based views are maintained incrementally: after the initial
+ * calculation, only hosts that moved or changed their online state are
+ * updated, using a {@link SpatialGrid} to find hosts in range. The graph
+ * returned by {@link #getLocalView()} is thus modified in place. Changes are
+ * reported to registered {@link GraphDeltaObserver}s.
+ *
  * @author Bjoern Richerzhagen
  * @version 1.0, May 13, 2015
  */
@@ -65,6 +92,14 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 		public List<MacAddress> getCustomNeighbors(MacAddress macAddress);
 	}
 
+	/**
+	 * Observer that is informed about the changes of the graph whenever the
+	 * view is recalculated.
+	 */
+	public static interface GraphDeltaObserver {
+		public void graphChanged(LocalGraphView view, IGraphDelta delta);
+	}
+
 	/**
 	 * Marker: has there been any movement since the graph view was last
 	 * requested? If so: recalculate! Otherwise, we ignore this object to not
@@ -86,6 +121,28 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 
 	private final PhyType phy;
 
+	/**
+	 * True, if the graph is maintained incrementally (distance-based views)
+	 */
+	private final boolean isIncremental;
+
+	/**
+	 * Hosts in range of each other, only used by incremental views. Created
+	 * during the first full calculation of the graph.
+	 */
+	private SpatialGrid<MacAddress> grid;
+
+	private final Map<Host, MacLayer> macOfHost = new HashMap<>();
+
+	/**
+	 * Hosts that moved or changed their online state since the last update
+	 */
+	private final Set<MacLayer> changedMacs = new LinkedHashSet<>();
+
+	private final List<GraphDeltaObserver> deltaObservers = new LinkedList<>();
+
+	private final GraphDifferencer differencer = new GraphDifferencer();
+
 	private NeighborProvider neighborProvider = new NeighborProvider() {
 		@Override
 		public List<MacAddress> getCustomNeighbors(MacAddress macAddress) {
@@ -126,28 +183,68 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 		this.distance = distance;
 		this.onlyOnline = onlyOnline;
 		this.isDistanceBased = (distance > 0);
+		this.isIncremental = isDistanceBased && !Double.isInfinite(distance);
 		assert !isDistanceBased || phy.isBroadcastMedium();
+		for (MacLayer mac : topoView.getAllMacs()) {
+			registerMac(mac, true);
+		}
+	}
+
+	/**
+	 * Registers this view as listener for movement (broadcast media) and
+	 * online/offline events (if only online hosts are considered) of the given
+	 * MAC.
+	 *
+	 * @param mac
+	 * @param addListeners
+	 *            false, if the host already reports its events to this view
+	 */
+	private void registerMac(MacLayer mac, boolean addListeners) {
+		macOfHost.put(mac.getHost(), mac);
+		if (!addListeners) {
+			return;
+		}
 		if (phy.isBroadcastMedium()) {
 			// register as listener for movement
-			for (MacLayer mac : topoView.getAllMacs()) {
-				try {
-					mac.getHost().getComponent(LocationSensor.class)
-							.requestLocationUpdates(null, this);
-				} catch (ComponentNotAvailableException e) {
-					throw new AssertionError("Expected a LocationSensor.");
-				}
+			try {
+				mac.getHost().getComponent(LocationSensor.class)
+						.requestLocationUpdates(null, this);
+			} catch (ComponentNotAvailableException e) {
+				throw new AssertionError("Expected a LocationSensor.");
 			}
 		}
 		// register as listener for online/offline events
 		if (onlyOnline) {
-			for (MacLayer mac : topoView.getAllMacs()) {
-				mac.getHost().getNetworkComponent().getByName(medium)
-						.addConnectivityListener(this);
+			mac.getHost().getNetworkComponent().getByName(medium)
+					.addConnectivityListener(this);
+		}
+	}
+
+	/**
+	 * Registers MACs that were added to the topology view after this view has
+	 * been created and marks them as changed.
+	 *
+	 * @param reportingHost
+	 *            host that already reports its events to this view (may be
+	 *            null)
+	 */
+	private void registerLateMacs(Host reportingHost) {
+		if (macOfHost.size() == topoView.getAllMacs().size()) {
+			return;
+		}
+		for (MacLayer mac : topoView.getAllMacs()) {
+			if (!macOfHost.containsKey(mac.getHost())) {
+				registerMac(mac, mac.getHost() != reportingHost);
+				if (grid != null) {
+					changedMacs.add(mac);
+				}
+				isInvalid = true;
 			}
 		}
 	}
 
 	private void recalculateLocalView() {
+		registerLateMacs(null);
 		if (!isInvalid) {
 			/*
 			 * Graphs are invalidated (i) based on movement, IFF a range was
@@ -156,9 +253,15 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 			 */
 			return;
 		}
+		if (grid != null) {
+			updateChangedHosts();
+			isInvalid = false;
+			return;
+		}
 		/*
 		 * Calculate a complete global connectivity graph
 		 */
+		Graph previousView = currentView;
 
 		// Create new, empty graph
 		currentView = Graphs.createGraph();
@@ -244,13 +347,184 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 			}
 		}
 
+		if (isIncremental) {
+			grid = new SpatialGrid<>(distance);
+			for (MacLayer mac : topoView.getAllMacs()) {
+				if (currentView.containsNode(mac.getHost().getId())) {
+					Location position = topoView
+							.getPosition(mac.getMacAddress());
+					grid.update(mac.getMacAddress(), position.getLongitude(),
+							position.getLatitude());
+				}
+			}
+			changedMacs.clear();
+		}
+
+		if (!deltaObservers.isEmpty()) {
+			notifyDeltaObservers(differencer.calculateDelta(
+					previousView == null ? Graphs.createGraph() : previousView,
+					currentView));
+		}
+
+		isInvalid = false;
+	}
+
+	/**
+	 * Incremental update of the graph: only nodes and edges of hosts that
+	 * moved or changed their online state are touched.
+	 */
+	private void updateChangedHosts() {
+		final Timestamp timestamp = new Timestamp(Time.getCurrentTime());
+		final List<IGraphDelta> nodeAdditions = new ArrayList<>();
+		final List<IGraphDelta> nodeRemovals = new ArrayList<>();
+		final List<IGraphDelta> edgeAdditions = new ArrayList<>();
+		final List<IGraphDelta> edgeRemovals = new ArrayList<>();
+		final List<IGraphDelta> nodePropertyChanges = new ArrayList<>();
+		final List<IGraphDelta> edgePropertyChanges = new ArrayList<>();
+
+		/*
+		 * First, update nodes and the grid, so that edges are calculated on
+		 * the current positions of all changed hosts.
+		 */
+		for (MacLayer mac : changedMacs) {
+			INodeID nodeId = mac.getHost().getId();
+			INode node = currentView.getNode(nodeId);
+			if (onlyOnline && !mac.isOnline()) {
+				grid.remove(mac.getMacAddress());
+				if (node != null) {
+					Set<IEdge> incidentEdges = new LinkedHashSet<>(
+							currentView.getOutgoingEdges(nodeId));
+					incidentEdges.addAll(currentView.getIncomingEdges(nodeId));
+					for (IEdge edge : incidentEdges) {
+						edgeRemovals.add(new EdgeRemovalDelta(edge, timestamp));
+					}
+					currentView.removeNode(nodeId);
+					nodeRemovals.add(new NodeRemovalDelta(node, timestamp));
+				}
+				continue;
+			}
+			Location position = topoView.getPosition(mac.getMacAddress());
+			grid.update(mac.getMacAddress(), position.getLongitude(),
+					position.getLatitude());
+			Location location = position.clone();
+			if (node == null) {
+				node = Graphs.createNode(nodeId);
+				node.setProperty(SiSTypes.PHY_LOCATION, location);
+				currentView.addElement(node);
+				nodeAdditions.add(new NodeAdditionDelta(node, timestamp));
+			} else {
+				Location oldLocation = node.getProperty(SiSTypes.PHY_LOCATION);
+				node.setProperty(SiSTypes.PHY_LOCATION, location);
+				if (!Objects.equals(oldLocation, location)) {
+					nodePropertyChanges.add(new NodePropertyDelta<>(
+							SiSTypes.PHY_LOCATION, oldLocation, node,
+							timestamp));
+				}
+			}
+		}
+
 		/*
-		 * TODO if topology observers (delta-based) are registered, compute diff
-		 * against old graph! Replaces checkForTopologyModifications() and
-		 * sub-methods
+		 * Second, recalculate the edges of the changed hosts. As the distance
+		 * is symmetric, the same neighbors apply to incoming and outgoing
+		 * edges.
 		 */
+		Set<MacAddress> nearby = new HashSet<>();
+		for (MacLayer mac : changedMacs) {
+			if (!grid.contains(mac.getMacAddress())) {
+				continue;
+			}
+			INodeID nodeId = mac.getHost().getId();
+			Map<INodeID, Double> neighbors = new LinkedHashMap<>();
+			nearby.clear();
+			grid.getNearby(mac.getMacAddress(), nearby);
+			for (MacAddress neighborMac : nearby) {
+				double nodeDistance = topoView.getDistance(mac.getMacAddress(),
+						neighborMac);
+				if (nodeDistance <= distance) {
+					neighbors.put(topoView.getMac(neighborMac).getHost().getId(),
+							nodeDistance);
+				}
+			}
 
-		isInvalid = false;
+			Set<IEdge> incidentEdges = new LinkedHashSet<>(
+					currentView.getOutgoingEdges(nodeId));
+			incidentEdges.addAll(currentView.getIncomingEdges(nodeId));
+			for (IEdge edge : incidentEdges) {
+				INodeID other = edge.fromId().equals(nodeId) ? edge.toId()
+						: edge.fromId();
+				if (!neighbors.containsKey(other)) {
+					currentView.removeEdge(edge);
+					edgeRemovals.add(new EdgeRemovalDelta(edge, timestamp));
+				}
+			}
+
+			for (Map.Entry<INodeID, Double> neighbor : neighbors.entrySet()) {
+				updateEdge(nodeId, neighbor.getKey(), neighbor.getValue(),
+						timestamp, edgeAdditions, edgePropertyChanges);
+				updateEdge(neighbor.getKey(), nodeId, neighbor.getValue(),
+						timestamp, edgeAdditions, edgePropertyChanges);
+			}
+		}
+		changedMacs.clear();
+
+		if (!deltaObservers.isEmpty()) {
+			List<IGraphDelta> deltas = new ArrayList<>();
+			deltas.addAll(nodeAdditions);
+			deltas.addAll(edgeRemovals);
+			deltas.addAll(nodeRemovals);
+			deltas.addAll(edgeAdditions);
+			deltas.addAll(nodePropertyChanges);
+			deltas.addAll(edgePropertyChanges);
+			notifyDeltaObservers(new CompositeGraphDelta(deltas, timestamp));
+		}
+	}
+
+	private void updateEdge(INodeID from, INodeID to, double nodeDistance,
+			Timestamp timestamp, List<IGraphDelta> edgeAdditions,
+			List<IGraphDelta> edgePropertyChanges) {
+		IEdge edge = currentView.getEdge(from, to);
+		if (edge == null) {
+			edge = currentView.createAndAddEdge(from, to);
+			edge.setProperty(SiSTypes.PHY_DISTANCE, nodeDistance);
+			// TODO get rid of WEIGHT here.
+			edge.setProperty(GenericGraphElementProperties.WEIGHT,
+					nodeDistance);
+			edgeAdditions.add(new EdgeAdditionDelta(edge, timestamp));
+			return;
+		}
+		Double oldDistance = edge.getProperty(SiSTypes.PHY_DISTANCE);
+		if (oldDistance == null || oldDistance != nodeDistance) {
+			Double oldWeight = edge
+					.getProperty(GenericGraphElementProperties.WEIGHT);
+			edge.setProperty(SiSTypes.PHY_DISTANCE, nodeDistance);
+			edge.setProperty(GenericGraphElementProperties.WEIGHT,
+					nodeDistance);
+			edgePropertyChanges.add(new EdgePropertyDelta<>(
+					SiSTypes.PHY_DISTANCE, oldDistance, edge, timestamp));
+			edgePropertyChanges.add(new EdgePropertyDelta<>(
+					GenericGraphElementProperties.WEIGHT, oldWeight, edge,
+					timestamp));
+		}
+	}
+
+	private void notifyDeltaObservers(IGraphDelta delta) {
+		for (GraphDeltaObserver observer : deltaObservers) {
+			observer.graphChanged(this, delta);
+		}
+	}
+
+	/**
+	 * Register an observer for the changes of this view. Observers are
+	 * notified lazily, whenever the view is recalculated on access.
+	 *
+	 * @param observer
+	 */
+	public void addGraphDeltaObserver(GraphDeltaObserver observer) {
+		deltaObservers.add(observer);
+	}
+
+	public void removeGraphDeltaObserver(GraphDeltaObserver observer) {
+		deltaObservers.remove(observer);
 	}
 
 	/**
@@ -277,6 +551,10 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 	/**
 	 * This is the global view, therefore we do not distinguish between hosts.
 	 *
+	 * Distance-based views update the returned graph and its elements in place
+	 * whenever they are recalculated, all other views return a new graph per
+	 * recalculation. Clone the graph and its elements if you need a snapshot.
+	 *
 	 * @return
 	 */
 	public Graph getLocalView() {
@@ -295,23 +573,38 @@ public class LocalGraphView implements LocationListener, ConnectivityListener {
 	@Override
 	public void onLocationChanged(Host host, Location location) {
 		this.isInvalid = true;
+		markChanged(host);
 	}
 
 	@Override
 	public void wentOnline(Host host, NetInterface netInterface) {
 		assert netInterface.getName() == medium;
 		this.isInvalid = true;
+		markChanged(host);
 	}
 
 	@Override
 	public void wentOffline(Host host, NetInterface netInterface) {
 		assert netInterface.getName() == medium;
 		this.isInvalid = true;
+		markChanged(host);
 	}
 
-	/*
-	 * TODO add methods for DIFF_Calculation and allow registration of
-	 * diff-observers.
-	 */
+	private void markChanged(Host host) {
+		MacLayer mac = macOfHost.get(host);
+		if (mac == null) {
+			registerLateMacs(host);
+			mac = macOfHost.get(host);
+		}
+		if (grid != null) {
+			if (mac != null) {
+				changedMacs.add(mac);
+			} else {
+				// host without MAC on this medium, fall back to a full
+				// calculation
+				grid = null;
+			}
+		}
+	}
 
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.topology.monitoring;
+
+import java.util.Collection;
+import java.util.Map;
+
+import de.tudarmstadt.maki.simonstrator.api.Message;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IElement;
+
+/**
+ * Beacon of the delta mode of the {@link DistributedTopologyMonitoringComponent}.
+ * Contains only the elements of the sender's (k-1)-local view that were
+ * added or refreshed (i.e., got a new timestamp) since the previous beacon,
+ * and the elements that were removed. Anchors contain the complete view.
+ */
+public class DeltaViewMessage implements Message {
+
+	private final int sequenceNumber;
+
+	private final boolean anchor;
+
+	private final Map<IElement, Long> udgTimestamps;
+
+	private final Collection<IElement> removedElements;
+
+	private final Map<IEdge, Long> filterTimestamps;
+
+	private final Collection<IEdge> removedFilteredEdges;
+
+	/**
+	 *
+	 * @param sequenceNumber
+	 * @param anchor
+	 *            true, if this beacon contains the complete view
+	 * @param udgStamps
+	 *            added or refreshed elements of the UDG topology
+	 * @param removedElements
+	 * @param filterStamps
+	 *            added or refreshed filtered edges
+	 * @param removedFilteredEdges
+	 */
+	public DeltaViewMessage(int sequenceNumber, boolean anchor,
+			Map<IElement, Long> udgStamps, Collection<IElement> removedElements,
+			Map<IEdge, Long> filterStamps,
+			Collection<IEdge> removedFilteredEdges) {
+		this.sequenceNumber = sequenceNumber;
+		this.anchor = anchor;
+		this.udgTimestamps = udgStamps;
+		this.removedElements = removedElements;
+		this.filterTimestamps = filterStamps;
+		this.removedFilteredEdges = removedFilteredEdges;
+	}
+
+	@Override
+	public long getSize() {
+		final long macTransmissionSize = 6;
+		// sequence number and anchor flag
+		long size = 5;
+		for (IElement element : udgTimestamps.keySet()) {
+			size += getElementSize(element, macTransmissionSize) + 4;
+		}
+		for (IElement element : removedElements) {
+			size += getElementSize(element, macTransmissionSize);
+		}
+		size += (macTransmissionSize * 2 + 4) * filterTimestamps.size();
+		size += macTransmissionSize * 2 * removedFilteredEdges.size();
+		return size;
+	}
+
+	private static long getElementSize(IElement element,
+			long macTransmissionSize) {
+		return element instanceof IEdge ? macTransmissionSize * 2
+				: macTransmissionSize;
+	}
+
+	/**
+	 * Number of graph elements contained in this beacon
+	 *
+	 * @return
+	 */
+	public int getElementCount() {
+		return udgTimestamps.size() + removedElements.size()
+				+ filterTimestamps.size() + removedFilteredEdges.size();
+	}
+
+	@Override
+	public Message getPayload() {
+		return null;
+	}
+
+	public int getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public boolean isAnchor() {
+		return anchor;
+	}
+
+	public Map<IElement, Long> getUdgTimestamps() {
+		return udgTimestamps;
+	}
+
+	public Collection<IElement> getRemovedElements() {
+		return removedElements;
+	}
+
+	public Map<IEdge, Long> getFilterTimestamps() {
+		return filterTimestamps;
+	}
+
+	public Collection<IEdge> getRemovedFilteredEdges() {
+		return removedFilteredEdges;
+	}
+
+}
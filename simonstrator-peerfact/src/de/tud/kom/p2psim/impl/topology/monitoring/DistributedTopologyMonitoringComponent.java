@@ -2,11 +2,13 @@ package de.tud.kom.p2psim.impl.topology.monitoring;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
@@ -109,11 +111,45 @@ public class DistributedTopologyMonitoringComponent
 
 	private final Set<INode> removedNeighbors = new HashSet<>();
 
+	/**
+	 * If true, beacons only contain the elements that were added, refreshed,
+	 * or removed since the previous beacon (see {@link DeltaViewMessage})
+	 */
+	private boolean deltaBeaconing = false;
+
+	/**
+	 * In delta mode, every ANCHOR_INTERVAL-th beacon contains the complete
+	 * (k-1)-local view. Receivers that missed a delta beacon are synchronized
+	 * again by the next anchor.
+	 */
+	private int ANCHOR_INTERVAL = 5;
+
+	private int beaconSequenceNumber = -1;
+
+	// timestamps contained in the previous beacon (delta mode)
+	private final Map<IElement, Long> advertisedUdgTimestamps = new LinkedHashMap<>();
+
+	private final Map<IEdge, Long> advertisedFilterTimestamps = new LinkedHashMap<>();
+
+	// last sequence number received from each neighbor (delta mode)
+	private final Map<MacAddress, Integer> receivedSequenceNumbers = new HashMap<>();
+
 	/**
 	 * Provides evaluation values
 	 */
 	public static long _operationalMessagesSent;
 
+	public static long _beaconsSent;
+
+	public static long _beaconBytesSent;
+
+	public static long _beaconElementsSent;
+
+	/**
+	 * Number of delta beacons that were received after a missed beacon
+	 */
+	public static long _beaconSequenceGaps;
+
 	public DistributedTopologyMonitoringComponent(final SimHost host) {
 		this.host = host;
 	}
@@ -135,11 +171,87 @@ public class DistributedTopologyMonitoringComponent
 		final Map<IEdge, Long> filterStamps = getFilterTimeStamps(
 				localFilteredEdges);
 
+		final Message beacon;
+		final int elementCount;
+		if (this.deltaBeaconing) {
+			final DeltaViewMessage deltaBeacon = createDeltaBeacon(udgStamps,
+					filterStamps);
+			elementCount = deltaBeacon.getElementCount();
+			beacon = deltaBeacon;
+		} else {
+			elementCount = elements.size() + localFilteredEdges.size();
+			beacon = new ViewMessage(subgraph, udgStamps, localFilteredEdges,
+					filterStamps);
+		}
+		Simulator.getScheduler().awaitSequentialOrder();
+		_beaconsSent++;
+		_beaconBytesSent += beacon.getSize();
+		_beaconElementsSent += elementCount;
+
 		// broadcast this local view
 		getHost().getLinkLayer().send(this.phyType, MacAddress.BROADCAST,
-				new ViewMessage(subgraph, udgStamps, localFilteredEdges,
-						filterStamps));
+				beacon);
+
+	}
+
+	/*
+	 * Computes the difference between the given view and the view advertised
+	 * in the previous beacon
+	 */
+	private DeltaViewMessage createDeltaBeacon(
+			final Map<IElement, Long> udgStamps,
+			final Map<IEdge, Long> filterStamps) {
+		this.beaconSequenceNumber++;
+		final boolean anchor = this.beaconSequenceNumber
+				% this.ANCHOR_INTERVAL == 0;
+
+		final Map<IElement, Long> updatedUdgStamps = getUpdatedTimeStamps(
+				udgStamps, this.advertisedUdgTimestamps, anchor);
+		final Map<IEdge, Long> updatedFilterStamps = getUpdatedTimeStamps(
+				filterStamps, this.advertisedFilterTimestamps, anchor);
+
+		final LinkedList<IElement> removedElements = new LinkedList<>();
+		final LinkedList<IEdge> removedFilteredEdges = new LinkedList<>();
+		if (!anchor) {
+			for (final IElement element : this.advertisedUdgTimestamps
+					.keySet()) {
+				if (!udgStamps.containsKey(element)) {
+					removedElements.add(element);
+				}
+			}
+			for (final IEdge filteredEdge : this.advertisedFilterTimestamps
+					.keySet()) {
+				if (!filterStamps.containsKey(filteredEdge)) {
+					removedFilteredEdges.add(filteredEdge);
+				}
+			}
+		}
+
+		this.advertisedUdgTimestamps.clear();
+		this.advertisedUdgTimestamps.putAll(udgStamps);
+		this.advertisedFilterTimestamps.clear();
+		this.advertisedFilterTimestamps.putAll(filterStamps);
 
+		return new DeltaViewMessage(this.beaconSequenceNumber, anchor,
+				updatedUdgStamps, removedElements, updatedFilterStamps,
+				removedFilteredEdges);
+	}
+
+	// returns the entries that are new or have a different timestamp
+	private static <T extends IElement> Map<T, Long> getUpdatedTimeStamps(
+			final Map<T, Long> stamps, final Map<? extends IElement, Long> advertisedStamps,
+			final boolean all) {
+		if (all) {
+			return stamps;
+		}
+		final Map<T, Long> updatedStamps = new LinkedHashMap<>();
+		for (final Map.Entry<T, Long> entry : stamps.entrySet()) {
+			if (!entry.getValue()
+					.equals(advertisedStamps.get(entry.getKey()))) {
+				updatedStamps.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return updatedStamps;
 	}
 
 	private Set<IElement> getAllElements(final Graph graph) {
@@ -207,6 +319,18 @@ public class DistributedTopologyMonitoringComponent
 		this.BEACON_INTERVAL = beaconInterval;
 	}
 
+	public void setDeltaBeaconing(final boolean deltaBeaconing) {
+		this.deltaBeaconing = deltaBeaconing;
+	}
+
+	public void setAnchorInterval(final int anchorInterval) {
+		if (anchorInterval < 1) {
+			throw new IllegalArgumentException();
+		}
+
+		this.ANCHOR_INTERVAL = anchorInterval;
+	}
+
 	public INode getLocalNode() {
 		final MacAddress macAddress = getHost().getLinkLayer()
 				.getMac(this.phyType).getMacAddress();
@@ -238,90 +362,16 @@ public class DistributedTopologyMonitoringComponent
 			final Set<IElement> neighborGraphElements = getAllElements(
 					neighborGraph);
 
-			LogicalWifiTopologyView topologyView = null;
-			try {
-				topologyView = (LogicalWifiTopologyView) Binder
-						.getComponent(Topology.class).getTopologyView(PhyType.WIFI);
-			} catch (ComponentNotAvailableException e) {
-				// Will never happen
-			}
 			// manually add an in-edge that results from the fact that i
 			// received a message from my neighbor
-			// TODO MSt: Adjusted to the new API.
-			final INode start = topologyView.getNodeForMacAddress(linkMsgEvent.getSender());
-			// final INode start = getNode(linkMsgEvent.getSender());
-			final INode end = getLocalNode();
-			final MacAddress startMac = linkMsgEvent.getSender();
-			final MacAddress endMac = getHost().getLinkLayer()
-					.getMac(this.phyType).getMacAddress();
-			final double edgeWeight = getEdgeWeight(startMac, endMac);
-			final IEdge inEdge = Graphs.createDirectedWeightedEdge(
-					start.getId(), end.getId(), edgeWeight);
+			final IEdge inEdge = createInEdge(linkMsgEvent.getSender());
 			neighborUdgStamps.put(inEdge, Simulator.getCurrentTime());
 			neighborGraphElements.add(inEdge);
 
-			for (final IElement neighborElement : neighborGraphElements) {
-
-				if (!this.localView.contains(neighborElement)) {
-					if (isElementUpToDate(
-							neighborUdgStamps.get(neighborElement))) {
-						this.localView.add(neighborElement);
-						this.updateUdgTimeStamp(neighborElement,
-								neighborUdgStamps.get(neighborElement));
-					}
-
-				} else { // graph element is already contained in my local view.
-					// update my local view if this element has a newer
-					// time stamp
-
-					if (neighborUdgStamps
-							.get(neighborElement) > getUdgTimeStamp(
-									neighborElement)) {
-
-						// replace the object in my Graph because even if they
-						// are equal according to the equals() method, they
-						// might still differ with respect to the weight or
-						// other attributes that might be added in future
-						this.localView.remove(neighborElement);
-						this.localView.add(neighborElement);
-
-						updateUdgTimeStamp(neighborElement,
-								neighborUdgStamps.get(neighborElement));
-					}
-				}
-			}
+			mergeUdgElements(neighborGraphElements, neighborUdgStamps);
 
-			final Map<IEdge, Long> neighborFilterStamps = ((ViewMessage) message)
-					.getFilterTimestamps();
-			for (final IEdge neighborFilteredEdge : ((ViewMessage) message)
-					.getFilteredEdges()) {
-				if (!this.filteredEdges.contains(neighborFilteredEdge)) {
-					if (isElementUpToDate(
-							neighborFilterStamps.get(neighborFilteredEdge))) {
-						this.filteredEdges.add(neighborFilteredEdge);
-						this.updateFilterTimeStamp(neighborFilteredEdge,
-								neighborFilterStamps.get(neighborFilteredEdge));
-					}
-				} else {
-					// filtered edge is already contained in my local view.
-					// update my local view if this element has a newer
-					// time stamp
-					if (neighborFilterStamps
-							.get(neighborFilteredEdge) > getFilterTimeStamp(
-									neighborFilteredEdge)) {
-						// replace the object in my Graph because even if they
-						// are equal according to the equals() method, they
-						// might still differ with respect to the weight or
-						// other attributes that might be added in future
-						this.filteredEdges.remove(neighborFilteredEdge);
-						this.filteredEdges.add(neighborFilteredEdge);
-
-						updateFilterTimeStamp(neighborFilteredEdge,
-								neighborUdgStamps.get(neighborFilteredEdge));
-
-					}
-				}
-			}
+			mergeFilteredEdges(((ViewMessage) message).getFilteredEdges(),
+					((ViewMessage) message).getFilterTimestamps());
 
 			if (new ElementwiseGraphEqualityChecker().unequal(localView, initialGraph)
 					|| !this.filteredEdges.equals(initialFiltered)) {
@@ -331,6 +381,48 @@ public class DistributedTopologyMonitoringComponent
 						"Received a topology message but this did not contain any topology changes.");
 			}
 
+		} else if (message instanceof DeltaViewMessage) {
+
+			final DeltaViewMessage deltaMessage = (DeltaViewMessage) message;
+			final MacAddress sender = linkMsgEvent.getSender();
+
+			final Integer lastSequenceNumber = this.receivedSequenceNumbers
+					.put(sender, deltaMessage.getSequenceNumber());
+			final boolean inSequence = lastSequenceNumber != null
+					&& lastSequenceNumber + 1 == deltaMessage
+							.getSequenceNumber();
+			if (!inSequence && lastSequenceNumber != null) {
+				Simulator.getScheduler().awaitSequentialOrder();
+				_beaconSequenceGaps++;
+			}
+
+			final IEdge inEdge = createInEdge(sender);
+
+			boolean changed = false;
+			if (inSequence) {
+				// we have seen all previous beacons of this neighbor, so its
+				// removals can be applied. Otherwise, removed elements time out
+				// or disappear with the next anchor.
+				changed |= applyRemovals(deltaMessage, inEdge);
+			}
+
+			final Map<IElement, Long> neighborUdgStamps = new LinkedHashMap<>(
+					deltaMessage.getUdgTimestamps());
+			neighborUdgStamps.put(inEdge, Simulator.getCurrentTime());
+			changed |= mergeUdgElements(neighborUdgStamps.keySet(),
+					neighborUdgStamps);
+
+			changed |= mergeFilteredEdges(
+					deltaMessage.getFilterTimestamps().keySet(),
+					deltaMessage.getFilterTimestamps());
+
+			if (changed) {
+				notifyListeners();
+			} else {
+				log.info(
+						"Received a topology message but this did not contain any topology changes.");
+			}
+
 		}
 		// receiving a message that control removing/adding of edges
 		else if (message instanceof EdgeOperationMessage) {
@@ -355,6 +447,153 @@ public class DistributedTopologyMonitoringComponent
 		updateNeighborLinks();
 	}
 
+	/*
+	 * Creates the in-edge that results from the fact that i received a message
+	 * from the given neighbor
+	 */
+	private IEdge createInEdge(final MacAddress startMac) {
+		LogicalWifiTopologyView topologyView = null;
+		try {
+			topologyView = (LogicalWifiTopologyView) Binder
+					.getComponent(Topology.class).getTopologyView(PhyType.WIFI);
+		} catch (ComponentNotAvailableException e) {
+			// Will never happen
+		}
+		// TODO MSt: Adjusted to the new API.
+		final INode start = topologyView.getNodeForMacAddress(startMac);
+		// final INode start = getNode(linkMsgEvent.getSender());
+		final INode end = getLocalNode();
+		final MacAddress endMac = getHost().getLinkLayer()
+				.getMac(this.phyType).getMacAddress();
+		final double edgeWeight = getEdgeWeight(startMac, endMac);
+		return Graphs.createDirectedWeightedEdge(start.getId(), end.getId(),
+				edgeWeight);
+	}
+
+	/*
+	 * Merges the given elements of a neighbor's view into my local view.
+	 * Returns true if an element was added or an element with different
+	 * properties was replaced.
+	 */
+	private boolean mergeUdgElements(
+			final Collection<? extends IElement> neighborElements,
+			final Map<IElement, Long> neighborUdgStamps) {
+		boolean changed = false;
+		for (final IElement neighborElement : neighborElements) {
+
+			if (!this.localView.contains(neighborElement)) {
+				if (isElementUpToDate(
+						neighborUdgStamps.get(neighborElement))) {
+					this.localView.add(neighborElement);
+					this.updateUdgTimeStamp(neighborElement,
+							neighborUdgStamps.get(neighborElement));
+					changed = true;
+				}
+
+			} else { // graph element is already contained in my local view.
+				// update my local view if this element has a newer
+				// time stamp
+
+				if (neighborUdgStamps
+						.get(neighborElement) > getUdgTimeStamp(
+								neighborElement)) {
+
+					final IElement localElement = getLocalElement(
+							neighborElement);
+					changed |= localElement == null
+							|| !Objects.equals(localElement.getProperties(),
+									neighborElement.getProperties());
+
+					// replace the object in my Graph because even if they
+					// are equal according to the equals() method, they
+					// might still differ with respect to the weight or
+					// other attributes that might be added in future
+					this.localView.remove(neighborElement);
+					this.localView.add(neighborElement);
+
+					updateUdgTimeStamp(neighborElement,
+							neighborUdgStamps.get(neighborElement));
+				}
+			}
+		}
+		return changed;
+	}
+
+	private IElement getLocalElement(final IElement element) {
+		if (element instanceof IEdge) {
+			return this.localView.getEdge(((IEdge) element).getId());
+		} else if (element instanceof INode) {
+			return this.localView.getNode(((INode) element).getId());
+		}
+		return null;
+	}
+
+	/*
+	 * Merges the given filtered edges of a neighbor's view into my local view.
+	 * Returns true if a filtered edge was added.
+	 */
+	private boolean mergeFilteredEdges(
+			final Collection<IEdge> neighborFilteredEdges,
+			final Map<IEdge, Long> neighborFilterStamps) {
+		boolean changed = false;
+		for (final IEdge neighborFilteredEdge : neighborFilteredEdges) {
+			if (!this.filteredEdges.contains(neighborFilteredEdge)) {
+				if (isElementUpToDate(
+						neighborFilterStamps.get(neighborFilteredEdge))) {
+					this.filteredEdges.add(neighborFilteredEdge);
+					this.updateFilterTimeStamp(neighborFilteredEdge,
+							neighborFilterStamps.get(neighborFilteredEdge));
+					changed = true;
+				}
+			} else {
+				// filtered edge is already contained in my local view.
+				// update my local view if this element has a newer
+				// time stamp
+				if (neighborFilterStamps
+						.get(neighborFilteredEdge) > getFilterTimeStamp(
+								neighborFilteredEdge)) {
+					// replace the object in my Graph because even if they
+					// are equal according to the equals() method, they
+					// might still differ with respect to the weight or
+					// other attributes that might be added in future
+					this.filteredEdges.remove(neighborFilteredEdge);
+					this.filteredEdges.add(neighborFilteredEdge);
+
+					updateFilterTimeStamp(neighborFilteredEdge,
+							neighborFilterStamps.get(neighborFilteredEdge));
+
+				}
+			}
+		}
+		return changed;
+	}
+
+	/*
+	 * Applies the removals of a delta beacon. A neighbor only knows for sure
+	 * about its own in-edges (it creates them when receiving beacons) and about
+	 * the filtered edges that start at it. Other removals are ignored, these
+	 * elements time out.
+	 */
+	private boolean applyRemovals(final DeltaViewMessage deltaMessage,
+			final IEdge inEdge) {
+		final INodeID neighborId = inEdge.fromId();
+		boolean changed = false;
+		for (final IElement removedElement : deltaMessage
+				.getRemovedElements()) {
+			if (removedElement instanceof IEdge
+					&& ((IEdge) removedElement).toId().equals(neighborId)) {
+				changed |= this.localView.remove(removedElement);
+			}
+		}
+		for (final IEdge removedFilteredEdge : deltaMessage
+				.getRemovedFilteredEdges()) {
+			if (removedFilteredEdge.fromId().equals(neighborId)) {
+				changed |= this.filteredEdges.remove(removedFilteredEdge);
+			}
+		}
+		return changed;
+	}
+
 	private void updateNeighborLinks() {
 		final Set<INodeID> toUpdate = new HashSet<>();
 		for (final IEdge e : this.filteredEdges) {
@@ -677,6 +916,7 @@ public class DistributedTopologyMonitoringComponent
 
 	private void broadcast(final Message msg) {
 		if (msg instanceof EdgeOperationMessage) {
+			Simulator.getScheduler().awaitSequentialOrder();
 			_operationalMessagesSent++;
 		}
 		getHost().getLinkLayer().send(this.phyType, MacAddress.BROADCAST, msg);
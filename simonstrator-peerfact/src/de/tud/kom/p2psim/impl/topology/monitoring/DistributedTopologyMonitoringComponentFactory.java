@@ -28,9 +28,35 @@ import de.tudarmstadt.maki.simonstrator.api.component.HostComponentFactory;
 public class DistributedTopologyMonitoringComponentFactory implements
 		HostComponentFactory {
 
+	private boolean deltaBeaconing = false;
+
+	private int anchorInterval = 5;
+
 	@Override
 	public HostComponent createComponent(Host host) {
-		return new DistributedTopologyMonitoringComponent((SimHost) host);
+		DistributedTopologyMonitoringComponent component = new DistributedTopologyMonitoringComponent(
+				(SimHost) host);
+		component.setDeltaBeaconing(deltaBeaconing);
+		component.setAnchorInterval(anchorInterval);
+		return component;
+	}
+
+	/**
+	 * Only send the changes of the local view since the previous beacon
+	 *
+	 * @param deltaBeaconing
+	 */
+	public void setDeltaBeaconing(boolean deltaBeaconing) {
+		this.deltaBeaconing = deltaBeaconing;
+	}
+
+	/**
+	 * Every n-th beacon contains the complete local view (delta mode only)
+	 *
+	 * @param anchorInterval
+	 */
+	public void setAnchorInterval(int anchorInterval) {
+		this.anchorInterval = anchorInterval;
 	}
 
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.topology.obstacles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+import de.tud.kom.p2psim.api.topology.obstacles.Obstacle;
+import de.tud.kom.p2psim.impl.topology.PositionVector;
+
+/**
+ * Uniform grid over the bounding boxes of a list of {@link Obstacle}s. Returns
+ * the obstacles whose bounding box is crossed by a line segment, so that only
+ * those have to be tested with the (expensive) polygon operations.
+ * 
+ * The index is immutable and may be queried concurrently. It has to be rebuilt
+ * if the list of obstacles or the shape of an obstacle changes.
+ */
+public class ObstacleIndex {
+
+	private static final int[] NO_OBSTACLES = new int[0];
+
+	private final List<Obstacle> obstacles;
+
+	private final double cellSize;
+
+	private final double[] minX, minY, maxX, maxY;
+
+	/*
+	 * Indices of the obstacles whose bounding box overlaps the cell, ascending
+	 */
+	private final Map<Long, int[]> cells = new HashMap<Long, int[]>();
+
+	/**
+	 * 
+	 * @param obstacles
+	 * @param cellSize
+	 *            edge length of a cell, should be in the order of the length
+	 *            of the queried segments (e.g., the radio range)
+	 */
+	public ObstacleIndex(List<Obstacle> obstacles, double cellSize) {
+		if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+			throw new IllegalArgumentException("Invalid cell size " + cellSize);
+		}
+		this.obstacles = new ArrayList<Obstacle>(obstacles);
+		this.cellSize = cellSize;
+		int count = this.obstacles.size();
+		this.minX = new double[count];
+		this.minY = new double[count];
+		this.maxX = new double[count];
+		this.maxY = new double[count];
+
+		Map<Long, List<Integer>> cellContents = new HashMap<Long, List<Integer>>();
+		for (int i = 0; i < count; i++) {
+			Envelope box = this.obstacles.get(i).getGeometry()
+					.getEnvelopeInternal();
+			minX[i] = box.getMinX();
+			minY[i] = box.getMinY();
+			maxX[i] = box.getMaxX();
+			maxY[i] = box.getMaxY();
+			for (int x = toIndex(minX[i]); x <= toIndex(maxX[i]); x++) {
+				for (int y = toIndex(minY[i]); y <= toIndex(maxY[i]); y++) {
+					List<Integer> contents = cellContents.get(toCell(x, y));
+					if (contents == null) {
+						contents = new ArrayList<Integer>(4);
+						cellContents.put(toCell(x, y), contents);
+					}
+					contents.add(i);
+				}
+			}
+		}
+		for (Map.Entry<Long, List<Integer>> entry : cellContents.entrySet()) {
+			int[] indices = new int[entry.getValue().size()];
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = entry.getValue().get(i);
+			}
+			cells.put(entry.getKey(), indices);
+		}
+	}
+
+	public int size() {
+		return obstacles.size();
+	}
+
+	/**
+	 * All obstacles whose bounding box is crossed by the segment between a and
+	 * b, in the order of the list the index was built from.
+	 * 
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	public List<Obstacle> getCandidates(PositionVector a, PositionVector b) {
+		double ax = a.getX(), ay = a.getY(), bx = b.getX(), by = b.getY();
+		int[] found = NO_OBSTACLES;
+		int foundCount = 0;
+		int maxCellX = toIndex(Math.max(ax, bx));
+		int maxCellY = toIndex(Math.max(ay, by));
+		for (int x = toIndex(Math.min(ax, bx)); x <= maxCellX; x++) {
+			for (int y = toIndex(Math.min(ay, by)); y <= maxCellY; y++) {
+				int[] indices = cells.get(toCell(x, y));
+				if (indices == null) {
+					continue;
+				}
+				if (foundCount + indices.length > found.length) {
+					found = Arrays.copyOf(found, Math.max(
+							foundCount + indices.length, found.length * 2));
+				}
+				System.arraycopy(indices, 0, found, foundCount,
+						indices.length);
+				foundCount += indices.length;
+			}
+		}
+		/*
+		 * Obstacles spanning multiple cells are found more than once. Sorting
+		 * the indices skips them without any state shared between queries.
+		 */
+		Arrays.sort(found, 0, foundCount);
+		List<Obstacle> candidates = new ArrayList<Obstacle>(0);
+		for (int i = 0; i < foundCount; i++) {
+			int index = found[i];
+			if (i > 0 && found[i - 1] == index) {
+				continue;
+			}
+			if (crossesBox(ax, ay, bx, by, index)) {
+				candidates.add(obstacles.get(index));
+			}
+		}
+		return candidates;
+	}
+
+	/*
+	 * Slab test of the segment against the bounding box of the obstacle
+	 */
+	private boolean crossesBox(double ax, double ay, double bx, double by,
+			int index) {
+		double tMin = 0;
+		double tMax = 1;
+		double dx = bx - ax;
+		if (dx == 0) {
+			if (ax < minX[index] || ax > maxX[index]) {
+				return false;
+			}
+		} else {
+			double t1 = (minX[index] - ax) / dx;
+			double t2 = (maxX[index] - ax) / dx;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax) {
+				return false;
+			}
+		}
+		double dy = by - ay;
+		if (dy == 0) {
+			return ay >= minY[index] && ay <= maxY[index];
+		}
+		double t1 = (minY[index] - ay) / dy;
+		double t2 = (maxY[index] - ay) / dy;
+		tMin = Math.max(tMin, Math.min(t1, t2));
+		tMax = Math.min(tMax, Math.max(t1, t2));
+		return tMin <= tMax;
+	}
+
+	private int toIndex(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long toCell(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+}
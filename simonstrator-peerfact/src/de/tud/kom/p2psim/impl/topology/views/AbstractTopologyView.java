@@ -38,6 +38,8 @@ import de.tud.kom.p2psim.api.topology.TopologyComponent;
 import de.tud.kom.p2psim.api.topology.views.DropProbabilityDeterminator;
 import de.tud.kom.p2psim.api.topology.views.LatencyDeterminator;
 import de.tud.kom.p2psim.api.topology.views.TopologyView;
+import de.tud.kom.p2psim.impl.simengine.Scheduler;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tud.kom.p2psim.impl.topology.PositionVector;
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
@@ -203,11 +205,40 @@ public abstract class AbstractTopologyView<L extends DefaultLink> implements
 						MacAddress destination, Link link) {
 					return getPhyType().getDefaultLatency();
 				}
+
+				@Override
+				public long getMinimumLatency() {
+					return getPhyType().getDefaultLatency();
+				}
 			};
 		}
 		return latencyDeterminator;
 	}
 
+	/**
+	 * Lower bound for the latency of all links in this view, as determined by
+	 * the {@link LatencyDeterminator}. Used as lookahead when the scheduler
+	 * runs in parallel mode.
+	 * 
+	 * @return
+	 */
+	public long getMinimumLinkLatency() {
+		return getLatencyDeterminator().getMinimumLatency();
+	}
+
+	/**
+	 * Whether this view can be used while the scheduler runs in parallel
+	 * mode. Links and neighborhoods are cached for all hosts and therefore
+	 * only accessed in sequential order (see
+	 * {@link Scheduler#awaitSequentialOrder()}). Views that let hosts modify
+	 * the state of other hosts directly have to return false.
+	 * 
+	 * @return
+	 */
+	public boolean isParallelExecutionSupported() {
+		return true;
+	}
+
 	/**
 	 * Access the {@link LatencyDeterminator} of this View. If no
 	 * {@link LatencyDeterminator} is configured, this will return the latency
@@ -346,11 +377,13 @@ public abstract class AbstractTopologyView<L extends DefaultLink> implements
 
 	@Override
 	public final L getLinkBetween(MacAddress source, MacAddress destination) {
+		Simulator.getScheduler().awaitSequentialOrder();
 		return getCachedLink(source, destination);
 	}
 
 	@Override
 	public final List<MacAddress> getNeighbors(MacAddress address) {
+		Simulator.getScheduler().awaitSequentialOrder();
 		return Collections.unmodifiableList(getCachedNeighborhood(address));
 	}
 
@@ -426,13 +459,51 @@ public abstract class AbstractTopologyView<L extends DefaultLink> implements
 				link.setOutdated(true);
 			}
 		}
-		if (movementSupported && link.isOutdated()) {
+		if (movementSupported && isLinkOutdated(link)) {
 			updateOutdatedLink(link);
 			link.setOutdated(false);
 		}
 		return link;
 	}
 
+	/**
+	 * Decides whether a cached link has to be updated via updateOutdatedLink()
+	 * before it is returned. The default implementation relies on the
+	 * <i>outdated</i>-Flag of the link. Views that track movement per host may
+	 * override this to invalidate links lazily instead of flagging all of
+	 * them.
+	 * 
+	 * @param link
+	 * @return
+	 */
+	protected boolean isLinkOutdated(L link) {
+		return link.isOutdated();
+	}
+
+	/**
+	 * All links starting at the given source that are currently cached
+	 * (without triggering an update of outdated links)
+	 * 
+	 * @param source
+	 * @return
+	 */
+	protected Collection<L> getCachedLinks(MacAddress source) {
+		return Collections.unmodifiableCollection(linkCache.get(source)
+				.values());
+	}
+
+	/**
+	 * Drops the link from the cache, a subsequent request will create a new
+	 * link. Views may use this to keep the cache limited to links between
+	 * hosts that are close to each other.
+	 * 
+	 * @param source
+	 * @param destination
+	 */
+	protected void removeCachedLink(MacAddress source, MacAddress destination) {
+		linkCache.get(source).remove(destination);
+	}
+
 	/**
 	 * Return the cached neighborhood for the source. This will call
 	 * updateNeighborhood if there is no neighborhood in the cache or the
@@ -98,6 +98,8 @@ public class LogicalWifiTopologyView extends WifiTopologyView
 
 	private LinkedHashMap<MacAddress, INode> macAddressToNode = new LinkedHashMap<>();
 
+	private Map<MacAddress, LogicalWiFiTopology> topologyOfMac = new LinkedHashMap<>();
+
 	public LogicalWifiTopologyView(PhyType phy) {
 		super(phy);
 	}
@@ -151,6 +153,7 @@ public class LogicalWifiTopologyView extends WifiTopologyView
 		super.addedMac(mac);
 		LogicalWiFiTopology udgTopo = new LogicalWiFiTopology(mac.getHost());
 		mac.getHost().registerComponent(udgTopo);
+		topologyOfMac.put(mac.getMacAddress(), udgTopo);
 		createNodeToMacAddressMapping(udgTopo.getNode(LOGICAL_TOPOLOGY_ID),
 				mac.getMacAddress());
 	}
@@ -197,6 +200,23 @@ public class LogicalWifiTopologyView extends WifiTopologyView
 		}
 	}
 
+	/**
+	 * An outdated neighborhood might change the local views of the host in
+	 * both topologies, so observers of the host's {@link LogicalWiFiTopology}
+	 * are notified.
+	 */
+	@Override
+	protected void markNeighborsOutdated(MacAddress address,
+			boolean isOutdated) {
+		super.markNeighborsOutdated(address, isOutdated);
+		if (isOutdated) {
+			LogicalWiFiTopology topology = topologyOfMac.get(address);
+			if (topology != null) {
+				topology.notifyTopologyObservers();
+			}
+		}
+	}
+
 	/**
 	 * Adds a directed edge incrementally to the topology
 	 */
@@ -415,6 +435,22 @@ public class LogicalWifiTopologyView extends WifiTopologyView
 			throw new AssertionError();
 		}
 
+		/**
+		 * The shared {@link LocalGraphView} behind
+		 * {@link #getLocalView(TopologyID)}, e.g., to observe its changes
+		 *
+		 * @param topologyIdentifier
+		 * @return
+		 */
+		public LocalGraphView getGraphView(TopologyID topologyIdentifier) {
+			if (topologyIdentifier.equals(UDG_TOPOLOGY_ID)) {
+				return udgGraphView;
+			} else if (topologyIdentifier.equals(LOGICAL_TOPOLOGY_ID)) {
+				return adaptedGraphView;
+			}
+			throw new AssertionError();
+		}
+
 		@Override
 		public Iterable<TopologyID> getTopologyIdentifiers() {
 			return topoIds;
@@ -508,5 +544,22 @@ public class LogicalWifiTopologyView extends WifiTopologyView
 			topologyObservers.add(observer);
 		}
 
+		/**
+		 * Observers are notified whenever the neighborhood of the host is
+		 * marked outdated, which covers movement and logical edge changes.
+		 */
+		@Override
+		public boolean isReportingAllChanges(TopologyID topologyIdentifier) {
+			return topoIds.contains(topologyIdentifier);
+		}
+
+		private void notifyTopologyObservers() {
+			for (TopologyObserver observer : topologyObservers) {
+				for (TopologyID topologyId : topoIds) {
+					observer.topologyChanged(this, topologyId);
+				}
+			}
+		}
+
 	}
 }
\ No newline at end of file
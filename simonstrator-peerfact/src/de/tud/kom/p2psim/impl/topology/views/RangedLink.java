@@ -37,6 +37,12 @@ public class RangedLink extends DefaultLink {
 
 	private double currentDistance = 0;
 
+	/**
+	 * Movement counter of the {@link RangedTopologyView} at the time this link
+	 * was last updated.
+	 */
+	private long lastUpdate = 0;
+
 	/**
 	 * 
 	 * @param source
@@ -85,6 +91,14 @@ public class RangedLink extends DefaultLink {
 		setConnected(distance < maxDistance);
 	}
 
+	long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	void setLastUpdate(long lastUpdate) {
+		this.lastUpdate = lastUpdate;
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + " distance: " + currentDistance;
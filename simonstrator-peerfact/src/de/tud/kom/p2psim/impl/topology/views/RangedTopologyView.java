@@ -21,13 +21,15 @@
 package de.tud.kom.p2psim.impl.topology.views;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
 
 import de.tud.kom.p2psim.api.linklayer.mac.Link;
 import de.tud.kom.p2psim.api.linklayer.mac.MacAddress;
@@ -35,9 +37,15 @@ import de.tud.kom.p2psim.api.linklayer.mac.MacLayer;
 import de.tud.kom.p2psim.api.linklayer.mac.PhyType;
 import de.tud.kom.p2psim.api.topology.obstacles.Obstacle;
 import de.tud.kom.p2psim.api.topology.obstacles.ObstacleModel;
+import de.tud.kom.p2psim.api.topology.obstacles.ObstacleModelListener;
 import de.tud.kom.p2psim.api.topology.waypoints.WaypointModel;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
+import de.tud.kom.p2psim.impl.topology.PositionVector;
+import de.tud.kom.p2psim.impl.topology.obstacles.ObstacleIndex;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring;
 import de.tud.kom.p2psim.impl.util.LiveMonitoring.ProgressValue;
+import de.tud.kom.p2psim.impl.util.structures.IndexedMinHeap;
+import de.tud.kom.p2psim.impl.util.structures.SpatialGrid;
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.sensor.location.Location;
@@ -56,6 +64,11 @@ import de.tudarmstadt.maki.simonstrator.api.util.XMLConfigurableConstructor;
  * you might find it useful to alter some parameters of the
  * Dijkstra-Implementation - they are commented in the Dijkstra-subclass.
  * 
+ * Neighborhoods are calculated based on a {@link SpatialGrid} with a cell size
+ * of {@link #getNeighborhoodRadius()}, so only hosts in adjacent cells are
+ * considered. On movement, only the links of the moving host and the
+ * neighborhoods of hosts close to it are invalidated.
+ * 
  * @author Bjoern Richerzhagen
  * @version 1.0, 07.03.2012
  */
@@ -66,11 +79,6 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 	 */
 	private double range = 150;
 
-	/**
-	 * Just a List of all Links
-	 */
-	private List<RangedLink> linkList = new ArrayList<RangedLink>();
-
 	/**
 	 * These are used for the GlobalKnowledge-Functions
 	 */
@@ -81,17 +89,62 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 	 */
 	protected List<MacAddress> allMacAddresses = new ArrayList<MacAddress>();
 
+	/**
+	 * Position of a MAC in allMacAddresses, used to keep neighborhoods in a
+	 * stable order
+	 */
+	private Map<MacAddress, Integer> macIndex = new HashMap<MacAddress, Integer>();
+
+	private final Comparator<MacAddress> macOrder = new Comparator<MacAddress>() {
+		@Override
+		public int compare(MacAddress o1, MacAddress o2) {
+			return Integer.compare(macIndex.get(o1), macIndex.get(o2));
+		}
+	};
+
+	private Map<Host, MacAddress> macOfHost = new HashMap<Host, MacAddress>();
+
+	/**
+	 * Spatial index on the positions of all hosts, created lazily as the
+	 * range is usually not known before all MACs are added.
+	 */
+	private SpatialGrid<MacAddress> grid;
+
+	/**
+	 * Counts calls to onLocationChanged, a link is outdated if one of its
+	 * hosts moved after the link has been updated for the last time.
+	 */
+	private long movementCounter = 0;
+
+	private Map<MacAddress, Long> lastMovement = new HashMap<MacAddress, Long>();
+
 	/**
 	 * A Pointer to the Obstacle Model
 	 */
 	private ObstacleModel obstacleModel;
 
+	/**
+	 * Grid over the obstacles of the model, built lazily and dropped as soon
+	 * as the model reports a change.
+	 */
+	private ObstacleIndex obstacleIndex;
+
+	private List<Obstacle> indexedObstacles;
+
+	private final ObstacleModelListener obstacleListener = new ObstacleModelListener() {
+		@Override
+		public void addedObstacle(Obstacle obstacle) {
+			obstacleIndex = null;
+		}
+	};
+
 	/**
 	 * A Pointer to the Waypoint Model
 	 */
 	private WaypointModel waypointModel;
 
-	public static long _dijkstraCalculated, _dijkstraCached, _dijkstraPartly;
+	public static long _dijkstraCalculated, _dijkstraCached, _dijkstraPartly,
+			_dijkstraRepaired;
 
 	/**
 	 * This View supports movement as well as obstacles (at least in a very
@@ -116,20 +169,20 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 	@Override
 	protected void addedMac(MacLayer mac) {
 		dijkstras.put(mac.getMacAddress(), new Dijkstra(mac.getMacAddress()));
+		macIndex.put(mac.getMacAddress(), allMacAddresses.size());
 		allMacAddresses.add(mac.getMacAddress());
+		macOfHost.put(mac.getHost(), mac.getMacAddress());
+		// rebuild the index including the new host
+		grid = null;
 	}
 
 	@Override
 	protected RangedLink createLink(MacAddress source, MacAddress destination) {
-		RangedLink link = new RangedLink(source, destination, true,
+		return new RangedLink(source, destination, true,
 				determineLinkDropProbability(source, destination),
 				determineLinkBandwidth(source, destination),
 				determineLinkLatency(source, destination), getPhyType()
 						.getDefaultMTU(), getRange());
-		synchronized (linkList) {
-			linkList.add(link);
-		}
-		return link;
 	}
 
 	/**
@@ -148,6 +201,16 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		this.range = range;
 	}
 
+	/**
+	 * Maximum distance between two hosts that are considered during the
+	 * calculation of a neighborhood. Used as cell size of the spatial index.
+	 * 
+	 * @return
+	 */
+	protected double getNeighborhoodRadius() {
+		return getRange();
+	}
+
 	@Override
 	public Link getBestNextLink(MacAddress source, MacAddress lastHop,
 			MacAddress currentHop, MacAddress destination) {
@@ -162,8 +225,9 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		/*
 		 * Dijkstra-Based implementation, try to use the one-time calculated
 		 * path - this also prevents loops due to equi-distant nodes in a
-		 * grid-setting.
+		 * grid-setting. The paths are cached for all hosts.
 		 */
+		Simulator.getScheduler().awaitSequentialOrder();
 		List<RangedLink> path = dijkstras.get(source).getPath(destination);
 		RangedLink toReturn = null;
 		for (RangedLink link : path) {
@@ -199,12 +263,25 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 
 	@Override
 	protected List<MacAddress> updateNeighborhood(MacAddress source) {
+		return updateNeighborhood(source, getNeighborCandidates(source));
+	}
+
+	/**
+	 * Neighborhood calculation on a precomputed set of candidates, see
+	 * {@link #getNeighborCandidates(MacAddress)}
+	 * 
+	 * @param source
+	 * @param candidates
+	 * @return
+	 */
+	protected List<MacAddress> updateNeighborhood(MacAddress source,
+			Collection<MacAddress> candidates) {
 		/*
 		 * We cache this information as well to reach consistency between
 		 * getNeighbors and Link-Information.
 		 */
 		List<MacAddress> updatedNeighbors = new ArrayList<MacAddress>();
-		for (MacAddress neighbor : allMacAddresses) {
+		for (MacAddress neighbor : candidates) {
 			RangedLink link = getLinkBetween(source, neighbor);
 			if (link.isConnected()) {
 				assert !neighbor.equals(source);
@@ -213,30 +290,128 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		}
 		return updatedNeighbors;
 	}
-	
+
+	/**
+	 * All hosts that might be within {@link #getNeighborhoodRadius()} of the
+	 * source, in the order of allMacAddresses. Cached links to hosts that are
+	 * no longer close to the source are updated one last time (so that
+	 * extending views notice the disconnect) and removed from the cache.
+	 * 
+	 * @param source
+	 * @return
+	 */
+	protected List<MacAddress> getNeighborCandidates(MacAddress source) {
+		SpatialGrid<MacAddress> grid = getGrid();
+		if (grid == null) {
+			List<MacAddress> candidates = new ArrayList<MacAddress>(
+					allMacAddresses);
+			candidates.remove(source);
+			return candidates;
+		}
+		Set<MacAddress> nearby = new HashSet<MacAddress>();
+		grid.getNearby(source, nearby);
+		nearby.remove(source);
+		List<RangedLink> cachedLinks = new ArrayList<RangedLink>(
+				getCachedLinks(source));
+		for (RangedLink link : cachedLinks) {
+			MacAddress destination = link.getDestination();
+			if (!nearby.contains(destination)
+					&& !getLinkBetween(source, destination).isConnected()) {
+				removeCachedLink(source, destination);
+			} else {
+				nearby.add(destination);
+			}
+		}
+		List<MacAddress> candidates = new ArrayList<MacAddress>(nearby);
+		Collections.sort(candidates, macOrder);
+		return candidates;
+	}
+
+	/**
+	 * The spatial index, (re-)built if the neighborhood radius changed.
+	 * Returns null if the radius does not allow for a grid.
+	 * 
+	 * @return
+	 */
+	private SpatialGrid<MacAddress> getGrid() {
+		double radius = getNeighborhoodRadius();
+		if (!(radius > 0) || Double.isInfinite(radius)) {
+			grid = null;
+			return null;
+		}
+		if (grid == null || grid.getCellSize() != radius) {
+			grid = new SpatialGrid<MacAddress>(radius);
+			for (MacAddress mac : allMacAddresses) {
+				PositionVector position = getCachedPosition(mac);
+				grid.update(mac, position.getX(), position.getY());
+				markNeighborsOutdated(mac, true);
+			}
+		}
+		return grid;
+	}
+
 	long lastMovementTime = 0;
-	
+
 	@Override
 	public void onLocationChanged(Host host, Location location) {
-		super.onLocationChanged(host, location);
+		/*
+		 * We do not call super, as it would mark all neighborhoods as
+		 * outdated.
+		 */
 		if (lastMovementTime != Time.getCurrentTime()) {
 			lastMovementTime = Time.getCurrentTime();
-			/*
-			 * mark all links as outdated
-			 */
-			synchronized (linkList) {
-				for (RangedLink link : linkList) {
-					link.setOutdated(true);
-				}
-				for (Dijkstra dijkstra : dijkstras.values()) {
-					dijkstra.afterComponentsMoved();
-				}
+			for (Dijkstra dijkstra : dijkstras.values()) {
+				dijkstra.afterComponentsMoved();
 			}
 		}
+		MacAddress moved = macOfHost.get(host);
+		if (moved == null) {
+			return;
+		}
+		/*
+		 * Links of the host are updated lazily, see isLinkOutdated
+		 */
+		movementCounter++;
+		lastMovement.put(moved, movementCounter);
+		markNeighborsOutdated(moved, true);
+
+		if (grid == null) {
+			for (MacAddress mac : allMacAddresses) {
+				markNeighborsOutdated(mac, true);
+			}
+			return;
+		}
+		/*
+		 * Hosts close to the old or the new position might gain or lose the
+		 * moving host as neighbor.
+		 */
+		Set<MacAddress> affected = new HashSet<MacAddress>();
+		grid.getNearby(moved, affected);
+		PositionVector position = getCachedPosition(moved);
+		if (grid.update(moved, position.getX(), position.getY())) {
+			grid.getNearby(moved, affected);
+		}
+		for (MacAddress mac : affected) {
+			markNeighborsOutdated(mac, true);
+		}
+	}
+
+	@Override
+	protected boolean isLinkOutdated(RangedLink link) {
+		return link.isOutdated()
+				|| link.getLastUpdate() < getLastMovement(link.getSource())
+				|| link.getLastUpdate() < getLastMovement(link
+						.getDestination());
+	}
+
+	private long getLastMovement(MacAddress mac) {
+		Long movement = lastMovement.get(mac);
+		return movement == null ? 0 : movement;
 	}
 
 	@Override
 	protected void updateOutdatedLink(RangedLink link) {
+		link.setLastUpdate(movementCounter);
 		link.updateNodeDistance(getCachedPosition(link.getSource())
 				.distanceTo(getCachedPosition(link.getDestination())));
 
@@ -261,7 +436,9 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		 */
 		if (link.isConnected() && obstacleModel != null) {
 			double rangeWeighted = 0;
-			for (Obstacle obstacle : obstacleModel.getObstacles()) {
+			for (Obstacle obstacle : getObstaclesOnLink(
+					getCachedPosition(link.getSource()),
+					getCachedPosition(link.getDestination()))) {
 				if (obstacle.dampingFactor() == 0) {
 					continue;
 				}
@@ -310,37 +487,6 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 	 */
 	private class Dijkstra {
 
-		/**
-		 * A vertex inside Dijkstra - this is used for the {@link PriorityQueue}
-		 * -based implementation.
-		 * 
-		 * @author Bjoern Richerzhagen
-		 * @version 1.0, 26.03.2012
-		 */
-		private class Vertex implements Comparable<Vertex> {
-
-			public MacAddress mac;
-
-			public double minDistance = Double.POSITIVE_INFINITY;
-
-			public Vertex previous = null;
-
-			public Vertex(MacAddress mac) {
-				this.mac = mac;
-			}
-
-			public void reset() {
-				this.minDistance = Double.POSITIVE_INFINITY;
-				this.previous = null;
-			}
-
-			@Override
-			public int compareTo(Vertex o) {
-				return Double.compare(minDistance, o.minDistance);
-			}
-
-		}
-
 		/**
 		 * To choose a "robust" path, Dijkstra only selects connected Links
 		 * where the node distance is less than the maxDistance minus this
@@ -360,21 +506,24 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		 */
 		private int MOVEMENT_THRESHOLD = 5;
 
-		private final boolean USE_NEW = true;
-
 		private int movement_counter = 0;
 
-		private MacAddress source;
-
-		private Map<MacAddress, Double> dist = new HashMap<MacAddress, Double>();
+		private final MacAddress source;
 
-		private Map<MacAddress, MacAddress> previous = new HashMap<MacAddress, MacAddress>();
-
-		private List<MacAddress> q = new LinkedList<MacAddress>();
+		/*
+		 * Shortest path tree, indexed by the position of a MAC in
+		 * allMacAddresses. previous is -1 for the source and for unreachable
+		 * MACs.
+		 */
+		private double[] dist = new double[0];
 
-		private PriorityQueue<Vertex> vertexQueue = new PriorityQueue<Vertex>();
+		private int[] previous = new int[0];
 
-		private HashMap<MacAddress, Vertex> toVertex = new HashMap<MacAddress, RangedTopologyView.Dijkstra.Vertex>();
+		/*
+		 * Owned by this instance (like the tree above), so that paths from
+		 * different sources can be requested concurrently
+		 */
+		private IndexedMinHeap heap;
 
 		private boolean recalculate = true;
 
@@ -395,189 +544,216 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 		}
 
 		public List<RangedLink> getPath(MacAddress destination) {
-
-			if (recalculate) {
+			boolean calculated = false;
+			if (recalculate || dist.length != allMacAddresses.size()) {
 				movement_counter = 0;
-				initialize();
 				calculate();
+				calculated = true;
 			}
+			recalculate = false;
 
-			boolean pathBroken = false;
-			List<RangedLink> path = new LinkedList<RangedLink>();
-
-			if (USE_NEW) {
-				for (Vertex vertex = toVertex.get(destination); vertex.previous != null; vertex = vertex.previous) {
-					RangedLink link = getLinkBetween(vertex.previous.mac,
-							vertex.mac);
-
-					assert !link.isOutdated();
-
-					path.add(link);
-					if (!link.isConnected()) {
-						pathBroken = true;
-					}
+			int target = macIndex.get(destination);
+			List<RangedLink> path = new ArrayList<RangedLink>();
+			List<Integer> broken = collectPath(target, path);
+
+			if (!broken.isEmpty() && !calculated) {
+				/*
+				 * Only the subtrees below the broken links have to be
+				 * re-calculated. The new path may still contain broken links
+				 * of other subtrees, or the destination may no longer be
+				 * reachable. In both cases, we fall back to a complete
+				 * calculation.
+				 */
+				repair(broken);
+				path.clear();
+				broken = collectPath(target, path);
+				if (!broken.isEmpty() || previous[target] < 0) {
+					calculate();
+					path.clear();
+					broken = collectPath(target, path);
 				}
-				Collections.reverse(path);
+			}
+
+			if (!broken.isEmpty()) {
+				path.clear();
 			} else {
-				List<MacAddress> pathMacs = new LinkedList<MacAddress>();
-				MacAddress u = destination;
-				while (previous.get(u) != null) {
-					pathMacs.add(u);
-					u = previous.get(u);
-				}
-				pathMacs.add(u);
-				Collections.reverse(pathMacs);
-
-				Iterator<MacAddress> it = pathMacs.iterator();
-				MacAddress prevHop = null;
-				while (it.hasNext() && !pathBroken) {
-					if (prevHop == null) {
-						prevHop = it.next();
-						continue;
-					}
-					MacAddress actHop = it.next();
-					RangedLink l = getLinkBetween(prevHop, actHop);
-					path.add(l);
-					prevHop = actHop;
+				_dijkstraCached++;
+			}
+			return path;
+		}
+
+		/**
+		 * Adds the links from the source to the target to path and returns the
+		 * MACs (as index) where the link towards them is no longer connected.
+		 * 
+		 * @param target
+		 * @param path
+		 * @return
+		 */
+		private List<Integer> collectPath(int target, List<RangedLink> path) {
+			List<Integer> broken = Collections.emptyList();
+			for (int v = target; previous[v] >= 0; v = previous[v]) {
+				RangedLink link = getLinkBetween(
+						allMacAddresses.get(previous[v]), allMacAddresses.get(v));
 
-					assert !l.isOutdated();
+				assert !link.isOutdated();
 
-					if (!l.isConnected()) {
-						pathBroken = true;
+				path.add(link);
+				if (!link.isConnected()) {
+					if (broken.isEmpty()) {
+						broken = new ArrayList<Integer>();
 					}
+					broken.add(v);
 				}
-
-				// if (pathMacs.size() == 1) {
-				// pathBroken = true; // no path at all.
-				// }
 			}
+			Collections.reverse(path);
+			return broken;
+		}
 
-			if (pathBroken && !recalculate) {
-				recalculate = true;
-				return getPath(destination);
-			} else if (pathBroken) {
-				path.clear();
+		private IndexedMinHeap getHeap() {
+			if (heap == null || heap.capacity() != dist.length) {
+				heap = new IndexedMinHeap(dist.length);
 			} else {
-				_dijkstraCached++;
+				heap.clear();
 			}
-
-			recalculate = false;
-			return path;
+			return heap;
 		}
 
 		private void calculate() {
 			_dijkstraCalculated++;
+			int size = allMacAddresses.size();
+			if (dist.length != size) {
+				dist = new double[size];
+				previous = new int[size];
+			}
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			Arrays.fill(previous, -1);
+
+			int sourceIndex = macIndex.get(source);
+			dist[sourceIndex] = 0;
+			IndexedMinHeap heap = getHeap();
+			heap.insertOrDecrease(sourceIndex, 0);
+			run(heap);
+		}
 
-			if (USE_NEW) {
-				// NEW
-				while (!vertexQueue.isEmpty()) {
-					Vertex u = vertexQueue.poll();
-
-					List<MacAddress> neighbors = getNeighbors(u.mac);
-					for (MacAddress neighbor : neighbors) {
-						RangedLink l = getLinkBetween(u.mac, neighbor);
-						Vertex v = toVertex.get(neighbor);
-
-						double weight = Double.POSITIVE_INFINITY;
-						if (l.isConnected()
-								&& l.getNodeDistance() + RANGE_THRESHOLD < l
-										.getMaxDistance()) {
-							weight = l.getNodeDistance();
-						}
-
-						assert (l.isConnected() && l.getNodeDistance() < l
-								.getMaxDistance()) || !l.isConnected();
-
-						double distanceWithU = u.minDistance + weight;
-						if (distanceWithU < v.minDistance) {
-							vertexQueue.remove(v);
-							v.minDistance = distanceWithU;
-							v.previous = u;
-							assert l.isConnected();
-							vertexQueue.add(v);
-						}
+		/**
+		 * Invalidates the subtrees of the shortest path tree below the given
+		 * MACs (and all unreachable MACs) and re-calculates them, starting
+		 * with the best link from a MAC that is still valid.
+		 * 
+		 * @param roots
+		 */
+		private void repair(List<Integer> roots) {
+			_dijkstraRepaired++;
+			int size = dist.length;
+			int sourceIndex = macIndex.get(source);
 
-					}
+			/*
+			 * 0 = unknown, 1 = valid, 2 = invalid
+			 */
+			byte[] state = new byte[size];
+			for (int root : roots) {
+				state[root] = 2;
+			}
+			state[sourceIndex] = 1;
+			int[] chain = new int[size];
+			for (int v = 0; v < size; v++) {
+				int length = 0;
+				int u = v;
+				while (state[u] == 0 && previous[u] >= 0) {
+					chain[length++] = u;
+					u = previous[u];
 				}
-			} else {
-				// OLD
-				while (!q.isEmpty()) {
-					// find smallest distance
-
-					double smallestDistance = Double.MAX_VALUE;
-					MacAddress u = null;
-					for (MacAddress candidate : q) {
-						if (u == null || dist.get(candidate) < smallestDistance) {
-							u = candidate;
-							smallestDistance = dist.get(candidate);
-						}
-					}
+				if (state[u] == 0) {
+					// unreachable
+					state[u] = 2;
+				}
+				byte uState = state[u];
+				while (length > 0) {
+					state[chain[--length]] = uState;
+				}
+			}
 
-					if (smallestDistance == Double.MAX_VALUE) {
-						break; //
-					}
+			for (int v = 0; v < size; v++) {
+				if (state[v] == 2) {
+					dist[v] = Double.POSITIVE_INFINITY;
+					previous[v] = -1;
+				}
+			}
 
-					q.remove(u);
-
-					List<MacAddress> neighbors = getNeighbors(u);
-					for (MacAddress neighbor : neighbors) {
-						RangedLink l = getLinkBetween(u, neighbor);
-						if (l.isConnected()
-								&& l.getNodeDistance() < l.getMaxDistance()
-										- RANGE_THRESHOLD) {
-							assert !l.isOutdated() : "Outdated Link!";
-							double alt = dist.get(u) + l.getNodeDistance();
-							if (alt < dist.get(neighbor)) {
-								dist.put(neighbor, new Double(alt));
-								previous.put(neighbor, u);
-							}
-						}
+			IndexedMinHeap heap = getHeap();
+			for (int v = 0; v < size; v++) {
+				if (state[v] != 2) {
+					continue;
+				}
+				MacAddress vMac = allMacAddresses.get(v);
+				for (MacAddress neighbor : getNeighbors(vMac)) {
+					int u = macIndex.get(neighbor);
+					if (state[u] != 1) {
+						continue;
 					}
+					double alt = dist[u]
+							+ getWeight(getLinkBetween(neighbor, vMac));
+					if (alt < dist[v]) {
+						dist[v] = alt;
+						previous[v] = u;
+					}
+				}
+				if (previous[v] >= 0) {
+					heap.insertOrDecrease(v, dist[v]);
 				}
 			}
+			run(heap);
 		}
 
-		private void initialize() {
-			if (USE_NEW) {
-				if (toVertex.isEmpty()) {
-					for (MacAddress macAddr : allMacAddresses) {
-						Vertex v = new Vertex(macAddr);
-						v.reset();
-						toVertex.put(macAddr, v);
+		private void run(IndexedMinHeap heap) {
+			while (!heap.isEmpty()) {
+				int u = heap.poll();
+				MacAddress uMac = allMacAddresses.get(u);
+
+				List<MacAddress> neighbors = getNeighbors(uMac);
+				for (MacAddress neighbor : neighbors) {
+					RangedLink l = getLinkBetween(uMac, neighbor);
+
+					assert (l.isConnected() && l.getNodeDistance() < l
+							.getMaxDistance()) || !l.isConnected();
+
+					double alt = dist[u] + getWeight(l);
+					int v = macIndex.get(neighbor);
+					if (alt < dist[v]) {
+						dist[v] = alt;
+						previous[v] = u;
+						assert l.isConnected();
+						heap.insertOrDecrease(v, alt);
 					}
-				} else {
-					for (Vertex v : toVertex.values()) {
-						v.reset();
-					}
-				}
-				Vertex sourceVertex = toVertex.get(source);
-				sourceVertex.minDistance = 0;
-				vertexQueue.clear();
-				vertexQueue.add(sourceVertex);
-			} else {
-				q = new ArrayList<MacAddress>(allMacAddresses);
-				for (MacAddress macAddr : allMacAddresses) {
-					dist.put(macAddr, Double.MAX_VALUE);
-					previous.put(macAddr, null);
 				}
-				dist.put(source, new Double(0));
 			}
 		}
 
+		private double getWeight(RangedLink l) {
+			if (l.isConnected()
+					&& l.getNodeDistance() + RANGE_THRESHOLD < l
+							.getMaxDistance()) {
+				return l.getNodeDistance();
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+
 	}
 
 	public class DijkstraMonitor implements ProgressValue {
 
 		@Override
 		public String getName() {
-			return "TopologyView Dijkstra (calc, cached, partly): ";
+			return "TopologyView Dijkstra (calc, cached, partly, repaired): ";
 		}
 
 		@Override
 		public String getValue() {
 			return Long.toString(_dijkstraCalculated) + " / "
 					+ Long.toString(_dijkstraCached) + " / "
-					+ Long.toString(_dijkstraPartly);
+					+ Long.toString(_dijkstraPartly) + " / "
+					+ Long.toString(_dijkstraRepaired);
 		}
 
 	}
@@ -589,7 +765,39 @@ public class RangedTopologyView extends AbstractTopologyView<RangedLink> {
 
 	@Override
 	public void changedObstacleModel(ObstacleModel model) {
+		if (this.obstacleModel != null) {
+			this.obstacleModel.removeListener(obstacleListener);
+		}
 		this.obstacleModel = model;
+		this.obstacleIndex = null;
+		if (model != null) {
+			model.addListener(obstacleListener);
+		}
+	}
+
+	/**
+	 * Returns the obstacles that might intersect with the line between the two
+	 * positions (in the order of the obstacle model), i.e., the obstacles whose
+	 * bounding box is crossed by the line.
+	 * 
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	protected List<Obstacle> getObstaclesOnLink(PositionVector a,
+			PositionVector b) {
+		List<Obstacle> obstacles = obstacleModel.getObstacles();
+		double cellSize = getNeighborhoodRadius();
+		if (obstacles.isEmpty() || !(cellSize > 0)
+				|| Double.isInfinite(cellSize)) {
+			return obstacles;
+		}
+		if (obstacleIndex == null || indexedObstacles != obstacles
+				|| obstacleIndex.size() != obstacles.size()) {
+			obstacleIndex = new ObstacleIndex(obstacles, cellSize);
+			indexedObstacles = obstacles;
+		}
+		return obstacleIndex.getCandidates(a, b);
 	}
 
 	public WaypointModel getWaypointModel() {
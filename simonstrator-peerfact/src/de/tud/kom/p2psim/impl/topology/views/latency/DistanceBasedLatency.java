@@ -69,4 +69,9 @@ public class DistanceBasedLatency implements LatencyDeterminator {
 		return baseLatency + (long) ((distance / 1000) * latencyPerKilometer);
 	}
 
+	@Override
+	public long getMinimumLatency() {
+		return baseLatency;
+	}
+
 }
@@ -78,4 +78,9 @@ public class StaticLatency implements LatencyDeterminator {
 		}
 	}
 
+	@Override
+	public long getMinimumLatency() {
+		return Math.max(0, staticLatency - doubleVariance / 2);
+	}
+
 }
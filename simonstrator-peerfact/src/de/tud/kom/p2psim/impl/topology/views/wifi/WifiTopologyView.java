@@ -165,8 +165,9 @@ public class WifiTopologyView extends RangedTopologyView {
 	@Override
 	protected List<MacAddress> updateNeighborhood(MacAddress source) {
 
+		List<MacAddress> candidates = getNeighborCandidates(source);
 		List<MacAddress> csNeighbors = new ArrayList<MacAddress>();
-		for (MacAddress neighbor : allMacAddresses) {
+		for (MacAddress neighbor : candidates) {
 			if (!source.equals(neighbor)) {
 				RangedLink link = getLinkBetween(source, neighbor);
 				if (link.getNodeDistance() < csRange) {
@@ -178,7 +179,15 @@ public class WifiTopologyView extends RangedTopologyView {
 
 		cachedCSNeighbors.put(source, csNeighbors);
 
-		return super.updateNeighborhood(source);
+		return super.updateNeighborhood(source, candidates);
+	}
+
+	/**
+	 * The carrier sense range is usually larger than the communication range.
+	 */
+	@Override
+	protected double getNeighborhoodRadius() {
+		return Math.max(getRange(), csRange);
 	}
 
 	/**
@@ -204,6 +213,15 @@ public class WifiTopologyView extends RangedTopologyView {
 		return interferenceHelper;
 	}
 
+	/**
+	 * The {@link InterferenceHelper} keeps the ongoing transmissions of all
+	 * hosts, they affect other hosts without any propagation delay.
+	 */
+	@Override
+	public boolean isParallelExecutionSupported() {
+		return false;
+	}
+
 	protected void setCSRange(double csRange) {
 		this.csRange = csRange;
 	}
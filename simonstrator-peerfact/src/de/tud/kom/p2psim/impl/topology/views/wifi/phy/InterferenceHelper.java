@@ -20,12 +20,17 @@
 
 package de.tud.kom.p2psim.impl.topology.views.wifi.phy;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.Vector;
 
 import de.tud.kom.p2psim.api.common.SimHost;
@@ -36,9 +41,11 @@ import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiMode;
 import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiPhy;
 import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiPhy.WifiPreamble;
 import de.tud.kom.p2psim.impl.linklayer.mac.wifi.Ieee80211AdHocMac;
+import de.tud.kom.p2psim.impl.topology.PositionVector;
 import de.tud.kom.p2psim.impl.topology.views.wifi.WifiTopologyView;
 import de.tud.kom.p2psim.impl.topology.views.wifi.phy.errormodel.NistErrorRateModel;
 import de.tud.kom.p2psim.impl.topology.views.wifi.phy.propagation.loss.LogDistancePropagationLossModel;
+import de.tud.kom.p2psim.impl.util.structures.SpatialGrid;
 import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Message;
@@ -117,9 +124,40 @@ public class InterferenceHelper implements EventHandler {
 	};
 
 	/**
-	 * Contains the actually interferences
+	 * Contains the actually interferences (in the order they were added)
 	 */
-	private List<Interference> interferences = new LinkedList<Interference>();
+	private Set<Interference> interferences = new LinkedHashSet<Interference>();
+
+	/**
+	 * The actually interferences, ordered by their end time, to remove expired
+	 * interferences without scanning all of them
+	 */
+	private PriorityQueue<Interference> interferencesByEndTime = new PriorityQueue<Interference>(
+			64, new Comparator<Interference>() {
+				@Override
+				public int compare(Interference o1, Interference o2) {
+					return Long.compare(o1.getEndTime(), o2.getEndTime());
+				}
+			});
+
+	/**
+	 * The actually interferences, indexed by the position of their source. The
+	 * cell size is the largest SAT radius of all interferences so far, so only
+	 * interferences in the adjacent cells can influence each other. Null, if
+	 * the SAT radius does not allow for a grid.
+	 */
+	private SpatialGrid<Interference> interferenceGrid;
+
+	/**
+	 * Largest SAT radius of all interferences so far
+	 */
+	private double maxSatRadius = 0;
+
+	/**
+	 * Number of added interferences, used to keep the order of interferences
+	 * that are taken from the grid
+	 */
+	private long interferenceCounter = 0;
 
 	private ErrorRateModel errorModel = new NistErrorRateModel();
 
@@ -274,7 +312,7 @@ public class InterferenceHelper implements EventHandler {
 	 */
 	private void addInterference(Interference interference) {
 		removeExpiredInterferences();
-		for (Interference i : interferences) {
+		for (Interference i : getInterferenceCandidates(interference)) {
 			interference.addInterference(i);
 			i.addInterference(interference);
 		}
@@ -289,23 +327,89 @@ public class InterferenceHelper implements EventHandler {
 		}
 
 		interferences.add(interference);
+		interferencesByEndTime.add(interference);
+		if (interferenceGrid != null) {
+			addToGrid(interference);
+		}
+	}
+
+	/**
+	 * Returns the actually interferences, whose source is close enough to the
+	 * source of the given interference to influence it (or to be influenced by
+	 * it) according to the SAT. The interferences are returned in the order
+	 * they were added. If the SAT radius does not allow for a grid or the
+	 * source is not a {@link PositionVector}, all interferences are returned.
+	 * 
+	 * @param interference
+	 * @return
+	 */
+	private Collection<Interference> getInterferenceCandidates(
+			Interference interference) {
+		double radius = calculateMaximalSatRadius(interference.getTxPowerDbm());
+		if (interferenceGrid == null) {
+			// the SAT radius of the actually interferences is not known
+			for (Interference i : interferences) {
+				radius = Math.max(radius,
+						calculateMaximalSatRadius(i.getTxPowerDbm()));
+			}
+		}
+		if (radius > maxSatRadius) {
+			maxSatRadius = radius;
+		}
+		if (!(maxSatRadius > 0) || Double.isInfinite(maxSatRadius)
+				|| !(interference.getSourcePosition() instanceof PositionVector)) {
+			interferenceGrid = null;
+			return interferences;
+		}
+		if (interferenceGrid == null
+				|| interferenceGrid.getCellSize() < maxSatRadius) {
+			interferenceGrid = new SpatialGrid<Interference>(maxSatRadius);
+			for (Interference i : interferences) {
+				if (!addToGrid(i)) {
+					interferenceGrid = null;
+					return interferences;
+				}
+			}
+		}
+
+		PositionVector position = (PositionVector) interference
+				.getSourcePosition();
+		List<Interference> candidates = new ArrayList<Interference>();
+		interferenceGrid.getNearby(position.getX(), position.getY(),
+				candidates);
+		Collections.sort(candidates);
+		return candidates;
+	}
 
+	/**
+	 * Adds the interference to the grid
+	 * 
+	 * @param interference
+	 * @return false, if the source of the interference is not a
+	 *         {@link PositionVector}
+	 */
+	private boolean addToGrid(Interference interference) {
+		if (!(interference.getSourcePosition() instanceof PositionVector)) {
+			return false;
+		}
+		PositionVector position = (PositionVector) interference
+				.getSourcePosition();
+		interferenceGrid.update(interference, position.getX(), position.getY());
+		return true;
 	}
 
 	/**
 	 * Remove expired interferences from the list of interferences.
 	 */
 	private void removeExpiredInterferences() {
-		List<Interference> toDelete = new LinkedList<Interference>();
 		long current = Time.getCurrentTime();
-		for (Interference i : interferences) {
-			if ((i.getEndTime() + 1) < current) {
-				toDelete.add(i);
-			}
-		}
-
-		for (Interference i : toDelete) {
+		while (!interferencesByEndTime.isEmpty()
+				&& (interferencesByEndTime.peek().getEndTime() + 1) < current) {
+			Interference i = interferencesByEndTime.poll();
 			interferences.remove(i);
+			if (interferenceGrid != null) {
+				interferenceGrid.remove(i);
+			}
 		}
 	}
 
@@ -581,6 +685,7 @@ public class InterferenceHelper implements EventHandler {
 
 	public void setLossModel(PropagationLossModel lossModel) {
 		satDistanceCache.clear();
+		resetInterferenceGrid();
 		this.lossModel = lossModel;
 	}
 
@@ -618,10 +723,20 @@ public class InterferenceHelper implements EventHandler {
 
 	public void setSatDbm(double satDbm) {
 		satDistanceCache.clear();
+		resetInterferenceGrid();
 		this.satDbm = satDbm;
 		this.satW = PropagationLossModel.dbmToW(satDbm);
 	}
 
+	/**
+	 * The SAT radius depends on the loss model and the SAT, so the grid has to
+	 * be rebuilt if one of them changes.
+	 */
+	private void resetInterferenceGrid() {
+		interferenceGrid = null;
+		maxSatRadius = 0;
+	}
+
 	/**
 	 * Calculate the maximal radius to the given transmission Power in dBm and
 	 * the receiver Power in dBm. It use the reverse function of the loss Model
@@ -675,7 +790,9 @@ public class InterferenceHelper implements EventHandler {
 	 * @author Christoph Muenker
 	 * @version 1.0, 01.03.2013
 	 */
-	private class Interference {
+	private class Interference implements Comparable<Interference> {
+		private final long sequenceNumber = interferenceCounter++;
+
 		private final NIChangeTime niChangeStart;
 
 		private final NIChangeTime niChangeEnd;
@@ -822,6 +939,11 @@ public class InterferenceHelper implements EventHandler {
 		public long getTransmissionDuration() {
 			return duration;
 		}
+
+		@Override
+		public int compareTo(Interference o) {
+			return Long.compare(sequenceNumber, o.sequenceNumber);
+		}
 	}
 
 	/**
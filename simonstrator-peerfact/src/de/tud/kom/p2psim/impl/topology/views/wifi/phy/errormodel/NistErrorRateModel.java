@@ -139,19 +139,19 @@ public class NistErrorRateModel extends AbstractErrorRateModel {
 		return 0;
 	}
 
-	private double getBpskBer(double snr) {
+	double getBpskBer(double snr) {
 		double z = Math.sqrt(snr);
 		double ber = 0.5 * getErfc(z);
 		return ber;
 	}
 
-	private double getQpskBer(double snr) {
+	double getQpskBer(double snr) {
 		double z = Math.sqrt(snr / 2.0);
 		double ber = 0.5 * getErfc(z);
 		return ber;
 	}
 
-	private double get16QamBer(double snr) {
+	double get16QamBer(double snr) {
 		double z = Math.sqrt(snr / (5.0 * 2.0));
 		double ber = 0.75 * 0.5 * getErfc(z);
 		return ber;
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.topology.views.wifi.phy.errormodel;
+
+import java.util.List;
+import java.util.Vector;
+
+import de.tud.kom.p2psim.api.topology.views.wifi.phy.ErrorRateModel;
+import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiMode;
+import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiPhy;
+
+/**
+ * Compares the {@link TabulatedNistErrorRateModel} with the exact
+ * {@link NistErrorRateModel} for all supported OFDM modes and prints the
+ * largest absolute difference of the chunk success rates as well as the time
+ * needed by both models. Exits with status 1 if the documented error bound is
+ * exceeded.
+ */
+public class TabulatedErrorModelValidation {
+
+	private static final double ERROR_BOUND = 1e-5;
+
+	public static void main(String[] args) {
+		ErrorRateModel nist = new NistErrorRateModel();
+		ErrorRateModel tabulated = new TabulatedNistErrorRateModel();
+
+		List<WifiMode> modes = new Vector<WifiMode>();
+		modes.add(WifiPhy.getOfdmRate6Mbps());
+		modes.add(WifiPhy.getOfdmRate9Mbps());
+		modes.add(WifiPhy.getOfdmRate12Mbps());
+		modes.add(WifiPhy.getOfdmRate18Mbps());
+		modes.add(WifiPhy.getOfdmRate24Mbps());
+		modes.add(WifiPhy.getOfdmRate36Mbps());
+		modes.add(WifiPhy.getOfdmRate48Mbps());
+		modes.add(WifiPhy.getOfdmRate54Mbps());
+		int[] frameSizes = { 1, 14, 100, 2000 };
+
+		double maxError = 0;
+		for (WifiMode mode : modes) {
+			double modeError = 0;
+			double modeErrorSnr = 0;
+			for (int frameSize : frameSizes) {
+				for (double snrDb = -15; snrDb < 55; snrDb += 0.001) {
+					double snr = Math.pow(10.0, snrDb / 10.0);
+					double exact = nist.getChunkSuccessRate(mode, snr,
+							frameSize * 8);
+					double approx = tabulated.getChunkSuccessRate(mode, snr,
+							frameSize * 8);
+					double error = Math.abs(exact - approx);
+					if (error > modeError) {
+						modeError = error;
+						modeErrorSnr = snrDb;
+					}
+				}
+			}
+			System.out.println(mode.getUniqueUid() + ": max. error "
+					+ modeError + " at " + modeErrorSnr + " dB");
+			maxError = Math.max(maxError, modeError);
+		}
+
+		long exactTime = measure(nist, modes);
+		long tabulatedTime = measure(tabulated, modes);
+		System.out.println("Exact: " + exactTime / 1000000 + " ms, tabulated: "
+				+ tabulatedTime / 1000000 + " ms");
+
+		if (maxError > ERROR_BOUND) {
+			System.out.println("FAILED: max. error " + maxError
+					+ " exceeds the bound " + ERROR_BOUND);
+			System.exit(1);
+		}
+		System.out.println("OK: max. error " + maxError);
+	}
+
+	private static long measure(ErrorRateModel model, List<WifiMode> modes) {
+		double sum = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < 5; round++) {
+			for (WifiMode mode : modes) {
+				for (double snrDb = 0; snrDb < 30; snrDb += 0.001) {
+					sum += model.getChunkSuccessRate(mode,
+							Math.pow(10.0, snrDb / 10.0), 2000 * 8);
+				}
+			}
+		}
+		long duration = System.nanoTime() - start;
+		if (Double.isNaN(sum)) {
+			System.out.println("NaN success rate");
+		}
+		return duration;
+	}
+}
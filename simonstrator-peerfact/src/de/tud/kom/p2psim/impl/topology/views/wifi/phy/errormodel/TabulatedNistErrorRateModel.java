@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.topology.views.wifi.phy.errormodel;
+
+import de.tud.kom.p2psim.api.topology.views.wifi.phy.WifiMode;
+
+/**
+ * The {@link NistErrorRateModel} with precomputed OFDM chunk success rates.
+ * For each combination of modulation and code rate (i.e., for each OFDM
+ * {@link WifiMode}), the value f = ln(-ln(1 - pe)) of the coded bit error
+ * probability pe is tabulated over the SNR in dB and interpolated linearly.
+ * The chunk success rate is then exp(-nbits * exp(f)), which replaces the
+ * evaluation of erfc and of the union bound polynomial by a table lookup and
+ * two exponentials.
+ * 
+ * Error bound: as S * |ln S| <= 1/e for every success rate S, the absolute
+ * error of the chunk success rate is at most 1/e times the interpolation
+ * error of f, independent of nbits. The interpolation error of f shrinks
+ * quadratically with the resolution. With the default resolution of 0.01 dB,
+ * the success rate differs by less than 1e-5 from the
+ * {@link NistErrorRateModel} (checked by
+ * {@link TabulatedErrorModelValidation}). SNRs outside of the table and cells
+ * next to the SNRs where the exact model returns exactly 0 or 1 are computed
+ * with the exact model. The DSSS modes are not tabulated, as the
+ * {@link DsssErrorRateModel} uses closed-form approximations anyway.
+ * 
+ * Usage in the config:
+ * 
+ * <pre>
+ * &lt;ErrorRateModel class="de.tud.kom.p2psim.impl.topology.views.wifi.phy.errormodel.TabulatedNistErrorRateModel" resolutionDb="0.01"/&gt;
+ * </pre>
+ */
+public class TabulatedNistErrorRateModel extends NistErrorRateModel {
+
+	private static final int BPSK = 0;
+
+	private static final int QPSK = 1;
+
+	private static final int QAM16 = 2;
+
+	private static final int QAM64 = 3;
+
+	private double minSnrDb = -10;
+
+	private double maxSnrDb = 50;
+
+	private double resolutionDb = 0.01;
+
+	/*
+	 * Lazily created tables, indexed by modulation and b value
+	 */
+	private double[][][] tables = new double[4][4][];
+
+	@Override
+	protected double getOfdmFecBpskCodeRate1_2SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(BPSK, 1, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecBpskCodeRate3_4SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(BPSK, 3, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQpskCodeRate1_2SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QPSK, 1, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQpskCodeRate3_4SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QPSK, 3, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQamCodeRate1_2SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QAM16, 1, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQamCodeRate3_4SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QAM16, 3, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQam64CodeRate2_3SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QAM64, 2, snr, nbits);
+	}
+
+	@Override
+	protected double getOfdmFecQam64CodeRate3_4SuccessRate(WifiMode mode,
+			double snr, int nbits) {
+		return getSuccessRate(QAM64, 3, snr, nbits);
+	}
+
+	private double getSuccessRate(int modulation, int bValue, double snr,
+			int nbits) {
+		if (snr > 0) {
+			double[] table = getTable(modulation, bValue);
+			double position = (10 * Math.log10(snr) - minSnrDb)
+					/ resolutionDb;
+			if (position >= 0 && position < table.length - 1) {
+				int i = (int) position;
+				double f0 = table[i];
+				double f1 = table[i + 1];
+				if (f0 == f1 && nbits > 0) {
+					// pe is monotonic in the SNR, this includes the cells
+					// where the exact model returns 0 or 1
+					return Math.exp(-nbits * Math.exp(f0));
+				} else if (!Double.isInfinite(f0) && !Double.isInfinite(f1)) {
+					double f = f0 + (position - i) * (f1 - f0);
+					return Math.exp(-nbits * Math.exp(f));
+				}
+			}
+		}
+		return getExactSuccessRate(modulation, snr, nbits, bValue);
+	}
+
+	private double getExactSuccessRate(int modulation, double snr, int nbits,
+			int bValue) {
+		switch (modulation) {
+		case BPSK:
+			return getFecBpskBer(snr, nbits, bValue);
+		case QPSK:
+			return getFecQpskBer(snr, nbits, bValue);
+		case QAM16:
+			return getFec16QamBer(snr, nbits, bValue);
+		default:
+			return getFec64QamBer(snr, nbits, bValue);
+		}
+	}
+
+	private double[] getTable(int modulation, int bValue) {
+		double[] table = tables[modulation][bValue];
+		if (table == null) {
+			int size = (int) Math.round((maxSnrDb - minSnrDb) / resolutionDb) + 1;
+			table = new double[size];
+			for (int i = 0; i < size; i++) {
+				double snr = Math.pow(10.0, (minSnrDb + i * resolutionDb) / 10.0);
+				table[i] = getExponent(modulation, snr, bValue);
+			}
+			tables[modulation][bValue] = table;
+		}
+		return table;
+	}
+
+	/**
+	 * ln(-ln(1 - pe)) for the given SNR, -Infinity if the exact model returns
+	 * a success rate of 1 and +Infinity if it returns 0.
+	 */
+	private double getExponent(int modulation, double snr, int bValue) {
+		double ber;
+		switch (modulation) {
+		case BPSK:
+			ber = getBpskBer(snr);
+			break;
+		case QPSK:
+			ber = getQpskBer(snr);
+			break;
+		case QAM16:
+			ber = get16QamBer(snr);
+			break;
+		default:
+			ber = get64QamBer(snr);
+			break;
+		}
+		if (ber == 0.0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		double pe = calculatePe(ber, bValue);
+		if (pe >= 1.0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Math.log(-Math.log1p(-pe));
+	}
+
+	/**
+	 * Lower bound of the tabulated SNR range in dB
+	 * 
+	 * @param minSnrDb
+	 */
+	public void setMinSnrDb(double minSnrDb) {
+		this.minSnrDb = minSnrDb;
+		clearTables();
+	}
+
+	/**
+	 * Upper bound of the tabulated SNR range in dB
+	 * 
+	 * @param maxSnrDb
+	 */
+	public void setMaxSnrDb(double maxSnrDb) {
+		this.maxSnrDb = maxSnrDb;
+		clearTables();
+	}
+
+	/**
+	 * Distance of two table entries in dB
+	 * 
+	 * @param resolutionDb
+	 */
+	public void setResolutionDb(double resolutionDb) {
+		if (!(resolutionDb > 0)) {
+			throw new IllegalArgumentException("Invalid resolution "
+					+ resolutionDb);
+		}
+		this.resolutionDb = resolutionDb;
+		clearTables();
+	}
+
+	public double getResolutionDb() {
+		return resolutionDb;
+	}
+
+	private void clearTables() {
+		tables = new double[4][4][];
+	}
+
+}
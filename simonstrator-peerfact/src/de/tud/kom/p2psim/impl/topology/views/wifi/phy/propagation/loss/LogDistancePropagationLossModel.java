@@ -121,6 +121,17 @@ public class LogDistancePropagationLossModel extends PropagationLossModel {
 		return exponent;
 	}
 
+	public double getReferenceDistance() {
+		return referenceDistance;
+	}
+
+	/**
+	 * The loss in dB at the reference distance
+	 */
+	protected double getReferenceLoss() {
+		return referenceLoss;
+	}
+
 	/**
 	 * The lamba and the referenceLoss is depending of the frequency and the
 	 * referenceDistance. If one of this values changed, then should be updated
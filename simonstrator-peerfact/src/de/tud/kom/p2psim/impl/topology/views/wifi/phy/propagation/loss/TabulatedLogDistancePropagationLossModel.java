@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.topology.views.wifi.phy.propagation.loss;
+
+/**
+ * The {@link LogDistancePropagationLossModel} with a tabulated logarithm. The
+ * path loss 10 * n * log10(d/d0) is computed as 10 * n * log10(2) *
+ * log2(d/d0), where log2(d/d0) is split into the binary exponent of d/d0 and
+ * the logarithm of its mantissa in [1, 2). The latter is looked up in a table
+ * of 2^10 + 1 entries and interpolated linearly. This replaces the call of
+ * log10 for every sender/receiver pair.
+ * 
+ * Error bound: the interpolation error of log2 on [1, 2) is at most h^2 / (8 *
+ * ln 2) with h = 2^-10, i.e., below 1.8e-7. Hence, the RX power differs by
+ * less than 5.2e-7 * n dB from the {@link LogDistancePropagationLossModel}
+ * (checked by {@link TabulatedPropagationLossValidation}).
+ * {@link #getDistance(double, double)} is not tabulated.
+ * 
+ * Usage in the config:
+ * 
+ * <pre>
+ * &lt;PropagationLossModel class="de.tud.kom.p2psim.impl.topology.views.wifi.phy.propagation.loss.TabulatedLogDistancePropagationLossModel" exponent="2.5"/&gt;
+ * </pre>
+ */
+public class TabulatedLogDistancePropagationLossModel extends
+		LogDistancePropagationLossModel {
+
+	private static final int TABLE_BITS = 10;
+
+	private static final int FRACTION_BITS = 52 - TABLE_BITS;
+
+	private static final long FRACTION_MASK = (1L << FRACTION_BITS) - 1;
+
+	private static final double FRACTION_SCALE = 1.0 / (1L << FRACTION_BITS);
+
+	/**
+	 * 10 * log10(2), the loss in dB per doubling of the distance for an
+	 * exponent of 1
+	 */
+	private static final double DB_PER_OCTAVE = 10 * Math.log10(2);
+
+	/**
+	 * log2(1 + i / 2^TABLE_BITS)
+	 */
+	private static final double[] LOG2_MANTISSA = new double[(1 << TABLE_BITS) + 1];
+
+	static {
+		for (int i = 0; i < LOG2_MANTISSA.length; i++) {
+			LOG2_MANTISSA[i] = Math.log1p((double) i / (1 << TABLE_BITS))
+					/ Math.log(2);
+		}
+	}
+
+	@Override
+	public double getRxPowerDbm(double txPowerDbm, double distance) {
+		double ratio = distance / getReferenceDistance();
+		if (ratio <= 1 || Double.isInfinite(ratio) || Double.isNaN(ratio)) {
+			return super.getRxPowerDbm(txPowerDbm, distance);
+		}
+		double pathLoss = DB_PER_OCTAVE * getExponent() * log2(ratio);
+		return txPowerDbm - getReferenceLoss() - pathLoss;
+	}
+
+	/**
+	 * Tabulated binary logarithm of a finite value greater than one
+	 */
+	static double log2(double value) {
+		long bits = Double.doubleToRawLongBits(value);
+		int exponent = (int) (bits >>> 52) - 1023;
+		int index = (int) ((bits >>> FRACTION_BITS) & ((1 << TABLE_BITS) - 1));
+		double fraction = (bits & FRACTION_MASK) * FRACTION_SCALE;
+		double low = LOG2_MANTISSA[index];
+		return exponent + low + fraction * (LOG2_MANTISSA[index + 1] - low);
+	}
+
+}
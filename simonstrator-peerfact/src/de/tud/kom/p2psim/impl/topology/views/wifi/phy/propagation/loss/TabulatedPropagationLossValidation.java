@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ * 
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package de.tud.kom.p2psim.impl.topology.views.wifi.phy.propagation.loss;
+
+import java.util.Random;
+
+/**
+ * Compares the {@link TabulatedLogDistancePropagationLossModel} with the exact
+ * {@link LogDistancePropagationLossModel} for several exponents and reference
+ * distances and prints the largest difference of the RX power as well as the
+ * time needed by both models. Exits with status 1 if the documented error
+ * bound is exceeded.
+ */
+public class TabulatedPropagationLossValidation {
+
+	private static final double ERROR_BOUND_PER_EXPONENT = 5.2e-7;
+
+	public static void main(String[] args) {
+		double[] exponents = { 2, 2.5, 3.2, 4 };
+		double[] referenceDistances = { 1, 5 };
+		Random random = new Random(42);
+		boolean failed = false;
+
+		for (double exponent : exponents) {
+			for (double referenceDistance : referenceDistances) {
+				LogDistancePropagationLossModel exact = new LogDistancePropagationLossModel();
+				LogDistancePropagationLossModel tabulated = new TabulatedLogDistancePropagationLossModel();
+				exact.setExponent(exponent);
+				tabulated.setExponent(exponent);
+				exact.setReferenceDistance(referenceDistance);
+				tabulated.setReferenceDistance(referenceDistance);
+
+				double maxError = 0;
+				double maxErrorDistance = 0;
+				for (int i = 0; i < 1000000; i++) {
+					// log-uniform distances between 1 cm and 100 km
+					double distance = Math.pow(10, -2 + 7 * random.nextDouble());
+					double error = Math.abs(exact.getRxPowerDbm(20, distance)
+							- tabulated.getRxPowerDbm(20, distance));
+					if (error > maxError) {
+						maxError = error;
+						maxErrorDistance = distance;
+					}
+				}
+				double bound = ERROR_BOUND_PER_EXPONENT * exponent;
+				System.out.println("n = " + exponent + ", d0 = "
+						+ referenceDistance + ": max. error " + maxError
+						+ " dB at " + maxErrorDistance + " m (bound " + bound
+						+ " dB)");
+				if (maxError > bound) {
+					failed = true;
+				}
+			}
+		}
+
+		long exactTime = measure(new LogDistancePropagationLossModel());
+		long tabulatedTime = measure(new TabulatedLogDistancePropagationLossModel());
+		System.out.println("Exact: " + exactTime / 1000000 + " ms, tabulated: "
+				+ tabulatedTime / 1000000 + " ms");
+
+		if (failed) {
+			System.out.println("FAILED: error bound exceeded");
+			System.exit(1);
+		}
+		System.out.println("OK");
+	}
+
+	private static long measure(LogDistancePropagationLossModel model) {
+		double sum = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < 5; round++) {
+			for (double distance = 0; distance < 1000; distance += 0.0001) {
+				sum += model.getRxPowerDbm(20, distance);
+			}
+		}
+		long duration = System.nanoTime() - start;
+		if (Double.isNaN(sum)) {
+			System.out.println("NaN RX power");
+		}
+		return duration;
+	}
+}
@@ -26,7 +26,6 @@ import de.tud.kom.p2psim.api.network.NetProtocol;
 import de.tud.kom.p2psim.api.network.SimNetInterface;
 import de.tudarmstadt.maki.simonstrator.api.Message;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 
 /**
@@ -44,21 +43,11 @@ public abstract class AbstractTransProtocol implements ITransProtocol {
 
 	private final SimNetInterface netLayer;
 
-	protected boolean hasAnalyzer = false;
-
-	protected TransportAnalyzer transportAnalyzerProxy;
-
 	public AbstractTransProtocol(SimHost host, SimNetInterface netLayer,
 			NetProtocol netProtocol) {
 		this.netProtocol = netProtocol;
 		this.netLayer = netLayer;
 		this.host = host;
-		try {
-			transportAnalyzerProxy = Monitor.get(TransportAnalyzer.class);
-			hasAnalyzer = true;
-		} catch (AnalyzerNotAvailableException e) {
-			// no analyzer, no problem
-		}
 	}
 
 	public SimNetInterface getNetInterface() {
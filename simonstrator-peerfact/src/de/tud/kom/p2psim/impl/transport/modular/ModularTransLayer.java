@@ -36,6 +36,7 @@ import de.tud.kom.p2psim.api.network.NetMessageListener;
 import de.tud.kom.p2psim.api.network.SimNetInterface;
 import de.tud.kom.p2psim.api.transport.TransMessage;
 import de.tud.kom.p2psim.api.transport.TransProtocol;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tud.kom.p2psim.impl.transport.DefaultTransInfo;
 import de.tud.kom.p2psim.impl.transport.modular.protocol.TransmissionControlProtocol;
 import de.tud.kom.p2psim.impl.transport.modular.protocol.TransmissionControlProtocolDummy;
@@ -49,7 +50,6 @@ import de.tudarmstadt.maki.simonstrator.api.Message;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
 import de.tudarmstadt.maki.simonstrator.api.Time;
-import de.tudarmstadt.maki.simonstrator.api.component.core.MonitorComponent.AnalyzerNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetInterface;
 import de.tudarmstadt.maki.simonstrator.api.component.transport.MessageBasedTransport;
@@ -93,10 +93,6 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 
 	private Map<NetID, AbstractTransProtocol> udp;
 
-	private boolean hasAnalyzer = false;
-
-	private TransportAnalyzer transportAnalyzerProxy;
-
 	public static AvgAccumulatorTime _avgSendAndWaitTime = new AvgAccumulatorTime(
 			"Trans avg. SaW Delay", 1000);
 
@@ -158,16 +154,6 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 					net));
 		}
 
-		/*
-		 * Binding Analyzer-Proxy
-		 */
-		try {
-			transportAnalyzerProxy = Monitor.get(TransportAnalyzer.class);
-			hasAnalyzer = true;
-		} catch (AnalyzerNotAvailableException e) {
-			// no analyzer, no problem
-		}
-
 	}
 
 	@Override
@@ -288,6 +274,7 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 						"You can not use a TransMessageCallback if you did not specify a timeout > 0!");
 			}
 
+			Simulator.getScheduler().awaitSequentialOrder();
 			_avgMessageSize.newVal(msg.getSize());
 
 			/*
@@ -455,8 +442,10 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 		}
 
 		if (receivedMessage != null) {
-			if (hasAnalyzer) {
-				transportAnalyzerProxy.transMsgEvent(receivedMessage, host,
+			TransportAnalyzer transAnalyzer = Monitor
+					.getOrNull(TransportAnalyzer.class);
+			if (transAnalyzer != null) {
+				transAnalyzer.transMsgEvent(receivedMessage, host,
 						Reason.RECEIVE);
 			}
 
@@ -601,6 +590,7 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 			if (!done) {
 				done = true;
 				callback.receive(msg, senderInfo, commId);
+				Simulator.getScheduler().awaitSequentialOrder();
 				_avgSendAndWaitTime.newVal(Time.getCurrentTime()
 						- sentTimestamp);
 				_avgSendAndWaitSuccess.newVal(1);
@@ -611,6 +601,7 @@ public class ModularTransLayer implements SimHostComponent, TransportComponent,
 			if (!done) {
 				done = true;
 				callback.messageTimeoutOccured(commId);
+				Simulator.getScheduler().awaitSequentialOrder();
 				_avgSendAndWaitSuccess.newVal(0);
 			}
 		}
@@ -41,6 +41,7 @@ import de.tud.kom.p2psim.impl.transport.modular.AbstractTransProtocol;
 import de.tudarmstadt.maki.simonstrator.api.Event;
 import de.tudarmstadt.maki.simonstrator.api.EventHandler;
 import de.tudarmstadt.maki.simonstrator.api.Message;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.transport.TransInfo;
@@ -171,10 +172,12 @@ public class TransmissionControlProtocol extends AbstractTransProtocol {
 		/*
 		 * Pseudo-message for the monitor (no fragmenting)
 		 */
-		if (hasAnalyzer) {
+		TransportAnalyzer transAnalyzer = Monitor
+				.getOrNull(TransportAnalyzer.class);
+		if (transAnalyzer != null) {
 			TCPMessage unfragmentedMessage = new TCPMessage(msg, senderPort,
 					receiverPort, commId, isReply, 0);
-			transportAnalyzerProxy.transMsgEvent(unfragmentedMessage,
+			transAnalyzer.transMsgEvent(unfragmentedMessage,
 					getHost(), TransportAnalyzer.Reason.SEND);
 		}
 
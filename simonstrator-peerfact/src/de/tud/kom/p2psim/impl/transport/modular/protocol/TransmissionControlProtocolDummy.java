@@ -21,6 +21,7 @@
 package de.tud.kom.p2psim.impl.transport.modular.protocol;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.TransportAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.NetProtocol;
 import de.tud.kom.p2psim.api.network.SimNetInterface;
@@ -28,6 +29,7 @@ import de.tud.kom.p2psim.api.transport.TransProtocol;
 import de.tud.kom.p2psim.impl.transport.TCPMessage;
 import de.tud.kom.p2psim.impl.transport.modular.AbstractTransProtocol;
 import de.tudarmstadt.maki.simonstrator.api.Message;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.transport.TransInfo;
 
@@ -49,8 +51,10 @@ public class TransmissionControlProtocolDummy extends AbstractTransProtocol {
 			int senderPort, int commId, boolean isReply) {
 		TCPMessage tcpMsg = new TCPMessage(msg, senderPort, receiverPort,
 				commId, isReply, commId);
-		if (hasAnalyzer) {
-			transportAnalyzerProxy
+		TransportAnalyzer transAnalyzer = Monitor
+				.getOrNull(TransportAnalyzer.class);
+		if (transAnalyzer != null) {
+			transAnalyzer
 					.transMsgEvent(tcpMsg, getHost(), Reason.SEND);
 		}
 		doSend(tcpMsg, receiverNet);
@@ -21,12 +21,14 @@
 package de.tud.kom.p2psim.impl.transport.modular.protocol;
 
 import de.tud.kom.p2psim.api.analyzer.MessageAnalyzer.Reason;
+import de.tud.kom.p2psim.api.analyzer.TransportAnalyzer;
 import de.tud.kom.p2psim.api.common.SimHost;
 import de.tud.kom.p2psim.api.network.NetProtocol;
 import de.tud.kom.p2psim.api.network.SimNetInterface;
 import de.tud.kom.p2psim.impl.transport.UDPMessage;
 import de.tud.kom.p2psim.impl.transport.modular.AbstractTransProtocol;
 import de.tudarmstadt.maki.simonstrator.api.Message;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.transport.TransInfo;
 
@@ -47,8 +49,10 @@ public class UserDatagramProtocol extends AbstractTransProtocol {
 			int senderPort, int commId, boolean isReply) {
 		UDPMessage udpMsg = new UDPMessage(msg, senderPort, receiverPort,
 				commId, isReply);
-		if (hasAnalyzer) {
-			transportAnalyzerProxy
+		TransportAnalyzer transAnalyzer = Monitor
+				.getOrNull(TransportAnalyzer.class);
+		if (transAnalyzer != null) {
+			transAnalyzer
 					.transMsgEvent(udpMsg, getHost(), Reason.SEND);
 		}
 		// Simulator.getMonitor().transMsgEvent(udpMsg, getHost(), Reason.SEND);
@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.util.db.relational;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tud.kom.p2psim.impl.util.db.relational.RelationalDB.DBIDTypeMeta;
+import de.tud.kom.p2psim.impl.util.db.relational.RelationalDB.DBObject;
+import de.tud.kom.p2psim.impl.util.db.relational.RelationalDB.IDBObjInstantiator;
+import de.tudarmstadt.maki.simonstrator.api.Monitor;
+import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+
+/**
+ * Binary format of a {@link RelationalDB}. Contains the same tables, rows and
+ * fields as the XML format, but numbers are stored as raw values and
+ * relations as raw IDs, so no parsing is needed when loading. The file is
+ * memory-mapped when reading, i.e., several simulation processes reading the
+ * same file share the page cache.
+ *
+ * <pre>
+ * file   := MAGIC VERSION tableCount:int table*
+ * table  := className:str rowCount:int columnCount:int (name:str type:byte)* row*
+ * row    := value* (one per column, in column order)
+ * str    := length:int (-1 for null) UTF-8 bytes
+ * list   := size:int (-1 for null) elementType:byte value*
+ * </pre>
+ *
+ * Numbers are stored big-endian with their Java width, relations as the ID of
+ * the referenced row (-1 for null). Fields of other types are stored as
+ * strings, like in the XML format.
+ */
+public class BinaryRelationalDBFile {
+
+	static final int MAGIC = 0x50465244; // "PFRD"
+
+	static final int VERSION = 1;
+
+	static final byte TYPE_INT = 'I';
+
+	static final byte TYPE_LONG = 'J';
+
+	static final byte TYPE_SHORT = 'S';
+
+	static final byte TYPE_BYTE = 'B';
+
+	static final byte TYPE_CHAR = 'C';
+
+	static final byte TYPE_DOUBLE = 'D';
+
+	static final byte TYPE_FLOAT = 'F';
+
+	static final byte TYPE_STRING = 'T';
+
+	static final byte TYPE_DBOBJ = 'O';
+
+	static final byte TYPE_LIST = 'L';
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private BinaryRelationalDBFile() {
+		// static methods only
+	}
+
+	/**
+	 * Returns true, if the given file starts with the magic number of the
+	 * binary format.
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static boolean isBinaryFile(File file) {
+		if (!file.isFile() || file.length() < 8) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes all tables of the database in the order of
+	 * {@link RelationalDB#getDependencySortedSerializationOrder()}.
+	 *
+	 * @param db
+	 * @param file
+	 * @throws IOException
+	 */
+	static void write(RelationalDB db, File file) throws IOException {
+		List<Class<? extends DBObject>> tables = new ArrayList<Class<? extends DBObject>>();
+		for (Class<? extends DBObject> tbl : db.getDependencySortedSerializationOrder()) {
+			DBIDTypeMeta meta = db.idObjectInstances.get(tbl);
+			if (meta == null) {
+				Monitor.log(
+						RelationalDB.class,
+						Level.WARN,
+						"Instance table of class %s shall be serialized but is not existing or empty.",
+						tbl.getName());
+			} else {
+				tables.add(tbl);
+			}
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(tables.size());
+			for (Class<? extends DBObject> tbl : tables) {
+				writeTable(tbl, db.idObjectInstances.get(tbl).getInstances(), out);
+			}
+		}
+	}
+
+	private static void writeTable(Class<? extends DBObject> tbl,
+			List<DBObject> rows, DataOutputStream out) throws IOException {
+		List<Method> getters = RelationalDB.getFieldGetters(tbl);
+		byte[] types = new byte[getters.size()];
+
+		writeString(tbl.getName(), out);
+		out.writeInt(rows.size());
+		out.writeInt(getters.size());
+		for (int i = 0; i < getters.size(); i++) {
+			types[i] = getColumnType(getters.get(i).getReturnType());
+			writeString(RelationalDB.getFieldName(getters.get(i)), out);
+			out.writeByte(types[i]);
+		}
+
+		try {
+			for (DBObject row : rows) {
+				for (int i = 0; i < getters.size(); i++) {
+					writeValue(types[i], getters.get(i).invoke(row), out);
+				}
+			}
+		} catch (IllegalAccessException e) {
+			//May not happen
+			throw new RuntimeException(e);
+		} catch (InvocationTargetException e) {
+			//May not happen
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte getColumnType(Class<?> type) {
+		if (int.class.equals(type)) {
+			return TYPE_INT;
+		} else if (long.class.equals(type)) {
+			return TYPE_LONG;
+		} else if (short.class.equals(type)) {
+			return TYPE_SHORT;
+		} else if (byte.class.equals(type)) {
+			return TYPE_BYTE;
+		} else if (char.class.equals(type)) {
+			return TYPE_CHAR;
+		} else if (double.class.equals(type)) {
+			return TYPE_DOUBLE;
+		} else if (float.class.equals(type)) {
+			return TYPE_FLOAT;
+		} else if (DBObject.class.isAssignableFrom(type)) {
+			return TYPE_DBOBJ;
+		} else if (List.class.isAssignableFrom(type)) {
+			return TYPE_LIST;
+		}
+		// String, boxed types (nullable)
+		return TYPE_STRING;
+	}
+
+	private static void writeValue(byte type, Object value,
+			DataOutputStream out) throws IOException {
+		switch (type) {
+		case TYPE_INT:
+			out.writeInt((Integer) value);
+			break;
+		case TYPE_LONG:
+			out.writeLong((Long) value);
+			break;
+		case TYPE_SHORT:
+			out.writeShort((Short) value);
+			break;
+		case TYPE_BYTE:
+			out.writeByte((Byte) value);
+			break;
+		case TYPE_CHAR:
+			out.writeChar((Character) value);
+			break;
+		case TYPE_DOUBLE:
+			out.writeDouble((Double) value);
+			break;
+		case TYPE_FLOAT:
+			out.writeFloat((Float) value);
+			break;
+		case TYPE_DBOBJ:
+			out.writeInt(value == null ? -1 : ((DBObject) value).getId());
+			break;
+		case TYPE_LIST:
+			writeList((List<?>) value, out);
+			break;
+		default:
+			writeString(value == null ? null : value.toString(), out);
+		}
+	}
+
+	private static void writeList(List<?> list, DataOutputStream out)
+			throws IOException {
+		if (list == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte elementType = TYPE_DOUBLE;
+		for (Object element : list) {
+			if (element instanceof Integer) {
+				elementType = TYPE_INT;
+			} else if (element instanceof DBObject) {
+				elementType = TYPE_DBOBJ;
+			} else if (!(element instanceof Double)) {
+				throw new IllegalArgumentException("The class "
+						+ element.getClass()
+						+ " as a list type is currently unsupported by the DB.");
+			}
+			break;
+		}
+		out.writeInt(list.size());
+		out.writeByte(elementType);
+		for (Object element : list) {
+			writeValue(elementType, element, out);
+		}
+	}
+
+	private static void writeString(String str, DataOutputStream out)
+			throws IOException {
+		if (str == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = str.getBytes(UTF8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Creates all rows of the file in the given database.
+	 *
+	 * @param db
+	 * @param file
+	 * @throws IOException
+	 * @throws DBInstantiationException
+	 */
+	@SuppressWarnings("unchecked")
+	static void read(RelationalDB db, File file) throws IOException,
+			DBInstantiationException {
+		ByteBuffer buf = map(file);
+		if (buf.getInt() != MAGIC) {
+			throw new IOException(file + " is not a binary database file.");
+		}
+		int version = buf.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version " + version + " of "
+					+ file);
+		}
+
+		int tableCount = buf.getInt();
+		for (int t = 0; t < tableCount; t++) {
+			String className = readString(buf);
+			Class<? extends DBObject> tbl;
+			try {
+				tbl = (Class<? extends DBObject>) Class.forName(className);
+			} catch (ClassNotFoundException e) {
+				throw new DBInstantiationException(e);
+			}
+			int rowCount = buf.getInt();
+			RowInstantiator row = new RowInstantiator(db, buf, buf.getInt());
+			for (int r = 0; r < rowCount; r++) {
+				row.next();
+				db.createNewDBIDObject(tbl, row);
+			}
+			buf.position(row.end);
+		}
+	}
+
+	private static ByteBuffer map(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large to be mapped.");
+			}
+			// the mapping stays valid after closing the channel
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size());
+			return buf;
+		}
+	}
+
+	static String readString(ByteBuffer buf) {
+		int length = buf.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buf.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * Provides the fields of the current row. The fields are read directly
+	 * from the mapped buffer, in the order requested by the constructor of the
+	 * DB object.
+	 */
+	private static class RowInstantiator implements IDBObjInstantiator {
+
+		private final RelationalDB db;
+
+		private final ByteBuffer buf;
+
+		private final Map<String, Integer> columns = new HashMap<String, Integer>();
+
+		private final byte[] types;
+
+		/*
+		 * Start of each field of the current row
+		 */
+		private final int[] offsets;
+
+		/*
+		 * End of the current row
+		 */
+		private int end;
+
+		public RowInstantiator(RelationalDB db, ByteBuffer buf, int columnCount) {
+			this.db = db;
+			this.buf = buf;
+			this.types = new byte[columnCount];
+			this.offsets = new int[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				columns.put(readString(buf), i);
+				types[i] = buf.get();
+			}
+			this.end = buf.position();
+		}
+
+		/**
+		 * Moves to the next row and determines the offsets of its fields.
+		 */
+		void next() {
+			int pos = end;
+			for (int i = 0; i < types.length; i++) {
+				offsets[i] = pos;
+				pos += getSize(types[i], pos);
+			}
+			end = pos;
+		}
+
+		private int getSize(byte type, int pos) {
+			switch (type) {
+			case TYPE_BYTE:
+				return 1;
+			case TYPE_SHORT:
+			case TYPE_CHAR:
+				return 2;
+			case TYPE_INT:
+			case TYPE_FLOAT:
+			case TYPE_DBOBJ:
+				return 4;
+			case TYPE_LONG:
+			case TYPE_DOUBLE:
+				return 8;
+			case TYPE_LIST:
+				int size = buf.getInt(pos);
+				if (size < 0) {
+					return 4;
+				}
+				return 5 + size * getSize(buf.get(pos + 4), -1);
+			default:
+				return 4 + Math.max(0, buf.getInt(pos));
+			}
+		}
+
+		private int getColumn(String fName) throws DBInstantiationException {
+			Integer column = columns.get(fName);
+			if (column == null)
+				throw new DBInstantiationException(
+						"The serialized object does not contain a field with "
+								+ fName);
+			return column;
+		}
+
+		private String getRaw(int column) {
+			buf.position(offsets[column]);
+			return readString(buf);
+		}
+
+		private long getIntegral(String fName) throws DBInstantiationException {
+			int column = getColumn(fName);
+			int pos = offsets[column];
+			switch (types[column]) {
+			case TYPE_INT:
+			case TYPE_DBOBJ:
+				return buf.getInt(pos);
+			case TYPE_LONG:
+				return buf.getLong(pos);
+			case TYPE_SHORT:
+				return buf.getShort(pos);
+			case TYPE_BYTE:
+				return buf.get(pos);
+			case TYPE_CHAR:
+				return buf.getChar(pos);
+			case TYPE_STRING:
+				try {
+					return Long.parseLong(getRaw(column));
+				} catch (NumberFormatException e) {
+					throw new DBInstantiationException(e);
+				}
+			default:
+				throw new DBInstantiationException("The field " + fName
+						+ " is not an integral number.");
+			}
+		}
+
+		@Override
+		public int getInt(String fName) throws DBInstantiationException {
+			return (int) getIntegral(fName);
+		}
+
+		@Override
+		public char getChar(String fName) throws DBInstantiationException {
+			int column = getColumn(fName);
+			if (types[column] == TYPE_CHAR) {
+				return buf.getChar(offsets[column]);
+			}
+			String str = getString(fName);
+			if (str == null || str.length() != 1)
+				throw new DBInstantiationException(
+						"Can not extract a single char from string " + str);
+			return str.charAt(0);
+		}
+
+		@Override
+		public boolean getBoolean(String fName)
+				throws DBInstantiationException {
+			return Boolean.parseBoolean(getString(fName));
+		}
+
+		@Override
+		public String getString(String fName) throws DBInstantiationException {
+			int column = getColumn(fName);
+			int pos = offsets[column];
+			switch (types[column]) {
+			case TYPE_STRING:
+				return getRaw(column);
+			case TYPE_DOUBLE:
+				return String.valueOf(buf.getDouble(pos));
+			case TYPE_FLOAT:
+				return String.valueOf(buf.getFloat(pos));
+			case TYPE_CHAR:
+				return String.valueOf(buf.getChar(pos));
+			case TYPE_LIST:
+				throw new DBInstantiationException("The field " + fName
+						+ " is a list.");
+			default:
+				return String.valueOf(getIntegral(fName));
+			}
+		}
+
+		@Override
+		public double getDouble(String fName) throws DBInstantiationException {
+			int column = getColumn(fName);
+			switch (types[column]) {
+			case TYPE_DOUBLE:
+				return buf.getDouble(offsets[column]);
+			case TYPE_FLOAT:
+				return buf.getFloat(offsets[column]);
+			case TYPE_STRING:
+				try {
+					return Double.parseDouble(getRaw(column));
+				} catch (NumberFormatException e) {
+					throw new DBInstantiationException(e);
+				} catch (NullPointerException e) {
+					throw new DBInstantiationException(e);
+				}
+			default:
+				return getIntegral(fName);
+			}
+		}
+
+		@Override
+		public float getFloat(String fName) throws DBInstantiationException {
+			return (float) getDouble(fName);
+		}
+
+		@Override
+		public short getShort(String fName) throws DBInstantiationException {
+			return (short) getIntegral(fName);
+		}
+
+		@Override
+		public byte getByte(String fName) throws DBInstantiationException {
+			return (byte) getIntegral(fName);
+		}
+
+		@Override
+		public long getLong(String fName) throws DBInstantiationException {
+			return getIntegral(fName);
+		}
+
+		@Override
+		public <T extends DBObject> T getDBObj(String fName,
+				Class<? extends T> clazz) throws DBInstantiationException {
+			int id = getInt(fName);
+			T fObj = db.getObjFromID(clazz, id);
+			if (fObj == null && RelationalDB.DISALLOW_NULL_REFS)
+				throw new DBInstantiationException("The DBIDObject of type "
+						+ clazz + " with the ID " + id
+						+ " is referenced in the serialized format, but does not exist.");
+			return fObj;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> List<T> getList(String fName,
+				Class<? extends T> listElemClass)
+				throws DBInstantiationException {
+			int column = getColumn(fName);
+			if (types[column] != TYPE_LIST)
+				throw new DBInstantiationException("The field " + fName
+						+ " is not a list.");
+			int pos = offsets[column];
+			int size = buf.getInt(pos);
+			if (size < 0) {
+				return null;
+			}
+			byte elementType = buf.get(pos + 4);
+			pos += 5;
+
+			List<T> result = new ArrayList<T>(size);
+			for (int i = 0; i < size; i++) {
+				T elem;
+				if (Double.class.equals(listElemClass)
+						&& elementType == TYPE_DOUBLE) {
+					elem = (T) Double.valueOf(buf.getDouble(pos + 8 * i));
+				} else if (Integer.class.equals(listElemClass)
+						&& elementType == TYPE_INT) {
+					elem = (T) Integer.valueOf(buf.getInt(pos + 4 * i));
+				} else if (DBObject.class.isAssignableFrom(listElemClass)
+						&& elementType == TYPE_DBOBJ) {
+					int id = buf.getInt(pos + 4 * i);
+					elem = (T) db.getObjFromID(
+							(Class<? extends DBObject>) listElemClass, id);
+					if (elem == null)
+						throw new DBInstantiationException(
+								"The DBIDObject of type " + listElemClass
+										+ " with the ID " + id
+										+ " does not exist.");
+				} else {
+					throw new DBInstantiationException("The list " + fName
+							+ " can not be read as a list of "
+							+ listElemClass);
+				}
+				result.add(elem);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -221,19 +221,11 @@ public abstract class RelationalDB implements XMLSerializable {
 		@Override
 		public void writeToXML(XMLStreamWriter wr) throws XMLStreamException {
 			try {
-				Method[] methods = this.getClass().getMethods();
-				for (Method m : methods) {
-					if (!Modifier.isStatic(m.getModifiers())) {
-						String mname = m.getName();
-						if (mname.startsWith("get") && !"getClass".equals(mname)) {
-							Class<?> rt = m.getReturnType();
-							assert(isXmlLegalField(rt)):"The return type of the getter method " + mname + " is an unsupported type for serialization: " + rt.getCanonicalName();
-							Object mVal = m.invoke(this);
-							String strVal;
-							strVal = getStrValFromObj(mVal);
-							wr.writeAttribute(mname.substring(3).toLowerCase(), strVal);
-						}
-					}
+				for (Method m : getFieldGetters(this.getClass())) {
+					Object mVal = m.invoke(this);
+					String strVal;
+					strVal = getStrValFromObj(mVal);
+					wr.writeAttribute(getFieldName(m), strVal);
 				}
 				
 			} catch (IllegalAccessException e) {
@@ -277,6 +269,36 @@ public abstract class RelationalDB implements XMLSerializable {
 		
 	}
 	
+	/**
+	 * Returns the getter methods of the given DB object class. Every getter
+	 * is a field (column) of the table.
+	 * @param clazz
+	 * @return
+	 */
+	static List<Method> getFieldGetters(Class<?> clazz) {
+		List<Method> result = new ArrayList<Method>();
+		for (Method m : clazz.getMethods()) {
+			if (!Modifier.isStatic(m.getModifiers())) {
+				String mname = m.getName();
+				if (mname.startsWith("get") && !"getClass".equals(mname)) {
+					Class<?> rt = m.getReturnType();
+					assert(isXmlLegalField(rt)):"The return type of the getter method " + mname + " is an unsupported type for serialization: " + rt.getCanonicalName();
+					result.add(m);
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the name of the field that is read by the given getter.
+	 * @param getter
+	 * @return
+	 */
+	static String getFieldName(Method getter) {
+		return getter.getName().substring(3).toLowerCase();
+	}
+	
 	/**
 	 * A DBObject that has a unique name that allows to locate it in the database.
 	 * @author 
@@ -528,24 +550,35 @@ public abstract class RelationalDB implements XMLSerializable {
 
 	public DBObject createNewDBIDObject(Class<? extends DBObject> newObjClass,
 			Map<String, String> fieldList) throws DBInstantiationException {
-		// TODO Auto-generated method stub
+		return createNewDBIDObject(newObjClass, new DBObjInstantiatorImpl(fieldList));
+	}
+
+	/**
+	 * Creates a new DB object of the given class, the fields are read from the given instantiator.
+	 * @param newObjClass
+	 * @param inst
+	 * @return
+	 * @throws DBInstantiationException
+	 */
+	public DBObject createNewDBIDObject(Class<? extends DBObject> newObjClass,
+			IDBObjInstantiator inst) throws DBInstantiationException {
 		Constructor<?>[] cons = newObjClass.getConstructors();
 		
 		for (Constructor<?> con : cons) {
-			DBObject obj = tryConstructor(con, fieldList, newObjClass);
+			DBObject obj = tryConstructor(con, inst, newObjClass);
 			if (obj != null) return obj;
 		}
 		throw new IllegalArgumentException("No constructor of " + newObjClass + " with one parameter of class DBObjInstantiator does exist (beneath the hidden inner class constructor parameter). " +
 				"This is needed for a new DB object to be deserialized.");
 	}
 
-	private DBObject tryConstructor(Constructor<?> con, Map<String, String> fieldList, Class<?> clazz) throws DBInstantiationException {
+	private DBObject tryConstructor(Constructor<?> con, IDBObjInstantiator inst, Class<?> clazz) throws DBInstantiationException {
 		Class<?>[] pts = con.getParameterTypes();
 		if (pts.length != 2) return null;	//the outer DB class of the DBIDObject and the Map parameter 
 		if (!pts[0].equals(this.getClass())) throw new DBInstantiationException ("The object of class " + clazz + " that shall be instantiated is not an inner class of " + this.getClass() + ".");
 		if (!pts[1].equals(IDBObjInstantiator.class)) return null;
 		try {
-			DBObject obj = (DBObject)con.newInstance(RelationalDB.this, new DBObjInstantiatorImpl(fieldList));
+			DBObject obj = (DBObject)con.newInstance(RelationalDB.this, inst);
 			//Field [] fs = obj.getClass().getFields();
 			return obj;
 		} catch (IllegalArgumentException e) {
@@ -816,6 +849,29 @@ public abstract class RelationalDB implements XMLSerializable {
 		readFromXMLFile(in, f);
 	}
 
+	/**
+	 * Writes the complete database to a file in the binary format of {@link BinaryRelationalDBFile}.
+	 * The XML format stays the source format, the binary file can be created from it with
+	 * readFromXMLFile() and this method.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeToBinaryFile(File file) throws IOException {
+		checkReleased();
+		BinaryRelationalDBFile.write(this, file);
+	}
+
+	/**
+	 * Reads a database written by writeToBinaryFile(). The file is memory-mapped, so
+	 * processes reading the same file share the page cache.
+	 * @param file
+	 * @throws IOException
+	 * @throws DBInstantiationException
+	 */
+	public void readFromBinaryFile(File file) throws IOException, DBInstantiationException {
+		BinaryRelationalDBFile.read(this, file);
+	}
+
 	
 }
 
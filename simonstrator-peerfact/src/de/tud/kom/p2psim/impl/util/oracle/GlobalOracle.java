@@ -21,23 +21,17 @@
 package de.tud.kom.p2psim.impl.util.oracle;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 import de.tud.kom.p2psim.api.common.SimHost;
-import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tud.kom.p2psim.impl.simengine.Simulator;
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Randoms;
+import de.tudarmstadt.maki.simonstrator.api.SimulationContext;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
-import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
-import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
-import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.core.OracleComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetID;
 import de.tudarmstadt.maki.simonstrator.api.component.network.NetInterface;
@@ -56,22 +50,34 @@ import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyProvider;
  */
 public class GlobalOracle implements OracleComponent {
 
-	private static HashMap<Long, SimHost> hostIDtoHosts = new LinkedHashMap<>();
+	private final HashMap<Long, SimHost> hostIDtoHosts = new LinkedHashMap<>();
 
-	private static HashMap<NetID, SimHost> netIDtoHosts = new LinkedHashMap<>();
+	private final HashMap<NetID, SimHost> netIDtoHosts = new LinkedHashMap<>();
 
-	private static List<SimHost> hosts = new LinkedList<>();
+	private List<SimHost> hosts = new LinkedList<>();
 
-	private static List<NetID> bootstrapList = new LinkedList<>();
+	private List<NetID> bootstrapList = new LinkedList<>();
 
-	private static GlobalOracle instance = new GlobalOracle();
+	private final TopologySnapshotCache topologySnapshots = new TopologySnapshotCache();
 
 	private GlobalOracle() {
 		//
 	}
 
+	/**
+	 * Returns the oracle of the {@link SimulationContext} of the calling
+	 * thread.
+	 * 
+	 * @return
+	 */
 	public static GlobalOracle getInstance() {
-		return instance;
+		SimulationContext context = SimulationContext.current();
+		GlobalOracle oracle = context.getInstance(GlobalOracle.class);
+		if (oracle == null) {
+			oracle = new GlobalOracle();
+			context.setInstance(GlobalOracle.class, oracle);
+		}
+		return oracle;
 	}
 
 	/**
@@ -80,24 +86,26 @@ public class GlobalOracle implements OracleComponent {
 	 * @param hostBuilder
 	 */
 	public static void populate(List<SimHost> allHosts) {
-		hosts = allHosts;
+		GlobalOracle oracle = getInstance();
+		oracle.hosts = allHosts;
+		oracle.topologySnapshots.clear();
 
-		if (hosts == null || hosts.size() <= 0) {
+		if (allHosts == null || allHosts.size() <= 0) {
 			return;
 		}
 
-		for (SimHost host : hosts) {
+		for (SimHost host : allHosts) {
 
 			/* Might happen in case of FakeHost. */
 			if (host.getNetworkComponent() == null) {
 				continue;
 			}
 
-			hostIDtoHosts.put(host.getHostId(), host);
+			oracle.hostIDtoHosts.put(host.getHostId(), host);
 			for (NetInterface net : host.getNetworkComponent()
 					.getNetworkInterfaces()) {
-				netIDtoHosts.put(net.getLocalInetAddress(), host);
-				bootstrapList.add(net.getLocalInetAddress());
+				oracle.netIDtoHosts.put(net.getLocalInetAddress(), host);
+				oracle.bootstrapList.add(net.getLocalInetAddress());
 			}
 		}
 
@@ -111,7 +119,7 @@ public class GlobalOracle implements OracleComponent {
 	 *            the new bootstrap hosts
 	 */
 	public static void setBootstrapHosts(List<NetID> bootstrapList) {
-		GlobalOracle.bootstrapList = bootstrapList;
+		getInstance().bootstrapList = bootstrapList;
 	}
 
 	/**
@@ -120,7 +128,7 @@ public class GlobalOracle implements OracleComponent {
 	 * @return the bootstrap hosts
 	 */
 	public static List<NetID> getBootstrapHosts() {
-		return GlobalOracle.bootstrapList;
+		return getInstance().bootstrapList;
 	}
 
 	/**
@@ -129,6 +137,7 @@ public class GlobalOracle implements OracleComponent {
 	 * @return the random host
 	 */
 	public static NetID getRandomHost() {
+		List<NetID> bootstrapList = getInstance().bootstrapList;
 		return bootstrapList.get(Randoms.getRandom(GlobalOracle.class)
 				.nextInt(bootstrapList.size()));
 	}
@@ -139,6 +148,7 @@ public class GlobalOracle implements OracleComponent {
 	 * @return the first host
 	 */
 	public static NetID getFirstHost() {
+		List<NetID> bootstrapList = getInstance().bootstrapList;
 
 		if (bootstrapList.size() == 0) {
 			assert (false) : "Bootstraplist is empty";
@@ -154,7 +164,7 @@ public class GlobalOracle implements OracleComponent {
 	 * @return the host with the given <code>NetID</code>
 	 */
 	public static SimHost getHostForNetID(NetID id) {
-		return netIDtoHosts.get(id);
+		return getInstance().netIDtoHosts.get(id);
 	}
 
 	/**
@@ -162,13 +172,14 @@ public class GlobalOracle implements OracleComponent {
 	 * @return the host with the given host ID
 	 */
 	public static SimHost getHostForHostID(Long id) {
-		return hostIDtoHosts.get(id);
+		return getInstance().hostIDtoHosts.get(id);
 	}
 
 	/**
 	 * @return the list with all hosts of the scenario
 	 */
 	public static List<SimHost> getHosts() {
+		List<SimHost> hosts = getInstance().hosts;
 		synchronized (hosts) {
 			return new ArrayList<>(hosts);
 		}
@@ -185,57 +196,32 @@ public class GlobalOracle implements OracleComponent {
 	 * Otherwise, this method will not be able to find the local mechanism
 	 * objects.
 	 *
+	 * The returned graph is an unmodifiable view on a cached snapshot (see
+	 * {@link TopologySnapshotCache}) that is shared between callers and
+	 * updated by later calls. Clone it to keep a copy.
+	 *
 	 * @param component
 	 * @param identifier
 	 * @return
 	 */
 	public static <T extends TopologyProvider> Graph getTopology(
 			final Class<T> component, final TopologyID identifier) {
-
-		final HashMap<INode, TopologyProvider> nodeToProviderMapping = getNodeToTopologyProviderMapping(
-				component, identifier);
-
-		final Collection<INode> nodes = nodeToProviderMapping.keySet();
-		final Collection<TopologyProvider> allProviders = nodeToProviderMapping
-				.values();
-
-		final HashSet<IEdge> edges = new LinkedHashSet<>();
-
-		// Collect the local view of each topology provider
-		for (final TopologyProvider topologyProvider : allProviders) {
-			final Set<IEdge> neighbors = topologyProvider
-					.getNeighbors(identifier);
-			edges.addAll(neighbors);
-		}
-
-		// Construct the merged graph
-		final Graph graph = Graphs.createGraph(nodes, edges);
-
-		return graph;
+		// reads the state of all hosts
+		Simulator.getScheduler().awaitSequentialOrder();
+		GlobalOracle oracle = getInstance();
+		return oracle.topologySnapshots.getTopology(component, identifier,
+				oracle.hosts);
 	}
 
-	private static <T extends TopologyProvider> HashMap<INode, TopologyProvider> getNodeToTopologyProviderMapping(
-			final Class<T> component, final TopologyID identifier) {
-		final HashMap<INode, TopologyProvider> nodeToProviderMapping = new HashMap<>();
-
-		// Collect topology providers on all hosts
-		for (final SimHost host : getHosts()) {
-			try {
-				final TopologyProvider topologyProvider = host
-						.getComponent(component);
-
-				final INode providerNode = topologyProvider.getNode(identifier);
-
-				nodeToProviderMapping.put(providerNode, topologyProvider);
-
-			} catch (final ComponentNotAvailableException e) {
-				// if the component is not available on the host, we can't do
-				// anything about it
-				// no reason to crash the simulation as this might be the case
-				// in various scenarios
-			}
-		}
-		return nodeToProviderMapping;
+	/**
+	 * Access to the snapshot cache used by
+	 * {@link #getTopology(Class, TopologyID)}, e.g., for its hit and miss
+	 * counters.
+	 *
+	 * @return
+	 */
+	public static TopologySnapshotCache getTopologySnapshots() {
+		return getInstance().topologySnapshots;
 	}
 
 	@Override
@@ -251,11 +237,13 @@ public class GlobalOracle implements OracleComponent {
 	 * @return true if online
 	 */
 	public static boolean isHostOnline(NetID receiver) {
-		if (netIDtoHosts.get(receiver) == null) {
+		Simulator.getScheduler().awaitSequentialOrder();
+		SimHost host = getInstance().netIDtoHosts.get(receiver);
+		if (host == null) {
 			return false;
 		}
 
-		return netIDtoHosts.get(receiver).getNetworkComponent()
+		return host.getNetworkComponent()
 				.getByNetId(receiver).isUp();
 	}
 }
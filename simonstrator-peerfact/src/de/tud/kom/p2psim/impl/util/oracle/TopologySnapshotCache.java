@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2005-2011 KOM - Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.util.oracle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tud.kom.p2psim.api.common.SimHost;
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.ObservableTopologyProvider;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyID;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyObserver;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyProvider;
+
+/**
+ * Caches the global topology snapshots returned by
+ * {@link GlobalOracle#getTopology(Class, TopologyID)}.
+ *
+ * Providers are resolved once per host. Providers that implement
+ * {@link ObservableTopologyProvider} and guarantee to report all changes of
+ * the {@link TopologyID} (see
+ * {@link ObservableTopologyProvider#isReportingAllChanges(TopologyID)}) are
+ * observed: each
+ * {@link TopologyObserver#topologyChanged(TopologyProvider, TopologyID)} call
+ * increments the modification counter of the {@link TopologyID} and marks the
+ * local view of the provider as changed. All other providers are queried on
+ * every request. If no provider changed, the previous snapshot is returned.
+ * Otherwise, the nodes and edges of the changed (or unobserved) providers are
+ * replaced in the snapshot.
+ *
+ * Snapshots are shared between all callers. They are returned as
+ * unmodifiable views that reflect the topology as of the latest request.
+ */
+public class TopologySnapshotCache implements TopologyObserver {
+
+	private final Map<SnapshotKey, Snapshot> snapshots = new HashMap<>();
+
+	private final Map<TopologyID, Long> modificationCounters = new HashMap<>();
+
+	private final Set<TopologyProvider> observedProviders = Collections
+			.newSetFromMap(new IdentityHashMap<TopologyProvider, Boolean>());
+
+	private long hits = 0;
+
+	private long patches = 0;
+
+	private long misses = 0;
+
+	/**
+	 * Returns the (cached) global view of the given topology.
+	 *
+	 * @param component
+	 * @param identifier
+	 * @param hosts
+	 * @return
+	 */
+	public <T extends TopologyProvider> Graph getTopology(
+			final Class<T> component, final TopologyID identifier,
+			final List<SimHost> hosts) {
+		final SnapshotKey key = new SnapshotKey(component, identifier);
+		Snapshot snapshot = snapshots.get(key);
+		if (snapshot == null) {
+			snapshot = new Snapshot(identifier);
+			for (final SimHost host : hosts) {
+				final TopologyProvider provider = host
+						.getComponentOrNull(component);
+				if (provider == null) {
+					// if the component is not available on the host, we can't
+					// do anything about it
+					continue;
+				}
+				final ProviderView view = new ProviderView();
+				snapshot.providers.put(provider, view);
+				if (provider instanceof ObservableTopologyProvider
+						&& ((ObservableTopologyProvider) provider)
+								.isReportingAllChanges(identifier)) {
+					view.observed = true;
+					if (observedProviders.add(provider)) {
+						((ObservableTopologyProvider) provider)
+								.addTopologyObserver(this);
+					}
+				} else {
+					// might change at any time
+					snapshot.allObserved = false;
+				}
+			}
+			snapshots.put(key, snapshot);
+		}
+
+		if (snapshot.graph != null && snapshot.isUpToDate()) {
+			hits++;
+			return snapshot.view;
+		}
+
+		final Set<ProviderView> changed = new LinkedHashSet<>();
+		for (final ProviderView view : snapshot.providers.values()) {
+			if (view.node == null || view.changed || !view.observed) {
+				changed.add(view);
+			}
+		}
+
+		if (snapshot.graph == null
+				|| changed.size() == snapshot.providers.size()) {
+			misses++;
+			final List<INode> nodes = new ArrayList<>(
+					snapshot.providers.size());
+			final Set<IEdge> edges = new LinkedHashSet<>();
+			for (final Map.Entry<TopologyProvider, ProviderView> entry : snapshot.providers
+					.entrySet()) {
+				entry.getValue().refresh(entry.getKey(), identifier);
+				nodes.add(entry.getValue().node);
+				edges.addAll(entry.getValue().neighbors);
+			}
+			snapshot.graph = Graphs.createGraph(nodes, edges);
+			snapshot.view = Graphs.unmodifiableGraph(snapshot.graph);
+		} else {
+			patches++;
+			patch(snapshot, changed);
+		}
+		snapshot.modificationCount = getModificationCount(identifier);
+		return snapshot.view;
+	}
+
+	/**
+	 * Replaces the nodes and edges of the changed providers in the graph of
+	 * the snapshot. The edges of a provider are the outgoing edges of its
+	 * node.
+	 */
+	private void patch(final Snapshot snapshot,
+			final Set<ProviderView> changed) {
+		final Graph graph = snapshot.graph;
+		for (final ProviderView view : changed) {
+			if (view.neighbors != null) {
+				for (final IEdge edge : view.neighbors) {
+					graph.removeEdge(edge);
+				}
+			}
+		}
+		for (final Map.Entry<TopologyProvider, ProviderView> entry : snapshot.providers
+				.entrySet()) {
+			final ProviderView view = entry.getValue();
+			if (changed.contains(view)) {
+				view.refresh(entry.getKey(), snapshot.identifier);
+				replaceNode(graph, view.node);
+			}
+		}
+		for (final ProviderView view : changed) {
+			graph.addEdges(view.neighbors);
+		}
+	}
+
+	/**
+	 * Adds the given node or replaces the node with the same ID, keeping the
+	 * incoming edges of the old node
+	 */
+	private static void replaceNode(final Graph graph, final INode node) {
+		final INode oldNode = graph.getNode(node.getId());
+		if (oldNode == node) {
+			return;
+		}
+		if (oldNode != null) {
+			final List<IEdge> incomingEdges = new ArrayList<>(
+					graph.getIncomingEdges(node.getId()));
+			graph.removeNode(node.getId());
+			graph.addNode(node);
+			for (final IEdge edge : incomingEdges) {
+				if (graph.containsNode(edge.fromId())) {
+					graph.addEdge(edge);
+				}
+			}
+		} else {
+			graph.addNode(node);
+		}
+	}
+
+	@Override
+	public void topologyChanged(TopologyProvider topologyProvider,
+			TopologyID topologyIdentifier) {
+		Long count = modificationCounters.get(topologyIdentifier);
+		modificationCounters.put(topologyIdentifier,
+				count == null ? 1 : count + 1);
+		for (final Snapshot snapshot : snapshots.values()) {
+			if (snapshot.identifier.equals(topologyIdentifier)) {
+				final ProviderView view = snapshot.providers
+						.get(topologyProvider);
+				if (view != null) {
+					view.changed = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of reported modifications of the given topology
+	 *
+	 * @param identifier
+	 * @return
+	 */
+	public long getModificationCount(TopologyID identifier) {
+		Long count = modificationCounters.get(identifier);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Drop all snapshots (e.g., if the set of hosts changed)
+	 */
+	public void clear() {
+		snapshots.clear();
+	}
+
+	/**
+	 * Number of requests answered with an unchanged snapshot
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Number of requests where only changed providers were queried
+	 */
+	public long getPatches() {
+		return patches;
+	}
+
+	/**
+	 * Number of requests where all providers were queried
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	private final class Snapshot {
+
+		private final TopologyID identifier;
+
+		private final Map<TopologyProvider, ProviderView> providers = new LinkedHashMap<>();
+
+		private boolean allObserved = true;
+
+		/**
+		 * Modified in place by subsequent requests
+		 */
+		private Graph graph;
+
+		/**
+		 * Unmodifiable view on {@link #graph} that is returned to callers
+		 */
+		private Graph view;
+
+		private long modificationCount;
+
+		public Snapshot(TopologyID identifier) {
+			this.identifier = identifier;
+		}
+
+		public boolean isUpToDate() {
+			return allObserved
+					&& modificationCount == getModificationCount(identifier);
+		}
+
+	}
+
+	/**
+	 * Last known node and neighbors of a provider
+	 */
+	private static final class ProviderView {
+
+		private INode node;
+
+		private List<IEdge> neighbors;
+
+		private boolean changed = false;
+
+		/**
+		 * Whether the provider reports all changes of the topology
+		 */
+		private boolean observed = false;
+
+		private void refresh(final TopologyProvider provider,
+				final TopologyID identifier) {
+			node = provider.getNode(identifier);
+			neighbors = new ArrayList<>(provider.getNeighbors(identifier));
+			changed = false;
+		}
+
+	}
+
+	private static final class SnapshotKey {
+
+		private final Class<?> component;
+
+		private final TopologyID identifier;
+
+		public SnapshotKey(Class<?> component, TopologyID identifier) {
+			this.component = component;
+			this.identifier = identifier;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * component.hashCode() + identifier.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SnapshotKey)) {
+				return false;
+			}
+			final SnapshotKey other = (SnapshotKey) obj;
+			return component.equals(other.component)
+					&& identifier.equals(other.identifier);
+		}
+
+	}
+
+}
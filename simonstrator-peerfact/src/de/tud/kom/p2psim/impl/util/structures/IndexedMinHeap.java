@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.util.structures;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of the integers 0..capacity-1 with double keys. Supports
+ * decreasing the key of a contained element in O(log n), as needed by
+ * Dijkstra's algorithm on graphs with densely indexed vertices. Does not
+ * allocate after construction.
+ */
+public class IndexedMinHeap {
+
+	private final int[] heap;
+
+	/*
+	 * Position of each element in the heap, -1 if not contained
+	 */
+	private final int[] position;
+
+	private final double[] keys;
+
+	private int size = 0;
+
+	public IndexedMinHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.position = new int[capacity];
+		this.keys = new double[capacity];
+		Arrays.fill(position, -1);
+	}
+
+	public int capacity() {
+		return heap.length;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(int element) {
+		return position[element] >= 0;
+	}
+
+	/**
+	 * Inserts the element or lowers its key, if the given key is smaller than
+	 * the current one.
+	 * 
+	 * @param element
+	 * @param key
+	 */
+	public void insertOrDecrease(int element, double key) {
+		int pos = position[element];
+		if (pos < 0) {
+			pos = size++;
+			heap[pos] = element;
+			position[element] = pos;
+			keys[element] = key;
+		} else if (key < keys[element]) {
+			keys[element] = key;
+		} else {
+			return;
+		}
+		siftUp(pos);
+	}
+
+	/**
+	 * Removes the element with the smallest key
+	 * 
+	 * @return
+	 */
+	public int poll() {
+		if (size == 0) {
+			throw new IllegalStateException("Heap is empty");
+		}
+		int min = heap[0];
+		position[min] = -1;
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			position[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int pos) {
+		int element = heap[pos];
+		double key = keys[element];
+		while (pos > 0) {
+			int parentPos = (pos - 1) >>> 1;
+			int parent = heap[parentPos];
+			if (keys[parent] <= key) {
+				break;
+			}
+			heap[pos] = parent;
+			position[parent] = pos;
+			pos = parentPos;
+		}
+		heap[pos] = element;
+		position[element] = pos;
+	}
+
+	private void siftDown(int pos) {
+		int element = heap[pos];
+		double key = keys[element];
+		int half = size >>> 1;
+		while (pos < half) {
+			int childPos = 2 * pos + 1;
+			int child = heap[childPos];
+			int rightPos = childPos + 1;
+			if (rightPos < size && keys[heap[rightPos]] < keys[child]) {
+				childPos = rightPos;
+				child = heap[childPos];
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			heap[pos] = child;
+			position[child] = pos;
+			pos = childPos;
+		}
+		heap[pos] = element;
+		position[element] = pos;
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2005-2010 KOM – Multimedia Communications Lab
+ *
+ * This file is part of PeerfactSim.KOM.
+ *
+ * PeerfactSim.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tud.kom.p2psim.impl.util.structures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform two-dimensional grid for range queries on moving elements. In
+ * contrast to the {@link KdTree}, elements can be relocated and removed in
+ * O(1). If the cell size is chosen to be at least the query radius, all
+ * elements within the radius around an element are contained in the 3x3 block
+ * of cells around the cell of that element.
+ *
+ * @param <T>
+ *            type of the stored elements (used as key, needs proper
+ *            hashCode/equals)
+ */
+public class SpatialGrid<T> {
+
+	private final double cellSize;
+
+	private final Map<Long, List<T>> cells = new HashMap<Long, List<T>>();
+
+	private final Map<T, Long> cellOfElement = new HashMap<T, Long>();
+
+	/**
+	 *
+	 * @param cellSize
+	 *            edge length of a cell, has to be positive and finite
+	 */
+	public SpatialGrid(double cellSize) {
+		if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+			throw new IllegalArgumentException("Invalid cell size " + cellSize);
+		}
+		this.cellSize = cellSize;
+	}
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	public int size() {
+		return cellOfElement.size();
+	}
+
+	public boolean contains(T element) {
+		return cellOfElement.containsKey(element);
+	}
+
+	/**
+	 * Inserts the element at the given coordinates or relocates it, if it is
+	 * already contained in the grid.
+	 *
+	 * @param element
+	 * @param x
+	 * @param y
+	 * @return true, if the element was added or changed its cell
+	 */
+	public boolean update(T element, double x, double y) {
+		long cell = toCell(toIndex(x), toIndex(y));
+		Long previousCell = cellOfElement.put(element, cell);
+		if (previousCell != null) {
+			if (previousCell == cell) {
+				return false;
+			}
+			removeFromCell(previousCell, element);
+		}
+		List<T> elements = cells.get(cell);
+		if (elements == null) {
+			elements = new ArrayList<T>(4);
+			cells.put(cell, elements);
+		}
+		elements.add(element);
+		return true;
+	}
+
+	/**
+	 * Removes the element from the grid
+	 *
+	 * @param element
+	 * @return true, if the element was contained in the grid
+	 */
+	public boolean remove(T element) {
+		Long cell = cellOfElement.remove(element);
+		if (cell == null) {
+			return false;
+		}
+		removeFromCell(cell, element);
+		return true;
+	}
+
+	public void clear() {
+		cells.clear();
+		cellOfElement.clear();
+	}
+
+	/**
+	 * Adds all elements within the 3x3 block of cells around the cell the
+	 * given element is currently assigned to (including the element itself).
+	 *
+	 * @param element
+	 * @param result
+	 */
+	public void getNearby(T element, Collection<? super T> result) {
+		Long cell = cellOfElement.get(element);
+		if (cell != null) {
+			collect(getCellX(cell), getCellY(cell), result);
+		}
+	}
+
+	/**
+	 * Adds all elements within the 3x3 block of cells around the cell
+	 * containing the given coordinates.
+	 *
+	 * @param x
+	 * @param y
+	 * @param result
+	 */
+	public void getNearby(double x, double y, Collection<? super T> result) {
+		collect(toIndex(x), toIndex(y), result);
+	}
+
+	private void collect(int cellX, int cellY, Collection<? super T> result) {
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+				List<T> elements = cells.get(toCell(cellX + dx, cellY + dy));
+				if (elements != null) {
+					result.addAll(elements);
+				}
+			}
+		}
+	}
+
+	private void removeFromCell(long cell, T element) {
+		List<T> elements = cells.get(cell);
+		elements.remove(element);
+		if (elements.isEmpty()) {
+			cells.remove(cell);
+		}
+	}
+
+	private int toIndex(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long toCell(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	private static int getCellX(long cell) {
+		return (int) (cell >> 32);
+	}
+
+	private static int getCellY(long cell) {
+		return (int) cell;
+	}
+
+}
@@ -17,6 +17,8 @@ import java.util.Queue;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
+import de.tudarmstadt.maki.simonstrator.api.SimulationContext;
+import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.peerfact.SimulatorRunnerExt.Command;
 import de.tudarmstadt.maki.simonstrator.peerfact.multirunner.SimulationDescription;
 import de.tudarmstadt.maki.simonstrator.peerfact.multirunner.SimulationLoader;
@@ -235,6 +237,17 @@ public class MultiRunner implements SimulationLoader.Callback {
 		System.exit(0);
 	}
 
+	/**
+	 * True, if simulations are executed as threads within this JVM instead of
+	 * separate processes (property multirunner.mode).
+	 * 
+	 * @return
+	 */
+	public static boolean isThreadMode() {
+		return "thread".equals(properties.getProperty("multirunner.mode",
+				"process").trim());
+	}
+
 	public static String prettyTimeInterval(long ms) {
 		final long hr = TimeUnit.MILLISECONDS.toHours(ms);
 		final long min = TimeUnit.MILLISECONDS.toMinutes(ms
@@ -251,6 +264,11 @@ public class MultiRunner implements SimulationLoader.Callback {
 	 * Shamelessly derived from
 	 * http://stackoverflow.com/questions/636367/executing
 	 * -a-java-application-in-a-separate-process
+	 * 
+	 * If the property multirunner.mode is set to "thread", the simulation is
+	 * not forked into a new JVM but executed by this thread within its own
+	 * {@link SimulationContext}. This saves JVM startup, class loading and
+	 * JIT warm-up for each run.
 	 */
 	public static final class SimProcess extends Thread {
 		
@@ -268,6 +286,11 @@ public class MultiRunner implements SimulationLoader.Callback {
 
 		public Process process;
 
+		/**
+		 * Only set if the simulation is executed within this JVM.
+		 */
+		private final SimulationContext context;
+
 		private final MultiRunner runner;
 
 		private SimProcessCommands simCmds;
@@ -281,6 +304,13 @@ public class MultiRunner implements SimulationLoader.Callback {
 			this.runner = runner;
 			this.desc = desc;
 
+			if (isThreadMode()) {
+				this.context = SimulationContext.create("SimProcess " + id);
+				this.processBuilder = null;
+				return;
+			}
+			this.context = null;
+
 			// Environment
 			String javaHome = System.getProperty("java.home");
 			String javaBin = javaHome + File.separator + "bin" + File.separator
@@ -318,6 +348,10 @@ public class MultiRunner implements SimulationLoader.Callback {
 		@Override
 		public void run() {
 			this.setName("SimProcess " + id);
+			if (context != null) {
+				runInContext();
+				return;
+			}
 			try {
 				process = processBuilder.start();
 				statusChange(Status.RUNNING);
@@ -344,6 +378,26 @@ public class MultiRunner implements SimulationLoader.Callback {
 			timestampFinished = System.currentTimeMillis();
 		}
 
+		/**
+		 * Executes the simulation within this thread.
+		 */
+		private void runInContext() {
+			statusChange(Status.RUNNING);
+			timestampStarted = System.currentTimeMillis();
+			final String[] args = desc.getArgs().toArray(
+					new String[desc.getArgs().size()]);
+			try {
+				context.run(new SimulatorRunner(args));
+				timestampFinished = System.currentTimeMillis();
+				statusChange(Status.FINISHED);
+			} catch (RuntimeException | AssertionError e) {
+				timestampFinished = System.currentTimeMillis();
+				errorBuilder.append(e.toString());
+				e.printStackTrace();
+				statusChange(Status.ERROR);
+			}
+		}
+
 		private void statusChange(Status newStatus) {
 			ownStatus = newStatus;
 			runner.onProcessStatusChanged(this, ownStatus);
@@ -396,6 +450,25 @@ public class MultiRunner implements SimulationLoader.Callback {
 		public void sendCommand(Command cmd, String args) {
 			if (simCmds != null) {
 				simCmds.sendCommand(cmd, args);
+			} else if (context != null && ownStatus == Status.RUNNING) {
+				// Simulations within this JVM only support progress queries
+				if (cmd == Command.PROGRESS) {
+					context.run(new Runnable() {
+						@Override
+						public void run() {
+							System.out.println(SimulatorRunnerExt.REP
+									+ "Simulation time: "
+									+ Time.getFormattedTime()
+									+ " Real duration: "
+									+ prettyTimeInterval(System
+											.currentTimeMillis()
+											- timestampStarted));
+						}
+					});
+				} else {
+					System.out.println("-- command " + cmd.cmd
+							+ " is not supported in thread mode.");
+				}
 			} else {
 				// Display some static information - enable users to delete the
 				// Simulation here?
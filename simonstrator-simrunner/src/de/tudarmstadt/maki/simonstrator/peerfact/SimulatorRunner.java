@@ -30,6 +30,8 @@ import java.util.Map;
 
 import org.apache.log4j.PropertyConfigurator;
 
+import de.tud.kom.p2psim.impl.common.DefaultMonitor;
+
 import de.tud.kom.p2psim.impl.simengine.Simulator;
 
 /**
@@ -61,6 +63,7 @@ public class SimulatorRunner implements Runnable {
 		// .replaceAll(Pattern.quote(File.separator), "_")
 				+ ".log");
 		PropertyConfigurator.configure(getClass().getResourceAsStream("/log4j.properties"));
+		DefaultMonitor.refreshLogLevels();
 		this.args = args;
 	}
 
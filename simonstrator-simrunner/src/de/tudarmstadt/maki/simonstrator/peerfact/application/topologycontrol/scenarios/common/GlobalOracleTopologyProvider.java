@@ -1,21 +1,51 @@
 package de.tudarmstadt.maki.simonstrator.peerfact.application.topologycontrol.scenarios.common;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tud.kom.p2psim.impl.topology.LocalGraphView;
+import de.tud.kom.p2psim.impl.topology.LocalGraphView.GraphDeltaObserver;
 import de.tud.kom.p2psim.impl.topology.views.LogicalWifiTopologyView;
 import de.tud.kom.p2psim.impl.topology.views.LogicalWifiTopologyView.LogicalWiFiTopology;
 import de.tud.kom.p2psim.impl.util.oracle.GlobalOracle;
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Oracle;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.CompositeGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgePropertyDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.GraphDifferencer;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeRemovalDelta;
 import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
 import de.tudarmstadt.maki.simonstrator.api.component.topology.AdaptableTopologyProvider;
 import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyID;
 import de.tudarmstadt.maki.simonstrator.api.util.XMLConfigurableConstructor;
+import de.tudarmstadt.maki.simonstrator.tc.component.DeltaTopologyProvider;
 import de.tudarmstadt.maki.simonstrator.tc.component.SimpleTopologyProvider;
 
-public class GlobalOracleTopologyProvider implements SimpleTopologyProvider {
+/**
+ * Provides the global UDG or logical WiFi topology. The deltas are taken from
+ * the {@link LocalGraphView} of the topology, so that the
+ * {@link SimpleTopologyProvider#getTopology() topology} does not need to be
+ * differenced.
+ */
+public class GlobalOracleTopologyProvider implements DeltaTopologyProvider, GraphDeltaObserver {
 
 	private final TopologyID topologyID;
 
+	private LocalGraphView graphView = null;
+
+	private Graph polledTopology = null;
+
+	/**
+	 * Deltas reported by the graph view since the previous poll
+	 */
+	private final List<IGraphDelta> pendingDeltas = new ArrayList<>();
+
 	@XMLConfigurableConstructor({ "role" })
 	public GlobalOracleTopologyProvider(final String role) {
 		this.topologyID = calculateTopologyId(role);
@@ -51,4 +81,68 @@ public class GlobalOracleTopologyProvider implements SimpleTopologyProvider {
 		}
 	}
 
+	@Override
+	public List<IGraphDelta> pollTopologyDeltas() {
+		if (this.graphView == null) {
+			this.graphView = getAnyTopologyComponent().getGraphView(this.topologyID);
+			this.graphView.addGraphDeltaObserver(this);
+		}
+
+		// Triggers the (lazy) recalculation and, thus, the observer
+		final Graph topology = this.graphView.getLocalView();
+		final List<IGraphDelta> deltas;
+		if (this.polledTopology == null) {
+			deltas = new GraphDifferencer().calculateDelta(Graphs.createGraph(), topology).getContainedDeltas();
+		} else {
+			deltas = filterOutdatedDeltas(this.pendingDeltas, topology);
+		}
+		this.pendingDeltas.clear();
+		this.polledTopology = topology;
+		return deltas;
+	}
+
+	@Override
+	public Graph getPolledTopology() {
+		return this.polledTopology;
+	}
+
+	@Override
+	public void graphChanged(final LocalGraphView view, final IGraphDelta delta) {
+		if (delta instanceof CompositeGraphDelta) {
+			this.pendingDeltas.addAll(((CompositeGraphDelta) delta).getContainedDeltas());
+		} else {
+			this.pendingDeltas.add(delta);
+		}
+	}
+
+	/**
+	 * The view may have been recalculated several times since the previous
+	 * poll. Removes the deltas that have been overridden by a later
+	 * recalculation: additions and property changes of edges that are gone by
+	 * now and removals of nodes that are back again.
+	 */
+	private static List<IGraphDelta> filterOutdatedDeltas(final List<IGraphDelta> deltas, final Graph topology) {
+		final List<IGraphDelta> result = new ArrayList<>(deltas.size());
+		for (final IGraphDelta delta : deltas) {
+			if (delta instanceof EdgeAdditionDelta || delta instanceof EdgePropertyDelta) {
+				if (!topology.containsEdge(((EdgeDelta) delta).getEdge()))
+					continue;
+			} else if (delta instanceof NodeRemovalDelta) {
+				if (topology.containsNode(((NodeRemovalDelta) delta).getNode().getId()))
+					continue;
+			}
+			result.add(delta);
+		}
+		return result;
+	}
+
+	private LogicalWiFiTopology getAnyTopologyComponent() {
+		for (final Host host : Oracle.getAllHosts()) {
+			final LogicalWiFiTopology topology = host.getComponentOrNull(LogicalWiFiTopology.class);
+			if (topology != null)
+				return topology;
+		}
+		throw new IllegalStateException("No host provides a " + LogicalWiFiTopology.class.getSimpleName());
+	}
+
 }
@@ -0,0 +1,92 @@
+package de.tud.kom.p2psim.impl.linklayer.mac;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.Time;
+
+/**
+ * Grouping of the receivers of a broadcast into {@link BroadcastDelivery}s,
+ * i.e., the number of events per broadcast
+ */
+public class BroadcastDeliveryTest {
+
+	private static final int RECEIVERS = 50;
+
+	/**
+	 * Upload time of 1 kB at 11 Mbit/s
+	 */
+	private static final long UPLOAD_TIME = 745 * Time.MICROSECOND;
+
+	@Test
+	public void testIdenticalDelays() throws Exception {
+		final long[] delays = new long[RECEIVERS];
+		for (int i = 0; i < RECEIVERS; i++) {
+			delays[i] = UPLOAD_TIME + 10 * Time.MILLISECOND;
+		}
+		Assert.assertEquals(1, group(delays, 0).size());
+		Assert.assertEquals(1, group(delays,
+				AbstractMacLayer.DEFAULT_BROADCAST_DELIVERY_RESOLUTION).size());
+	}
+
+	/**
+	 * Latencies with a variance of 50 microseconds (e.g., a StaticLatency
+	 * with variance): without a resolution, nearly every receiver gets its
+	 * own event.
+	 */
+	@Test
+	public void testDefaultResolutionReducesEvents() throws Exception {
+		final Random random = new Random(42);
+		final long[] delays = new long[RECEIVERS];
+		final Set<Long> distinctDelays = new HashSet<Long>();
+		for (int i = 0; i < RECEIVERS; i++) {
+			delays[i] = UPLOAD_TIME + 10 * Time.MILLISECOND
+					+ random.nextInt((int) (100 * Time.MICROSECOND));
+			distinctDelays.add(delays[i]);
+		}
+
+		final long resolution = AbstractMacLayer.DEFAULT_BROADCAST_DELIVERY_RESOLUTION;
+		final int exactEvents = group(delays, 0).size();
+		final int groupedEvents = group(delays, resolution).size();
+		Assert.assertEquals(distinctDelays.size(), exactEvents);
+		Assert.assertTrue(exactEvents > 3 * groupedEvents);
+		Assert.assertTrue(groupedEvents <= 100 * Time.MICROSECOND / resolution + 1);
+	}
+
+	@Test
+	public void testDelayWithinResolution() throws Exception {
+		final Random random = new Random(42);
+		final long[] delays = new long[RECEIVERS];
+		for (int i = 0; i < RECEIVERS; i++) {
+			delays[i] = UPLOAD_TIME + random.nextInt((int) Time.MILLISECOND);
+		}
+
+		for (long resolution : new long[] { 1, 10, 100 }) {
+			final Map<Long, BroadcastDelivery> deliveries = group(delays, resolution);
+			int receivers = 0;
+			for (Map.Entry<Long, BroadcastDelivery> entry : deliveries.entrySet()) {
+				// all delays of a bucket are in ((bucket - 1) * resolution, bucket * resolution]
+				final long bucketEnd = entry.getKey() * resolution;
+				Assert.assertTrue(entry.getValue().getDelay() <= bucketEnd);
+				Assert.assertTrue(entry.getValue().getDelay() > bucketEnd - resolution);
+				receivers += entry.getValue().getReceiverCount();
+			}
+			Assert.assertEquals(RECEIVERS, receivers);
+		}
+	}
+
+	private static Map<Long, BroadcastDelivery> group(final long[] delays, final long resolution) {
+		final Map<Long, BroadcastDelivery> deliveries = new LinkedHashMap<Long, BroadcastDelivery>();
+		for (long delay : delays) {
+			BroadcastDelivery.add(deliveries, resolution, null, null, delay, false);
+		}
+		return deliveries;
+	}
+
+}
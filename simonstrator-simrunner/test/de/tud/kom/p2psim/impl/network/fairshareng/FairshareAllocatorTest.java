@@ -0,0 +1,181 @@
+package de.tud.kom.p2psim.impl.network.fairshareng;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tud.kom.p2psim.api.network.BandwidthImpl;
+import de.tud.kom.p2psim.impl.network.IPv4NetID;
+import de.tudarmstadt.maki.simonstrator.api.Binder;
+import de.tudarmstadt.maki.simonstrator.api.component.core.TimeComponent;
+
+/**
+ * Randomized differential test of the {@link FairshareAllocator} against
+ * {@link DirectedGraph#allocateBandwidthOnFullGraph_Alg01()}. Identical worlds
+ * (nodes and flows) are allocated by Alg01, the sequential allocator and the
+ * parallel allocator. Rates and remaining node bandwidth have to be identical.
+ */
+public class FairshareAllocatorTest {
+
+	private static final int TRIALS = 200;
+
+	@BeforeClass
+	public static void setUpTime() {
+		Binder.registerComponent(new TimeComponent() {
+			@Override
+			public long getCurrentTime() {
+				return 0;
+			}
+		});
+	}
+
+	@Test
+	public void testFullGraph() throws Exception {
+		final Random random = new Random(42);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			final long seed = random.nextLong();
+			final int nodeCount = 2 + random.nextInt(100);
+			final int flowCount = 1 + random.nextInt(nodeCount * 4);
+
+			final World alg01 = new World(seed, nodeCount, flowCount);
+			final World sequential = new World(seed, nodeCount, flowCount);
+			final World parallel = new World(seed, nodeCount, flowCount);
+
+			new DirectedGraph(alg01.graph).allocateBandwidthOnFullGraph_Alg01();
+			new FairshareAllocator().allocate(sequential.graph.getAllFlows());
+			new FairshareAllocator(4, 1).allocate(parallel.graph.getAllFlows());
+			assertSameAllocation("trial " + trial, alg01, sequential);
+			assertSameAllocation("trial " + trial + " (parallel)", alg01, parallel);
+		}
+	}
+
+	/**
+	 * Reallocates the flows of some nodes, the other flows keep their rates.
+	 */
+	@Test
+	public void testSubgraphs() throws Exception {
+		final Random random = new Random(4711);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			final long seed = random.nextLong();
+			final int nodeCount = 2 + random.nextInt(100);
+			final int flowCount = 1 + random.nextInt(nodeCount * 4);
+
+			final World alg01 = new World(seed, nodeCount, flowCount);
+			final World sequential = new World(seed, nodeCount, flowCount);
+			final World parallel = new World(seed, nodeCount, flowCount);
+			final FairshareAllocator sequentialAllocator = new FairshareAllocator();
+			final FairshareAllocator parallelAllocator = new FairshareAllocator(4, 1);
+
+			new DirectedGraph(alg01.graph).allocateBandwidthOnFullGraph_Alg01();
+			sequentialAllocator.allocate(sequential.graph.getAllFlows());
+			parallelAllocator.allocate(parallel.graph.getAllFlows());
+
+			final Random subsetRandom = new Random(seed);
+			for (int round = 0; round < 5; round++) {
+				final Set<Integer> affectedNodes = new HashSet<Integer>();
+				final int affectedNodeCount = 1 + subsetRandom.nextInt(Math.max(1, nodeCount / 4));
+				for (int i = 0; i < affectedNodeCount; i++) {
+					affectedNodes.add(subsetRandom.nextInt(nodeCount));
+				}
+
+				alg01.getAffectedGraph(affectedNodes).allocateBandwidthOnFullGraph_Alg01();
+				sequentialAllocator.allocate(sequential.getAffectedGraph(affectedNodes).getAllFlows());
+				parallelAllocator.allocate(parallel.getAffectedGraph(affectedNodes).getAllFlows());
+				assertSameAllocation("trial " + trial + ", round " + round, alg01, sequential);
+				assertSameAllocation("trial " + trial + ", round " + round + " (parallel)", alg01, parallel);
+			}
+		}
+	}
+
+	@Test
+	public void testLargeWorld() throws Exception {
+		final World alg01 = new World(4711, 1000, 10000);
+		final World sequential = new World(4711, 1000, 10000);
+		final World parallel = new World(4711, 1000, 10000);
+
+		new DirectedGraph(alg01.graph).allocateBandwidthOnFullGraph_Alg01();
+		new FairshareAllocator().allocate(sequential.graph.getAllFlows());
+		new FairshareAllocator(4, 1).allocate(parallel.graph.getAllFlows());
+		assertSameAllocation("large world", alg01, sequential);
+		assertSameAllocation("large world (parallel)", alg01, parallel);
+	}
+
+	/**
+	 * Compares rates and node bandwidth of both worlds.
+	 */
+	private static void assertSameAllocation(final String description, final World expected, final World actual) {
+		for (int i = 0; i < expected.flows.size(); i++) {
+			Assert.assertEquals(description + ": rate of " + expected.flows.get(i), expected.flows.get(i).getRate(),
+					actual.flows.get(i).getRate(), 0.0);
+		}
+		for (int i = 0; i < expected.nodes.size(); i++) {
+			Assert.assertEquals(description + ": bandwidth of " + expected.nodes.get(i),
+					expected.nodes.get(i).getCurrentBandwidth(), actual.nodes.get(i).getCurrentBandwidth());
+		}
+	}
+
+	/**
+	 * Random nodes and flows, created identically for the same seed.
+	 */
+	private static class World {
+
+		private final FairshareSubnet subnet = new FairshareSubnet();
+
+		private final DirectedGraph graph = new DirectedGraph(false);
+
+		private final List<FairshareNode> nodes = new ArrayList<FairshareNode>();
+
+		private final List<FairshareFlow> flows = new ArrayList<FairshareFlow>();
+
+		public World(final long seed, final int nodeCount, final int flowCount) {
+			final Random random = new Random(seed);
+
+			for (int i = 0; i < nodeCount; i++) {
+				// Few bandwidth classes to get many ties
+				final long down = 10000 * (1 + random.nextInt(random.nextBoolean() ? 4 : 1000));
+				final long up = 10000 * (1 + random.nextInt(random.nextBoolean() ? 4 : 1000));
+				final FairshareNode node = new FairshareNode(null, this.subnet, new IPv4NetID((long) i),
+						new BandwidthImpl(down, up), null, null);
+				node.setIndex(i);
+				this.nodes.add(node);
+				this.graph.addNode(node);
+			}
+
+			// Flows are equal if source and destination are
+			final Set<Long> pairs = new HashSet<Long>();
+			for (int i = 0; i < flowCount; i++) {
+				final int src = random.nextInt(nodeCount);
+				final int dst = random.nextInt(nodeCount);
+				if (src == dst || !pairs.add((long) src * nodeCount + dst)) {
+					continue;
+				}
+				final FairshareFlow flow = new FairshareFlow(this.subnet, this.nodes.get(src), this.nodes.get(dst),
+						1000000, 0);
+				this.flows.add(flow);
+				this.graph.addFlow(flow);
+			}
+		}
+
+		/**
+		 * The graph of all flows from or to the given nodes.
+		 */
+		public DirectedGraph getAffectedGraph(final Set<Integer> affectedNodes) {
+			final DirectedGraph affectedGraph = new DirectedGraph(false);
+			for (final FairshareFlow flow : this.flows) {
+				if (affectedNodes.contains(flow.getSrc().getIndex())
+						|| affectedNodes.contains(flow.getDst().getIndex())) {
+					affectedGraph.addFlowWithNodes(flow);
+				}
+			}
+			return affectedGraph;
+		}
+
+	}
+
+}
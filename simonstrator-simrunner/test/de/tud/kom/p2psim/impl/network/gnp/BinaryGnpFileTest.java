@@ -0,0 +1,194 @@
+package de.tud.kom.p2psim.impl.network.gnp;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tud.kom.p2psim.impl.network.gnp.topology.CountryLookup;
+import de.tud.kom.p2psim.impl.network.gnp.topology.GnpPosition;
+import de.tud.kom.p2psim.impl.network.gnp.topology.PingErLookup;
+
+/**
+ * Converts a small GNP file with {@link BinaryGnpFile#convertFromXML(File, File)}
+ * and checks that the binary file contains the same hosts, groups and lookup
+ * tables as the XML file, read the way the {@link GnpNetLayerFactory} does.
+ */
+public class BinaryGnpFileTest {
+
+	private File xmlFile;
+
+	private File binaryFile;
+
+	private Element root;
+
+	private BinaryGnpFile binary;
+
+	@Before
+	public void setUp() throws Exception {
+		xmlFile = File.createTempFile("gnp", ".xml");
+		binaryFile = File.createTempFile("gnp", ".bin");
+		writeGnpFile(xmlFile, new Random(42));
+
+		BinaryGnpFile.convertFromXML(xmlFile, binaryFile);
+		root = new SAXReader(false).read(xmlFile).getRootElement();
+		binary = BinaryGnpFile.open(binaryFile);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		xmlFile.delete();
+		binaryFile.delete();
+	}
+
+	@Test
+	public void testFormatDetection() throws Exception {
+		Assert.assertFalse(BinaryGnpFile.isBinaryFile(xmlFile));
+		Assert.assertTrue(BinaryGnpFile.isBinaryFile(binaryFile));
+	}
+
+	@Test
+	public void testHosts() throws Exception {
+		int hostCount = 0;
+		for (Iterator<?> iter = root.element("Hosts").elementIterator("Host"); iter.hasNext();) {
+			final Element host = (Element) iter.next();
+			final long ip = Long.parseLong(host.attributeValue("ip"));
+			final int index = binary.indexOf(ip);
+			Assert.assertTrue("missing host " + ip, index >= 0);
+			Assert.assertEquals(ip, binary.getIp(index));
+
+			final GeoLocation geoLoc = binary.getGeoLocation(index);
+			Assert.assertEquals(host.attributeValue("continentalArea"), geoLoc.getContinentalArea());
+			Assert.assertEquals(host.attributeValue("countryCode"), geoLoc.getCountryCode());
+			Assert.assertEquals(host.attributeValue("region"), geoLoc.getRegion());
+			Assert.assertEquals(host.attributeValue("city"), geoLoc.getCity());
+			Assert.assertEquals(host.attributeValue("isp"), geoLoc.getIsp());
+			Assert.assertEquals(Double.parseDouble(host.attributeValue("latitude")), geoLoc.getLatitude(), 0.0);
+			Assert.assertEquals(Double.parseDouble(host.attributeValue("longitude")), geoLoc.getLongitude(), 0.0);
+
+			final String[] coordinates = host.attributeValue("coordinates").split(",");
+			final GnpPosition gnpPos = binary.getGnpPosition(index);
+			Assert.assertEquals(coordinates.length, gnpPos.getNoOfDimensions());
+			for (int c = 0; c < coordinates.length; c++) {
+				Assert.assertEquals(Double.parseDouble(coordinates[c]), gnpPos.getGnpCoordinates(c), 0.0);
+			}
+			hostCount++;
+		}
+		Assert.assertEquals(hostCount, binary.getHostCount());
+		Assert.assertTrue(binary.indexOf(-1) < 0);
+		Assert.assertTrue(binary.indexOf(Long.MAX_VALUE) < 0);
+	}
+
+	@Test
+	public void testGroups() throws Exception {
+		final Set<String> groupIds = new LinkedHashSet<String>();
+		for (Iterator<?> iter = root.element("GroupLookup").elementIterator("Group"); iter.hasNext();) {
+			final Element group = (Element) iter.next();
+			final List<Long> ips = new ArrayList<Long>();
+			for (Iterator<?> ipIter = group.elementIterator("IPs"); ipIter.hasNext();) {
+				for (String ip : ((Element) ipIter.next()).attributeValue("value").split(",")) {
+					ips.add(Long.parseLong(ip));
+				}
+			}
+			groupIds.add(group.attributeValue("id"));
+
+			final long[] binaryIps = binary.getGroup(group.attributeValue("id"));
+			Assert.assertNotNull(binaryIps);
+			Assert.assertEquals(ips.size(), binaryIps.length);
+			for (int i = 0; i < binaryIps.length; i++) {
+				Assert.assertEquals(ips.get(i).longValue(), binaryIps[i]);
+			}
+		}
+		Assert.assertEquals(groupIds, binary.getGroupIds());
+		Assert.assertNull(binary.getGroup("unknown"));
+	}
+
+	@Test
+	public void testLookupTables() throws Exception {
+		final PingErLookup pingErLookup = new PingErLookup();
+		pingErLookup.loadFromXML(root.element("PingErLookup"));
+		final PingErLookup binaryPingErLookup = binary.getPingErLookup();
+		Assert.assertEquals(pingErLookup.getData().keySet(), binaryPingErLookup.getData().keySet());
+		for (String from : pingErLookup.getData().keySet()) {
+			Assert.assertEquals(pingErLookup.getData().get(from).keySet(),
+					binaryPingErLookup.getData().get(from).keySet());
+			for (String to : pingErLookup.getData().get(from).keySet()) {
+				Assert.assertEquals(pingErLookup.getMinimumRtt(from, to), binaryPingErLookup.getMinimumRtt(from, to), 0.0);
+				Assert.assertEquals(pingErLookup.getAverageRtt(from, to), binaryPingErLookup.getAverageRtt(from, to), 0.0);
+				Assert.assertEquals(pingErLookup.getRttVariation(from, to),
+						binaryPingErLookup.getRttVariation(from, to), 0.0);
+				Assert.assertEquals(pingErLookup.getPacktLossRate(from, to),
+						binaryPingErLookup.getPacktLossRate(from, to), 0.0);
+			}
+		}
+
+		final CountryLookup countryLookup = new CountryLookup();
+		countryLookup.importFromXML(root.element("CountryLookup"));
+		final CountryLookup binaryCountryLookup = binary.getCountryLookup();
+		Assert.assertEquals(countryLookup.getCountryCodes(), binaryCountryLookup.getCountryCodes());
+		for (String code : countryLookup.getCountryCodes()) {
+			Assert.assertEquals(countryLookup.getGeoIpCountryName(code), binaryCountryLookup.getGeoIpCountryName(code));
+			Assert.assertEquals(countryLookup.getPingErCountryName(code), binaryCountryLookup.getPingErCountryName(code));
+		}
+		Assert.assertEquals(countryLookup.getPingErCountrys(), binaryCountryLookup.getPingErCountrys());
+		Assert.assertEquals(countryLookup.getPingErRegions(), binaryCountryLookup.getPingErRegions());
+	}
+
+	/**
+	 * Writes hosts with unique IPs, some of them without ISP, two groups and
+	 * both lookup tables.
+	 */
+	private static void writeGnpFile(File file, Random random) throws Exception {
+		final List<Long> ips = new ArrayList<Long>();
+		while (ips.size() < 200) {
+			final long ip = (long) random.nextInt(Integer.MAX_VALUE) * (random.nextBoolean() ? 2 : 1);
+			if (!ips.contains(ip)) {
+				ips.add(ip);
+			}
+		}
+
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			out.println("<gnp>");
+			out.println("<GroupLookup>");
+			out.println("<Group id=\"hosts\" maxsize=\"3\"><IPs value=\"" + ips.get(5) + "," + ips.get(3)
+					+ "\"/><IPs value=\"" + ips.get(7) + "\"/></Group>");
+			out.println("<Group id=\"hösts2\" maxsize=\"1\"><IPs value=\"" + ips.get(9) + "\"/></Group>");
+			out.println("</GroupLookup>");
+			out.println("<Hosts>");
+			for (long ip : ips) {
+				out.println("<Host ip=\"" + ip + "\" continentalArea=\"CA" + random.nextInt(5) + "\" countryCode=\"c"
+						+ random.nextInt(50) + "\" region=\"Region " + random.nextInt(100) + "\" city=\"City &amp; "
+						+ random.nextInt(1000) + "\"" + (random.nextInt(10) == 0 ? "" : " isp=\"ISP" + random.nextInt(30) + "\"")
+						+ " latitude=\"" + (random.nextDouble() * 180 - 90) + "\" longitude=\""
+						+ (random.nextDouble() * 360 - 180) + "\" coordinates=\"" + random.nextGaussian() + ","
+						+ random.nextGaussian() + (random.nextBoolean() ? "," + random.nextGaussian() : "") + "\"/>");
+			}
+			out.println("</Hosts>");
+			out.println("<PingErLookup>");
+			for (int i = 0; i < 20; i++) {
+				out.println("<SummaryReport from=\"Country" + i % 4 + "\" to=\"Region" + i + "\" minimumRtt=\"" + i
+						+ "\" averageRtt=\"" + (i + random.nextDouble()) + "\" delayVariation=\"" + random.nextDouble()
+						+ "\" packetLoss=\"" + random.nextDouble() + "\"/>");
+			}
+			out.println("</PingErLookup>");
+			out.println("<CountryLookup>");
+			out.println("<CountryKey code=\"de\" countryGeoIP=\"Germany\" countryPingEr=\"Germany\" regionPingEr=\"Europe\"/>");
+			out.println("<CountryKey code=\"us\" countryGeoIP=\"United States\" countryPingEr=\"United States\" regionPingEr=\"North America\"/>");
+			out.println("</CountryLookup>");
+			out.println("</gnp>");
+		}
+	}
+
+}
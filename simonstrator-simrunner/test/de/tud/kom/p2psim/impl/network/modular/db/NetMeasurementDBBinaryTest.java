@@ -0,0 +1,155 @@
+package de.tud.kom.p2psim.impl.network.modular.db;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.City;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.Continent;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.Country;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.Group;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.Host;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.PingErRegion;
+import de.tud.kom.p2psim.impl.network.modular.db.NetMeasurementDB.Region;
+import de.tud.kom.p2psim.impl.util.db.relational.BinaryRelationalDBFile;
+
+/**
+ * Writes a small {@link NetMeasurementDB} as XML, converts it into a
+ * {@link BinaryRelationalDBFile} and checks that loading the binary file
+ * results in the same rows and relations as loading the XML file.
+ */
+public class NetMeasurementDBBinaryTest {
+
+	private File xmlFile;
+
+	private File binaryFile;
+
+	private NetMeasurementDB db;
+
+	@Before
+	public void setUp() throws Exception {
+		xmlFile = File.createTempFile("netmeasurementdb", ".xml");
+		binaryFile = File.createTempFile("netmeasurementdb", ".bin");
+		db = createDB(new Random(42));
+		db.writeToXMLFile(xmlFile, "netmeasurementdb");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		xmlFile.delete();
+		binaryFile.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final NetMeasurementDB fromXml = new NetMeasurementDB();
+		fromXml.setFile(xmlFile.getPath());
+		fromXml.writeToBinaryFile(binaryFile);
+		Assert.assertFalse(BinaryRelationalDBFile.isBinaryFile(xmlFile));
+		Assert.assertTrue(BinaryRelationalDBFile.isBinaryFile(binaryFile));
+
+		final NetMeasurementDB fromBinary = new NetMeasurementDB();
+		fromBinary.setFile(binaryFile.getPath());
+		Assert.assertTrue(fromBinary.wasLoadedFromFile());
+
+		final String expected = toXML(fromXml);
+		Assert.assertEquals(toXML(db), expected);
+		Assert.assertEquals(expected, toXML(fromBinary));
+		Assert.assertEquals(fromXml.getStats(), fromBinary.getStats());
+	}
+
+	@Test
+	public void testRelations() throws Exception {
+		db.writeToBinaryFile(binaryFile);
+		final NetMeasurementDB fromBinary = new NetMeasurementDB();
+		fromBinary.setFile(binaryFile.getPath());
+
+		for (Host host : db.getAllObjects(Host.class)) {
+			final Host binaryHost = fromBinary.getObjFromID(Host.class, host.getId());
+			Assert.assertEquals(host.getCoordinates(), binaryHost.getCoordinates());
+			Assert.assertEquals(host.getLatitude(), binaryHost.getLatitude(), 0.0);
+			Assert.assertEquals(host.getLongitude(), binaryHost.getLongitude(), 0.0);
+			Assert.assertEquals(host.getCity().getId(), binaryHost.getCity().getId());
+			Assert.assertSame(binaryHost.getCity(), fromBinary.getObjFromID(City.class, host.getCity().getId()));
+		}
+		for (Group group : db.getAllObjects(Group.class)) {
+			final Group binaryGroup = fromBinary.getStringAddrObjFromStr(Group.class, group.getName());
+			Assert.assertEquals(group.getMembers().size(), binaryGroup.getMembers().size());
+			for (int i = 0; i < group.getMembers().size(); i++) {
+				Assert.assertSame(fromBinary.getObjFromID(Host.class, group.getMembers().get(i).getId()),
+						binaryGroup.getMembers().get(i));
+			}
+		}
+		for (Country country : db.getAllObjects(Country.class)) {
+			final Country binaryCountry = fromBinary.getStringAddrObjFromStr(Country.class, country.getName());
+			Assert.assertEquals(country.getCC(), binaryCountry.getCC());
+			Assert.assertEquals(country.getContinent().getName(), binaryCountry.getContinent().getName());
+			Assert.assertEquals(country.getPingErRegion().getName(), binaryCountry.getPingErRegion().getName());
+		}
+	}
+
+	/**
+	 * Creates a database with a few rows in every table, names include
+	 * characters outside of ASCII.
+	 */
+	private static NetMeasurementDB createDB(Random random) {
+		final NetMeasurementDB db = new NetMeasurementDB();
+		final List<Country> countries = new ArrayList<Country>();
+		final List<PingErRegion> pingErRegions = new ArrayList<PingErRegion>();
+		final List<Host> hosts = new ArrayList<Host>();
+		for (int c = 0; c < 3; c++) {
+			final Continent continent = db.new Continent("Kontinent ä" + c);
+			final PingErRegion pingErRegion = db.new PingErRegion("PingEr region " + c);
+			pingErRegions.add(pingErRegion);
+			for (int k = 0; k < 4; k++) {
+				final Country country = db.new Country("Country " + c + "_" + k, continent, pingErRegion, "c" + c + k);
+				countries.add(country);
+				final Region region = db.new Region("Region " + c + "_" + k, country);
+				for (int ci = 0; ci < 2; ci++) {
+					final City city = db.new City("City " + c + "_" + k + "_" + ci, region);
+					for (int h = 0; h < 5; h++) {
+						final List<Double> coordinates = new ArrayList<Double>();
+						for (int d = 0; d < 5; d++) {
+							coordinates.add(random.nextGaussian() * 100);
+						}
+						hosts.add(db.new Host(random.nextInt(), city, random.nextDouble() * 360 - 180,
+								random.nextDouble() * 180 - 90, coordinates));
+					}
+				}
+			}
+		}
+		for (int g = 0; g < 4; g++) {
+			db.new Group("Group " + g, new ArrayList<Host>(hosts.subList(g * 20, g * 20 + 40)));
+		}
+		for (int i = 0; i < 50; i++) {
+			db.new CountryCountrySummaryRelation(countries.get(random.nextInt(countries.size())),
+					countries.get(random.nextInt(countries.size())), random.nextDouble(), random.nextDouble(),
+					random.nextDouble(), random.nextDouble());
+		}
+		for (int i = 0; i < 5; i++) {
+			db.new RegionRegionSummaryRelation(pingErRegions.get(random.nextInt(pingErRegions.size())),
+					pingErRegions.get(random.nextInt(pingErRegions.size())), 1, 2, 3, 4);
+		}
+		db.new GlobalSummaryRelation(5, 6, 7, 8);
+		return db;
+	}
+
+	private static String toXML(NetMeasurementDB db) throws Exception {
+		final StringWriter out = new StringWriter();
+		final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+		db.writeToXML(writer);
+		writer.close();
+		return out.toString();
+	}
+
+}
@@ -0,0 +1,166 @@
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tud.kom.p2psim.impl.simengine.Scheduler.SchedulerEvent;
+import de.tudarmstadt.maki.simonstrator.api.Time;
+
+/**
+ * Unit tests for {@link CalendarEventQueue}, using the {@link HeapEventQueue}
+ * as reference
+ */
+public class CalendarEventQueueTest {
+
+	private long orderIdx = 0;
+
+	@Test
+	public void testEmptyQueue() throws Exception {
+		final CalendarEventQueue queue = new CalendarEventQueue();
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertNull(queue.peek());
+		Assert.assertNull(queue.poll());
+	}
+
+	@Test
+	public void testSameTimeFifo() throws Exception {
+		final CalendarEventQueue queue = new CalendarEventQueue();
+		final SchedulerEvent[] events = new SchedulerEvent[1000];
+		for (int i = 0; i < events.length; ++i) {
+			events[i] = createEvent(42 * Time.SECOND);
+			queue.add(events[i]);
+		}
+		for (int i = 0; i < events.length; ++i) {
+			Assert.assertSame(events[i], queue.peek());
+			Assert.assertSame(events[i], queue.poll());
+		}
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testEventAtCurrentTime() throws Exception {
+		final CalendarEventQueue queue = new CalendarEventQueue();
+		final SchedulerEvent first = createEvent(10 * Time.SECOND);
+		final SchedulerEvent later = createEvent(20 * Time.SECOND);
+		queue.add(first);
+		queue.add(later);
+		Assert.assertSame(first, queue.poll());
+
+		// Scheduled while processing the first event
+		final SchedulerEvent now = createEvent(10 * Time.SECOND);
+		queue.add(now);
+		Assert.assertSame(now, queue.peek());
+		Assert.assertSame(now, queue.poll());
+		Assert.assertSame(later, queue.poll());
+	}
+
+	@Test
+	public void testFillAndDrain() throws Exception {
+		final Random random = new Random(42);
+		final CalendarEventQueue calendar = new CalendarEventQueue();
+		final HeapEventQueue heap = new HeapEventQueue();
+		for (int i = 0; i < 20000; ++i) {
+			final SchedulerEvent event = createEvent(random.nextInt(1000) * Time.MILLISECOND);
+			calendar.add(event);
+			heap.add(event);
+		}
+		assertSameOrder(heap, calendar, 0, null);
+	}
+
+	/**
+	 * Interleaved add and poll as done by the {@link Scheduler}: new events
+	 * are never earlier than the last polled event. The number of pending
+	 * events grows and shrinks by several factors of two, which resizes the
+	 * calendar in both directions.
+	 */
+	@Test
+	public void testRandomHoldModel() throws Exception {
+		final long[] spacings = { Time.MICROSECOND, Time.MILLISECOND, Time.SECOND, Time.HOUR };
+		for (final long spacing : spacings) {
+			final Random random = new Random(spacing);
+			final CalendarEventQueue calendar = new CalendarEventQueue();
+			final HeapEventQueue heap = new HeapEventQueue();
+			long now = 0;
+			for (int phase = 0; phase < 6; ++phase) {
+				final boolean growing = phase % 2 == 0;
+				for (int i = 0; i < 10000; ++i) {
+					final int adds = growing ? random.nextInt(3) : random.nextInt(2);
+					for (int a = 0; a < adds; ++a) {
+						final SchedulerEvent event = createEvent(now + nextDelay(random, spacing));
+						calendar.add(event);
+						heap.add(event);
+					}
+					if (!heap.isEmpty()) {
+						Assert.assertEquals(heap.size(), calendar.size());
+						Assert.assertSame(heap.peek(), calendar.peek());
+						final SchedulerEvent event = heap.poll();
+						Assert.assertSame(event, calendar.poll());
+						now = event.simTime;
+					}
+				}
+			}
+			assertSameOrder(heap, calendar, now, random);
+		}
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		final CalendarEventQueue queue = new CalendarEventQueue();
+		for (int i = 0; i < 100; ++i) {
+			queue.add(createEvent(i * Time.HOUR));
+		}
+		queue.clear();
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertNull(queue.poll());
+
+		final SchedulerEvent event = createEvent(5 * Time.SECOND);
+		queue.add(event);
+		Assert.assertSame(event, queue.poll());
+	}
+
+	/**
+	 * Mostly short delays with occasional outliers and many events at the
+	 * same time.
+	 */
+	private static long nextDelay(final Random random, final long spacing) {
+		switch (random.nextInt(10)) {
+		case 0:
+			return 0;
+		case 1:
+			return random.nextInt(1000) * spacing;
+		default:
+			return random.nextInt(10) * spacing;
+		}
+	}
+
+	/**
+	 * Drains both queues, optionally adding a new event at the current time
+	 * in between, and checks that they return the identical sequence.
+	 */
+	private void assertSameOrder(final HeapEventQueue heap, final CalendarEventQueue calendar, long now, final Random random) {
+		long lastTime = Long.MIN_VALUE;
+		long lastOrderIdx = Long.MIN_VALUE;
+		while (!heap.isEmpty()) {
+			Assert.assertEquals(heap.size(), calendar.size());
+			if (random != null && random.nextInt(4) == 0) {
+				final SchedulerEvent event = createEvent(now);
+				calendar.add(event);
+				heap.add(event);
+			}
+			final SchedulerEvent event = heap.poll();
+			Assert.assertSame(event, calendar.poll());
+			Assert.assertTrue(event.simTime > lastTime || event.simTime == lastTime && event.globalOrderIdx > lastOrderIdx);
+			lastTime = event.simTime;
+			lastOrderIdx = event.globalOrderIdx;
+			now = event.simTime;
+		}
+		Assert.assertTrue(calendar.isEmpty());
+		Assert.assertNull(calendar.poll());
+	}
+
+	private SchedulerEvent createEvent(final long simTime) {
+		return new SchedulerEvent(null, simTime, null, 0, 0, orderIdx++);
+	}
+}
@@ -0,0 +1,350 @@
+package de.tud.kom.p2psim.impl.simengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.EventHandler;
+import de.tudarmstadt.maki.simonstrator.api.Host;
+import de.tudarmstadt.maki.simonstrator.api.Time;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
+import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.network.NetworkComponent;
+import de.tudarmstadt.maki.simonstrator.api.component.transport.TransportComponent;
+
+/**
+ * Runs the same simulation sequentially and with a different number of
+ * logical processes in the {@link ParallelEventExecutor}. The trace of all
+ * events (including random numbers and global state) has to be identical to
+ * the sequential run.
+ */
+public class ParallelEventExecutorTest {
+
+	private static final int HOSTS = 200;
+
+	private static final long LOOKAHEAD = 10 * Time.MILLISECOND;
+
+	private static final long STATISTICS_INTERVAL = 50 * Time.MILLISECOND;
+
+	private static final long END = 2 * Time.SECOND;
+
+	@Test
+	public void testSameTraceAsSequentialRun() throws Exception {
+		final World reference = new World(0);
+		reference.run();
+		Assert.assertTrue(reference.trace.size() > 10000);
+		Assert.assertTrue(reference.messages > 0);
+
+		for (int parallelism : new int[] { 1, 2, 4, 7 }) {
+			final World world = new World(parallelism);
+			world.run();
+			assertSameResult("parallelism " + parallelism, reference, world);
+			if (parallelism > 1) {
+				Assert.assertTrue(world.usedLogicalProcessThreads());
+			}
+		}
+	}
+
+	@Test
+	public void testRepeatedRuns() throws Exception {
+		final World reference = new World(0);
+		reference.run();
+		for (int i = 0; i < 3; i++) {
+			final World world = new World(4);
+			world.run();
+			assertSameResult("run " + i, reference, world);
+		}
+	}
+
+	/**
+	 * Within the lookahead, an event may schedule events for other hosts of
+	 * the same logical process. They are executed at their timestamp.
+	 */
+	@Test
+	public void testEventForOtherHostOfSameProcess() throws Exception {
+		final Scheduler scheduler = new Scheduler(false);
+		scheduler.setParallelism(1);
+		final List<TestHost> hosts = new ArrayList<TestHost>();
+		for (int i = 0; i < 4; i++) {
+			hosts.add(new TestHost(i));
+		}
+		scheduler.setPartitioning(hosts, LOOKAHEAD);
+		scheduler.setFinishAt(END);
+
+		final List<String> executed = new ArrayList<String>();
+		final HostHandler local = new HostHandler(hosts.get(0)) {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				executed.add("local " + scheduler.getCurrentTime());
+			}
+		};
+		final HostHandler other = new HostHandler(hosts.get(3)) {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				executed.add("other " + scheduler.getCurrentTime());
+			}
+		};
+		final HostHandler sender = new HostHandler(hosts.get(0)) {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				executed.add("sender " + scheduler.getCurrentTime());
+				scheduler.scheduleIn(0, other, null, 0);
+				scheduler.scheduleIn(0, local, null, 0);
+			}
+		};
+		scheduler.scheduleIn(5 * Time.MILLISECOND, sender, null, 0);
+		scheduler.start();
+
+		final long time = 5 * Time.MILLISECOND;
+		Assert.assertEquals(
+				Arrays.asList("sender " + time, "other " + time,
+						"local " + time),
+				executed);
+	}
+
+	/**
+	 * An event for a host of another logical process within the lookahead
+	 * cannot be executed at its timestamp.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testLookaheadViolation() throws Exception {
+		final Scheduler scheduler = new Scheduler(false);
+		scheduler.setParallelism(2);
+		final List<TestHost> hosts = new ArrayList<TestHost>();
+		for (int i = 0; i < 4; i++) {
+			hosts.add(new TestHost(i));
+		}
+		scheduler.setPartitioning(hosts, LOOKAHEAD);
+		scheduler.setFinishAt(END);
+
+		final HostHandler remote = new HostHandler(hosts.get(3)) {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				//
+			}
+		};
+		final HostHandler sender = new HostHandler(hosts.get(0)) {
+			@Override
+			public void eventOccurred(Object content, int type) {
+				scheduler.scheduleIn(LOOKAHEAD - 1, remote, null, 0);
+			}
+		};
+		scheduler.scheduleIn(5 * Time.MILLISECOND, sender, null, 0);
+		scheduler.start();
+	}
+
+	private static void assertSameResult(final String description, final World expected, final World actual) {
+		Assert.assertEquals(description, expected.trace.size(), actual.trace.size());
+		for (int i = 0; i < expected.trace.size(); i++) {
+			Assert.assertEquals(description + ", entry " + i, expected.trace.get(i), actual.trace.get(i));
+		}
+		for (int i = 0; i < HOSTS; i++) {
+			Assert.assertEquals(description + ", host " + i, expected.nodes.get(i).state, actual.nodes.get(i).state);
+		}
+		Assert.assertEquals(description, expected.messages, actual.messages);
+	}
+
+	/**
+	 * Hosts with timers and messages to random other hosts, a global
+	 * statistics event and a random generator shared by all of them. The trace
+	 * and the message counter are global state.
+	 */
+	private static class World implements EventHandler {
+
+		private final Scheduler scheduler = new Scheduler(false);
+
+		private final Random random = new OrderedRandom(scheduler, 42);
+
+		private final List<Node> nodes = new ArrayList<Node>();
+
+		private final List<String> trace = new ArrayList<String>();
+
+		private final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+		private long messages = 0;
+
+		public World(final int parallelism) {
+			final List<Host> hosts = new ArrayList<Host>();
+			for (int i = 0; i < HOSTS; i++) {
+				final Node node = new Node(this, new TestHost(i));
+				nodes.add(node);
+				hosts.add(node.getHost());
+			}
+			scheduler.setParallelism(parallelism);
+			scheduler.setPartitioning(hosts, LOOKAHEAD);
+			scheduler.setFinishAt(END);
+			for (Node node : nodes) {
+				scheduler.scheduleIn(random.nextInt((int) LOOKAHEAD), node, null, Node.TYPE_TIMER);
+			}
+			scheduler.scheduleIn(STATISTICS_INTERVAL, this, null, 0);
+		}
+
+		public void run() {
+			scheduler.start();
+		}
+
+		@Override
+		public void eventOccurred(Object content, int type) {
+			long sum = 0;
+			for (Node node : nodes) {
+				sum = sum * 31 + node.state;
+			}
+			trace.add(scheduler.getCurrentTime() + " statistics " + sum + " " + messages + " " + random.nextInt());
+			scheduler.scheduleIn(STATISTICS_INTERVAL, this, null, 0);
+		}
+
+		public void record(final String entry) {
+			threads.add(Thread.currentThread().getName());
+			scheduler.awaitSequentialOrder();
+			trace.add(scheduler.getCurrentTime() + " " + entry);
+		}
+
+		public boolean usedLogicalProcessThreads() {
+			for (String thread : threads) {
+				if (thread.startsWith("LogicalProcess")) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+	private static class Node extends HostHandler {
+
+		private static final int TYPE_TIMER = 1;
+
+		private static final int TYPE_MESSAGE = 2;
+
+		private final World world;
+
+		private long state = 0;
+
+		public Node(final World world, final Host host) {
+			super(host);
+			this.world = world;
+		}
+
+		@Override
+		public void eventOccurred(Object content, int type) {
+			final Scheduler scheduler = world.scheduler;
+			if (type == TYPE_TIMER) {
+				// host-local work, not ordered
+				for (int i = 0; i < 100; i++) {
+					state = state * 31 + i;
+				}
+				state = state * 31 + world.random.nextInt(1000);
+				world.record(getHost() + " timer " + state);
+				if (world.random.nextInt(4) == 0) {
+					final Node receiver = world.nodes.get(world.random.nextInt(HOSTS));
+					final long delay = LOOKAHEAD + world.random.nextInt((int) (2 * LOOKAHEAD));
+					scheduler.scheduleIn(delay, receiver, state, TYPE_MESSAGE);
+				}
+				scheduler.scheduleIn(world.random.nextInt((int) (5 * Time.MILLISECOND)), this, null, TYPE_TIMER);
+			} else {
+				state ^= (Long) content;
+				world.record(getHost() + " message " + content + " " + state);
+				world.messages++;
+				// a handler without host acts on behalf of this host
+				scheduler.scheduleIn(world.random.nextInt((int) LOOKAHEAD), new EventHandler() {
+					@Override
+					public void eventOccurred(Object content, int type) {
+						state += world.random.nextInt(10);
+						world.record(getHost() + " followup " + state);
+					}
+				}, null, 0);
+			}
+		}
+
+	}
+
+	private abstract static class HostHandler implements HostComponent, EventHandler {
+
+		private final Host host;
+
+		public HostHandler(final Host host) {
+			this.host = host;
+		}
+
+		@Override
+		public void initialize() {
+			//
+		}
+
+		@Override
+		public void shutdown() {
+			//
+		}
+
+		@Override
+		public Host getHost() {
+			return host;
+		}
+
+	}
+
+	private static class TestHost implements Host {
+
+		private final INodeID id;
+
+		public TestHost(final long id) {
+			this.id = INodeID.get(id);
+		}
+
+		@Override
+		public <T extends HostComponent> T getComponent(Class<T> componentClass) throws ComponentNotAvailableException {
+			throw new ComponentNotAvailableException();
+		}
+
+		@Override
+		public <T extends HostComponent> void registerComponent(T component) {
+			//
+		}
+
+		@Override
+		public <T extends HostComponent> boolean removeComponent(T component) {
+			return false;
+		}
+
+		@Override
+		public <T extends HostComponent> List<T> getComponents(Class<T> componentClass)
+				throws ComponentNotAvailableException {
+			throw new ComponentNotAvailableException();
+		}
+
+		@Override
+		public TransportComponent getTransportComponent() {
+			return null;
+		}
+
+		@Override
+		public NetworkComponent getNetworkComponent() {
+			return null;
+		}
+
+		@Override
+		public INodeID getId() {
+			return id;
+		}
+
+		@Override
+		public long getHostId() {
+			return id.value();
+		}
+
+		@Override
+		public String toString() {
+			return "Host " + id.value();
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.tudarmstadt.maki.simonstrator.peerfact.application.topologycontrol;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tudarmstadt.maki.simonstrator.tc.component.EvaluationDataFormat;
+import de.tudarmstadt.maki.simonstrator.tc.component.EvaluationDataReader;
+import de.tudarmstadt.maki.simonstrator.tc.component.EvaluationDataWriter;
+import de.tudarmstadt.maki.simonstrator.tc.component.EvaluationStatistics;
+import de.tudarmstadt.maki.simonstrator.tc.component.TopologyControlComponentEvaluationDataHelper;
+import de.tudarmstadt.maki.simonstrator.tc.facade.TopologyControlAlgorithmParamters;
+import de.tudarmstadt.maki.simonstrator.tc.facade.TopologyControlOperationMode;
+import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.TopologyControlComponentConfig;
+import de.tudarmstadt.maki.simonstrator.tc.underlay.UnderlayTopologyControlAlgorithms;
+
+/**
+ * Unit tests for {@link EvaluationDataWriter} and {@link EvaluationDataReader}
+ */
+public class EvaluationDataWriterTest {
+
+	private static final String SEP = TopologyControlComponentEvaluationDataHelper.CSV_SEP;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCsv() throws Exception {
+		testRoundTrip(EvaluationDataFormat.CSV);
+	}
+
+	@Test
+	public void testCompressedCsv() throws Exception {
+		testRoundTrip(EvaluationDataFormat.CSV_GZIP);
+	}
+
+	private void testRoundTrip(final EvaluationDataFormat format) throws Exception {
+		final File file = new File(temporaryFolder.getRoot(), "data/00001_data" + format.getFileSuffix());
+		final EvaluationStatistics statistics = createStatistics();
+
+		// Two runs that append to the same file
+		for (int run = 0; run < 2; ++run) {
+			try (final EvaluationDataWriter writer = new EvaluationDataWriter(file, format, SEP, 2)) {
+				writer.writeHeader();
+				for (int i = 0; i < 3; ++i) {
+					statistics.iteration = 3 * run + i;
+					writer.write(statistics);
+				}
+			}
+		}
+
+		Assert.assertEquals(format, EvaluationDataFormat.fromFile(file));
+		final List<Map<String, String>> lines = EvaluationDataReader.read(file, SEP);
+		Assert.assertEquals(6, lines.size());
+		for (int i = 0; i < lines.size(); ++i) {
+			final Map<String, String> line = lines.get(i);
+			Assert.assertEquals(EvaluationStatistics.getColumnCount(), line.size());
+			Assert.assertEquals(Integer.toString(i), line.get(EvaluationStatistics.iterationKey));
+			Assert.assertEquals("99", line.get(EvaluationStatistics.cNodeCountKey));
+			statistics.iteration = i;
+			Assert.assertEquals(statistics.formatAsCsvLine(SEP), String.join(SEP, line.values()));
+		}
+	}
+
+	private static EvaluationStatistics createStatistics() {
+		final TopologyControlComponentConfig simulationConfiguration = new TopologyControlComponentConfig();
+		simulationConfiguration.setTopologyControlAlgorithm(UnderlayTopologyControlAlgorithms.D_KTC.getName());
+		simulationConfiguration.setTopologyControlAlgorithmParamters(
+				TopologyControlAlgorithmParamters.create(UnderlayTopologyControlAlgorithms.KTC_PARAM_K, 1.41));
+		simulationConfiguration.setTopologyControlOperationMode(TopologyControlOperationMode.BATCH.toString());
+		simulationConfiguration.setWorldSize(131);
+		simulationConfiguration.setNodeCount(99);
+		simulationConfiguration.setSeed(-42);
+		simulationConfiguration.setMinimumDistanceThresholdInMeters(242.5);
+
+		final EvaluationStatistics statistics = new EvaluationStatistics();
+		statistics.simulationConfiguration = simulationConfiguration;
+		statistics.nodeCountTotal = 99;
+		statistics.energyLevelAvg = 0.5;
+		return statistics;
+	}
+}
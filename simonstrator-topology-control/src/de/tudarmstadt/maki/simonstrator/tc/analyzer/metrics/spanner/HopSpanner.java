@@ -32,6 +32,11 @@ public class HopSpanner extends SpannerMetric {
 		return 1.0;
 	}
 
+	@Override
+	protected boolean hasUnitWeights() {
+		return true;
+	}
+
 	@Override
 	protected String getWeightMetricName() {
 		return "Hop";
@@ -21,122 +21,82 @@
 package de.tudarmstadt.maki.simonstrator.tc.analyzer.metrics.spanner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.panayotis.gnuplot.JavaPlot;
 
+import de.tudarmstadt.maki.simonstrator.api.Randoms;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.GenericGraphElementProperties;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
-import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
-import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
 import de.tudarmstadt.maki.simonstrator.tc.analyzer.javaplot.DefaultPlots;
 import de.tudarmstadt.maki.simonstrator.tc.analyzer.metrics.Metric;
 import de.tudarmstadt.maki.simonstrator.tc.analyzer.writer.PropertyWriter;
+import de.tudarmstadt.maki.simonstrator.tc.graph.algorithm.IncrementalAllPairsShortestPaths;
 
 /**
+ * The spanner of a graph (the result underlay) with respect to a reference
+ * graph (the initial underlay) is the ratio of the shortest path lengths in
+ * both graphs, considering all pairs of nodes.
+ *
+ * Shortest paths are computed by {@link IncrementalAllPairsShortestPaths}.
+ * When the same instance is used for consecutive iterations, only the
+ * distances of sources that are affected by the changes of the graphs are
+ * recomputed. For large graphs, the spanner may be estimated from sampled
+ * sources (see {@link #setSampling(int, int)}).
  *
  * @author Michael Stein
  */
 public abstract class SpannerMetric implements Metric {
 
-	private double valueAveragePairwise, valueMaxPairwise;
+	/**
+	 * Quantile of the standard normal distribution for 95% confidence
+	 */
+	private static final double CONFIDENCE_QUANTILE = 1.96;
 
-	private ArrayList<Double> toTargetSpanningValues;
+	private double valueAveragePairwise, valueMaxPairwise;
 
-	private ArrayList<Double> pairwiseSpanningValues;
+	private double averagePairwiseConfidenceInterval;
 
-	//////
-	// Mapping from nodes to array index
-	///// (is required because FloydWarshall
-	////// performs on array)
+	private ArrayList<Double> toTargetSpanningValues;
 
-	BiMap<INodeID, Integer> nodeToIndex = null;
-	BiMap<Integer, INodeID> indexToNode = null;
+	private IncrementalAllPairsShortestPaths initialDistances = null;
 
-	private void initIndex(Graph graph) {
-		nodeToIndex = HashBiMap.create();
-		indexToNode = nodeToIndex.inverse();
-		int index = 0;
-		for (INode node : graph.getNodes()) {
-			addToIndex(node.getId(), index++);
-		}
-	}
+	private IncrementalAllPairsShortestPaths resultDistances = null;
 
-	private void addToIndex(INodeID node, int index) {
-		nodeToIndex.put(node, index);
-	}
+	/**
+	 * Index in the result underlay for each index in the initial underlay
+	 */
+	private int[] initialToResultIndex;
 
-	protected int getIndex(final INodeID node) {
-		return nodeToIndex.get(node);
-	}
+	private boolean sampled = false;
 
-	protected INodeID getNode(int index) {
-		return indexToNode.get(index);
-	}
+	private int samplingNodeCountThreshold = Integer.MAX_VALUE;
 
-	// Floyd-Warshall:
-	// http://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm
-	// distance/adjacency matrix provided:
-	// dis is initialized with edge weight -> dis[u][v] = edge weight of edge
-	// (u,v), Double.INFINITY if it doesn't exist, dist[v][v] = 0
-	private void getAllPairShortestPaths(final double[][] dist) {
-		for (int k = 0; k < dist.length; k++) {
-			for (int i = 0; i < dist.length; i++) {
-				for (int j = 0; j < dist.length; j++) {
-					if (dist[i][j] > (dist[i][k] + dist[k][j])) {
-						dist[i][j] = dist[i][k] + dist[k][j];
-					}
-				}
-			}
-		}
-	}
+	private int sampledSourceCount = 0;
 
 	/**
-	 * Transforms the given graph into an adjacency matrix representation.
+	 * Estimates the spanner from the given number of sampled sources if the
+	 * graphs contain more than nodeCountThreshold nodes.
 	 *
-	 * @param graph
-	 * @return
+	 * The average pairwise spanner is estimated without bias, its 95%
+	 * confidence interval is available via
+	 * {@link #getAveragePairwiseSpannerConfidenceInterval()}. The maximum
+	 * pairwise spanner of a sample is a lower bound of the actual maximum.
+	 *
+	 * @param nodeCountThreshold
+	 * @param sampledSourceCount
 	 */
-	private double[][] getAdjacencyMatrix(final Graph graph) {
-		final ArrayList<INode> containedNode = new ArrayList<>(graph.getNodes());
-		final double[][] dist = new double[containedNode.size()][containedNode.size()];
-		for (int i = 0; i < dist.length; i++) {
-			for (int j = 0; j < dist.length; j++) {
-				if (i == j) {
-					dist[i][j] = 0.0;
-				} else {
-					dist[i][j] = Double.POSITIVE_INFINITY;
-				}
-			}
-		}
-
-		for (final IEdge edge : graph.getEdges()) {
-			final INodeID nodeU = edge.fromId();
-			final int u = getIndex(nodeU);
-			final INodeID nodeV = edge.toId();
-			final int v = getIndex(nodeV);
-
-			// edge may have an edge length of 0, but the incident nodes must
-			// not be identical and they need to have the
-			// same position
-			// assert edge.getLen() != 0.0 || (nodeU.getX() == nodeV.getX() &&
-			// nodeU.getY() == nodeV.getY()
-			// && !nodeU.getName().equals(nodeV.getName()));
-
-			final double weight = getSpannerWeight(edge.getProperty(GenericGraphElementProperties.WEIGHT));
-
-			dist[u][v] = weight;
-			// dist[v][u] = weight; // edges are directed!
-		}
-
-		return dist;
+	public void setSampling(final int nodeCountThreshold, final int sampledSourceCount) {
+		if (sampledSourceCount < 2)
+			throw new IllegalArgumentException("At least two sources need to be sampled, but was " + sampledSourceCount);
+		this.samplingNodeCountThreshold = nodeCountThreshold;
+		this.sampledSourceCount = sampledSourceCount;
 	}
 
-
 	/**
 	 * Calculates the average and maximum spanner.
 	 *
@@ -153,97 +113,154 @@ public abstract class SpannerMetric implements Metric {
 		if (initialUnderlay.getNodeCount() != resultUnderlay.getNodeCount())
 			throw new IllegalArgumentException("Node counts need to be equal!");
 
-		initIndex(initialUnderlay);
+		if (this.initialDistances == null) {
+			this.initialDistances = createShortestPaths();
+			this.resultDistances = createShortestPaths();
+		}
 
 		final int nodeCount = resultUnderlay.getNodeCount();
+		this.sampled = nodeCount > 2 && nodeCount > this.samplingNodeCountThreshold && this.sampledSourceCount > 0;
+		if (this.sampled) {
+			this.initialDistances.updateAdjacency(initialUnderlay);
+			this.resultDistances.updateAdjacency(resultUnderlay);
+		} else {
+			this.initialDistances.update(initialUnderlay);
+			this.resultDistances.update(resultUnderlay);
+		}
+
+		this.initialToResultIndex = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			final INodeID node = this.initialDistances.getNode(i);
+			this.initialToResultIndex[i] = this.resultDistances.getIndex(node);
+			if (this.initialToResultIndex[i] == -1)
+				throw new IllegalArgumentException("Node " + node + " is missing in the result underlay!");
+		}
 
-		final double[][] initialGraph = getAdjacencyMatrix(initialUnderlay);
-		getAllPairShortestPaths(initialGraph);
-		final double[][] resultGraph = getAdjacencyMatrix(resultUnderlay);
-		getAllPairShortestPaths(resultGraph);
-
-		// TODO MS: Here I removed the code for spanner to the base station, as
-		// the base station is unknown to the new graph framework
-
-		// final int targetIndex =
-		// getIndex(initialOverlay.getBaseNode().getUnderlayNode());
-		//
-		// // to target
-		// double sumSpanningValues = 0.0;
-		// double maxSpanningValue = Double.MIN_VALUE;
-		//
-		// this.toTargetSpanningValues = new ArrayList<Double>(N - 1);
-		// for (int i = 0; i < N; i++) {
-		// if (i != targetIndex) {
-		// // initial distance
-		// final double initialDistance = initialGraph[i][targetIndex];
-		//
-		// // new distance
-		// final double newDistance = resultGraph[i][targetIndex];
-		//
-		// // compute spanning value
-		// double spanningValue;
-		// if (newDistance == 0.0) { // this can really happen, if the
-		// // nodes have equal positions
-		// assert initialDistance == 0.0;
-		//
-		// spanningValue = 1.0;
-		// } else {
-		// spanningValue = newDistance / initialDistance;
-		// }
-		//
-		// assert spanningValue >= 1.0;
-		//
-		// toTargetSpanningValues.add(spanningValue);
-		//
-		// sumSpanningValues += spanningValue;
-		//
-		// if (spanningValue > maxSpanningValue) {
-		// maxSpanningValue = spanningValue;
-		// }
-		// }
-		// }
-		// this.valueMaxToBase = maxSpanningValue;
-		// this.valueAverageToBase = sumSpanningValues / (N - 1);
-		// assert toTargetSpanningValues.size() == N - 1;
-
-		// pairwise: (n*(n -1))/2 values
+		// TODO MS: The spanner to the base station has been removed, as the
+		// base station is unknown to the new graph framework
+
+		if (this.sampled) {
+			this.estimatePairwiseSpanner(nodeCount);
+		} else {
+			this.computePairwiseSpanner(nodeCount);
+		}
+	}
+
+	/**
+	 * pairwise: (n*(n -1))/2 values
+	 */
+	private void computePairwiseSpanner(final int nodeCount) {
 		double sumSpanningValues = 0.0;
 		double maxSpanningValue = Double.MIN_VALUE;
-		this.pairwiseSpanningValues = new ArrayList<Double>();
 		for (int i = 0; i < nodeCount - 1; i++) {
+			final double[] initialDistancesFromI = this.initialDistances.getDistances(i);
+			final double[] resultDistancesFromI = this.resultDistances.getDistances(this.initialToResultIndex[i]);
 			for (int j = i + 1; j < nodeCount; j++) {
-				// initial distance
-				final double initialDistance = initialGraph[i][j];
+				final double spanningValue = getSpanningValue(initialDistancesFromI[j],
+						resultDistancesFromI[this.initialToResultIndex[j]]);
 
-				// new distance
-				final double newDistance = resultGraph[i][j];
-
-				// compute spanning value
-				double spanningValue;
-				if (newDistance == 0.0) { // this can really happen, if the
-											// nodes have equal positions
-					assert initialDistance == 0.0;
+				sumSpanningValues += spanningValue;
 
-					spanningValue = 1.0;
-				} else {
-					spanningValue = newDistance / initialDistance;
+				if (spanningValue > maxSpanningValue) {
+					maxSpanningValue = spanningValue;
 				}
+			}
+		}
+		this.valueMaxPairwise = maxSpanningValue;
+		this.valueAveragePairwise = sumSpanningValues / ((nodeCount * (nodeCount - 1)) / 2);
+		this.averagePairwiseConfidenceInterval = 0.0;
+	}
 
-				//assert spanningValue >= 1.0;
-
-				pairwiseSpanningValues.add(spanningValue);
+	/**
+	 * Samples sources with a probability proportional to their number of pairs
+	 * (i.e., the number of nodes with a larger index) and averages the mean
+	 * spanner per sampled source. This yields an unbiased estimate of the mean
+	 * over all pairs.
+	 */
+	private void estimatePairwiseSpanner(final int nodeCount) {
+		final Random random = Randoms.getRandom(SpannerMetric.class);
+		final double pairCount = ((double) nodeCount * (nodeCount - 1)) / 2;
+		final int[] samples = new int[this.sampledSourceCount];
+		for (int s = 0; s < samples.length; s++) {
+			samples[s] = samplePairProportionalSource(random.nextDouble() * pairCount, nodeCount);
+		}
+		final int[] initialSources = Arrays.stream(samples).distinct().toArray();
+		final int[] resultSources = new int[initialSources.length];
+		for (int s = 0; s < initialSources.length; s++) {
+			resultSources[s] = this.initialToResultIndex[initialSources[s]];
+		}
+		final double[][] initialRows = this.initialDistances.computeDistancesFrom(initialSources);
+		final double[][] resultRows = this.resultDistances.computeDistancesFrom(resultSources);
 
+		final double[] meanPerSource = new double[nodeCount];
+		double maxSpanningValue = Double.MIN_VALUE;
+		for (int s = 0; s < initialSources.length; s++) {
+			final int i = initialSources[s];
+			double sumSpanningValues = 0.0;
+			for (int j = i + 1; j < nodeCount; j++) {
+				final double spanningValue = getSpanningValue(initialRows[s][j],
+						resultRows[s][this.initialToResultIndex[j]]);
 				sumSpanningValues += spanningValue;
-
 				if (spanningValue > maxSpanningValue) {
 					maxSpanningValue = spanningValue;
 				}
 			}
+			meanPerSource[i] = sumSpanningValues / (nodeCount - 1 - i);
+		}
+
+		double sum = 0.0;
+		for (final int i : samples) {
+			sum += meanPerSource[i];
+		}
+		final double mean = sum / samples.length;
+		double squaredDeviations = 0.0;
+		for (final int i : samples) {
+			squaredDeviations += (meanPerSource[i] - mean) * (meanPerSource[i] - mean);
 		}
+		final double standardError = Math.sqrt(squaredDeviations / (samples.length - 1) / samples.length);
+
+		this.valueAveragePairwise = mean;
 		this.valueMaxPairwise = maxSpanningValue;
-		this.valueAveragePairwise = sumSpanningValues / ((nodeCount * (nodeCount - 1)) / 2);
-		assert((nodeCount * (nodeCount - 1)) / 2) == pairwiseSpanningValues.size();
+		this.averagePairwiseConfidenceInterval = CONFIDENCE_QUANTILE * standardError;
+	}
+
+	/**
+	 * Returns the source i such that the given position (in [0, pairCount)) is
+	 * in the range of the pairs (i, j) with j > i, if the pairs are ordered by
+	 * i.
+	 */
+	private static int samplePairProportionalSource(final double position, final int nodeCount) {
+		// Number of pairs with source < i: i * (n - 1) - i * (i - 1) / 2
+		int low = 0;
+		int high = nodeCount - 2;
+		while (low < high) {
+			final int middle = (low + high + 1) >>> 1;
+			final double pairsBefore = (double) middle * (nodeCount - 1) - (double) middle * (middle - 1) / 2;
+			if (pairsBefore <= position)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	private static double getSpanningValue(final double initialDistance, final double newDistance) {
+		if (newDistance == 0.0) { // this can really happen, if the nodes have
+									// equal positions
+			assert initialDistance == 0.0;
+
+			return 1.0;
+		} else {
+			return newDistance / initialDistance;
+		}
+	}
+
+	private IncrementalAllPairsShortestPaths createShortestPaths() {
+		if (hasUnitWeights())
+			return new IncrementalAllPairsShortestPaths();
+		else
+			return new IncrementalAllPairsShortestPaths(
+					edge -> getSpannerWeight(edge.getProperty(GenericGraphElementProperties.WEIGHT)));
 	}
 
 	public double getAveragePairwiseSpanner() {
@@ -254,6 +271,21 @@ public abstract class SpannerMetric implements Metric {
 		return valueMaxPairwise;
 	}
 
+	/**
+	 * Returns the half width of the 95% confidence interval of the average
+	 * pairwise spanner (0 if the spanner has been computed exactly)
+	 */
+	public double getAveragePairwiseSpannerConfidenceInterval() {
+		return averagePairwiseConfidenceInterval;
+	}
+
+	/**
+	 * Returns whether the last result has been estimated from samples
+	 */
+	public boolean isSampled() {
+		return sampled;
+	}
+
 	@Override
 	public void writeResults(final PropertyWriter resultWriter) {
 		resultWriter.writeComment("Spanner properties: " + getClass().getName());
@@ -261,6 +293,10 @@ public abstract class SpannerMetric implements Metric {
 
 		resultWriter.writeProperty(getWeightMetricName() + "SpannerAveragePairwise", this.valueAveragePairwise);
 		resultWriter.writeProperty(getWeightMetricName() + "SpannerMaxPairwise", this.valueMaxPairwise);
+		if (this.sampled) {
+			resultWriter.writeProperty(getWeightMetricName() + "SpannerAveragePairwiseConfidenceInterval",
+					this.averagePairwiseConfidenceInterval);
+		}
 		// resultWriter.writeProperty(getWeightMetricName() +
 		// "SpannerPairwiseValues", this.pairwiseSpanningValues);
 
@@ -276,13 +312,41 @@ public abstract class SpannerMetric implements Metric {
 	@Override
 	public Iterable<JavaPlot> getPlots() {
 		final List<JavaPlot> plots = new LinkedList<JavaPlot>();
-		plots.add(DefaultPlots.getCfgPlot(this.pairwiseSpanningValues,
+		plots.add(DefaultPlots.getCfgPlot(this.getPairwiseSpanningValues(),
 				this.getWeightMetricName() + ": Pairwise Spanning Values", this.getWeightMetricName(), "Probability"));
 		plots.add(DefaultPlots.getCfgPlot(this.toTargetSpanningValues,
 				this.getWeightMetricName() + ": ToTarget Spanning Values", this.getWeightMetricName(), "Probability"));
 		return plots;
 	}
 
+	/**
+	 * Collects the pairwise spanning values of the last (exact) computation.
+	 * They are not kept during {@link #compute(Graph, Graph)}, as they require
+	 * quadratic memory.
+	 */
+	private double[] getPairwiseSpanningValues() {
+		if (this.sampled)
+			throw new IllegalStateException("Pairwise spanning values are unavailable for sampled spanners");
+		final int nodeCount = this.initialDistances.getNodeCount();
+		final double[] values = new double[(nodeCount * (nodeCount - 1)) / 2];
+		int k = 0;
+		for (int i = 0; i < nodeCount - 1; i++) {
+			for (int j = i + 1; j < nodeCount; j++) {
+				values[k++] = getSpanningValue(this.initialDistances.getDistance(i, j),
+						this.resultDistances.getDistance(this.initialToResultIndex[i], this.initialToResultIndex[j]));
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Returns whether all edges have the same weight (hop counts), which allows
+	 * for a breadth-first search instead of Dijkstra's algorithm.
+	 */
+	protected boolean hasUnitWeights() {
+		return false;
+	}
+
 	protected abstract double getSpannerWeight(double len);
 
 	protected abstract String getWeightMetricName();
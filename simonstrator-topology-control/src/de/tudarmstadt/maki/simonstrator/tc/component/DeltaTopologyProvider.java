@@ -0,0 +1,35 @@
+package de.tudarmstadt.maki.simonstrator.tc.component;
+
+import java.util.List;
+
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.GraphDifferencer;
+
+/**
+ * A {@link SimpleTopologyProvider} that additionally reports how its topology
+ * has changed since the previous request. Required by
+ * {@link de.tudarmstadt.maki.simonstrator.tc.reconfiguration.ContextEventHandlingMode#DELTA}.
+ */
+public interface DeltaTopologyProvider extends SimpleTopologyProvider {
+
+	/**
+	 * Returns the elementary deltas (node/edge additions, removals and property
+	 * changes) that lead from the topology that has been reported by the previous
+	 * invocation of this method to the current topology.
+	 *
+	 * The first invocation reports the complete topology as additions. The deltas
+	 * are ordered as described in {@link GraphDifferencer}. Addition and property
+	 * deltas refer to the elements of {@link #getPolledTopology()}.
+	 *
+	 * @return the deltas since the previous invocation
+	 */
+	List<IGraphDelta> pollTopologyDeltas();
+
+	/**
+	 * Returns the topology that results from applying the most recently polled
+	 * deltas, <code>null</code> if {@link #pollTopologyDeltas()} has never been
+	 * invoked
+	 */
+	Graph getPolledTopology();
+}
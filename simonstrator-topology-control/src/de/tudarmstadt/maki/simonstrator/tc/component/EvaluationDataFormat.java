@@ -0,0 +1,36 @@
+package de.tudarmstadt.maki.simonstrator.tc.component;
+
+import java.io.File;
+
+/**
+ * The {@link EvaluationDataFormat} determines how the
+ * {@link EvaluationDataWriter} stores the evaluation data
+ */
+public enum EvaluationDataFormat {
+	/**
+	 * Plain CSV file
+	 */
+	CSV(".csv"),
+	/**
+	 * GZIP-compressed CSV file, which can be read directly by most CSV
+	 * readers (e.g., pandas) or converted with {@link EvaluationDataReader}
+	 */
+	CSV_GZIP(".csv.gz");
+
+	private final String fileSuffix;
+
+	private EvaluationDataFormat(final String fileSuffix) {
+		this.fileSuffix = fileSuffix;
+	}
+
+	public String getFileSuffix() {
+		return fileSuffix;
+	}
+
+	/**
+	 * Returns the format of the given file based on its suffix
+	 */
+	public static EvaluationDataFormat fromFile(final File file) {
+		return file.getName().endsWith(CSV_GZIP.getFileSuffix()) ? CSV_GZIP : CSV;
+	}
+}
@@ -0,0 +1,112 @@
+package de.tudarmstadt.maki.simonstrator.tc.component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Loads evaluation data files that have been written by the
+ * {@link EvaluationDataWriter}.
+ *
+ * The main method converts a file of any {@link EvaluationDataFormat} into a
+ * plain CSV file, e.g., for evaluation scripts that cannot read compressed
+ * files: <code>EvaluationDataReader input.csv.gz [output.csv]</code>
+ */
+public class EvaluationDataReader {
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: EvaluationDataReader <input file> [<output CSV file>]");
+			System.exit(1);
+		}
+		final File input = new File(args[0]);
+		final File output;
+		if (args.length > 1) {
+			output = new File(args[1]);
+		} else {
+			final String name = input.getName();
+			output = new File(input.getParentFile(),
+					name.endsWith(".gz") ? name.substring(0, name.length() - ".gz".length()) : name + ".csv");
+		}
+		if (output.getCanonicalFile().equals(input.getCanonicalFile()))
+			throw new IllegalArgumentException("Input and output file must differ: " + input);
+
+		try (final BufferedReader reader = open(input);
+				final Writer writer = new BufferedWriter(new OutputStreamWriter(
+						FileUtils.openOutputStream(output), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				writer.write(line);
+				writer.write(System.lineSeparator());
+			}
+		}
+	}
+
+	/**
+	 * Opens the given evaluation data file for reading. The format is derived
+	 * from the file name (see {@link EvaluationDataFormat#fromFile(File)})
+	 */
+	public static BufferedReader open(final File file) throws IOException {
+		InputStream stream = FileUtils.openInputStream(file);
+		if (EvaluationDataFormat.fromFile(file) == EvaluationDataFormat.CSV_GZIP) {
+			stream = new GZIPInputStream(stream);
+		}
+		return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Reads all lines of the given evaluation data file. Each line is
+	 * represented as a map from column name to (unparsed) value in the order of
+	 * the header. Repeated header lines (e.g., of subsequent runs that appended
+	 * to the same file) are skipped.
+	 *
+	 * @param file
+	 *            the evaluation data file
+	 * @param separator
+	 *            the CSV separator
+	 * @return the data lines
+	 */
+	public static List<Map<String, String>> read(final File file, final String separator) throws IOException {
+		final List<Map<String, String>> lines = new ArrayList<>();
+		try (final BufferedReader reader = open(file)) {
+			final String headerLine = reader.readLine();
+			if (headerLine == null)
+				return lines;
+
+			final Pattern separatorPattern = Pattern.compile(Pattern.quote(separator));
+			final List<String> header = Arrays.asList(separatorPattern.split(headerLine, -1));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.equals(headerLine))
+					continue;
+
+				final String[] values = separatorPattern.split(line, -1);
+				if (values.length != header.size())
+					throw new IOException(String.format("Line has %d instead of %d columns in %s: %s", values.length,
+							header.size(), file, line));
+
+				final Map<String, String> entries = new LinkedHashMap<>();
+				for (int i = 0; i < values.length; ++i) {
+					entries.put(header.get(i), values[i]);
+				}
+				lines.add(entries);
+			}
+		}
+		return lines;
+	}
+}
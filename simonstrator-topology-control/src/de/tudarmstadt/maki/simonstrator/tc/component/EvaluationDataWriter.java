@@ -0,0 +1,121 @@
+package de.tudarmstadt.maki.simonstrator.tc.component;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Formatter;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Appends {@link EvaluationStatistics} to an evaluation data file.
+ *
+ * In contrast to appending each line with {@link FileUtils}, the file is kept
+ * open for the whole simulation run. Lines are buffered and flushed every
+ * {@link #getFlushInterval()} lines and when the writer is closed.
+ */
+public class EvaluationDataWriter implements Closeable {
+
+	private final File file;
+
+	private final String separator;
+
+	private final int flushInterval;
+
+	private final Writer writer;
+
+	private final Formatter formatter;
+
+	private int linesSinceFlush = 0;
+
+	private boolean closed = false;
+
+	/**
+	 * Opens the given file for appending. Missing parent folders are created.
+	 *
+	 * @param file
+	 *            the target file
+	 * @param format
+	 *            the output format
+	 * @param separator
+	 *            the CSV separator
+	 * @param flushInterval
+	 *            number of lines after which the buffer is flushed (values
+	 *            smaller than 1 flush after each line)
+	 * @throws IOException
+	 *             if opening the file fails
+	 */
+	public EvaluationDataWriter(final File file, final EvaluationDataFormat format, final String separator,
+			final int flushInterval) throws IOException {
+		this.file = file;
+		this.separator = separator;
+		this.flushInterval = Math.max(1, flushInterval);
+		OutputStream stream = FileUtils.openOutputStream(file, true);
+		if (format == EvaluationDataFormat.CSV_GZIP) {
+			// Each run appends a separate GZIP member, sync flush allows reading incomplete files
+			stream = new GZIPOutputStream(stream, true);
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+		this.formatter = new Formatter(this.writer);
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Writes the header line of the evaluation data file
+	 */
+	public void writeHeader() throws IOException {
+		writer.write(EvaluationStatistics.createHeaderOfEvaluationDataFile(separator));
+		writeLineSeparator();
+	}
+
+	/**
+	 * Writes the given statistics as one line
+	 */
+	public void write(final EvaluationStatistics statistics) throws IOException {
+		statistics.formatAsCsvLine(formatter, separator);
+		final IOException exception = formatter.ioException();
+		if (exception != null)
+			throw exception;
+		writeLineSeparator();
+	}
+
+	private void writeLineSeparator() throws IOException {
+		writer.write(System.lineSeparator());
+		if (++linesSinceFlush >= flushInterval)
+			flush();
+	}
+
+	/**
+	 * Writes all buffered lines to the file
+	 */
+	public void flush() throws IOException {
+		if (!closed) {
+			writer.flush();
+			linesSinceFlush = 0;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			formatter.close();
+			final IOException exception = formatter.ioException();
+			if (exception != null)
+				throw exception;
+		}
+	}
+}
@@ -2,8 +2,11 @@ package de.tudarmstadt.maki.simonstrator.tc.component;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Formatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -211,6 +214,7 @@ public class EvaluationStatistics {
 
 	private static final List<String> COLUMN_NAMES = extractColumnNames(EVALUATION_RESULT_FILE_HEADER);
 	private static final List<String> FORMATTING_SPECIFIERS = extractFormattingSpecifier(EVALUATION_RESULT_FILE_HEADER);
+	private static final Map<String, String> FORMATTING_SPECIFICATIONS = new ConcurrentHashMap<>();
 
 	private static List<String> extractColumnNames(final List<String> evaluationResultFileHeader) {
 		final List<String> columnNames = new ArrayList<>();
@@ -244,10 +248,29 @@ public class EvaluationStatistics {
 		return StringUtils.join(getColumnNames(), separator);
 	}
 
+	private static String getFormattingSpecification(final String separator) {
+		String formattingSpecification = FORMATTING_SPECIFICATIONS.get(separator);
+		if (formattingSpecification == null) {
+			formattingSpecification = getFormattingSpecifiersNames().stream().collect(Collectors.joining(separator));
+			FORMATTING_SPECIFICATIONS.put(separator, formattingSpecification);
+		}
+		return formattingSpecification;
+	}
+
 	public String formatAsCsvLine(final String separator) {
-		final String formattingSpecification = getFormattingSpecifiersNames().stream()
-				.collect(Collectors.joining(separator));
-		return String.format(Locale.US, formattingSpecification, //
+		return String.format(Locale.US, getFormattingSpecification(separator), getCsvValues());
+	}
+
+	/**
+	 * Writes the CSV line (without line break) to the given {@link Formatter},
+	 * which avoids building an intermediate string
+	 */
+	public void formatAsCsvLine(final Formatter formatter, final String separator) {
+		formatter.format(Locale.US, getFormattingSpecification(separator), getCsvValues());
+	}
+
+	private Object[] getCsvValues() {
+		return new Object[] { //
 				simulationConfiguration.worldSize, //
 				simulationConfiguration.nodeCount, //
 				simulationConfiguration.seed, //
@@ -315,7 +338,7 @@ public class EvaluationStatistics {
 				lifetimeSecondQuartile, //
 				lifetimeThirdQuartile, //
 				lifetimeAll //
-		);
+		};
 	}
 
 	private double getKtcParameterK() {
@@ -1,8 +1,11 @@
 package de.tudarmstadt.maki.simonstrator.tc.component;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
@@ -14,7 +17,12 @@ import de.tudarmstadt.maki.simonstrator.api.common.graph.GraphElementPropertyBas
 import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
-import de.tudarmstadt.maki.simonstrator.api.component.ComponentNotAvailableException;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgePropertyDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeRemovalDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeRemovalDelta;
 import de.tudarmstadt.maki.simonstrator.api.component.HostComponent;
 import de.tudarmstadt.maki.simonstrator.api.component.sis.type.SiSType;
 import de.tudarmstadt.maki.simonstrator.api.operation.AbstractOperation;
@@ -40,6 +48,7 @@ import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.NodeCountMetric;
 import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.SeedMetric;
 import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.TimestampMetric;
 import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.WorldSizeMetric;
+import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.ContextEventHandlingMode;
 import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.ITopologyControlReconfigurationComponent;
 import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.TopologyControlComponentConfig;
 import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.TopologyControlReconfigurationDecision;
@@ -76,6 +85,8 @@ public class TopologyControlComponent implements HostComponent {
 
 	private Graph cachedInputTopology = null;
 
+	private boolean isFullDiffFallbackLogged = false;
+
 	// The timestamp of the last time that TC reconfiguration was triggered
 	private long recentReconfigurationTimestamp = -1;
 
@@ -96,11 +107,7 @@ public class TopologyControlComponent implements HostComponent {
 	 *         exists
 	 */
 	public static TopologyControlComponent find(final Host host) {
-		try {
-			return host.getComponent(TopologyControlComponent.class);
-		} catch (final ComponentNotAvailableException e) {
-			return null;
-		}
+		return host.getComponentOrNull(TopologyControlComponent.class);
 	}
 
 	/**
@@ -111,9 +118,8 @@ public class TopologyControlComponent implements HostComponent {
 	 *         contains a {@link TopologyControlComponent}
 	 */
 	public static TopologyControlComponent find() {
-		final Optional<TopologyControlComponent> tcc = Oracle.getAllHosts().stream().filter(host -> {
-			return find(host) != null;
-		}).map(host -> find(host)).findAny();
+		final Optional<TopologyControlComponent> tcc = Oracle.getAllHosts().stream().map(host -> find(host))
+				.filter(component -> component != null).findAny();
 		return tcc.orElse(null);
 	}
 
@@ -147,6 +153,8 @@ public class TopologyControlComponent implements HostComponent {
 	@Override
 	public void shutdown() {
 		this.multiplexingFacade.shutdown();
+		if (this.evaluationDataHelper != null)
+			this.evaluationDataHelper.close();
 	}
 
 	@Override
@@ -197,8 +205,8 @@ public class TopologyControlComponent implements HostComponent {
 	void executeTopologyControlIteration() {
 		statisticsHelper.beginNextIteration();
 
-		Monitor.log(getClass(), Level.INFO, "%s (simtime=%s)-------------------------------------------",
-				getIterationPrefix(), Time.getFormattedTime(Time.getCurrentTime()));
+		Monitor.log(getClass(), Level.INFO, () -> String.format("%s (simtime=%s)-------------------------------------------",
+				getIterationPrefix(), Time.getFormattedTime(Time.getCurrentTime())));
 
 		doIteration();
 	}
@@ -294,7 +302,7 @@ public class TopologyControlComponent implements HostComponent {
 				Monitor.log(getClass(), Level.INFO, "Reconfiguration support disabled.");
 			}
 
-			Monitor.log(getClass(), Level.INFO, "Configuration: " + configuration);
+			Monitor.log(getClass(), Level.INFO, "Configuration: %s", configuration);
 
 			this.statisticsHelper.collectAndWriteInitialInputTopologyStatistics(getInputTopology());
 		}
@@ -453,6 +461,9 @@ public class TopologyControlComponent implements HostComponent {
 	}
 
 	private void invokeContextEventHandlers() {
+		final ContextEventHandlingMode contextEventHandlingMode = this.configuration.contextEventHandlingMode;
+		final List<IGraphDelta> topologyDeltas = contextEventHandlingMode == ContextEventHandlingMode.FULL_DIFF ? null
+				: pollTopologyDeltas();
 		final Graph inputTopology = getInputTopology();
 
 		Monitor.log(getClass(), Level.INFO, "%sCEH...", getIterationPrefix(),
@@ -466,24 +477,75 @@ public class TopologyControlComponent implements HostComponent {
 		multiplexingFacade.beginContextEventSequence();
 		final long ceTic = System.currentTimeMillis();
 
+		if (topologyDeltas == null) {
+			applyFullDiff(inputTopology);
+		} else {
+			applyTopologyDeltas(inputTopology, topologyDeltas);
+		}
+
+		final long ceToc = System.currentTimeMillis();
+
+		if (topologyDeltas != null && contextEventHandlingMode == ContextEventHandlingMode.DELTA_WITH_VERIFICATION) {
+			verifyTopologyDeltas(inputTopology);
+		}
+
+		final long checkTic = System.currentTimeMillis();
+
+		this.multiplexingFacade.checkConstraintsAfterContextEvent();
+
+		final long checkToc = System.currentTimeMillis();
+
+		this.multiplexingFacade.endContextEventSequence();
+
+		final long contextEventDuration = ceToc - ceTic;
+		final long contextEventCheckTime = checkToc - checkTic;
+		statisticsHelper.recordPostContextEventStatistics(this, ceLSMListener,
+				intraCEExecutionCountingContextEventListener, contextEventDuration, contextEventCheckTime);
+
+		Monitor.log(getClass(), Level.INFO, () -> String.format("%sCEH   Done (t=%.0fms, t_check=%.0fms, numCEs=%s, allLSMs=%d [%s])",
+				getIterationPrefix(), this.getStatisticsDTO().ceTimeInMillis, getStatisticsDTO().ceCheckTimeInMillis,
+				intraCEExecutionCountingContextEventListener.format(), getStatisticsDTO().ceLSMCountTotal,
+				ceLSMListener.format()));
+	}
+
+	/**
+	 * Polls the deltas of the input topology since the previous iteration and
+	 * updates {@link #cachedInputTopology} to the topology that they lead to.
+	 *
+	 * Returns <code>null</code> (i.e., the full diff is applied) if the input
+	 * topology provider does not implement {@link DeltaTopologyProvider}: edges
+	 * are only re-evaluated if a delta refers to them, so edge attributes that
+	 * change over time (e.g., distance-based weights of moving hosts) would be
+	 * missed unless the provider reports them.
+	 */
+	private List<IGraphDelta> pollTopologyDeltas() {
+		if (this.configuration.inputTopologyProvider == null)
+			throw new IllegalStateException("Input topology provider not set");
+
+		if (!(this.configuration.inputTopologyProvider instanceof DeltaTopologyProvider)) {
+			if (!this.isFullDiffFallbackLogged) {
+				Monitor.log(getClass(), Level.WARN, "%s does not report deltas, using %s instead of %s",
+						this.configuration.inputTopologyProvider.getClass().getSimpleName(),
+						ContextEventHandlingMode.FULL_DIFF, this.configuration.contextEventHandlingMode);
+				this.isFullDiffFallbackLogged = true;
+			}
+			return null;
+		}
+
+		final DeltaTopologyProvider deltaInputTopologyProvider = (DeltaTopologyProvider) this.configuration.inputTopologyProvider;
+		final List<IGraphDelta> deltas = deltaInputTopologyProvider.pollTopologyDeltas();
+		this.cachedInputTopology = deltaInputTopologyProvider.getPolledTopology();
+		return deltas;
+	}
+
+	/**
+	 * Compares the complete input topology to the graph of the TC facade and
+	 * raises the context events for all differences
+	 */
+	private void applyFullDiff(final Graph inputTopology) {
 		final Graph facadeGraph = getTopologyControlFacade().getGraph();
 		for (final INode node : inputTopology.getNodes()) {
-			final INodeID nodeId = node.getId();
-			final boolean isEmpty = this.attributeHelper.isBatteryEmpty(nodeId);
-			if (facadeGraph.containsNode(node)) {
-				if (isEmpty) {
-					removeNode(node);
-				} else {
-					final List<SiSType<?>> changedProperties = this.attributeHelper.updateNode(node);
-					for (final SiSType<?> property : changedProperties) {
-						multiplexingFacade.updateNodeAttribute(node, property);
-					}
-				}
-			} else if (!isEmpty) {
-				Monitor.log(getClass(), Level.INFO, "Adding node %s", node);
-				attributeHelper.initializeNode(node);
-				multiplexingFacade.addNode(node);
-			}
+			updateNode(node, facadeGraph);
 		}
 
 		final List<INode> toBeRemovedNodes = new ArrayList<>();
@@ -513,32 +575,138 @@ public class TopologyControlComponent implements HostComponent {
 
 		final List<IEdge> modifiedEdges = new ArrayList<>();
 		for (final IEdge edge : inputTopology.getEdges()) {
-			if (this.attributeHelper.isBatteryEmpty(edge.fromId()) || this.attributeHelper.isBatteryEmpty(edge.toId()))
-				continue;
+			updateEdge(edge, inputTopology, facadeGraph, modifiedEdges);
+		}
 
-			if (facadeGraph.containsEdge(edge)) {
-				final boolean isEdgeModified = attributeHelper.updateEdge(this, edge, inputTopology);
+		updateModifiedEdgeAttributes(modifiedEdges);
+	}
 
-				if (shallAssumeActive(edge)) {
-					edge.setProperty(UnderlayTopologyProperties.EDGE_STATE, EdgeState.ACTIVE);
-					virtualLinkLayerUpdater.activateLinkInVirtualTopology(edge);
-				} else if (isEdgeModified) {
-					modifiedEdges.add(edge);
+	/**
+	 * Raises the context events for the given deltas of the input topology.
+	 *
+	 * Node attributes (e.g., the remaining energy) are read from the information
+	 * store instead of the input topology. Therefore, all nodes are still
+	 * updated, but only those edges are re-evaluated that have been added or
+	 * modified or that are incident to a node with modified attributes.
+	 */
+	private void applyTopologyDeltas(final Graph inputTopology, final List<IGraphDelta> deltas) {
+		final Graph facadeGraph = getTopologyControlFacade().getGraph();
+		final Set<INodeID> modifiedNodes = new HashSet<>();
+		for (final INode node : inputTopology.getNodes()) {
+			if (updateNode(node, facadeGraph)) {
+				modifiedNodes.add(node.getId());
+			}
+		}
+
+		final Set<IEdge> edgesToBeUpdated = new LinkedHashSet<>();
+		for (final IGraphDelta delta : deltas) {
+			if (delta instanceof EdgeRemovalDelta) {
+				final IEdge edge = ((EdgeRemovalDelta) delta).getEdge();
+				if (facadeGraph.containsEdge(edge)) {
+					multiplexingFacade.removeEdge(edge);
+				}
+			} else if (delta instanceof NodeRemovalDelta) {
+				final INode node = ((NodeRemovalDelta) delta).getNode();
+				if (facadeGraph.containsNode(node.getId())) {
+					removeNode(node);
 				}
+			} else if (delta instanceof EdgeAdditionDelta || delta instanceof EdgePropertyDelta) {
+				edgesToBeUpdated.add(((EdgeDelta) delta).getEdge());
+			}
+			// Node additions and node property changes are covered by updateNode
+		}
+
+		for (final INodeID nodeId : modifiedNodes) {
+			edgesToBeUpdated.addAll(inputTopology.getOutgoingEdges(nodeId));
+			edgesToBeUpdated.addAll(inputTopology.getIncomingEdges(nodeId));
+		}
+
+		final List<IEdge> modifiedEdges = new ArrayList<>();
+		for (final IEdge edge : edgesToBeUpdated) {
+			updateEdge(edge, inputTopology, facadeGraph, modifiedEdges);
+		}
+
+		updateModifiedEdgeAttributes(modifiedEdges);
+	}
+
+	/**
+	 * Runs the full diff after the deltas have been applied and reports all
+	 * context events that it raises, i.e., all changes that the deltas missed
+	 */
+	private void verifyTopologyDeltas(final Graph inputTopology) {
+		final CountingContextEventListener verificationListener = new CountingContextEventListener();
+		getTopologyControlFacade().addContextEventListener(verificationListener);
+		applyFullDiff(inputTopology);
+		getTopologyControlFacade().removeContextEventListener(verificationListener);
+
+		if (verificationListener.getAggregatedContextEventCount() > 0) {
+			Monitor.log(getClass(), Level.WARN, "%sCEH   Deltas incomplete, full diff raised %d CEs %s",
+					getIterationPrefix(), verificationListener.getAggregatedContextEventCount(),
+					verificationListener.format());
+		}
+	}
 
+	/**
+	 * Adds, removes or updates the given node of the input topology in the TC
+	 * facade
+	 *
+	 * @return whether the attributes of an existing node have been modified
+	 */
+	private boolean updateNode(final INode node, final Graph facadeGraph) {
+		final INodeID nodeId = node.getId();
+		final boolean isEmpty = this.attributeHelper.isBatteryEmpty(nodeId);
+		if (facadeGraph.containsNode(node)) {
+			if (isEmpty) {
+				removeNode(node);
 			} else {
-				attributeHelper.initializeEdge(this, edge, inputTopology);
-
-				if (shallAssumeActive(edge)) {
-					edge.setProperty(UnderlayTopologyProperties.EDGE_STATE, EdgeState.ACTIVE);
-					// TODO@rkluge: Move this somehow into the facade
-					virtualLinkLayerUpdater.activateLinkInVirtualTopology(edge);
-				} else {
-					this.multiplexingFacade.addEdge(edge);
+				final List<SiSType<?>> changedProperties = this.attributeHelper.updateNode(node);
+				for (final SiSType<?> property : changedProperties) {
+					multiplexingFacade.updateNodeAttribute(node, property);
 				}
+				return !changedProperties.isEmpty();
+			}
+		} else if (!isEmpty) {
+			Monitor.log(getClass(), Level.INFO, "Adding node %s", node);
+			attributeHelper.initializeNode(node);
+			multiplexingFacade.addNode(node);
+		}
+		return false;
+	}
+
+	/**
+	 * Adds or updates the given edge of the input topology in the TC facade. Edges
+	 * whose attributes need to be propagated to the facade are appended to
+	 * modifiedEdges.
+	 */
+	private void updateEdge(final IEdge edge, final Graph inputTopology, final Graph facadeGraph,
+			final List<IEdge> modifiedEdges) {
+		if (this.attributeHelper.isBatteryEmpty(edge.fromId()) || this.attributeHelper.isBatteryEmpty(edge.toId()))
+			return;
+
+		if (facadeGraph.containsEdge(edge)) {
+			final boolean isEdgeModified = attributeHelper.updateEdge(this, edge, inputTopology);
+
+			if (shallAssumeActive(edge)) {
+				edge.setProperty(UnderlayTopologyProperties.EDGE_STATE, EdgeState.ACTIVE);
+				virtualLinkLayerUpdater.activateLinkInVirtualTopology(edge);
+			} else if (isEdgeModified) {
+				modifiedEdges.add(edge);
+			}
+
+		} else {
+			attributeHelper.initializeEdge(this, edge, inputTopology);
+
+			if (shallAssumeActive(edge)) {
+				edge.setProperty(UnderlayTopologyProperties.EDGE_STATE, EdgeState.ACTIVE);
+				// TODO@rkluge: Move this somehow into the facade
+				virtualLinkLayerUpdater.activateLinkInVirtualTopology(edge);
+			} else {
+				this.multiplexingFacade.addEdge(edge);
 			}
 		}
+	}
 
+	private void updateModifiedEdgeAttributes(final List<IEdge> modifiedEdges) {
 		// Heuristic improvement because link unclassifications tend to
 		// propagate towards links of larger weight
 		modifiedEdges.sort(new GraphElementPropertyBasedComparator(UnderlayTopologyProperties.WEIGHT));
@@ -551,24 +719,6 @@ public class TopologyControlComponent implements HostComponent {
 			this.multiplexingFacade.updateEdgeAttribute(modifiedEdge,
 					UnderlayTopologyProperties.EXPECTED_LIFETIME_PER_EDGE);
 		}
-
-		final long ceToc = System.currentTimeMillis();
-
-		this.multiplexingFacade.checkConstraintsAfterContextEvent();
-
-		final long checkToc = System.currentTimeMillis();
-
-		this.multiplexingFacade.endContextEventSequence();
-
-		final long contextEventDuration = ceToc - ceTic;
-		final long contextEventCheckTime = checkToc - ceToc;
-		statisticsHelper.recordPostContextEventStatistics(this, ceLSMListener,
-				intraCEExecutionCountingContextEventListener, contextEventDuration, contextEventCheckTime);
-
-		Monitor.log(getClass(), Level.INFO, "%sCEH   Done (t=%.0fms, t_check=%.0fms, numCEs=%s, allLSMs=%d [%s])",
-				getIterationPrefix(), this.getStatisticsDTO().ceTimeInMillis, getStatisticsDTO().ceCheckTimeInMillis,
-				intraCEExecutionCountingContextEventListener.format(), getStatisticsDTO().ceLSMCountTotal,
-				ceLSMListener.format());
 	}
 
 	private void invokeTopologyControlAlgorithm() {
@@ -613,7 +763,7 @@ public class TopologyControlComponent implements HostComponent {
 		this.multiplexingFacade.endTopologyControlSequence();
 
 		Monitor.log(getClass(), Level.INFO,
-				String.format("%sTCA   Done (t=%.0fms,  t_check=%.0fms,  violations=%d, allLSMs=%d [%s], effLSMs=%d)",
+				() -> String.format("%sTCA   Done (t=%.0fms,  t_check=%.0fms,  violations=%d, allLSMs=%d [%s], effLSMs=%d)",
 						getIterationPrefix(), statisticsDTO.tcTimeInMillis, statisticsDTO.tcCheckTimeInMillis,
 						statisticsDTO.tcViolationCount, statisticsDTO.tcLSMCountTotal, tcLSMListener.format(),
 						statisticsDTO.tcLSMCountEffective));
@@ -635,15 +785,14 @@ public class TopologyControlComponent implements HostComponent {
 		final long toc = System.currentTimeMillis();
 		statisticsDTO.statTimeInMillis = toc - tic;
 
-		final String formattedSimulationTime = Time.getFormattedTime(Time.getCurrentTime());
-		Monitor.log(getClass(), Level.INFO,
+		Monitor.log(getClass(), Level.INFO, () -> String.format(
 				"%sStat   Done (t=%.0fms, n=%d, m=%d, t-real: %.2fmin, t-sim: %s, avgBatPct=%.2f, minBatPct=%.2f, maxBatPct=%.2f, numEmptyNodes=%d, numSCCsInInput=%d, numSCCsInOutput=%d)",
 				getIterationPrefix(), statisticsDTO.statTimeInMillis, statisticsDTO.nodeCountTotal,
 				statisticsDTO.edgeCountTotal, //
-				statisticsDTO.totalTimeInMinutes, formattedSimulationTime, //
+				statisticsDTO.totalTimeInMinutes, Time.getFormattedTime(Time.getCurrentTime()), //
 				statisticsDTO.energyPercentageAvg, statisticsDTO.energyPercentageMin, statisticsDTO.energyPercentageMax, //
 				statisticsDTO.nodeCountEmpty, //
-				statisticsDTO.numStronglyConnectedComponentsInput, statisticsDTO.numStronglyConnectedComponentsOutput);
+				statisticsDTO.numStronglyConnectedComponentsInput, statisticsDTO.numStronglyConnectedComponentsOutput));
 
 		this.evaluationDataHelper.writeDataLine();
 
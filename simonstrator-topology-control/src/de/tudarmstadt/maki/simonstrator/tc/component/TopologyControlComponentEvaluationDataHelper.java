@@ -2,12 +2,10 @@ package de.tudarmstadt.maki.simonstrator.tc.component;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-
-import org.apache.commons.io.FileUtils;
 
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.api.SimulationContext;
 import de.tudarmstadt.maki.simonstrator.tc.reconfiguration.TopologyControlComponentConfig;
 import de.tudarmstadt.maki.simonstrator.tc.utils.DateHelper;
 
@@ -22,6 +20,8 @@ public class TopologyControlComponentEvaluationDataHelper {
 
 	private File evaluationDataFile;
 
+	private EvaluationDataWriter evaluationDataWriter;
+
 	TopologyControlComponentEvaluationDataHelper(final TopologyControlComponent component) {
 		this.component = component;
 		this.initialize();
@@ -47,26 +47,45 @@ public class TopologyControlComponentEvaluationDataHelper {
 				logfileRelativePath).getAbsolutePath();
 
 		try {
-			FileUtils.writeLines(evaluationDataFile,
-					Arrays.asList(EvaluationStatistics.createHeaderOfEvaluationDataFile(CSV_SEP)), true);
+			this.evaluationDataWriter = new EvaluationDataWriter(evaluationDataFile,
+					this.component.getConfiguration().evaluationDataFormat, CSV_SEP,
+					this.component.getConfiguration().evaluationDataFlushInterval);
+			this.evaluationDataWriter.writeHeader();
 		} catch (final IOException e) {
 			final String message = String.format("Failed to write header to %s", evaluationDataFile);
 			Monitor.log(getClass(), Level.WARN, message);
+			this.close();
 			throw new IllegalStateException(message);
 		}
+
+		// Components are not shut down at the end of a simulation
+		SimulationContext.current().addFinishHook(this::close);
 	}
 
 	private static String createFileForConfiguration(TopologyControlComponentConfig configuration) {
-		return String.format("data%s%05d_data.csv", File.separator, configuration.configurationNumber);
+		return String.format("data%s%05d_data%s", File.separator, configuration.configurationNumber,
+				configuration.evaluationDataFormat.getFileSuffix());
 	}
 
 	void writeDataLine() {
 		try {
-			FileUtils.writeLines(evaluationDataFile,
-					Arrays.asList(component.getStatisticsHelper().getStatisticsDTO().formatAsCsvLine(CSV_SEP)),
-					true);
+			evaluationDataWriter.write(component.getStatisticsHelper().getStatisticsDTO());
 		} catch (final IOException e) {
 			Monitor.log(getClass(), Level.WARN, "Failed to write to %s", evaluationDataFile);
 		}
 	}
+
+	/**
+	 * Flushes and closes the evaluation data file
+	 */
+	void close() {
+		if (evaluationDataWriter == null)
+			return;
+
+		try {
+			evaluationDataWriter.close();
+		} catch (final IOException e) {
+			Monitor.log(getClass(), Level.WARN, "Failed to close %s", evaluationDataFile);
+		}
+	}
 }
@@ -53,6 +53,12 @@ public class TopologyControlComponentStatisticsHelper {
 
 	private int iterationCounter;
 
+	/**
+	 * Kept across iterations, so that only the shortest paths that are affected
+	 * by the changes of the topologies are recomputed
+	 */
+	private final HopSpanner hopSpanner = new HopSpanner();
+
 	public TopologyControlComponentStatisticsHelper(final TopologyControlComponent component) {
 		this.component = component;
 		this.iterationCounter = 0;
@@ -201,8 +207,10 @@ public class TopologyControlComponentStatisticsHelper {
 		/*
 		 * GRAPH METRICS: Hop spanner, graph storage
 		 */
-		final HopSpanner hopSpanner = new HopSpanner();
-		hopSpanner.compute(inputTopology, outputTopology);
+		if (getConfiguration().spannerMetricSamplingThreshold != TopologyControlComponentConfig.NOT_SET_INT) {
+			hopSpanner.setSampling(getConfiguration().spannerMetricSamplingThreshold,
+					getConfiguration().spannerMetricSampleSize);
+		}
 		hopSpanner.compute(inputTopology, outputTopology);
 
 		final double avgPairwiseHopSpanner = hopSpanner.getAveragePairwiseSpanner();
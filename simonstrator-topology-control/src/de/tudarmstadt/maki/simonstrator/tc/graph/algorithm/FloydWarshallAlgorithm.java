@@ -1,7 +1,5 @@
 package de.tudarmstadt.maki.simonstrator.tc.graph.algorithm;
 
-import java.util.ArrayList;
-
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.stat.StatUtils;
 
@@ -16,11 +14,13 @@ import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
 import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
 
-// Floyd-Warshall:
-// http://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm
-// distance/adjacency matrix provided:
-// dis is initialized with edge weight -> dis[u][v] = edge weight of edge
-// (u,v), Double.INFINITY if it doesn't exist, dist[v][v] = 0
+// All-pairs shortest paths, dist[u][v] = length of the shortest path from u
+// to v, Double.INFINITY if v is unreachable, dist[v][v] = 0
+// Originally Floyd-Warshall
+// (http://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm), now
+// delegates to the sparse BFS/Dijkstra search of
+// IncrementalAllPairsShortestPaths, which also re-uses the distances of the
+// previous call to compute(Graph) where possible.
 public class FloydWarshallAlgorithm {
 
 	private GraphElementProperty<Double> property = GenericGraphElementProperties.HOP_COUNT;
@@ -29,6 +29,10 @@ public class FloydWarshallAlgorithm {
 	final BiMap<Integer, INodeID> indexToNode;
 	double[][] lastResult = null;
 
+	private IncrementalAllPairsShortestPaths shortestPaths = null;
+
+	private GraphElementProperty<Double> shortestPathsProperty = null;
+
 	public FloydWarshallAlgorithm() {
 		this.nodeToIndex = HashBiMap.create();
 		this.indexToNode = this.nodeToIndex.inverse();
@@ -45,15 +49,16 @@ public class FloydWarshallAlgorithm {
 
 	public double[][] compute(final Graph graph) {
 		initIndex(graph);
-		final double[][] dist = getAdjacencyMatrix(graph);
-		for (int k = 0; k < dist.length; k++) {
-			for (int i = 0; i < dist.length; i++) {
-				for (int j = 0; j < dist.length; j++) {
-					if (dist[i][j] > (dist[i][k] + dist[k][j])) {
-						dist[i][j] = dist[i][k] + dist[k][j];
-					}
-				}
-			}
+		if (shortestPaths == null || shortestPathsProperty != property) {
+			shortestPaths = new IncrementalAllPairsShortestPaths(
+					GenericGraphElementProperties.HOP_COUNT == property ? null : this::determineWeight);
+			shortestPathsProperty = property;
+		}
+		shortestPaths.update(graph);
+
+		final double[][] dist = new double[shortestPaths.getNodeCount()][];
+		for (int i = 0; i < dist.length; i++) {
+			dist[i] = shortestPaths.getDistances(i).clone();
 		}
 
 		lastResult = dist;
@@ -89,40 +94,7 @@ public class FloydWarshallAlgorithm {
 		return sum;
 	}
 
-	/**
-	 * Transforms the given graph into an adjacency matrix representation.
-	 * 
-	 * @param graph
-	 * @return
-	 */
-	private double[][] getAdjacencyMatrix(final Graph graph) {
-		final ArrayList<INode> containedNode = new ArrayList<>(graph.getNodes());
-		final double[][] dist = new double[containedNode.size()][containedNode.size()];
-		for (int i = 0; i < dist.length; i++) {
-			for (int j = 0; j < dist.length; j++) {
-				if (i == j) {
-					dist[i][j] = 0.0;
-				} else {
-					dist[i][j] = Double.POSITIVE_INFINITY;
-				}
-			}
-		}
-
-		for (final IEdge edge : graph.getEdges()) {
-			final INodeID nodeU = edge.fromId();
-			final int u = getIndex(nodeU);
-			final INodeID nodeV = edge.toId();
-			final int v = getIndex(nodeV);
-
-			final double weight = determineWeight(edge);
-
-			dist[u][v] = weight;
-		}
-
-		return dist;
-	}
-
-	private Double determineWeight(final IEdge edge) {
+	private double determineWeight(final IEdge edge) {
 
 		if (GenericGraphElementProperties.HOP_COUNT == this.property)
 			return 1.0;
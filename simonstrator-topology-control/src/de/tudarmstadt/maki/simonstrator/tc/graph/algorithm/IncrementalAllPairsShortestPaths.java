@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.tc.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+
+/**
+ * All-pairs shortest path distances of a sequence of graphs (e.g., the
+ * topology in consecutive topology control iterations).
+ *
+ * Runs a BFS (unit weights) or Dijkstra search from each source on a sparse
+ * adjacency representation, distributing the sources among the threads of the
+ * common {@link ForkJoinPool}. On {@link #update(Graph)}, only the sources whose
+ * distances may have changed are searched again: a source is affected by a
+ * removed edge (or weight increase) only if the edge was on one of its shortest
+ * paths and by an added edge (or weight decrease) only if the edge shortens
+ * one of its paths. If the set of nodes changed, all sources are searched.
+ *
+ * Nodes are indexed in the iteration order of {@link Graph#getNodes()}.
+ * Distances of unreachable nodes are {@link Double#POSITIVE_INFINITY}, edge
+ * weights have to be non-negative. Parallel edges are reduced to the edge with
+ * the minimum weight.
+ */
+public class IncrementalAllPairsShortestPaths {
+
+	/**
+	 * Number of sources that are searched sequentially by one fork/join task
+	 */
+	private static final int SOURCES_PER_TASK = 8;
+
+	/**
+	 * Relative tolerance for deciding whether an edge is on a shortest path
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	private final ToDoubleFunction<IEdge> weightFunction;
+
+	private List<INodeID> nodes = new ArrayList<>();
+
+	private Map<INodeID, Integer> nodeToIndex = new HashMap<>();
+
+	private Adjacency adjacency = null;
+
+	/**
+	 * The distance rows, null if only the adjacency is known
+	 */
+	private double[][] distances = null;
+
+	private int lastRecomputedSourceCount = 0;
+
+	/**
+	 * Creates an instance that uses unit edge weights, i.e., hop counts.
+	 */
+	public IncrementalAllPairsShortestPaths() {
+		this(null);
+	}
+
+	/**
+	 * @param weightFunction
+	 *            determines the (non-negative) weight of an edge. If null, unit
+	 *            weights (hop counts) are used.
+	 */
+	public IncrementalAllPairsShortestPaths(final ToDoubleFunction<IEdge> weightFunction) {
+		this.weightFunction = weightFunction;
+	}
+
+	/**
+	 * Computes the distances between all pairs of nodes of the given graph,
+	 * re-using the distances of the previous call where possible.
+	 *
+	 * @param graph
+	 */
+	public void update(final Graph graph) {
+		final List<INodeID> previousNodes = this.nodes;
+		final Adjacency previousAdjacency = this.adjacency;
+		final double[][] previousDistances = this.distances;
+
+		this.updateAdjacency(graph);
+
+		final int nodeCount = this.nodes.size();
+		final boolean incremental = previousDistances != null && previousNodes.equals(this.nodes);
+		final Changes changes = incremental ? new Changes(previousAdjacency, this.adjacency, nodeCount) : null;
+		final double[][] newDistances = incremental ? previousDistances : new double[nodeCount][];
+		final int[] sources = new int[nodeCount];
+		for (int i = 0; i < nodeCount; ++i)
+			sources[i] = i;
+
+		final SearchTask task = new SearchTask(this.adjacency, sources, 0, nodeCount, newDistances, changes);
+		ForkJoinPool.commonPool().invoke(task);
+		this.distances = newDistances;
+		this.lastRecomputedSourceCount = task.getSearchCount();
+	}
+
+	/**
+	 * Only indexes the nodes and edges of the given graph without computing
+	 * any distances. Distances may be computed afterwards via
+	 * {@link #computeDistancesFrom(int[])}, e.g., for sampling.
+	 *
+	 * @param graph
+	 */
+	public void updateAdjacency(final Graph graph) {
+		final List<INodeID> newNodes = new ArrayList<>(graph.getNodeCount());
+		final Map<INodeID, Integer> newNodeToIndex = new HashMap<>();
+		for (final INode node : graph.getNodes()) {
+			newNodeToIndex.put(node.getId(), newNodes.size());
+			newNodes.add(node.getId());
+		}
+		this.nodes = newNodes;
+		this.nodeToIndex = newNodeToIndex;
+		this.adjacency = new Adjacency(graph, newNodes, newNodeToIndex, this.weightFunction);
+		this.distances = null;
+		this.lastRecomputedSourceCount = 0;
+	}
+
+	/**
+	 * Computes the distances from the given sources (in parallel) without
+	 * storing them.
+	 *
+	 * @param sources
+	 *            node indices
+	 * @return the distance rows, in the order of the given sources
+	 */
+	public double[][] computeDistancesFrom(final int[] sources) {
+		if (this.adjacency == null)
+			throw new IllegalStateException("No graph has been indexed yet");
+		final double[][] rows = new double[this.nodes.size()][];
+		ForkJoinPool.commonPool().invoke(new SearchTask(this.adjacency, sources, 0, sources.length, rows, null));
+		final double[][] result = new double[sources.length][];
+		for (int i = 0; i < sources.length; ++i)
+			result[i] = rows[sources[i]];
+		return result;
+	}
+
+	public int getNodeCount() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * Returns the index of the given node or -1 if the node is unknown
+	 */
+	public int getIndex(final INodeID node) {
+		final Integer index = this.nodeToIndex.get(node);
+		return index == null ? -1 : index;
+	}
+
+	public INodeID getNode(final int index) {
+		return this.nodes.get(index);
+	}
+
+	/**
+	 * Returns the distance between the nodes with the given indices
+	 */
+	public double getDistance(final int from, final int to) {
+		return this.getDistances(from)[to];
+	}
+
+	/**
+	 * Returns the distances from the node with the given index to all nodes.
+	 * The returned array must not be modified.
+	 */
+	public double[] getDistances(final int from) {
+		if (this.distances == null)
+			throw new IllegalStateException("Distances have not been computed, call update(Graph) first");
+		return this.distances[from];
+	}
+
+	/**
+	 * Returns the number of sources that have been searched during the last
+	 * {@link #update(Graph)}
+	 */
+	public int getRecomputedSourceCount() {
+		return this.lastRecomputedSourceCount;
+	}
+
+	/**
+	 * Compressed sparse row representation of a graph
+	 */
+	private static final class Adjacency {
+
+		/**
+		 * The outgoing edges of node u are stored at offsets[u] (inclusive) to
+		 * offsets[u+1] (exclusive)
+		 */
+		private final int[] offsets;
+
+		private final int[] targets;
+
+		/**
+		 * null for unit weights
+		 */
+		private final double[] weights;
+
+		private Adjacency(final Graph graph, final List<INodeID> nodes, final Map<INodeID, Integer> nodeToIndex,
+				final ToDoubleFunction<IEdge> weightFunction) {
+			final int nodeCount = nodes.size();
+			this.offsets = new int[nodeCount + 1];
+			int[] targets = new int[Math.max(graph.getEdgeCount(), 1)];
+			double[] weights = weightFunction == null ? null : new double[targets.length];
+			// Position of the edge to a target within the current row, for
+			// merging parallel edges
+			final int[] positionOfTarget = new int[nodeCount];
+			Arrays.fill(positionOfTarget, -1);
+			int edgeCount = 0;
+			for (int u = 0; u < nodeCount; ++u) {
+				this.offsets[u] = edgeCount;
+				for (final IEdge edge : graph.getOutgoingEdges(nodes.get(u))) {
+					final int v = nodeToIndex.get(edge.toId());
+					final double weight = weightFunction == null ? 1.0 : weightFunction.applyAsDouble(edge);
+					if (weight < 0)
+						throw new IllegalArgumentException("Negative edge weight " + weight + " of " + edge);
+					final int position = positionOfTarget[v];
+					if (position >= this.offsets[u]) {
+						if (weights != null && weight < weights[position])
+							weights[position] = weight;
+						continue;
+					}
+					if (edgeCount == targets.length) {
+						targets = Arrays.copyOf(targets, edgeCount * 2);
+						if (weights != null)
+							weights = Arrays.copyOf(weights, edgeCount * 2);
+					}
+					positionOfTarget[v] = edgeCount;
+					targets[edgeCount] = v;
+					if (weights != null)
+						weights[edgeCount] = weight;
+					++edgeCount;
+				}
+			}
+			this.offsets[nodeCount] = edgeCount;
+			this.targets = targets;
+			this.weights = weights;
+		}
+
+		private double weight(final int position) {
+			return this.weights == null ? 1.0 : this.weights[position];
+		}
+
+		private int nodeCount() {
+			return this.offsets.length - 1;
+		}
+	}
+
+	/**
+	 * The edges that were removed (or became heavier) and the edges that were
+	 * added (or became lighter) between two graphs with identical node sets
+	 */
+	private static final class Changes {
+
+		private int[] removedFrom = new int[8], removedTo = new int[8];
+
+		private double[] removedWeight = new double[8];
+
+		private int removedCount = 0;
+
+		private int[] addedFrom = new int[8], addedTo = new int[8];
+
+		private double[] addedWeight = new double[8];
+
+		private int addedCount = 0;
+
+		private Changes(final Adjacency before, final Adjacency after, final int nodeCount) {
+			final double[] weightBefore = new double[nodeCount];
+			final int[] marker = new int[nodeCount];
+			for (int u = 0; u < nodeCount; ++u) {
+				final int currentMarker = u + 1;
+				for (int i = before.offsets[u]; i < before.offsets[u + 1]; ++i) {
+					marker[before.targets[i]] = currentMarker;
+					weightBefore[before.targets[i]] = before.weight(i);
+				}
+				for (int i = after.offsets[u]; i < after.offsets[u + 1]; ++i) {
+					final int v = after.targets[i];
+					final double weight = after.weight(i);
+					if (marker[v] != currentMarker) {
+						this.addAdded(u, v, weight);
+					} else {
+						if (weight < weightBefore[v])
+							this.addAdded(u, v, weight);
+						else if (weight > weightBefore[v])
+							this.addRemoved(u, v, weightBefore[v]);
+						// Mark as still present
+						marker[v] = -currentMarker;
+					}
+				}
+				for (int i = before.offsets[u]; i < before.offsets[u + 1]; ++i) {
+					if (marker[before.targets[i]] == currentMarker)
+						this.addRemoved(u, before.targets[i], before.weight(i));
+				}
+			}
+		}
+
+		private void addRemoved(final int from, final int to, final double weight) {
+			if (this.removedCount == this.removedFrom.length) {
+				this.removedFrom = Arrays.copyOf(this.removedFrom, this.removedCount * 2);
+				this.removedTo = Arrays.copyOf(this.removedTo, this.removedCount * 2);
+				this.removedWeight = Arrays.copyOf(this.removedWeight, this.removedCount * 2);
+			}
+			this.removedFrom[this.removedCount] = from;
+			this.removedTo[this.removedCount] = to;
+			this.removedWeight[this.removedCount] = weight;
+			++this.removedCount;
+		}
+
+		private void addAdded(final int from, final int to, final double weight) {
+			if (this.addedCount == this.addedFrom.length) {
+				this.addedFrom = Arrays.copyOf(this.addedFrom, this.addedCount * 2);
+				this.addedTo = Arrays.copyOf(this.addedTo, this.addedCount * 2);
+				this.addedWeight = Arrays.copyOf(this.addedWeight, this.addedCount * 2);
+			}
+			this.addedFrom[this.addedCount] = from;
+			this.addedTo[this.addedCount] = to;
+			this.addedWeight[this.addedCount] = weight;
+			++this.addedCount;
+		}
+
+		/**
+		 * Returns whether the distances from the source with the given
+		 * (previous) distances may be affected by the changes
+		 */
+		private boolean affects(final double[] distances) {
+			for (int i = 0; i < this.removedCount; ++i) {
+				final double viaEdge = distances[this.removedFrom[i]] + this.removedWeight[i];
+				final double distance = distances[this.removedTo[i]];
+				if (viaEdge != Double.POSITIVE_INFINITY && viaEdge <= distance + TOLERANCE * distance)
+					return true;
+			}
+			for (int i = 0; i < this.addedCount; ++i) {
+				final double viaEdge = distances[this.addedFrom[i]] + this.addedWeight[i];
+				final double distance = distances[this.addedTo[i]];
+				if (viaEdge < distance - TOLERANCE * viaEdge)
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Searches a range of sources, forking into subtasks for large ranges
+	 */
+	private static final class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Adjacency adjacency;
+
+		private final int[] sources;
+
+		private final int begin;
+
+		private final int end;
+
+		/**
+		 * Indexed by node, contains the previous distances in case of an
+		 * incremental update
+		 */
+		private final double[][] distances;
+
+		/**
+		 * null if all sources shall be searched
+		 */
+		private final Changes changes;
+
+		private int searchCount = 0;
+
+		private SearchTask(final Adjacency adjacency, final int[] sources, final int begin, final int end,
+				final double[][] distances, final Changes changes) {
+			this.adjacency = adjacency;
+			this.sources = sources;
+			this.begin = begin;
+			this.end = end;
+			this.distances = distances;
+			this.changes = changes;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.end - this.begin > SOURCES_PER_TASK) {
+				final int middle = (this.begin + this.end) >>> 1;
+				final SearchTask left = new SearchTask(this.adjacency, this.sources, this.begin, middle,
+						this.distances, this.changes);
+				final SearchTask right = new SearchTask(this.adjacency, this.sources, middle, this.end,
+						this.distances, this.changes);
+				invokeAll(left, right);
+				this.searchCount = left.searchCount + right.searchCount;
+				return;
+			}
+			final Search search = new Search(this.adjacency);
+			for (int i = this.begin; i < this.end; ++i) {
+				final int source = this.sources[i];
+				if (this.changes == null || this.changes.affects(this.distances[source])) {
+					this.distances[source] = search.run(source);
+					++this.searchCount;
+				}
+			}
+		}
+
+		private int getSearchCount() {
+			return this.searchCount;
+		}
+	}
+
+	/**
+	 * BFS (unit weights) or Dijkstra search with re-usable work space
+	 */
+	private static final class Search {
+
+		private final Adjacency adjacency;
+
+		private int[] queue;
+
+		private double[] heapKeys;
+
+		private int[] heapNodes;
+
+		private Search(final Adjacency adjacency) {
+			this.adjacency = adjacency;
+			this.queue = new int[adjacency.nodeCount()];
+		}
+
+		private double[] run(final int source) {
+			final double[] distance = new double[this.adjacency.nodeCount()];
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			distance[source] = 0.0;
+			if (this.adjacency.weights == null)
+				this.breadthFirstSearch(source, distance);
+			else
+				this.dijkstra(source, distance);
+			return distance;
+		}
+
+		private void breadthFirstSearch(final int source, final double[] distance) {
+			final int[] offsets = this.adjacency.offsets;
+			final int[] targets = this.adjacency.targets;
+			int head = 0;
+			int tail = 0;
+			this.queue[tail++] = source;
+			while (head < tail) {
+				final int u = this.queue[head++];
+				final double next = distance[u] + 1.0;
+				for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+					final int v = targets[i];
+					if (distance[v] == Double.POSITIVE_INFINITY) {
+						distance[v] = next;
+						this.queue[tail++] = v;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Dijkstra with a binary heap and lazy deletion of outdated entries
+		 */
+		private void dijkstra(final int source, final double[] distance) {
+			final int[] offsets = this.adjacency.offsets;
+			final int[] targets = this.adjacency.targets;
+			final double[] weights = this.adjacency.weights;
+			if (this.heapKeys == null) {
+				this.heapKeys = new double[Math.max(16, this.adjacency.nodeCount())];
+				this.heapNodes = new int[this.heapKeys.length];
+			}
+			int size = this.push(0, 0.0, source);
+			while (size > 0) {
+				final double key = this.heapKeys[0];
+				final int u = this.heapNodes[0];
+				size = this.pop(size);
+				if (key > distance[u])
+					continue;
+				for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+					final int v = targets[i];
+					final double candidate = key + weights[i];
+					if (candidate < distance[v]) {
+						distance[v] = candidate;
+						size = this.push(size, candidate, v);
+					}
+				}
+			}
+		}
+
+		private int push(final int size, final double key, final int node) {
+			if (size == this.heapKeys.length) {
+				this.heapKeys = Arrays.copyOf(this.heapKeys, size * 2);
+				this.heapNodes = Arrays.copyOf(this.heapNodes, size * 2);
+			}
+			int position = size;
+			while (position > 0) {
+				final int parent = (position - 1) >>> 1;
+				if (this.heapKeys[parent] <= key)
+					break;
+				this.heapKeys[position] = this.heapKeys[parent];
+				this.heapNodes[position] = this.heapNodes[parent];
+				position = parent;
+			}
+			this.heapKeys[position] = key;
+			this.heapNodes[position] = node;
+			return size + 1;
+		}
+
+		private int pop(final int size) {
+			final int newSize = size - 1;
+			final double key = this.heapKeys[newSize];
+			final int node = this.heapNodes[newSize];
+			int position = 0;
+			while (true) {
+				int child = 2 * position + 1;
+				if (child >= newSize)
+					break;
+				if (child + 1 < newSize && this.heapKeys[child + 1] < this.heapKeys[child])
+					++child;
+				if (key <= this.heapKeys[child])
+					break;
+				this.heapKeys[position] = this.heapKeys[child];
+				this.heapNodes[position] = this.heapNodes[child];
+				position = child;
+			}
+			this.heapKeys[position] = key;
+			this.heapNodes[position] = node;
+			return newSize;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package de.tudarmstadt.maki.simonstrator.tc.monitoring;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +72,19 @@ public class InformationRecord
       return data.get(metricName);
    }
 
+   /**
+    * Returns all metrics of this record
+    */
+   Collection<Metric<MetricValue<?>>> getMetrics()
+   {
+      return data.values();
+   }
+
+   public long getTimestamp()
+   {
+      return timestamp;
+   }
+
    @Override
    public String toString()
    {
@@ -0,0 +1,213 @@
+package de.tudarmstadt.maki.simonstrator.tc.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Stores the history of a numeric overall metric in primitive arrays.
+ *
+ * The most recent values are kept in a ring buffer. Values that are pushed out of the ring buffer are downsampled:
+ * each {@link #getBucketSize()} consecutive values are merged into one bucket that stores their mean, minimum and
+ * maximum.
+ */
+public class NumericMetricHistory
+{
+   private final long[] timestamps;
+
+   private final double[] values;
+
+   /**
+    * Index of the oldest value in the ring buffer
+    */
+   private int head = 0;
+
+   private int size = 0;
+
+   private final int bucketSize;
+
+   private long[] bucketTimestamps = new long[8];
+
+   private double[] bucketMeans = new double[8];
+
+   private double[] bucketMinima = new double[8];
+
+   private double[] bucketMaxima = new double[8];
+
+   private int bucketCount = 0;
+
+   /*
+    * The bucket that is currently filled
+    */
+   private long openBucketTimestamp;
+
+   private int openBucketSize = 0;
+
+   private double openBucketSum;
+
+   private double openBucketMinimum;
+
+   private double openBucketMaximum;
+
+   /**
+    * @param capacity the number of recent values to keep
+    * @param bucketSize the number of older values to merge into one bucket
+    */
+   public NumericMetricHistory(final int capacity, final int bucketSize)
+   {
+      if (capacity < 1)
+         throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+      if (bucketSize < 1)
+         throw new IllegalArgumentException("Bucket size must be positive: " + bucketSize);
+
+      this.timestamps = new long[capacity];
+      this.values = new double[capacity];
+      this.bucketSize = bucketSize;
+   }
+
+   /**
+    * Appends the given value. The timestamps should be non-decreasing.
+    * @param timestamp the timestamp in simulation time units
+    * @param value the value
+    */
+   public void add(final long timestamp, final double value)
+   {
+      final int capacity = this.values.length;
+      if (this.size == capacity)
+      {
+         downsample(this.timestamps[this.head], this.values[this.head]);
+         this.timestamps[this.head] = timestamp;
+         this.values[this.head] = value;
+         this.head = (this.head + 1) % capacity;
+      } else
+      {
+         final int index = (this.head + this.size) % capacity;
+         this.timestamps[index] = timestamp;
+         this.values[index] = value;
+         ++this.size;
+      }
+   }
+
+   /**
+    * Returns the number of recent values
+    */
+   public int size()
+   {
+      return this.size;
+   }
+
+   public int getCapacity()
+   {
+      return this.values.length;
+   }
+
+   public int getBucketSize()
+   {
+      return this.bucketSize;
+   }
+
+   /**
+    * Returns the timestamp of the i-th recent value (0 is the oldest one)
+    */
+   public long getTimestamp(final int i)
+   {
+      return this.timestamps[toIndex(i)];
+   }
+
+   /**
+    * Returns the i-th recent value (0 is the oldest one)
+    */
+   public double getValue(final int i)
+   {
+      return this.values[toIndex(i)];
+   }
+
+   /**
+    * Returns the most recent value or {@link Double#NaN} if no value has been added
+    */
+   public double getLatestValue()
+   {
+      return this.size == 0 ? Double.NaN : getValue(this.size - 1);
+   }
+
+   /**
+    * Returns the number of completed buckets of downsampled values
+    */
+   public int getBucketCount()
+   {
+      return this.bucketCount;
+   }
+
+   /**
+    * Returns the timestamp of the first value in the i-th bucket (0 is the oldest one)
+    */
+   public long getBucketTimestamp(final int i)
+   {
+      checkBucketIndex(i);
+      return this.bucketTimestamps[i];
+   }
+
+   public double getBucketMean(final int i)
+   {
+      checkBucketIndex(i);
+      return this.bucketMeans[i];
+   }
+
+   public double getBucketMinimum(final int i)
+   {
+      checkBucketIndex(i);
+      return this.bucketMinima[i];
+   }
+
+   public double getBucketMaximum(final int i)
+   {
+      checkBucketIndex(i);
+      return this.bucketMaxima[i];
+   }
+
+   private void downsample(final long timestamp, final double value)
+   {
+      if (this.openBucketSize == 0)
+      {
+         this.openBucketTimestamp = timestamp;
+         this.openBucketSum = value;
+         this.openBucketMinimum = value;
+         this.openBucketMaximum = value;
+      } else
+      {
+         this.openBucketSum += value;
+         this.openBucketMinimum = Math.min(this.openBucketMinimum, value);
+         this.openBucketMaximum = Math.max(this.openBucketMaximum, value);
+      }
+      ++this.openBucketSize;
+
+      if (this.openBucketSize == this.bucketSize)
+      {
+         if (this.bucketCount == this.bucketMeans.length)
+         {
+            final int newLength = 2 * this.bucketCount;
+            this.bucketTimestamps = Arrays.copyOf(this.bucketTimestamps, newLength);
+            this.bucketMeans = Arrays.copyOf(this.bucketMeans, newLength);
+            this.bucketMinima = Arrays.copyOf(this.bucketMinima, newLength);
+            this.bucketMaxima = Arrays.copyOf(this.bucketMaxima, newLength);
+         }
+         this.bucketTimestamps[this.bucketCount] = this.openBucketTimestamp;
+         this.bucketMeans[this.bucketCount] = this.openBucketSum / this.openBucketSize;
+         this.bucketMinima[this.bucketCount] = this.openBucketMinimum;
+         this.bucketMaxima[this.bucketCount] = this.openBucketMaximum;
+         ++this.bucketCount;
+         this.openBucketSize = 0;
+      }
+   }
+
+   private int toIndex(final int i)
+   {
+      if (i < 0 || i >= this.size)
+         throw new IndexOutOfBoundsException(String.format("Index: %d, size: %d", i, this.size));
+      return (this.head + i) % this.values.length;
+   }
+
+   private void checkBucketIndex(final int i)
+   {
+      if (i < 0 || i >= this.bucketCount)
+         throw new IndexOutOfBoundsException(String.format("Index: %d, bucket count: %d", i, this.bucketCount));
+   }
+}
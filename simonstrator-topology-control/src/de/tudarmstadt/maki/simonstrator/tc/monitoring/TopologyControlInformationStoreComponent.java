@@ -3,8 +3,10 @@ package de.tudarmstadt.maki.simonstrator.tc.monitoring;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -17,12 +19,21 @@ import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.MetricUtils;
 
 public class TopologyControlInformationStoreComponent implements HostComponent
 {
+   /**
+    * Marker for an unlimited number of records or an unlimited retention window
+    */
+   public static final long NO_LIMIT = 0;
+
+   public static final int DEFAULT_NUMERIC_HISTORY_CAPACITY = 1024;
+
+   public static final int DEFAULT_NUMERIC_HISTORY_BUCKET_SIZE = 60;
+
    private final Host host;
 
    /**
     * Maps a simulation timestamp to the corresponding information record
     */
-   private final Map<Long, InformationRecord> monitoringData;
+   private final NavigableMap<Long, InformationRecord> monitoringData;
 
    /**
     * Maintains an internal index of {@link Metric}s by metric name.
@@ -30,6 +41,26 @@ public class TopologyControlInformationStoreComponent implements HostComponent
     */
    private final Map<String, List<Metric<MetricValue<?>>>> metricIndex;
 
+   /**
+    * Maintains the values of numeric overall {@link Metric}s by metric name, independent of the retention of records
+    */
+   private final Map<String, NumericMetricHistory> numericHistories;
+
+   /**
+    * Maximum number of {@link InformationRecord}s to keep (or {@link #NO_LIMIT})
+    */
+   private long maximumRecordCount = NO_LIMIT;
+
+   /**
+    * {@link InformationRecord}s that are older than the latest record by more than this (in simulation time units) are
+    * removed (or {@link #NO_LIMIT})
+    */
+   private long retentionWindow = NO_LIMIT;
+
+   private int numericHistoryCapacity = DEFAULT_NUMERIC_HISTORY_CAPACITY;
+
+   private int numericHistoryBucketSize = DEFAULT_NUMERIC_HISTORY_BUCKET_SIZE;
+
    /**
     * Initializes this information store for the given host
     *
@@ -41,6 +72,7 @@ public class TopologyControlInformationStoreComponent implements HostComponent
       this.host = host;
       this.monitoringData = new TreeMap<>();
       this.metricIndex = new HashMap<>();
+      this.numericHistories = new HashMap<>();
    }
 
    /**
@@ -100,12 +132,10 @@ public class TopologyControlInformationStoreComponent implements HostComponent
     * @throws IllegalStateException if this information store has no records
     */
    public void put(final Metric<MetricValue<?>> data) {
-      final Set<Long> timestamps = this.monitoringData.keySet();
-      if (timestamps.isEmpty())
+      if (this.monitoringData.isEmpty())
          throw new IllegalStateException("Information store is empty");
 
-      final long latestTimestamp = Collections.max(timestamps);
-      this.put(latestTimestamp, data);
+      this.put(this.monitoringData.lastKey(), data);
    }
 
    /**
@@ -130,7 +160,7 @@ public class TopologyControlInformationStoreComponent implements HostComponent
    }
 
    /**
-    * Convenience method for returning the metric with the minimal time stamp
+    * Convenience method for returning the metric with the minimal time stamp among the retained records
     * @param metricName the name of the metric
     * @return the metric or <code>null</code> if there is no value for the metric
     */
@@ -164,7 +194,8 @@ public class TopologyControlInformationStoreComponent implements HostComponent
    /**
     * Creates an empty {@link InformationRecord} for the given timestamp.
     *
-    * If this component already contains a record for the timestamp, the existing record is returned
+    * If this component already contains a record for the timestamp, the existing record is returned.
+    * If the new record is the latest one, records that exceed the configured retention are removed.
     *
     * @param timestamp the timestamp
     *
@@ -172,12 +203,26 @@ public class TopologyControlInformationStoreComponent implements HostComponent
     */
    public InformationRecord getOrCreateRecord(final long timestamp)
    {
-      if (!this.monitoringData.containsKey(timestamp))
+      InformationRecord record = this.monitoringData.get(timestamp);
+      if (record == null)
       {
-         this.monitoringData.put(timestamp, new InformationRecord(this, timestamp));
+         record = new InformationRecord(this, timestamp);
+         this.monitoringData.put(timestamp, record);
+         if (this.monitoringData.lastKey() == timestamp)
+         {
+            removeOutdatedRecords(timestamp);
+         }
       }
 
-      return this.monitoringData.get(timestamp);
+      return record;
+   }
+
+   /**
+    * Returns the number of retained {@link InformationRecord}s
+    */
+   public int getRecordCount()
+   {
+      return this.monitoringData.size();
    }
 
    /**
@@ -188,7 +233,8 @@ public class TopologyControlInformationStoreComponent implements HostComponent
     */
    public List<Metric<MetricValue<?>>> getMetricsByName(final String metricName)
    {
-      return this.metricIndex.containsKey(metricName) ? this.metricIndex.get(metricName) : Collections.emptyList();
+      final List<Metric<MetricValue<?>>> metrics = this.metricIndex.get(metricName);
+      return metrics != null ? metrics : Collections.emptyList();
    }
 
    /**
@@ -204,6 +250,61 @@ public class TopologyControlInformationStoreComponent implements HostComponent
       return this.getMetricsByName(MetricUtils.getDefaultName(metricType));
    }
 
+   /**
+    * Returns the history of the numeric overall metric with the given name
+    *
+    * In contrast to {@link #getMetricsByName(String)}, the history covers the whole run, even if the corresponding
+    * {@link InformationRecord}s have been removed due to the configured retention.
+    *
+    * @param metricName the name of the desired metric
+    * @return the history or <code>null</code> if no numeric overall metric with this name has been stored
+    */
+   public NumericMetricHistory getNumericHistory(final String metricName)
+   {
+      return this.numericHistories.get(metricName);
+   }
+
+   /**
+    * Convenience method for {@link #getNumericHistory(String)} using {@link MetricUtils#getDefaultName(Class)}
+    */
+   public NumericMetricHistory getNumericHistoryByType(final Class<? extends Metric<?>> metricType)
+   {
+      return getNumericHistory(MetricUtils.getDefaultName(metricType));
+   }
+
+   /**
+    * Sets the maximum number of {@link InformationRecord}s to keep ({@link #NO_LIMIT} keeps all records)
+    */
+   public void setMaximumRecordCount(final long maximumRecordCount)
+   {
+      this.maximumRecordCount = maximumRecordCount;
+   }
+
+   /**
+    * Sets the maximum age of {@link InformationRecord}s relative to the latest record in simulation time units
+    * ({@link #NO_LIMIT} keeps all records)
+    */
+   public void setRetentionWindow(final long retentionWindow)
+   {
+      this.retentionWindow = retentionWindow;
+   }
+
+   /**
+    * Sets the number of recent values per {@link NumericMetricHistory} that are kept without downsampling
+    */
+   public void setNumericHistoryCapacity(final int numericHistoryCapacity)
+   {
+      this.numericHistoryCapacity = numericHistoryCapacity;
+   }
+
+   /**
+    * Sets the number of older values per {@link NumericMetricHistory} that are merged into one bucket
+    */
+   public void setNumericHistoryBucketSize(final int numericHistoryBucketSize)
+   {
+      this.numericHistoryBucketSize = numericHistoryBucketSize;
+   }
+
    /**
     * Notifies this store about a new {@link Metric} being added to one of its child {@link InformationRecord}s
     * @param metric the new metric
@@ -212,12 +313,62 @@ public class TopologyControlInformationStoreComponent implements HostComponent
    void notifyMetricAdded(final Metric<MetricValue<?>> metric, final long timestamp)
    {
       final String name = metric.getName();
-      if (!this.metricIndex.containsKey(name))
+      List<Metric<MetricValue<?>>> metrics = this.metricIndex.get(name);
+      if (metrics == null)
       {
-         this.metricIndex.put(name, new ArrayList<Metric<MetricValue<?>>>());
+         metrics = new ArrayList<Metric<MetricValue<?>>>();
+         this.metricIndex.put(name, metrics);
       }
+      metrics.add(metric);
+
+      final MetricValue<?> overallValue = metric.isOverallMetric() ? metric.getOverallMetric() : null;
+      if (overallValue != null && overallValue.getValue() instanceof Number)
+      {
+         NumericMetricHistory history = this.numericHistories.get(name);
+         if (history == null)
+         {
+            history = new NumericMetricHistory(this.numericHistoryCapacity, this.numericHistoryBucketSize);
+            this.numericHistories.put(name, history);
+         }
+         history.add(timestamp, ((Number) overallValue.getValue()).doubleValue());
+      }
+   }
+
+   /**
+    * Removes the oldest {@link InformationRecord}s (and their metrics from the index) until the configured retention
+    * is satisfied
+    *
+    * @param latestTimestamp the timestamp of the latest record
+    */
+   private void removeOutdatedRecords(final long latestTimestamp)
+   {
+      Set<Metric<MetricValue<?>>> removedMetrics = null;
+      while (!this.monitoringData.isEmpty() && isOutdated(this.monitoringData.firstKey(), latestTimestamp))
+      {
+         final InformationRecord record = this.monitoringData.pollFirstEntry().getValue();
+         if (removedMetrics == null)
+         {
+            removedMetrics = Collections.newSetFromMap(new IdentityHashMap<>());
+         }
+         removedMetrics.addAll(record.getMetrics());
+      }
+
+      if (removedMetrics != null && !removedMetrics.isEmpty())
+      {
+         for (final List<Metric<MetricValue<?>>> metrics : this.metricIndex.values())
+         {
+            metrics.removeIf(removedMetrics::contains);
+         }
+      }
+   }
+
+   private boolean isOutdated(final long timestamp, final long latestTimestamp)
+   {
+      if (timestamp == latestTimestamp)
+         return false;
 
-      this.metricIndex.get(name).add(metric);
+      return (this.maximumRecordCount != NO_LIMIT && this.monitoringData.size() > this.maximumRecordCount)
+            || (this.retentionWindow != NO_LIMIT && latestTimestamp - timestamp > this.retentionWindow);
    }
 
 }
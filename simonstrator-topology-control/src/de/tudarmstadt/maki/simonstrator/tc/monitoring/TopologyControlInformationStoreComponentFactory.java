@@ -1,6 +1,7 @@
 package de.tudarmstadt.maki.simonstrator.tc.monitoring;
 
 import de.tudarmstadt.maki.simonstrator.api.Host;
+import de.tudarmstadt.maki.simonstrator.api.Time;
 import de.tudarmstadt.maki.simonstrator.api.component.HostComponentFactory;
 
 /**
@@ -11,10 +12,50 @@ import de.tudarmstadt.maki.simonstrator.api.component.HostComponentFactory;
  */
 public class TopologyControlInformationStoreComponentFactory implements HostComponentFactory
 {
+   private long maximumRecordCount = TopologyControlInformationStoreComponent.NO_LIMIT;
+
+   private long retentionWindow = TopologyControlInformationStoreComponent.NO_LIMIT;
+
+   private int numericHistoryCapacity = TopologyControlInformationStoreComponent.DEFAULT_NUMERIC_HISTORY_CAPACITY;
+
+   private int numericHistoryBucketSize = TopologyControlInformationStoreComponent.DEFAULT_NUMERIC_HISTORY_BUCKET_SIZE;
+
    @Override
    public TopologyControlInformationStoreComponent createComponent(Host host)
    {
-      return new TopologyControlInformationStoreComponent(host);
+      final TopologyControlInformationStoreComponent component = new TopologyControlInformationStoreComponent(host);
+      component.setMaximumRecordCount(this.maximumRecordCount);
+      component.setRetentionWindow(this.retentionWindow);
+      component.setNumericHistoryCapacity(this.numericHistoryCapacity);
+      component.setNumericHistoryBucketSize(this.numericHistoryBucketSize);
+      return component;
+   }
+
+   /**
+    * Maximum number of information records per host (0 keeps all records)
+    */
+   public void setMaximumRecordCount(final long maximumRecordCount)
+   {
+      this.maximumRecordCount = maximumRecordCount;
+   }
+
+   /**
+    * Maximum age of information records relative to the latest record, e.g., 6h (0 keeps all records)
+    */
+   public void setRetentionWindow(final String retentionWindow)
+   {
+      this.retentionWindow = "0".equals(retentionWindow) ? TopologyControlInformationStoreComponent.NO_LIMIT
+            : Time.parseTime(retentionWindow);
+   }
+
+   public void setNumericHistoryCapacity(final int numericHistoryCapacity)
+   {
+      this.numericHistoryCapacity = numericHistoryCapacity;
+   }
+
+   public void setNumericHistoryBucketSize(final int numericHistoryBucketSize)
+   {
+      this.numericHistoryBucketSize = numericHistoryBucketSize;
    }
 
 }
@@ -0,0 +1,467 @@
+package de.tudarmstadt.maki.simonstrator.tc.patternMatching.matching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import de.tudarmstadt.maki.simonstrator.api.common.UniqueID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.EdgeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IElement;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.ITopologyChangedEvent;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.TopologyID;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.VariableAssignment;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.constraint.GraphElementConstraint;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.pattern.TopologyPattern;
+
+/**
+ * {@link TopologyPatternMatcher} that executes a search plan.
+ *
+ * The search plan binds the node variables one after the other. The binding
+ * candidates of a node variable are the neighbors of an already bound
+ * variable along a pattern link, i.e., they are read from the adjacency lists
+ * of the host graph. Among the variables that may be bound next, the search
+ * plan prefers the most selective one: the one with the most links to bound
+ * variables, then the one that enables the most constraints, then the one
+ * with the highest degree in the pattern. Link variables are bound as soon as
+ * both incident node variables are bound, and each constraint is checked as
+ * soon as all of its variables are bound. NACs are checked for complete
+ * matches.
+ *
+ * The produced matches are the same as those of
+ * {@link TopologyPatternMatcher_Impl}, but may be reported in a different
+ * order.
+ */
+public class SearchPlanTopologyPatternMatcher implements TopologyPatternMatcher {
+
+	private static final long serialVersionUID = 2706286787125066359L;
+
+	private TopologyPattern pattern;
+
+	/**
+	 * Search plans, indexed by the set of variables that are bound before the
+	 * search starts
+	 */
+	private transient Map<Set<INodeID>, SearchPlan> searchPlans;
+
+	private transient Map<TopologyPattern, SearchPlanTopologyPatternMatcher> nacMatchers;
+
+	public SearchPlanTopologyPatternMatcher() {
+		this.setPattern(null);
+	}
+
+	public SearchPlanTopologyPatternMatcher(final TopologyPattern pattern) {
+		this.setPattern(pattern);
+	}
+
+	@Override
+	public void setPattern(final TopologyPattern pattern) {
+		this.pattern = pattern;
+		this.searchPlans = null;
+		this.nacMatchers = null;
+	}
+
+	@Override
+	public TopologyPattern getPattern() {
+		return this.pattern;
+	}
+
+	@Override
+	public Iterable<TopologyPatternMatch> match(final Graph graph) {
+		final List<Iterable<TopologyPatternMatch>> iterables = new ArrayList<>();
+		for (final INode node : graph.getNodes()) {
+			iterables.add(this.match(node.getId(), graph));
+		}
+		return Iterables.concat(iterables);
+	}
+
+	@Override
+	public Iterable<TopologyPatternMatch> match(final INodeID localNode, final Graph graph) {
+		return this.match(localNode, graph, new VariableAssignment());
+	}
+
+	@Override
+	public Iterable<TopologyPatternMatch> match(final INodeID localNode, final Graph graph,
+			final VariableAssignment inputVariableAssignment) {
+		return this.search(localNode, graph, inputVariableAssignment, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean hasMatch(final INodeID localNode, final Graph graph, final VariableAssignment variableAssignment) {
+		return !this.search(localNode, graph, variableAssignment, 1).isEmpty();
+	}
+
+	@Override
+	public boolean hasMatch(final INodeID localNode, final Graph graph) {
+		return this.hasMatch(localNode, graph, new VariableAssignment());
+	}
+
+	@Override
+	public int countMatches(final INodeID localNode, final Graph graph) {
+		return this.search(localNode, graph, new VariableAssignment(), Integer.MAX_VALUE).size();
+	}
+
+	@Override
+	public Iterable<TopologyPatternMatch> handleEvent(final ITopologyChangedEvent topologyChangedEvent) {
+		final TopologyID topologyIdentifier = topologyChangedEvent.getTopologyIdentifier();
+		final INode localNode = topologyChangedEvent.getTopologyProvider().getNode(topologyIdentifier);
+		final Graph graph = topologyChangedEvent.getTopologyProvider().getLocalView(topologyIdentifier);
+		return this.match(localNode.getId(), graph);
+	}
+
+	private List<TopologyPatternMatch> search(final INodeID localNode, final Graph graph,
+			final VariableAssignment inputVariableAssignment, final int maximumMatchCount) {
+		final Set<INodeID> preboundVariables = new LinkedHashSet<>();
+		preboundVariables.add(this.pattern.getOrigin());
+		for (final INodeID variable : this.pattern.getVariables()) {
+			if (inputVariableAssignment.isBound(variable)) {
+				preboundVariables.add(variable);
+			}
+		}
+
+		final Search search = new Search(getSearchPlan(preboundVariables), localNode, graph, inputVariableAssignment,
+				maximumMatchCount);
+		search.run(0);
+		return search.matches;
+	}
+
+	private SearchPlan getSearchPlan(final Set<INodeID> preboundVariables) {
+		if (this.searchPlans == null) {
+			this.searchPlans = new HashMap<>();
+		}
+
+		SearchPlan searchPlan = this.searchPlans.get(preboundVariables);
+		if (searchPlan == null) {
+			searchPlan = new SearchPlan(this.pattern, preboundVariables);
+			this.searchPlans.put(preboundVariables, searchPlan);
+		}
+		return searchPlan;
+	}
+
+	private SearchPlanTopologyPatternMatcher getNacMatcher(final TopologyPattern nacPattern) {
+		if (this.nacMatchers == null) {
+			this.nacMatchers = new HashMap<>();
+		}
+
+		SearchPlanTopologyPatternMatcher nacMatcher = this.nacMatchers.get(nacPattern);
+		if (nacMatcher == null) {
+			nacMatcher = new SearchPlanTopologyPatternMatcher(nacPattern);
+			this.nacMatchers.put(nacPattern, nacMatcher);
+		}
+		return nacMatcher;
+	}
+
+	/**
+	 * A single step of a {@link SearchPlan}: either binds a node variable or a
+	 * link variable and afterwards checks the constraints that have become
+	 * checkable.
+	 */
+	private static final class Operation {
+
+		/**
+		 * The node variable to bind, null if this operation binds a link variable
+		 */
+		private final INodeID nodeVariable;
+
+		/**
+		 * The link variable to bind, null if this operation binds a node variable
+		 */
+		private final IEdge linkVariable;
+
+		/**
+		 * The bound node variable whose neighbors are the binding candidates, null
+		 * if the node variable is prebound or if all nodes are candidates
+		 */
+		private final INodeID anchorVariable;
+
+		/**
+		 * Whether the candidates are reached via outgoing links of the anchor
+		 */
+		private final boolean isAnchorSource;
+
+		private final boolean isPrebound;
+
+		private final List<GraphElementConstraint> constraints = new ArrayList<>();
+
+		private Operation(final INodeID nodeVariable, final IEdge linkVariable, final INodeID anchorVariable,
+				final boolean isAnchorSource, final boolean isPrebound) {
+			this.nodeVariable = nodeVariable;
+			this.linkVariable = linkVariable;
+			this.anchorVariable = anchorVariable;
+			this.isAnchorSource = isAnchorSource;
+			this.isPrebound = isPrebound;
+		}
+	}
+
+	/**
+	 * The order in which the variables of a pattern are bound
+	 */
+	private static final class SearchPlan {
+
+		private final List<Operation> operations = new ArrayList<>();
+
+		/**
+		 * Constraints that refer to variables that are not part of the pattern
+		 */
+		private final List<GraphElementConstraint> finalConstraints = new ArrayList<>();
+
+		private final Set<UniqueID> boundVariables = new HashSet<>();
+
+		private final List<IEdge> unboundLinkVariables;
+
+		private final List<GraphElementConstraint> uncheckedConstraints;
+
+		private SearchPlan(final TopologyPattern pattern, final Set<INodeID> preboundVariables) {
+			final Graph patternGraph = pattern.getGraph();
+			this.unboundLinkVariables = new ArrayList<>(patternGraph.getEdges());
+			this.uncheckedConstraints = new ArrayList<>(pattern.getConstraints());
+
+			for (final INodeID variable : preboundVariables) {
+				addNodeOperation(new Operation(variable, null, null, false, true));
+			}
+
+			final List<INodeID> unboundVariables = Lists.newArrayList(pattern.getVariables());
+			unboundVariables.removeAll(preboundVariables);
+			while (!unboundVariables.isEmpty()) {
+				INodeID bestVariable = null;
+				int[] bestScore = null;
+				for (final INodeID variable : unboundVariables) {
+					final int[] score = calculateSelectivityScore(variable, patternGraph);
+					if (bestScore == null || compareScores(score, bestScore) > 0) {
+						bestVariable = variable;
+						bestScore = score;
+					}
+				}
+				unboundVariables.remove(bestVariable);
+				addNodeOperation(createAnchoredOperation(bestVariable, patternGraph));
+			}
+
+			this.finalConstraints.addAll(this.uncheckedConstraints);
+		}
+
+		private Operation createAnchoredOperation(final INodeID variable, final Graph patternGraph) {
+			for (final IEdge link : patternGraph.getIncomingEdges(variable)) {
+				if (this.boundVariables.contains(link.fromId())) {
+					return new Operation(variable, null, link.fromId(), true, false);
+				}
+			}
+			for (final IEdge link : patternGraph.getOutgoingEdges(variable)) {
+				if (this.boundVariables.contains(link.toId())) {
+					return new Operation(variable, null, link.toId(), false, false);
+				}
+			}
+			return new Operation(variable, null, null, false, false);
+		}
+
+		/**
+		 * Returns the selectivity score of the given variable, which is compared
+		 * lexicographically: links to bound variables, enabled constraints,
+		 * degree
+		 */
+		private int[] calculateSelectivityScore(final INodeID variable, final Graph patternGraph) {
+			int linksToBoundVariables = 0;
+			for (final IEdge link : patternGraph.getOutgoingEdges(variable)) {
+				if (this.boundVariables.contains(link.toId()))
+					++linksToBoundVariables;
+			}
+			for (final IEdge link : patternGraph.getIncomingEdges(variable)) {
+				if (this.boundVariables.contains(link.fromId()))
+					++linksToBoundVariables;
+			}
+
+			this.boundVariables.add(variable);
+			final Set<UniqueID> enabledLinkVariables = new HashSet<>();
+			for (final IEdge link : this.unboundLinkVariables) {
+				if (this.boundVariables.contains(link.fromId()) && this.boundVariables.contains(link.toId()))
+					enabledLinkVariables.add(link.getId());
+			}
+			int enabledConstraints = 0;
+			for (final GraphElementConstraint constraint : this.uncheckedConstraints) {
+				if (isCheckable(constraint, enabledLinkVariables))
+					++enabledConstraints;
+			}
+			this.boundVariables.remove(variable);
+
+			return new int[] { linksToBoundVariables, enabledConstraints, patternGraph.getDegree(variable) };
+		}
+
+		private static int compareScores(final int[] score, final int[] otherScore) {
+			for (int i = 0; i < score.length; ++i) {
+				if (score[i] != otherScore[i])
+					return Integer.compare(score[i], otherScore[i]);
+			}
+			return 0;
+		}
+
+		private void addNodeOperation(final Operation operation) {
+			this.boundVariables.add(operation.nodeVariable);
+			this.operations.add(operation);
+			scheduleConstraints(operation);
+
+			final List<IEdge> enabledLinkVariables = new ArrayList<>();
+			for (final IEdge link : this.unboundLinkVariables) {
+				if (this.boundVariables.contains(link.fromId()) && this.boundVariables.contains(link.toId()))
+					enabledLinkVariables.add(link);
+			}
+			this.unboundLinkVariables.removeAll(enabledLinkVariables);
+
+			for (final IEdge link : enabledLinkVariables) {
+				final Operation linkOperation = new Operation(null, link, null, false, false);
+				this.boundVariables.add(link.getId());
+				this.operations.add(linkOperation);
+				scheduleConstraints(linkOperation);
+			}
+		}
+
+		private void scheduleConstraints(final Operation operation) {
+			final List<GraphElementConstraint> checkableConstraints = new ArrayList<>();
+			for (final GraphElementConstraint constraint : this.uncheckedConstraints) {
+				if (isCheckable(constraint, Collections.emptySet()))
+					checkableConstraints.add(constraint);
+			}
+			this.uncheckedConstraints.removeAll(checkableConstraints);
+			operation.constraints.addAll(checkableConstraints);
+		}
+
+		private boolean isCheckable(final GraphElementConstraint constraint, final Set<UniqueID> additionalVariables) {
+			for (final UniqueID variable : constraint.getVariables()) {
+				if (!this.boundVariables.contains(variable) && !additionalVariables.contains(variable))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Depth-first execution of a {@link SearchPlan}
+	 */
+	private final class Search {
+
+		private final SearchPlan searchPlan;
+
+		private final INodeID localNode;
+
+		private final Graph graph;
+
+		private final VariableAssignment inputVariableAssignment;
+
+		private final int maximumMatchCount;
+
+		private final VariableAssignment variableAssignment = new VariableAssignment();
+
+		private final List<TopologyPatternMatch> matches = new ArrayList<>();
+
+		private Search(final SearchPlan searchPlan, final INodeID localNode, final Graph graph,
+				final VariableAssignment inputVariableAssignment, final int maximumMatchCount) {
+			this.searchPlan = searchPlan;
+			this.localNode = localNode;
+			this.graph = graph;
+			this.inputVariableAssignment = inputVariableAssignment;
+			this.maximumMatchCount = maximumMatchCount;
+		}
+
+		private void run(final int operationIndex) {
+			if (operationIndex == this.searchPlan.operations.size()) {
+				if (areFulfilled(this.searchPlan.finalConstraints) && !hasMatchesForNACs()) {
+					this.matches.add(TopologyPatternMatch.create(pattern, this.variableAssignment));
+				}
+				return;
+			}
+
+			final Operation operation = this.searchPlan.operations.get(operationIndex);
+			if (operation.linkVariable != null) {
+				final INodeID source = this.variableAssignment.getNodeVariableBinding(operation.linkVariable.fromId());
+				final INodeID target = this.variableAssignment.getNodeVariableBinding(operation.linkVariable.toId());
+				for (final IEdge edge : this.graph.getEdges(source, target)) {
+					this.variableAssignment.bindLinkVariable(operation.linkVariable.getId(), edge);
+					if (areFulfilled(operation.constraints)) {
+						run(operationIndex + 1);
+					}
+					if (isDone())
+						return;
+				}
+			} else {
+				for (final INode candidate : getCandidates(operation)) {
+					if (this.variableAssignment.isBindingForSomeVariable(candidate))
+						continue;
+
+					this.variableAssignment.bindNodeVariable(operation.nodeVariable, candidate);
+					if (areFulfilled(operation.constraints)) {
+						run(operationIndex + 1);
+					}
+					this.variableAssignment.unbindNodeVariable(operation.nodeVariable);
+					if (isDone())
+						return;
+				}
+			}
+		}
+
+		private boolean isDone() {
+			return this.matches.size() >= this.maximumMatchCount;
+		}
+
+		private Collection<INode> getCandidates(final Operation operation) {
+			if (operation.isPrebound) {
+				final INodeID binding = this.inputVariableAssignment.isBound(operation.nodeVariable)
+						? this.inputVariableAssignment.getNodeVariableBinding(operation.nodeVariable)
+						: this.localNode;
+				final INode node = this.graph.getNode(binding);
+				return node != null ? Collections.singletonList(node) : Collections.emptyList();
+			} else if (operation.anchorVariable == null) {
+				return new ArrayList<>(this.graph.getNodes());
+			} else {
+				final INodeID anchorBinding = this.variableAssignment.getNodeVariableBinding(operation.anchorVariable);
+				final Set<INodeID> neighbors = new LinkedHashSet<>();
+				if (operation.isAnchorSource) {
+					for (final IEdge edge : this.graph.getOutgoingEdges(anchorBinding))
+						neighbors.add(edge.toId());
+				} else {
+					for (final IEdge edge : this.graph.getIncomingEdges(anchorBinding))
+						neighbors.add(edge.fromId());
+				}
+				final List<INode> candidates = new ArrayList<>(neighbors.size());
+				for (final INodeID neighbor : neighbors)
+					candidates.add(this.graph.getNode(neighbor));
+				return candidates;
+			}
+		}
+
+		private boolean areFulfilled(final List<GraphElementConstraint> constraints) {
+			for (final GraphElementConstraint constraint : constraints) {
+				final List<IElement> bindingElements = new ArrayList<>();
+				for (final UniqueID variable : constraint.getVariables()) {
+					if (variable instanceof EdgeID)
+						bindingElements.add(this.variableAssignment.getBindingLink((EdgeID) variable));
+					else if (variable instanceof INodeID)
+						bindingElements.add(this.variableAssignment.getBindingNodeForNodeVariable((INodeID) variable));
+				}
+				if (!constraint.isFulfilled(bindingElements))
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Returns true if any of the NAC patterns matches
+		 */
+		private boolean hasMatchesForNACs() {
+			for (final TopologyPattern nacPattern : pattern.getNegativeApplicationConstraints()) {
+				if (getNacMatcher(nacPattern).hasMatch(this.localNode, this.graph, this.variableAssignment))
+					return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package de.tudarmstadt.maki.simonstrator.tc.reconfiguration;
+
+/**
+ * The {@link ContextEventHandlingMode} determines how the TC component derives
+ * the context events from the input topology
+ */
+public enum ContextEventHandlingMode {
+	/**
+	 * In this mode, the complete input topology is compared to the graph of the
+	 * TC facade in each iteration. This is the default.
+	 */
+	FULL_DIFF,
+	/**
+	 * In this mode, only the deltas that are reported by the input topology
+	 * provider are applied to the TC facade.
+	 *
+	 * This mode requires a provider that implements
+	 * {@link de.tudarmstadt.maki.simonstrator.tc.component.DeltaTopologyProvider}
+	 * and reports every change of the edge properties that the edge attributes
+	 * are derived from (e.g., the distance of moving hosts). Only edges with a
+	 * delta or with a modified incident node are re-evaluated. For all other
+	 * providers, {@link #FULL_DIFF} is used instead.
+	 */
+	DELTA,
+	/**
+	 * In this mode, the deltas are applied and, afterwards, the complete input
+	 * topology is compared to the graph of the TC facade. Every context event
+	 * that is raised during the comparison indicates a missed delta.
+	 */
+	DELTA_WITH_VERIFICATION
+
+}
@@ -9,6 +9,7 @@ import java.util.Optional;
 import de.tudarmstadt.maki.simonstrator.api.Host;
 import de.tudarmstadt.maki.simonstrator.api.Monitor;
 import de.tudarmstadt.maki.simonstrator.api.Monitor.Level;
+import de.tudarmstadt.maki.simonstrator.tc.component.EvaluationDataFormat;
 import de.tudarmstadt.maki.simonstrator.tc.component.ITopologyControlMonitoringComponent;
 import de.tudarmstadt.maki.simonstrator.tc.component.SimpleTopologyProvider;
 import de.tudarmstadt.maki.simonstrator.tc.facade.ITopologyControlFacade;
@@ -62,6 +63,13 @@ public class TopologyControlComponentConfig {
 
 	public String evaluationDataFilename = NOT_SET_STR;
 
+	public EvaluationDataFormat evaluationDataFormat = EvaluationDataFormat.CSV;
+
+	/**
+	 * Number of data lines after which the evaluation data file is flushed
+	 */
+	public int evaluationDataFlushInterval = 100;
+
 	public String logfileName = NOT_SET_STR;
 
 	// === METADATA ===
@@ -120,6 +128,8 @@ public class TopologyControlComponentConfig {
 
 	public double topologyControlIntervalInMinutes = NOT_SET_DOUBLE;
 
+	public ContextEventHandlingMode contextEventHandlingMode = ContextEventHandlingMode.FULL_DIFF;
+
 	public int topologyMonitoringLocalViewSize = DEFAULT_TOPOLOGY_MONITORING_MAXIMUM_LOCAL_VIEW_SIZE;
 
 	public double requiredTransmissionPowerExponent = NOT_SET_DOUBLE;
@@ -149,6 +159,19 @@ public class TopologyControlComponentConfig {
 
 	public double datacollectionProbability = 0.0;
 
+	// === Statistics ===
+	/**
+	 * Node count above which the hop spanner is estimated from
+	 * {@link #spannerMetricSampleSize} sampled sources instead of being
+	 * computed for all pairs of nodes
+	 */
+	public int spannerMetricSamplingThreshold = NOT_SET_INT;
+
+	/**
+	 * Number of sampled sources for estimating the hop spanner
+	 */
+	public int spannerMetricSampleSize = 200;
+
 	// === Reconfiguration component ===
 	/**
 	 * If true, reconfiguration are enabled
@@ -340,6 +363,7 @@ public class TopologyControlComponentConfig {
 		builder.append(",\n     topologyControlAlgorithmParamters=").append(topologyControlAlgorithmParamters);
 		builder.append(",\n     topologyControlExecutionMode=").append(topologyControlFrequencyMode);
 		builder.append(",\n     topologyControlIntervalInMinutes=").append(topologyControlIntervalInMinutes);
+		builder.append(",\n     contextEventHandlingMode=").append(contextEventHandlingMode);
 
 		builder.append(",\n     incrementalTopologyControlFacade=").append(incrementalTopologyControlFacade);
 		builder.append(",\n     topologyControlOperationMode=").append(topologyControlOperationMode);
@@ -401,6 +425,10 @@ public class TopologyControlComponentConfig {
 		this.topologyControlFrequencyMode = TopologyControlFrequencyMode.valueOf(topologyControlExecutionMode);
 	}
 
+	public void setContextEventHandlingMode(final String contextEventHandlingMode) {
+		this.contextEventHandlingMode = ContextEventHandlingMode.valueOf(contextEventHandlingMode);
+	}
+
 	public void setTopologyControlIntervalInMinutes(final double topologyControlIntervalInMinutes) {
 		this.topologyControlIntervalInMinutes = topologyControlIntervalInMinutes;
 	}
@@ -453,6 +481,14 @@ public class TopologyControlComponentConfig {
 		this.outputFilePrefix = outputFilePrefix;
 	}
 
+	public void setEvaluationDataFormat(final String evaluationDataFormat) {
+		this.evaluationDataFormat = EvaluationDataFormat.valueOf(evaluationDataFormat);
+	}
+
+	public void setEvaluationDataFlushInterval(final int evaluationDataFlushInterval) {
+		this.evaluationDataFlushInterval = evaluationDataFlushInterval;
+	}
+
 	public void setEnd(final String end) {
 		this.end = end;
 	}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+
+/**
+ * Behavior of the {@link Graph} interface that all implementations share.
+ * Subclasses provide the implementation under test.
+ */
+public abstract class AbstractGraphContractTest
+{
+
+   private static final INodeID n1 = INodeID.get("n1");
+
+   private static final INodeID n2 = INodeID.get("n2");
+
+   private static final INodeID n3 = INodeID.get("n3");
+
+   private static final INodeID n4 = INodeID.get("n4");
+
+   protected Graph graph;
+
+   /**
+    * Creates an empty graph of the implementation under test
+    */
+   protected abstract Graph createGraph();
+
+   @Before
+   public void setUp()
+   {
+      this.graph = createGraph();
+      for (final INodeID node : Arrays.asList(n1, n2, n3, n4))
+         this.graph.addNode(Graphs.createNode(node));
+   }
+
+   @Test
+   public void testAddAndContainsNodes() throws Exception
+   {
+      Assert.assertEquals(4, graph.getNodeCount());
+      Assert.assertFalse(graph.addNode(Graphs.createNode(n1)));
+      Assert.assertEquals(4, graph.getNodeCount());
+      Assert.assertTrue(graph.containsNode(n1));
+      Assert.assertFalse(graph.containsNode(INodeID.get("unknown")));
+      Assert.assertEquals(n2, graph.getNode(n2).getId());
+      Assert.assertNull(graph.getNode(INodeID.get("unknown")));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n1, n2, n3, n4)), toSet(graph.getNodeIds()));
+   }
+
+   @Test
+   public void testAddAndContainsEdges() throws Exception
+   {
+      final IEdge e12 = edge("e12", n1, n2);
+      Assert.assertTrue(graph.addEdge(e12));
+      Assert.assertFalse(graph.addEdge(edge("e12", n1, n2)));
+      Assert.assertEquals(1, graph.getEdgeCount());
+      Assert.assertTrue(graph.containsEdge(e12));
+      Assert.assertTrue(graph.containsEdge(n1, n2));
+      Assert.assertFalse(graph.containsEdge(n2, n1));
+      Assert.assertEquals(e12.getId(), graph.getEdge(e12.getId()).getId());
+      Assert.assertEquals(e12.getId(), graph.getEdge(n1, n2).getId());
+      Assert.assertNull(graph.getEdge(n2, n1));
+      Assert.assertNull(graph.getEdge(EdgeID.get("unknown")));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(e12.getId())), graph.getEdgeIds());
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testAddEdgeWithUnknownNode() throws Exception
+   {
+      graph.addEdge(edge("e15", n1, INodeID.get("n5")));
+   }
+
+   @Test
+   public void testDegreesAndNeighbors() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.addEdge(edge("e13", n1, n3));
+      graph.addEdge(edge("e31", n3, n1));
+      graph.addEdge(edge("e23", n2, n3));
+
+      Assert.assertEquals(2, graph.getOutdegree(n1));
+      Assert.assertEquals(1, graph.getIndegree(n1));
+      Assert.assertEquals(3, graph.getDegree(n1));
+      Assert.assertEquals(0, graph.getDegree(n4));
+      Assert.assertEquals(ids("e12", "e13"), edgeIds(graph.getOutgoingEdges(n1)));
+      Assert.assertEquals(ids("e13", "e23"), edgeIds(graph.getIncomingEdges(n3)));
+
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n2, n3)), graph.getNeighbors(n1));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n3)), graph.getNeighbors(n2, true));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n1, n3)), graph.getNeighbors(n2, false));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n1, n2)), graph.getPredecessorNodes(n3));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n1, n2, n3)), graph.getNeighbors(n2, 2, false));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n2, n3, n1)), graph.getNeighbors(n2, 2, true));
+
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n4)), toSet(graph.getIsolatedNodes()));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n4)), toSet(graph.getLeafNodes()));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n4)), toSet(graph.getRootNodes()));
+      Assert.assertEquals(ids("e12", "e13", "e31", "e23"), edgeIds(graph.getEdges(Arrays.asList(n1, n2, n3))));
+      Assert.assertEquals(ids("e13", "e31"), edgeIds(graph.getEdges(Arrays.asList(n1, n3))));
+   }
+
+   @Test
+   public void testParallelEdgesKeepInsertionOrder() throws Exception
+   {
+      final IEdge first = edge("e12_1", n1, n2);
+      final IEdge second = edge("e12_2", n1, n2);
+      final IEdge third = edge("e12_3", n1, n2);
+      graph.addEdge(first);
+      graph.addEdge(second);
+      graph.addEdge(third);
+
+      Assert.assertEquals(first.getId(), graph.getEdge(n1, n2).getId());
+      Assert.assertEquals(Arrays.asList(first.getId(), second.getId(), third.getId()), edgeIdList(graph.getEdges(n1, n2)));
+      Assert.assertEquals(1, graph.getNeighbors(n1).size());
+
+      graph.removeEdge(first);
+      Assert.assertEquals(second.getId(), graph.getEdge(n1, n2).getId());
+      Assert.assertTrue(graph.containsEdge(n1, n2));
+
+      graph.addEdge(first);
+      Assert.assertEquals(Arrays.asList(second.getId(), third.getId(), first.getId()), edgeIdList(graph.getEdges(n1, n2)));
+
+      graph.removeEdge(second);
+      graph.removeEdge(third);
+      graph.removeEdge(first);
+      Assert.assertNull(graph.getEdge(n1, n2));
+      Assert.assertFalse(graph.containsEdge(n1, n2));
+      Assert.assertTrue(graph.getEdges(n1, n2).isEmpty());
+      Assert.assertTrue(graph.getNeighbors(n1).isEmpty());
+      Assert.assertTrue(graph.getPredecessorNodes(n2).isEmpty());
+   }
+
+   @Test
+   public void testCreateAndAddEdge() throws Exception
+   {
+      final IEdge edge = graph.createAndAddEdge(n1, n2);
+      Assert.assertTrue(graph.containsEdge(n1, n2));
+      Assert.assertEquals(edge.getId(), graph.createAndAddEdge(n1, n2, false).getId());
+      Assert.assertEquals(1, graph.getEdgeCount());
+   }
+
+   @Test
+   public void testRemoveNodeRemovesIncidentEdges() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.addEdge(edge("e21", n2, n1));
+      graph.addEdge(edge("e23", n2, n3));
+      graph.addEdge(edge("e34", n3, n4));
+
+      Assert.assertTrue(graph.removeNode(n2));
+      Assert.assertFalse(graph.removeNode(n2));
+      Assert.assertEquals(3, graph.getNodeCount());
+      Assert.assertEquals(ids("e34"), edgeIds(graph.getEdges()));
+      Assert.assertEquals(0, graph.getOutdegree(n1));
+      Assert.assertEquals(0, graph.getIndegree(n3));
+      Assert.assertTrue(graph.getNeighbors(n1, false).isEmpty());
+      Assert.assertFalse(graph.removeEdge(edge("e12", n1, n2)));
+   }
+
+   @Test
+   public void testInverseEdges() throws Exception
+   {
+      final IEdge e12 = edge("e12", n1, n2);
+      final IEdge e21_1 = edge("e21_1", n2, n1);
+      final IEdge e21_2 = edge("e21_2", n2, n1);
+      graph.addEdge(e12);
+      graph.addEdge(e21_1);
+      graph.addEdge(e21_2);
+
+      Assert.assertNull(graph.getInverseEdge(e12));
+      Assert.assertTrue(graph.getInverseEdges(e12).isEmpty());
+
+      graph.makeInverseEdges(e12, e21_2);
+      graph.makeInverseEdges(e12, e21_1);
+      graph.makeInverseEdges(e12, e21_1);
+      Assert.assertEquals(e21_2.getId(), graph.getInverseEdge(e12).getId());
+      Assert.assertEquals(e21_2.getId(), graph.getInverseEdge(e12.getId()).getId());
+      Assert.assertEquals(Arrays.asList(e21_2.getId(), e21_1.getId()), edgeIdList(graph.getInverseEdges(e12)));
+      Assert.assertEquals(e12.getId(), graph.getInverseEdge(e21_1).getId());
+      Assert.assertTrue(graph.areInverseEdges(e12, e21_2));
+
+      graph.destroyInverseEdges(e12, e21_2);
+      Assert.assertEquals(e21_1.getId(), graph.getInverseEdge(e12).getId());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testInverseEdgeOfUnknownEdge() throws Exception
+   {
+      graph.getInverseEdge(EdgeID.get("unknown"));
+   }
+
+   @Test
+   public void testPropertiesOfContainedElements() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.getEdge(EdgeID.get("e12")).setProperty(GenericGraphElementProperties.WEIGHT, 2.5);
+      graph.getNode(n1).setProperty(GenericGraphElementProperties.WEIGHT, 1.5);
+
+      Assert.assertEquals(2.5, graph.getEdge(n1, n2).getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+      Assert.assertEquals(1.5, graph.getNode(n1).getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+      Assert.assertEquals(2.5, graph.getOutgoingEdges(n1).iterator().next().getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+   }
+
+   @Test
+   public void testCloneIsIndependentView() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.addEdge(edge("e23", n2, n3));
+
+      final Graph clone = graph.clone();
+      Assert.assertEquals(graph.getNodeCount(), clone.getNodeCount());
+      Assert.assertEquals(graph.getEdgeIds(), clone.getEdgeIds());
+      Assert.assertEquals(graph, clone);
+
+      clone.removeNode(n3);
+      clone.addEdge(edge("e21", n2, n1));
+      Assert.assertEquals(4, graph.getNodeCount());
+      Assert.assertEquals(ids("e12", "e23"), graph.getEdgeIds());
+      Assert.assertEquals(ids("e12", "e21"), clone.getEdgeIds());
+   }
+
+   @Test
+   public void testLocalView() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.addEdge(edge("e23", n2, n3));
+      graph.addEdge(edge("e34", n3, n4));
+
+      final Graph localView = graph.getLocalView(n1, 2, true);
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n1, n2, n3)), toSet(localView.getNodeIds()));
+      Assert.assertEquals(ids("e12", "e23"), localView.getEdgeIds());
+      Assert.assertEquals(4, graph.getNodeCount());
+
+      Assert.assertSame(graph, graph.getLocalView(n4, 1));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n3, n4)), toSet(graph.getNodeIds()));
+      Assert.assertEquals(ids("e34"), graph.getEdgeIds());
+   }
+
+   @Test
+   public void testClear() throws Exception
+   {
+      graph.addEdge(edge("e12", n1, n2));
+      graph.clear();
+      Assert.assertEquals(0, graph.getNodeCount());
+      Assert.assertEquals(0, graph.getEdgeCount());
+      Assert.assertFalse(graph.containsNode(n1));
+
+      graph.addNode(Graphs.createNode(n1));
+      graph.addNode(Graphs.createNode(n2));
+      Assert.assertTrue(graph.addEdge(edge("e12", n1, n2)));
+      Assert.assertEquals(1, graph.getEdgeCount());
+   }
+
+   protected static IEdge edge(final String id, final INodeID from, final INodeID to)
+   {
+      return Graphs.createDirectedEdge(EdgeID.get(id), from, to);
+   }
+
+   protected static HashSet<EdgeID> ids(final String... ids)
+   {
+      final HashSet<EdgeID> result = new HashSet<>();
+      for (final String id : ids)
+         result.add(EdgeID.get(id));
+      return result;
+   }
+
+   protected static HashSet<EdgeID> edgeIds(final Collection<? extends IEdge> edges)
+   {
+      return new HashSet<>(edgeIdList(edges));
+   }
+
+   protected static List<EdgeID> edgeIdList(final Collection<? extends IEdge> edges)
+   {
+      final List<EdgeID> result = new ArrayList<>();
+      for (final IEdge edge : edges)
+         result.add(edge.getId());
+      return result;
+   }
+
+   protected static <T> HashSet<T> toSet(final Iterable<T> iterable)
+   {
+      final HashSet<T> result = new HashSet<>();
+      for (final T element : iterable)
+         result.add(element);
+      return result;
+   }
+}
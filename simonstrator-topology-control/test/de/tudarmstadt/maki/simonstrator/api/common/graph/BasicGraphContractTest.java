@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the {@link Graph} contract against {@link BasicGraph}
+ */
+public class BasicGraphContractTest extends AbstractGraphContractTest
+{
+
+   @Override
+   protected Graph createGraph()
+   {
+      return new BasicGraph();
+   }
+
+   @Test
+   public void testElementsAreShared() throws Exception
+   {
+      final IEdge e12 = edge("e12", INodeID.get("n1"), INodeID.get("n2"));
+      graph.addEdge(e12);
+      e12.setProperty(GenericGraphElementProperties.WEIGHT, 2.0);
+
+      Assert.assertSame(e12, graph.getEdge(e12.getId()));
+      Assert.assertSame(e12, graph.clone().getEdge(e12.getId()));
+   }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ * 
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.tudarmstadt.maki.simonstrator.api.common.datastructures.Pair;
+
+/**
+ * Micro-benchmark comparing the edge lookup by node pair of the
+ * {@link BasicGraph} with the former lookup (membership test on a set of
+ * {@link Pair}s followed by a scan of the outgoing edges of the source node).
+ * 
+ * Not a unit test, run the main method (e.g., with -Xmx4g). Optional
+ * arguments: node counts to measure (default: 1000 5000 20000).
+ */
+public class BasicGraphEdgeLookupBenchmark
+{
+
+   private static final int OUT_DEGREE = 20;
+
+   private static final int WARMUP_ROUNDS = 5;
+
+   private static final int MEASUREMENT_ROUNDS = 10;
+
+   public static void main(final String[] args)
+   {
+      final int[] nodeCounts;
+      if (args.length > 0)
+      {
+         nodeCounts = new int[args.length];
+         for (int i = 0; i < args.length; i++)
+            nodeCounts[i] = Integer.parseInt(args[i]);
+      } else
+      {
+         nodeCounts = new int[] { 1000, 5000, 20000 };
+      }
+
+      System.out.println("nodes\tedges\tpairIndex [ns/lookup]\tpairSetAndScan [ns/lookup]");
+      for (final int nodeCount : nodeCounts)
+      {
+         runBenchmark(nodeCount);
+      }
+   }
+
+   private static void runBenchmark(final int nodeCount)
+   {
+      final Random random = new Random(42);
+      final BasicGraph graph = new BasicGraph();
+      for (int i = 0; i < nodeCount; i++)
+         graph.createAndAddNode(INodeID.get(i));
+
+      // Legacy index, as maintained by the BasicGraph before
+      final Set<Pair<INodeID>> edgesAsNodeIdPairs = new HashSet<>();
+      for (int i = 0; i < nodeCount; i++)
+      {
+         for (int d = 0; d < OUT_DEGREE; d++)
+         {
+            final IEdge edge = graph.createAndAddEdge(INodeID.get(i), INodeID.get(random.nextInt(nodeCount)));
+            edgesAsNodeIdPairs.add(new Pair<>(edge.fromId(), edge.toId()));
+         }
+      }
+
+      // Query all edges and the same number of (mostly) missing node pairs
+      final List<INodeID> queries = new ArrayList<>();
+      for (final IEdge edge : graph.getEdges())
+      {
+         queries.add(edge.fromId());
+         queries.add(edge.toId());
+         queries.add(INodeID.get(random.nextInt(nodeCount)));
+         queries.add(INodeID.get(random.nextInt(nodeCount)));
+      }
+
+      long sink = 0;
+      for (int round = 0; round < WARMUP_ROUNDS; round++)
+      {
+         sink += lookUpViaIndex(graph, queries);
+         sink += lookUpViaPairSetAndScan(graph, edgesAsNodeIdPairs, queries);
+      }
+
+      long indexTime = 0;
+      long scanTime = 0;
+      for (int round = 0; round < MEASUREMENT_ROUNDS; round++)
+      {
+         long start = System.nanoTime();
+         sink += lookUpViaIndex(graph, queries);
+         indexTime += System.nanoTime() - start;
+
+         start = System.nanoTime();
+         sink += lookUpViaPairSetAndScan(graph, edgesAsNodeIdPairs, queries);
+         scanTime += System.nanoTime() - start;
+      }
+
+      final double lookups = (double) MEASUREMENT_ROUNDS * queries.size() / 2;
+      System.out.println(String.format("%d\t%d\t%.1f\t%.1f\t(%d)", nodeCount, graph.getEdgeCount(), indexTime / lookups,
+            scanTime / lookups, sink));
+   }
+
+   private static long lookUpViaIndex(final BasicGraph graph, final List<INodeID> queries)
+   {
+      long found = 0;
+      for (int i = 0; i < queries.size(); i += 2)
+      {
+         if (graph.getEdge(queries.get(i), queries.get(i + 1)) != null)
+            found++;
+      }
+      return found;
+   }
+
+   private static long lookUpViaPairSetAndScan(final BasicGraph graph, final Set<Pair<INodeID>> edgesAsNodeIdPairs,
+         final List<INodeID> queries)
+   {
+      long found = 0;
+      for (int i = 0; i < queries.size(); i += 2)
+      {
+         final INodeID from = queries.get(i);
+         final INodeID to = queries.get(i + 1);
+         if (!graph.containsNode(from) || !graph.containsNode(to))
+            continue;
+         if (!edgesAsNodeIdPairs.contains(new Pair<>(from, to)))
+            continue;
+         for (final IEdge outgoingEdge : graph.getOutgoingEdges(from))
+         {
+            if (outgoingEdge.toId().equals(to))
+            {
+               found++;
+               break;
+            }
+         }
+      }
+      return found;
+   }
+}
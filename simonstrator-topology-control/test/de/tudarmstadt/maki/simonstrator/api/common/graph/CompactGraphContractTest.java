@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.common.graph;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+
+/**
+ * Runs the {@link Graph} contract against {@link CompactGraph} and checks the
+ * documented differences to the {@link BasicGraph}
+ */
+public class CompactGraphContractTest extends AbstractGraphContractTest
+{
+
+   private static final INodeID n1 = INodeID.get("n1");
+
+   private static final INodeID n2 = INodeID.get("n2");
+
+   @Override
+   protected Graph createGraph()
+   {
+      return new CompactGraph();
+   }
+
+   @Test
+   public void testElementsAreCopied() throws Exception
+   {
+      final IEdge e12 = edge("e12", n1, n2);
+      e12.setProperty(GenericGraphElementProperties.WEIGHT, 1.0);
+      graph.addEdge(e12);
+      e12.setProperty(GenericGraphElementProperties.WEIGHT, 2.0);
+
+      final IEdge contained = graph.getEdge(e12.getId());
+      Assert.assertNotSame(e12, contained);
+      Assert.assertEquals(e12.getId(), contained.getId());
+      Assert.assertTrue(graph.containsEdge(e12));
+      Assert.assertEquals(1.0, contained.getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+
+      final Graph clone = graph.clone();
+      clone.getEdge(e12.getId()).setProperty(GenericGraphElementProperties.WEIGHT, 3.0);
+      Assert.assertEquals(1.0, contained.getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+   }
+
+   @Test
+   public void testRemovedElementKeepsProperties() throws Exception
+   {
+      final INode node = graph.getNode(n1);
+      node.setProperty(GenericGraphElementProperties.WEIGHT, 4.0);
+      graph.removeNode(n1);
+      graph.addNode(Graphs.createNode(n1));
+
+      Assert.assertEquals(4.0, node.getProperty(GenericGraphElementProperties.WEIGHT), 0.0);
+      Assert.assertNull(graph.getNode(n1).getProperty(GenericGraphElementProperties.WEIGHT));
+   }
+
+   @Test
+   public void testCloneKeepsInverseEdgeOrder() throws Exception
+   {
+      final IEdge e12 = edge("e12", n1, n2);
+      final IEdge e21_1 = edge("e21_1", n2, n1);
+      final IEdge e21_2 = edge("e21_2", n2, n1);
+      final IEdge e12_2 = edge("e12_2", n1, n2);
+      graph.addEdge(e12);
+      graph.addEdge(e21_1);
+      graph.addEdge(e21_2);
+      graph.addEdge(e12_2);
+      graph.makeInverseEdges(e12, e21_2);
+      graph.makeInverseEdges(e12, e21_1);
+      graph.makeInverseEdges(e12_2, e21_1);
+
+      final Graph clone = graph.clone();
+      for (final IEdge edge : Arrays.asList(e12, e21_1, e21_2, e12_2))
+         Assert.assertEquals(edgeIdList(graph.getInverseEdges(edge)), edgeIdList(clone.getInverseEdges(edge)));
+   }
+
+   @Test
+   public void testInverseEdgesAreSymmetric() throws Exception
+   {
+      final IEdge e12 = edge("e12", n1, n2);
+      final IEdge e21 = edge("e21", n2, n1);
+      graph.addEdge(e12);
+      graph.addEdge(e21);
+      graph.makeInverseEdges(e12, e21);
+      graph.destroyInverseEdges(e12, e21);
+
+      Assert.assertNull(graph.getInverseEdge(e21));
+
+      graph.makeInverseEdges(e12, e21);
+      graph.removeEdge(e21);
+      Assert.assertNull(graph.getInverseEdge(e12));
+      Assert.assertNull(graph.getInverseEdge(edge("unknown", n1, n2)));
+   }
+}
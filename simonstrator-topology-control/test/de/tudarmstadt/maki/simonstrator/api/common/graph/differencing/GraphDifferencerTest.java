@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.api.common.graph.differencing;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.common.Timestamp;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.BasicGraph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.DirectedEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.EdgeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.api.IGraphDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgePropertyDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.EdgeRemovalDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.GraphDifferencer;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeAdditionDelta;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.differencing.impl.NodeRemovalDelta;
+import de.tudarmstadt.maki.simonstrator.api.component.sis.type.SiSTypes;
+
+/**
+ * Unit tests for {@link GraphDifferencer}
+ */
+public class GraphDifferencerTest {
+
+	private GraphDifferencer differencer;
+
+	private INodeID n1;
+	private INodeID n2;
+	private INodeID n3;
+
+	@Before
+	public void setUp() {
+		this.differencer = new GraphDifferencer();
+		this.differencer.setTimestampProvider(() -> new Timestamp(42));
+		this.n1 = INodeID.get("n1");
+		this.n2 = INodeID.get("n2");
+		this.n3 = INodeID.get("n3");
+	}
+
+	@Test
+	public void testIdenticalGraphsHaveNoDeltas() throws Exception {
+		final Graph graph = createGraph();
+
+		Assert.assertTrue(this.differencer.calculateDelta(GraphDifferencer.createSnapshot(graph), graph)
+				.getContainedDeltas().isEmpty());
+	}
+
+	@Test
+	public void testDeltasFromEmptyGraph() throws Exception {
+		final Graph graph = createGraph();
+
+		final List<IGraphDelta> deltas = this.differencer.calculateDelta(new BasicGraph(), graph)
+				.getContainedDeltas();
+
+		Assert.assertEquals(5, deltas.size());
+		for (int i = 0; i < 3; ++i)
+			Assert.assertTrue(deltas.get(i) instanceof NodeAdditionDelta);
+		Assert.assertTrue(deltas.get(3) instanceof EdgeAdditionDelta);
+		Assert.assertTrue(deltas.get(4) instanceof EdgeAdditionDelta);
+		Assert.assertEquals(42, deltas.get(0).getTimestamp().getValue());
+	}
+
+	@Test
+	public void testStructuralAndPropertyChanges() throws Exception {
+		final Graph graph = createGraph();
+		final Graph snapshot = GraphDifferencer.createSnapshot(graph);
+
+		graph.removeNode(n3);
+		final IEdge e21 = new DirectedEdge(n2, n1, EdgeID.get("e21"));
+		graph.addEdge(e21);
+		graph.getEdge(EdgeID.get("e12")).setProperty(SiSTypes.PHY_DISTANCE, 20.0);
+
+		final List<IGraphDelta> deltas = this.differencer.calculateDelta(snapshot, graph).getContainedDeltas();
+
+		Assert.assertEquals(4, deltas.size());
+		Assert.assertTrue(deltas.get(0) instanceof EdgeRemovalDelta);
+		Assert.assertEquals(EdgeID.get("e23"), ((EdgeRemovalDelta) deltas.get(0)).getEdge().getId());
+		Assert.assertTrue(deltas.get(1) instanceof NodeRemovalDelta);
+		Assert.assertEquals(n3, ((NodeRemovalDelta) deltas.get(1)).getNode().getId());
+		Assert.assertTrue(deltas.get(2) instanceof EdgeAdditionDelta);
+		Assert.assertSame(e21, ((EdgeAdditionDelta) deltas.get(2)).getEdge());
+		Assert.assertTrue(deltas.get(3) instanceof EdgePropertyDelta);
+		final EdgePropertyDelta<?> propertyDelta = (EdgePropertyDelta<?>) deltas.get(3);
+		Assert.assertEquals(SiSTypes.PHY_DISTANCE, propertyDelta.getProperty());
+		Assert.assertEquals(10.0, propertyDelta.getOldValue());
+		Assert.assertSame(graph.getEdge(EdgeID.get("e12")), propertyDelta.getEdge());
+	}
+
+	private Graph createGraph() {
+		final Graph graph = new BasicGraph();
+		graph.createAndAddNode(n1);
+		graph.createAndAddNode(n2);
+		graph.createAndAddNode(n3);
+		final IEdge e12 = new DirectedEdge(n1, n2, EdgeID.get("e12"));
+		final IEdge e23 = new DirectedEdge(n2, n3, EdgeID.get("e23"));
+		graph.addEdge(e12);
+		graph.addEdge(e23);
+		e12.setProperty(SiSTypes.PHY_DISTANCE, 10.0);
+		e23.setProperty(SiSTypes.PHY_DISTANCE, 15.0);
+		return graph;
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ * 
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ * 
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.component;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Micro-benchmark comparing the typed lookup of the {@link ComponentRegistry}
+ * with the former lookup (linear scan with isInstance, throwing a
+ * {@link ComponentNotAvailableException} on a miss).
+ * 
+ * Not a unit test, run the main method. Optional argument: number of
+ * lookups per round (default: 1000000).
+ */
+public class ComponentRegistryBenchmark
+{
+
+   private static final int WARMUP_ROUNDS = 5;
+
+   private static final int MEASUREMENT_ROUNDS = 10;
+
+   private interface ComponentA extends HostComponent
+   {
+   }
+
+   private interface ComponentB extends HostComponent
+   {
+   }
+
+   private interface ComponentC extends HostComponent
+   {
+   }
+
+   private interface MissingComponent extends HostComponent
+   {
+   }
+
+   public static void main(final String[] args)
+   {
+      final int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+      final ComponentRegistry<HostComponent> registry = new ComponentRegistry<>();
+      final List<HostComponent> components = new ArrayList<>();
+      for (final Class<?> type : new Class<?>[] { ComponentA.class, ComponentB.class, ComponentC.class })
+      {
+         for (int i = 0; i < 4; i++)
+         {
+            final HostComponent component = createComponent(type);
+            registry.register(component);
+            components.add(component);
+         }
+      }
+
+      final List<Class<? extends HostComponent>> queries = new ArrayList<>();
+      queries.add(ComponentA.class);
+      queries.add(ComponentC.class);
+      queries.add(MissingComponent.class);
+
+      long sink = 0;
+      for (int round = 0; round < WARMUP_ROUNDS; round++)
+      {
+         sink += lookUpViaRegistry(registry, queries, lookups);
+         sink += lookUpViaScan(components, queries, lookups);
+      }
+
+      long registryTime = 0;
+      long scanTime = 0;
+      for (int round = 0; round < MEASUREMENT_ROUNDS; round++)
+      {
+         long start = System.nanoTime();
+         sink += lookUpViaRegistry(registry, queries, lookups);
+         registryTime += System.nanoTime() - start;
+
+         start = System.nanoTime();
+         sink += lookUpViaScan(components, queries, lookups);
+         scanTime += System.nanoTime() - start;
+      }
+
+      final double total = (double) MEASUREMENT_ROUNDS * lookups;
+      System.out.println("components\tregistry [ns/lookup]\tscanAndThrow [ns/lookup]");
+      System.out.println(String.format("%d\t%.1f\t%.1f\t(%d)", components.size(), registryTime / total,
+            scanTime / total, sink));
+   }
+
+   private static long lookUpViaRegistry(final ComponentRegistry<HostComponent> registry,
+         final List<Class<? extends HostComponent>> queries, final int lookups)
+   {
+      long found = 0;
+      for (int i = 0; i < lookups; i++)
+      {
+         if (registry.get(queries.get(i % queries.size())) != null)
+            found++;
+      }
+      return found;
+   }
+
+   private static long lookUpViaScan(final List<HostComponent> components,
+         final List<Class<? extends HostComponent>> queries, final int lookups)
+   {
+      long found = 0;
+      for (int i = 0; i < lookups; i++)
+      {
+         try
+         {
+            scan(components, queries.get(i % queries.size()));
+            found++;
+         } catch (final ComponentNotAvailableException e)
+         {
+            // miss
+         }
+      }
+      return found;
+   }
+
+   private static <T> T scan(final List<HostComponent> components, final Class<T> componentClass)
+         throws ComponentNotAvailableException
+   {
+      for (final HostComponent component : components)
+      {
+         if (componentClass.isInstance(component))
+            return componentClass.cast(component);
+      }
+      throw new ComponentNotAvailableException();
+   }
+
+   private static HostComponent createComponent(final Class<?> type)
+   {
+      return (HostComponent) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+            (proxy, method, methodArgs) -> {
+               if (method.getName().equals("equals"))
+                  return proxy == methodArgs[0];
+               if (method.getName().equals("hashCode"))
+                  return System.identityHashCode(proxy);
+               return null;
+            });
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package de.tudarmstadt.maki.simonstrator.api.component;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ComponentRegistry}, in particular for the invalidation
+ * of the per-type index
+ */
+public class ComponentRegistryTest
+{
+
+   private interface TypeA
+   {
+   }
+
+   private interface TypeB
+   {
+   }
+
+   private static class ComponentA implements TypeA
+   {
+   }
+
+   private static class ComponentB implements TypeB
+   {
+   }
+
+   private static class ComponentAB implements TypeA, TypeB
+   {
+   }
+
+   private ComponentRegistry<Object> registry;
+
+   @Before
+   public void setUp()
+   {
+      registry = new ComponentRegistry<>();
+   }
+
+   @Test
+   public void testLookupInRegistrationOrder() throws Exception
+   {
+      final ComponentA a = new ComponentA();
+      final ComponentAB ab = new ComponentAB();
+      final ComponentB b = new ComponentB();
+      Assert.assertTrue(registry.register(ab));
+      Assert.assertTrue(registry.register(a));
+      Assert.assertTrue(registry.register(b));
+      Assert.assertFalse(registry.register(a));
+
+      Assert.assertSame(ab, registry.get(TypeA.class));
+      Assert.assertEquals(Arrays.asList(ab, a), registry.getAll(TypeA.class));
+      Assert.assertEquals(Arrays.asList(ab, b), registry.getAll(TypeB.class));
+      Assert.assertSame(a, registry.get(ComponentA.class));
+      Assert.assertEquals(Arrays.asList(ab, a, b), registry.getComponents());
+   }
+
+   @Test
+   public void testMissIsInvalidatedOnRegister() throws Exception
+   {
+      Assert.assertNull(registry.get(TypeA.class));
+      Assert.assertEquals(Collections.emptyList(), registry.getAll(TypeA.class));
+
+      final ComponentA a = new ComponentA();
+      registry.register(a);
+      Assert.assertSame(a, registry.get(TypeA.class));
+      Assert.assertEquals(Collections.singletonList(a), registry.getAll(TypeA.class));
+   }
+
+   @Test
+   public void testHitIsInvalidatedOnRegister() throws Exception
+   {
+      final ComponentA a = new ComponentA();
+      registry.register(a);
+      Assert.assertEquals(Collections.singletonList(a), registry.getAll(TypeA.class));
+
+      final ComponentAB ab = new ComponentAB();
+      registry.register(ab);
+      Assert.assertEquals(Arrays.asList(a, ab), registry.getAll(TypeA.class));
+      Assert.assertSame(ab, registry.get(TypeB.class));
+   }
+
+   @Test
+   public void testIndexIsInvalidatedOnRemove() throws Exception
+   {
+      final ComponentA a = new ComponentA();
+      final ComponentAB ab = new ComponentAB();
+      registry.register(a);
+      registry.register(ab);
+      Assert.assertSame(a, registry.get(TypeA.class));
+      Assert.assertSame(ab, registry.get(TypeB.class));
+
+      Assert.assertTrue(registry.remove(a));
+      Assert.assertFalse(registry.remove(a));
+      Assert.assertFalse(registry.contains(a));
+      Assert.assertSame(ab, registry.get(TypeA.class));
+      Assert.assertEquals(Collections.singletonList(ab), registry.getAll(TypeA.class));
+
+      registry.remove(ab);
+      Assert.assertNull(registry.get(TypeA.class));
+      Assert.assertNull(registry.get(TypeB.class));
+      Assert.assertTrue(registry.getComponents().isEmpty());
+   }
+
+   @Test(expected = UnsupportedOperationException.class)
+   public void testResultIsUnmodifiable() throws Exception
+   {
+      registry.register(new ComponentA());
+      registry.getAll(TypeA.class).clear();
+   }
+}
@@ -205,6 +205,33 @@ public class GraphTest {
       
       GraphTestUtil.assertNodeAndEdgeCount(2, 2, graph);
    }
+
+   @Test
+   public void testEdgeLookupByNodeIdsWithMultigraph() throws Exception
+   {
+      final INodeID n1 = INodeID.get(1);
+      final INodeID n2 = INodeID.get(2);
+      final IEdge e12_1 = Graphs.createDirectedWeightedEdge(n1, n2, EdgeID.get("e12_1"), 1.0);
+      final IEdge e12_2 = Graphs.createDirectedWeightedEdge(n1, n2, EdgeID.get("e12_2"), 2.0);
+      final Graph graph = GraphUtil.createGraph(Arrays.asList(e12_1, e12_2));
+
+      Assert.assertEquals(e12_1, graph.getEdge(n1, n2));
+      Assert.assertEquals(Arrays.asList(e12_1, e12_2), graph.getEdges(n1, n2));
+      Assert.assertNull(graph.getEdge(n2, n1));
+      Assert.assertTrue(graph.getEdges(n2, n1).isEmpty());
+
+      graph.removeEdge(e12_1);
+
+      Assert.assertTrue(graph.containsEdge(n1, n2));
+      Assert.assertEquals(e12_2, graph.getEdge(n1, n2));
+      Assert.assertEquals(new HashSet<>(Arrays.asList(n2)), graph.getNeighbors(n1));
+
+      graph.removeEdge(e12_2);
+
+      Assert.assertFalse(graph.containsEdge(n1, n2));
+      Assert.assertNull(graph.getEdge(n1, n2));
+      Assert.assertTrue(graph.getNeighbors(n1).isEmpty());
+   }
    
    @Test
    public void testDirectedEdgeEquals() throws Exception
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2005-2010 KOM - Multimedia Communications Lab
+ *
+ * This file is part of Simonstrator.KOM.
+ *
+ * Simonstrator.KOM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * PeerfactSim.KOM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with PeerfactSim.KOM.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package de.tudarmstadt.maki.simonstrator.tc.graph;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.BasicGraph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.EdgeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.GenericGraphElementProperties;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.IEdge;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.tc.graph.algorithm.IncrementalAllPairsShortestPaths;
+
+/**
+ * Unit tests for {@link IncrementalAllPairsShortestPaths}
+ */
+public class IncrementalAllPairsShortestPathsTest {
+
+	private static final double DELTA = 1e-9;
+
+	private Graph graph;
+
+	private final INodeID n1 = INodeID.get(1);
+
+	private final INodeID n2 = INodeID.get(2);
+
+	private final INodeID n3 = INodeID.get(3);
+
+	private final INodeID n4 = INodeID.get(4);
+
+	@Before
+	public void setUp() {
+		// Chain 1 -> 2 -> 3 -> 4 and shortcut 1 -> 3
+		graph = new BasicGraph();
+		for (final INodeID node : new INodeID[] { n1, n2, n3, n4 })
+			graph.createAndAddNode(node);
+		addEdge(n1, n2, 1.0);
+		addEdge(n2, n3, 1.0);
+		addEdge(n3, n4, 1.0);
+		addEdge(n1, n3, 5.0);
+	}
+
+	@Test
+	public void testHopCounts() throws Exception {
+		final IncrementalAllPairsShortestPaths shortestPaths = new IncrementalAllPairsShortestPaths();
+		shortestPaths.update(graph);
+
+		Assert.assertEquals(4, shortestPaths.getRecomputedSourceCount());
+		Assert.assertEquals(0.0, distance(shortestPaths, n1, n1), DELTA);
+		Assert.assertEquals(1.0, distance(shortestPaths, n1, n3), DELTA);
+		Assert.assertEquals(2.0, distance(shortestPaths, n1, n4), DELTA);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, distance(shortestPaths, n4, n1), DELTA);
+	}
+
+	@Test
+	public void testWeightedDistances() throws Exception {
+		final IncrementalAllPairsShortestPaths shortestPaths = createWeighted();
+		shortestPaths.update(graph);
+
+		Assert.assertEquals(2.0, distance(shortestPaths, n1, n3), DELTA);
+		Assert.assertEquals(3.0, distance(shortestPaths, n1, n4), DELTA);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, distance(shortestPaths, n3, n2), DELTA);
+	}
+
+	@Test
+	public void testIncrementalUpdate() throws Exception {
+		final IncrementalAllPairsShortestPaths shortestPaths = createWeighted();
+		shortestPaths.update(graph);
+
+		// The shortcut is not on any shortest path
+		graph.removeEdge(graph.getEdge(n1, n3));
+		shortestPaths.update(graph);
+		Assert.assertEquals(0, shortestPaths.getRecomputedSourceCount());
+		Assert.assertEquals(2.0, distance(shortestPaths, n1, n3), DELTA);
+
+		// Only sources 1 and 2 use the edge 2 -> 3
+		graph.getEdge(n2, n3).setProperty(GenericGraphElementProperties.WEIGHT, 10.0);
+		shortestPaths.update(graph);
+		Assert.assertEquals(2, shortestPaths.getRecomputedSourceCount());
+		Assert.assertEquals(11.0, distance(shortestPaths, n1, n3), DELTA);
+		Assert.assertEquals(11.0, distance(shortestPaths, n2, n4), DELTA);
+
+		// A new edge only shortens the paths from the nodes that reach 4
+		addEdge(n4, n1, 1.0);
+		shortestPaths.update(graph);
+		Assert.assertEquals(3, shortestPaths.getRecomputedSourceCount());
+		Assert.assertEquals(2.0, distance(shortestPaths, n4, n2), DELTA);
+		Assert.assertEquals(1.0, distance(shortestPaths, n1, n2), DELTA);
+
+		// Changed node sets require a full recomputation
+		graph.removeNode(n4);
+		shortestPaths.update(graph);
+		Assert.assertEquals(3, shortestPaths.getRecomputedSourceCount());
+		Assert.assertEquals(-1, shortestPaths.getIndex(n4));
+	}
+
+	@Test
+	public void testParallelEdgesUseMinimumWeight() throws Exception {
+		final IEdge parallelEdge = Graphs.createDirectedWeightedEdge(n1, n3, EdgeID.get("parallel"), 1.5);
+		graph.addEdge(parallelEdge);
+
+		final IncrementalAllPairsShortestPaths shortestPaths = createWeighted();
+		shortestPaths.update(graph);
+		Assert.assertEquals(1.5, distance(shortestPaths, n1, n3), DELTA);
+	}
+
+	@Test
+	public void testComputeDistancesFromSources() throws Exception {
+		final IncrementalAllPairsShortestPaths shortestPaths = new IncrementalAllPairsShortestPaths();
+		shortestPaths.updateAdjacency(graph);
+
+		final int[] sources = new int[] { shortestPaths.getIndex(n2), shortestPaths.getIndex(n1) };
+		final double[][] distances = shortestPaths.computeDistancesFrom(sources);
+		Assert.assertEquals(2.0, distances[0][shortestPaths.getIndex(n4)], DELTA);
+		Assert.assertEquals(1.0, distances[1][shortestPaths.getIndex(n3)], DELTA);
+	}
+
+	private IncrementalAllPairsShortestPaths createWeighted() {
+		return new IncrementalAllPairsShortestPaths(
+				edge -> edge.getProperty(GenericGraphElementProperties.WEIGHT));
+	}
+
+	private void addEdge(final INodeID from, final INodeID to, final double weight) {
+		graph.addEdge(Graphs.createDirectedWeightedEdge(from, to, weight));
+	}
+
+	private static double distance(final IncrementalAllPairsShortestPaths shortestPaths, final INodeID from,
+			final INodeID to) {
+		return shortestPaths.getDistance(shortestPaths.getIndex(from), shortestPaths.getIndex(to));
+	}
+}
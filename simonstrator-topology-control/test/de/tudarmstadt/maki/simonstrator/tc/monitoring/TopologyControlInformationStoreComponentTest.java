@@ -0,0 +1,78 @@
+package de.tudarmstadt.maki.simonstrator.tc.monitoring;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.MetricUtils;
+import de.tudarmstadt.maki.simonstrator.tc.monitoring.metrics.TransmissionRangeMetric;
+
+/**
+ * Unit tests for {@link TopologyControlInformationStoreComponent} and {@link NumericMetricHistory}
+ */
+public class TopologyControlInformationStoreComponentTest {
+
+	private static final String METRIC_NAME = MetricUtils.getDefaultName(TransmissionRangeMetric.class);
+
+	@Test
+	public void testUnlimitedRetention() throws Exception {
+		final TopologyControlInformationStoreComponent store = new TopologyControlInformationStoreComponent(null);
+		fill(store, 100);
+
+		Assert.assertEquals(100, store.getRecordCount());
+		Assert.assertEquals(100, store.getMetricsByName(METRIC_NAME).size());
+		Assert.assertEquals(0.0, MetricUtils.getOverallDoubleMetric(store.getOldest(METRIC_NAME)), 0.0);
+		Assert.assertEquals(99.0, MetricUtils.getOverallDoubleMetric(store.getLatest(METRIC_NAME)), 0.0);
+	}
+
+	@Test
+	public void testMaximumRecordCount() throws Exception {
+		final TopologyControlInformationStoreComponent store = new TopologyControlInformationStoreComponent(null);
+		store.setMaximumRecordCount(10);
+		fill(store, 100);
+
+		Assert.assertEquals(10, store.getRecordCount());
+		Assert.assertEquals(10, store.getMetricsByName(METRIC_NAME).size());
+		Assert.assertEquals(90.0, MetricUtils.getOverallDoubleMetric(store.getOldest(METRIC_NAME)), 0.0);
+		Assert.assertEquals(99.0, MetricUtils.getOverallDoubleMetric(store.getLatest(METRIC_NAME)), 0.0);
+		Assert.assertNull(store.get(0, METRIC_NAME));
+	}
+
+	@Test
+	public void testRetentionWindow() throws Exception {
+		final TopologyControlInformationStoreComponent store = new TopologyControlInformationStoreComponent(null);
+		store.setRetentionWindow(5);
+		fill(store, 100);
+
+		// Timestamps 94..99
+		Assert.assertEquals(6, store.getRecordCount());
+		Assert.assertEquals(94.0, MetricUtils.getOverallDoubleMetric(store.getOldest(METRIC_NAME)), 0.0);
+	}
+
+	@Test
+	public void testNumericHistory() throws Exception {
+		final TopologyControlInformationStoreComponent store = new TopologyControlInformationStoreComponent(null);
+		store.setMaximumRecordCount(1);
+		store.setNumericHistoryCapacity(10);
+		store.setNumericHistoryBucketSize(4);
+		fill(store, 100);
+
+		final NumericMetricHistory history = store.getNumericHistoryByType(TransmissionRangeMetric.class);
+		Assert.assertEquals(10, history.size());
+		Assert.assertEquals(90, history.getTimestamp(0));
+		Assert.assertEquals(99.0, history.getLatestValue(), 0.0);
+
+		// Values 0..87 are downsampled, 88 and 89 are in the incomplete bucket
+		Assert.assertEquals(22, history.getBucketCount());
+		Assert.assertEquals(0, history.getBucketTimestamp(0));
+		Assert.assertEquals(1.5, history.getBucketMean(0), 0.0);
+		Assert.assertEquals(84.0, history.getBucketMinimum(21), 0.0);
+		Assert.assertEquals(87.0, history.getBucketMaximum(21), 0.0);
+	}
+
+	private static void fill(final TopologyControlInformationStoreComponent store, final int count) {
+		for (int i = 0; i < count; ++i) {
+			store.getOrCreateRecord(i);
+			store.put(new TransmissionRangeMetric(i));
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package de.tudarmstadt.maki.simonstrator.tc.patternMatching;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import de.tudarmstadt.maki.simonstrator.api.Graphs;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.BasicGraph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.EdgeID;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.Graph;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INode;
+import de.tudarmstadt.maki.simonstrator.api.common.graph.INodeID;
+import de.tudarmstadt.maki.simonstrator.api.component.topology.VariableAssignment;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.constraint.ArithmeticOperator;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.constraint.ComparisonOperator;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.matching.SearchPlanTopologyPatternMatcher;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.matching.TopologyPatternMatch;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.matching.TopologyPatternMatcher;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.matching.TopologyPatternMatcher_Impl;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.pattern.PatternBuilder;
+import de.tudarmstadt.maki.simonstrator.tc.patternMatching.pattern.TopologyPattern;
+
+/**
+ * Compares the matches of {@link SearchPlanTopologyPatternMatcher} to those of
+ * {@link TopologyPatternMatcher_Impl} on random graphs
+ */
+public class SearchPlanTopologyPatternMatcherTest {
+
+	private static final int NODE_COUNT = 15;
+
+	private static final int EDGE_COUNT = 60;
+
+	@Test
+	public void testTrianglePattern() throws Exception {
+		final TopologyPattern pattern = PatternBuilder.create().setLocalNode("self")//
+				.addDirectedEdge("self", "e_max", "n2")//
+				.addDirectedEdge("self", "e_med", "n3")//
+				.addDirectedEdge("n2", "e_min", "n3")//
+				.addLinkWeightConstraint("e_max", ComparisonOperator.GREATER_OR_EQUAL, "e_med")//
+				.addLinkWeightConstraint("e_med", ComparisonOperator.GREATER_OR_EQUAL, "e_min")//
+				.done();
+		compareMatchers(pattern, 1);
+	}
+
+	@Test
+	public void testPatternWithNAC() throws Exception {
+		final TopologyPattern nac = PatternBuilder.create()//
+				.addDirectedEdge("self", "e_max", "n2")//
+				.addDirectedEdge("self", "e_med", "n3")//
+				.addDirectedEdge("n2", "e_min", "n3")//
+				.addLinkWeightConstraint("e_max", ComparisonOperator.GREATER_OR_EQUAL, "e_med")//
+				.addLinkWeightConstraint("e_med", ComparisonOperator.GREATER_OR_EQUAL, "e_min")//
+				.addLinkWeightConstraint("e_max", ComparisonOperator.GREATER_OR_EQUAL, "e_min", ArithmeticOperator.MULTIPLY,
+						1.2)//
+				.doneWithoutLocalNode();
+		final TopologyPattern pattern = PatternBuilder.create().setLocalNode("self")//
+				.addDirectedEdge("self", "e_max", "n2")//
+				.addNAC(nac)//
+				.done();
+		compareMatchers(pattern, 2);
+	}
+
+	@Test
+	public void testPatternWithIncomingLinksAndParallelEdges() throws Exception {
+		final TopologyPattern pattern = PatternBuilder.create().setLocalNode("self")//
+				.addDirectedEdge("n2", "e1", "self")//
+				.addDirectedEdge("n3", "e2", "n2")//
+				.addDirectedEdge("self", "e3", "n4")//
+				.addLinkWeightConstraint("e1", ComparisonOperator.LESS, "e2")//
+				.done();
+		compareMatchers(pattern, 3);
+	}
+
+	@Test
+	public void testInputVariableAssignment() throws Exception {
+		final TopologyPattern pattern = PatternBuilder.create().setLocalNode("self")//
+				.addDirectedEdge("self", "e1", "n2")//
+				.addDirectedEdge("n2", "e2", "n3")//
+				.done();
+		final Graph graph = createRandomGraph(new Random(4));
+		final TopologyPatternMatcher expectedMatcher = new TopologyPatternMatcher_Impl(pattern);
+		final TopologyPatternMatcher actualMatcher = new SearchPlanTopologyPatternMatcher(pattern);
+		for (final INode node : graph.getNodes()) {
+			final VariableAssignment inputVariableAssignment = new VariableAssignment();
+			inputVariableAssignment.bindNodeVariable(INodeID.get("n3"), node);
+			for (final INode localNode : graph.getNodes()) {
+				Assert.assertEquals(
+						toSet(expectedMatcher.match(localNode.getId(), graph, inputVariableAssignment)),
+						toSet(actualMatcher.match(localNode.getId(), graph, inputVariableAssignment)));
+				Assert.assertEquals(expectedMatcher.hasMatch(localNode.getId(), graph, inputVariableAssignment),
+						actualMatcher.hasMatch(localNode.getId(), graph, inputVariableAssignment));
+			}
+		}
+	}
+
+	private static void compareMatchers(final TopologyPattern pattern, final long seed) {
+		final Random random = new Random(seed);
+		final TopologyPatternMatcher expectedMatcher = new TopologyPatternMatcher_Impl(pattern);
+		final TopologyPatternMatcher actualMatcher = new SearchPlanTopologyPatternMatcher(pattern);
+		int matchCount = 0;
+		for (int i = 0; i < 10; ++i) {
+			final Graph graph = createRandomGraph(random);
+			for (final INode node : graph.getNodes()) {
+				final Set<TopologyPatternMatch> expected = toSet(expectedMatcher.match(node.getId(), graph));
+				Assert.assertEquals(expected, toSet(actualMatcher.match(node.getId(), graph)));
+				Assert.assertEquals(expected.size(), actualMatcher.countMatches(node.getId(), graph));
+				Assert.assertEquals(!expected.isEmpty(), actualMatcher.hasMatch(node.getId(), graph));
+				matchCount += expected.size();
+			}
+		}
+		Assert.assertTrue("Pattern never matched", matchCount > 0);
+	}
+
+	private static Graph createRandomGraph(final Random random) {
+		final Graph graph = new BasicGraph();
+		final List<INodeID> nodes = new ArrayList<>();
+		for (int i = 0; i < NODE_COUNT; ++i) {
+			nodes.add(INodeID.get("n" + i));
+			graph.addNode(Graphs.createNode(nodes.get(i)));
+		}
+		for (int i = 0; i < EDGE_COUNT; ++i) {
+			final INodeID source = nodes.get(random.nextInt(NODE_COUNT));
+			final INodeID target = nodes.get(random.nextInt(NODE_COUNT));
+			if (!source.equals(target)) {
+				final double weight = 1.0 + random.nextInt(5);
+				graph.addEdge(Graphs.createDirectedWeightedEdge(source, target, EdgeID.get("e" + i), weight));
+			}
+		}
+		return graph;
+	}
+
+	private static Set<TopologyPatternMatch> toSet(final Iterable<TopologyPatternMatch> matches) {
+		final List<TopologyPatternMatch> matchList = Lists.newArrayList(matches);
+		final Set<TopologyPatternMatch> matchSet = new HashSet<>(matchList);
+		Assert.assertEquals("Duplicate matches", matchList.size(), matchSet.size());
+		return matchSet;
+	}
+}